@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 23/10/20 4:15 PM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common;
+
+import com.codekutter.zconfig.common.model.annotations.ConfigPath;
+import com.codekutter.zconfig.common.model.annotations.ConfigValue;
+import com.codekutter.zconfig.common.utils.ReflectionUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare setting/reading an annotated field through the binding plan
+ * (method handles, converter chosen once per field) with the reflective path
+ * (ReflectionUtils) used before the binding plan.
+ * <p>
+ * The benchmark is in the zconfig-common package to access the (package
+ * private) binding plan.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConfigBindingPlanBenchmark {
+    @ConfigPath(path = "benchmark/values")
+    public static class BoundType {
+        @ConfigValue(name = "longValue")
+        private long longValue;
+        @ConfigValue(name = "stringValue")
+        private String stringValue;
+
+        public long getLongValue() {
+            return longValue;
+        }
+
+        public void setLongValue(long longValue) {
+            this.longValue = longValue;
+        }
+
+        public String getStringValue() {
+            return stringValue;
+        }
+
+        public void setStringValue(String stringValue) {
+            this.stringValue = stringValue;
+        }
+    }
+
+    private BoundType target;
+    private Field longField;
+    private Field stringField;
+    private ConfigBindingPlan.FieldBinding longBinding;
+    private ConfigBindingPlan.FieldBinding stringBinding;
+
+    @Setup
+    public void setup() throws Exception {
+        target = new BoundType();
+        longField = BoundType.class.getDeclaredField("longValue");
+        stringField = BoundType.class.getDeclaredField("stringValue");
+        ConfigBindingPlan plan = ConfigBindingPlan.get(BoundType.class);
+        longBinding = plan.getField("longValue");
+        stringBinding = plan.getField("stringValue");
+        if (longBinding == null || stringBinding == null) {
+            throw new ConfigurationException("Field bindings not found.");
+        }
+    }
+
+    @Benchmark
+    public Object setLongReflection() throws Exception {
+        return ReflectionUtils.setValueFromString("1024", target, longField);
+    }
+
+    @Benchmark
+    public Object setLongBinding() throws Exception {
+        longBinding.setValueFromString("1024", target);
+        return target;
+    }
+
+    @Benchmark
+    public Object setStringReflection() throws Exception {
+        return ReflectionUtils.setValueFromString("value", target, stringField);
+    }
+
+    @Benchmark
+    public Object setStringBinding() throws Exception {
+        stringBinding.setValueFromString("value", target);
+        return target;
+    }
+
+    @Benchmark
+    public Object getLongReflection() throws Exception {
+        return ReflectionUtils.getFieldValue(target, longField);
+    }
+
+    @Benchmark
+    public Object getLongBinding() throws Exception {
+        return longBinding.getValue(target);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 24/10/20 10:20 AM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common;
+
+import com.codekutter.zconfig.common.model.ConfigValueHandle;
+import com.codekutter.zconfig.common.model.Configuration;
+import com.codekutter.zconfig.common.model.ConfigurationSettings;
+import com.codekutter.zconfig.common.model.Version;
+import com.codekutter.zconfig.common.model.nodes.ConfigValueNode;
+import com.codekutter.zconfig.common.parsers.JSONConfigParser;
+import com.codekutter.zconfig.common.readers.ConfigFileReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare reading a primitive value through a bound value handle
+ * (Configuration.bindInt()/bindLong()) with finding the value node and
+ * parsing the value on each read.
+ * <p>
+ * The handle reads are expected to be allocation free, run with the GC
+ * profiler to check the allocation rate per operation (gc.alloc.rate.norm):
+ * <pre>
+ * java -jar zconfig-benchmarks/target/benchmarks.jar ConfigValueHandleBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConfigValueHandleBenchmark {
+    private static final String CONFIG_RESOURCE = "/benchmark-config.json";
+    private static final String PARAM_PATH = "configuration/node_1/node_2/#PARAM_1";
+    private static final String LONG_PATH =
+            "configuration/node_1/node_2/values/longValue";
+
+    @Param({"false", "true"})
+    private boolean compact;
+
+    private Configuration configuration;
+    private ConfigValueHandle.IntHandle intHandle;
+    private ConfigValueHandle.LongHandle longHandle;
+
+    @Setup
+    public void setup() throws Exception {
+        File file = File.createTempFile("benchmark-config", ".json");
+        file.deleteOnExit();
+        try (InputStream input = getClass().getResourceAsStream(CONFIG_RESOURCE)) {
+            if (input == null) {
+                throw new ConfigurationException(
+                        "Benchmark configuration not found. [resource="
+                                + CONFIG_RESOURCE + "]");
+            }
+            Files.copy(input, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        JSONConfigParser parser =
+                (JSONConfigParser) ConfigProviderFactory.parser(
+                        ConfigProviderFactory.EConfigType.JSON);
+        try (ConfigFileReader reader = new ConfigFileReader(file)) {
+            ConfigurationSettings settings = new ConfigurationSettings();
+            settings.setCompactValues(compact);
+            parser.parse("benchmark-config", reader, settings,
+                         Version.parse("0.1"), null);
+        }
+        configuration = parser.getConfiguration();
+        intHandle = configuration.bindInt(PARAM_PATH, -1);
+        longHandle = configuration.bindLong(LONG_PATH, -1);
+        if (!intHandle.isDefined() || !longHandle.isDefined()) {
+            throw new ConfigurationException("Benchmark values not found.");
+        }
+    }
+
+    @Benchmark
+    public int getIntHandle() {
+        return intHandle.get();
+    }
+
+    @Benchmark
+    public int getIntFindParse() throws Exception {
+        ConfigValueNode node = (ConfigValueNode) configuration.find(PARAM_PATH);
+        return Integer.parseInt(node.getValue());
+    }
+
+    @Benchmark
+    public long getLongHandle() {
+        return longHandle.get();
+    }
+
+    @Benchmark
+    public long getLongFindParse() throws Exception {
+        ConfigValueNode node = (ConfigValueNode) configuration.find(LONG_PATH);
+        return Long.parseLong(node.getValue());
+    }
+}
@@ -28,21 +28,108 @@ import com.codekutter.zconfig.client.factory.ConfigurationManager;
 import com.codekutter.zconfig.common.ZConfigClientEnv;
 import com.codekutter.zconfig.common.model.nodes.*;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
 import com.codekutter.zconfig.common.ConfigurationException;
 import com.codekutter.zconfig.common.LogUtils;
+import com.codekutter.zconfig.common.ValueParseException;
 import com.codekutter.zconfig.transport.events.ConfigUpdateBatch;
 import com.codekutter.zconfig.transport.events.ConfigUpdateEvent;
+import com.codekutter.zconfig.transport.events.ConfigUpdateHeader;
+import com.codekutter.zconfig.transport.events.EUpdateEventType;
+import com.codekutter.zconfig.common.model.CompiledConfigPath;
 import com.codekutter.zconfig.common.model.Configuration;
+import com.codekutter.zconfig.common.model.ConfigurationSettings;
 import com.codekutter.zconfig.common.model.Version;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Class used to apply update events to configurations.
  */
 public class ConfigurationUpdateHandler {
+    /**
+     * Apply updates to a copy of the configuration and publish the updated
+     * copy once the complete batch has been applied. Readers of the published
+     * configuration handle are never blocked and never see a partially applied
+     * batch.
+     * <p>
+     * Published snapshots are frozen, once a snapshot has been published the
+     * updates to the configuration are always applied to a copy.
+     */
+    private boolean copyOnWrite = false;
+    /**
+     * Time window (in milliseconds) to wait for successive update batches of
+     * a configuration to be coalesced, before applying the updates.
+     * (0 = only coalesce batches already pending). The update pipeline reads
+     * the window each time a drain is scheduled.
+     */
+    private long coalesceWindow = 0;
+
+    /**
+     * Check if updates are applied in copy-on-write (snapshot) mode.
+     *
+     * @return - Is copy-on-write?
+     */
+    public boolean isCopyOnWrite() {
+        return copyOnWrite;
+    }
+
+    /**
+     * Set if updates should be applied in copy-on-write (snapshot) mode.
+     *
+     * @param copyOnWrite - Is copy-on-write?
+     */
+    public void setCopyOnWrite(boolean copyOnWrite) {
+        this.copyOnWrite = copyOnWrite;
+    }
+
+    /**
+     * Get the time window to wait for successive update batches to be
+     * coalesced.
+     *
+     * @return - Coalesce window (in milliseconds).
+     */
+    public long getCoalesceWindow() {
+        return coalesceWindow;
+    }
+
+    /**
+     * Set the time window to wait for successive update batches to be
+     * coalesced.
+     *
+     * @param coalesceWindow - Coalesce window (in milliseconds).
+     */
+    public void setCoalesceWindow(long coalesceWindow) {
+        Preconditions.checkArgument(coalesceWindow >= 0);
+        this.coalesceWindow = coalesceWindow;
+    }
+
+    /**
+     * Process and apply a sequence of update batches (in the order received).
+     * Consecutive batches of a configuration whose versions chain are merged
+     * into one net change set, which is applied (and the auto-wired types
+     * re-bound) once.
+     *
+     * @param batches - Update Batches.
+     * @throws ConfigurationException
+     */
+    public void processEvents(@Nonnull List<ConfigUpdateBatch> batches) throws
+                                                                       ConfigurationException {
+        Preconditions.checkArgument(batches != null);
+        for (ConfigUpdateBatch batch : coalesce(batches)) {
+            processBatch(batch);
+        }
+    }
+
     /**
      * Process and apply the batch of configuration update event.
      *
@@ -54,13 +141,26 @@ public class ConfigurationUpdateHandler {
         Preconditions.checkArgument(batch != null);
         Preconditions.checkArgument(!batch.getEvents().isEmpty());
 
+        processBatch(batch);
+    }
+
+    /**
+     * Apply the batch of configuration update event (a coalesced batch can
+     * have no net changes). Batches for configurations that are not loaded
+     * are skipped.
+     *
+     * @param batch - Update Batch.
+     * @throws ConfigurationException
+     */
+    private void processBatch(ConfigUpdateBatch batch) throws
+                                                        ConfigurationException {
         try {
             LogUtils.info(getClass(), String.format(
                     "Applying update to configuration [name=%s][transaction=%s]",
                     batch.getHeader().getConfigName(),
                     batch.getHeader().getTransactionId()));
             batch.validate();
-            String configName = null;
+            String configName = batch.getHeader().getConfigName();
             List<String> updatePaths = new ArrayList<>(batch.getEvents().size());
             for (ConfigUpdateEvent event : batch.getEvents()) {
                 if (configName.compareTo(event.getHeader().getConfigName()) != 0) {
@@ -68,11 +168,24 @@ public class ConfigurationUpdateHandler {
                             "Invalid Event batch : Multiple configurations specified. [configName=%s]",
                             configName));
                 }
-                processEvent(event);
-                updatePaths.add(event.getPath());
+                updatePaths.add(getUpdatePath(event));
             }
-            ZConfigClientEnv.clientEnv().getConfigurationManager()
-                            .applyConfigurationUpdates(configName, updatePaths);
+            ConfigurationManager manager =
+                    ZConfigClientEnv.clientEnv().getConfigurationManager();
+            Configuration current = manager.get(configName);
+            if (current == null) {
+                LogUtils.debug(getClass(),
+                               String.format(
+                                       "Configuration not loaded. [name=%s]",
+                                       configName));
+                return;
+            }
+            if (copyOnWrite || current.isFrozen()) {
+                processSnapshot(batch, manager);
+            } else {
+                processInPlace(batch, manager);
+            }
+            manager.applyConfigurationUpdates(configName, updatePaths);
         } catch (Exception e) {
             LogUtils.error(getClass(), String.format(
                     "Update failed to configuration [name=%s][transaction=%s] : %s",
@@ -83,63 +196,666 @@ public class ConfigurationUpdateHandler {
     }
 
     /**
-     * Process and apply the specified configuration update event.
+     * Merge consecutive batches whose versions chain (the updated version of
+     * a batch is the previous version of the next batch of the configuration)
+     * into batches of the net changes. Batches that don't chain or whose
+     * events cannot be merged (ex: Add after Update) are left as is.
+     *
+     * @param batches - Update Batches (in the order received).
+     * @return - Coalesced batches.
+     */
+    static List<ConfigUpdateBatch> coalesce(@Nonnull List<ConfigUpdateBatch> batches) {
+        List<ConfigUpdateBatch> coalesced = new ArrayList<>(batches.size());
+        int index = 0;
+        while (index < batches.size()) {
+            ConfigUpdateBatch first = batches.get(index++);
+            ConfigUpdateBatch last = first;
+            Map<String, List<ConfigUpdateEvent>> changes = new LinkedHashMap<>();
+            boolean merged = merge(changes, first);
+            while (merged && index < batches.size()) {
+                ConfigUpdateBatch next = batches.get(index);
+                if (!chains(last, next) || !merge(changes, next)) {
+                    break;
+                }
+                last = next;
+                index++;
+            }
+            if (last == first) {
+                coalesced.add(first);
+            } else {
+                coalesced.add(coalesced(first, last, changes.values()));
+            }
+        }
+        return coalesced;
+    }
+
+    /**
+     * Check if the next batch continues from the updated version of the
+     * last batch.
+     *
+     * @param last - Last (merged) batch.
+     * @param next - Next batch.
+     * @return - Versions chain?
+     */
+    private static boolean chains(ConfigUpdateBatch last, ConfigUpdateBatch next) {
+        ConfigUpdateHeader lh = last.getHeader();
+        ConfigUpdateHeader nh = next.getHeader();
+        if (lh == null || nh == null || next.getEvents() == null
+                || lh.getConfigName() == null
+                || !lh.getConfigName().equals(nh.getConfigName())) {
+            return false;
+        }
+        if (Strings.isNullOrEmpty(lh.getUpdatedVersion())
+                || Strings.isNullOrEmpty(nh.getPreVersion())) {
+            return false;
+        }
+        try {
+            return Version.parse(lh.getUpdatedVersion())
+                          .equals(Version.parse(nh.getPreVersion()));
+        } catch (ValueParseException e) {
+            // Invalid versions are reported when the batch is applied.
+            return false;
+        }
+    }
+
+    /**
+     * Change made to the net changes while merging a batch, recorded to roll
+     * back the batch if it cannot be merged.
+     */
+    private static final class MergeUndo {
+        /**
+         * Updated node path.
+         */
+        private final String path;
+        /**
+         * Events of the path (NULL if the path was added by the batch).
+         */
+        private final List<ConfigUpdateEvent> events;
+        /**
+         * Number of events of the path before the change.
+         */
+        private final int size;
+        /**
+         * Last event replaced by the change (NULL if an event was appended).
+         */
+        private final ConfigUpdateEvent replaced;
+
+        private MergeUndo(String path, List<ConfigUpdateEvent> events, int size,
+                          ConfigUpdateEvent replaced) {
+            this.path = path;
+            this.events = events;
+            this.size = size;
+            this.replaced = replaced;
+        }
+    }
+
+    /**
+     * Merge the events of the batch into the net changes (keyed by the
+     * updated node path, events of a path in the order to apply).
+     * <p>
+     * Add followed by Remove is kept as both events: the Add could fail (node
+     * already exists) and dropping the pair would hide the failure.
+     * <p>
+     * If the batch cannot be merged, the changes made for the batch are
+     * rolled back and the net changes are left as before the call.
+     *
+     * @param changes - Net changes (modified).
+     * @param batch   - Batch to merge.
+     * @return - Batch merged?
+     */
+    private static boolean merge(Map<String, List<ConfigUpdateEvent>> changes,
+                                 ConfigUpdateBatch batch) {
+        if (batch.getEvents() == null) {
+            return false;
+        }
+        List<MergeUndo> undo = new ArrayList<>(batch.getEvents().size());
+        for (ConfigUpdateEvent event : batch.getEvents()) {
+            if (event.getValue() == null || event.getEventType() == null) {
+                rollback(changes, undo);
+                return false;
+            }
+            String path = getUpdatePath(event);
+            List<ConfigUpdateEvent> events = changes.get(path);
+            if (events == null) {
+                events = new ArrayList<>(2);
+                events.add(event);
+                changes.put(path, events);
+                undo.add(new MergeUndo(path, null, 0, null));
+                continue;
+            }
+            ConfigUpdateEvent prev = events.get(events.size() - 1);
+            EUpdateEventType type = null;
+            switch (prev.getEventType()) {
+                case Add:
+                    if (event.getEventType() == EUpdateEventType.Update) {
+                        type = EUpdateEventType.Add;
+                    } else if (event.getEventType() == EUpdateEventType.Remove) {
+                        undo.add(new MergeUndo(path, events, events.size(), null));
+                        events.add(event);
+                        continue;
+                    }
+                    break;
+                case Update:
+                    if (event.getEventType() != EUpdateEventType.Add) {
+                        type = event.getEventType();
+                    }
+                    break;
+                case Remove:
+                    if (event.getEventType() == EUpdateEventType.Add) {
+                        type = EUpdateEventType.Update;
+                    }
+                    break;
+            }
+            if (type == null) {
+                rollback(changes, undo);
+                return false;
+            }
+            ConfigUpdateEvent change = copy(event, event.getHeader());
+            change.setEventType(type);
+            undo.add(new MergeUndo(path, events, events.size(), prev));
+            events.set(events.size() - 1, change);
+        }
+        return true;
+    }
+
+    /**
+     * Roll back the changes made while merging a batch (in reverse order).
+     *
+     * @param changes - Net changes (modified).
+     * @param undo    - Changes made for the batch.
+     */
+    private static void rollback(Map<String, List<ConfigUpdateEvent>> changes,
+                                 List<MergeUndo> undo) {
+        for (int ii = undo.size() - 1; ii >= 0; ii--) {
+            MergeUndo change = undo.get(ii);
+            if (change.events == null) {
+                changes.remove(change.path);
+            } else if (change.replaced != null) {
+                change.events.set(change.size - 1, change.replaced);
+            } else {
+                while (change.events.size() > change.size) {
+                    change.events.remove(change.events.size() - 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Create the batch for the net changes of the merged batches.
+     *
+     * @param first   - First merged batch.
+     * @param last    - Last merged batch.
+     * @param changes - Net changes.
+     * @return - Coalesced batch.
+     */
+    private static ConfigUpdateBatch coalesced(ConfigUpdateBatch first,
+                                               ConfigUpdateBatch last,
+                                               Collection<List<ConfigUpdateEvent>> changes) {
+        ConfigUpdateHeader header = new ConfigUpdateHeader();
+        header.setGroup(last.getHeader().getGroup());
+        header.setApplication(last.getHeader().getApplication());
+        header.setConfigName(last.getHeader().getConfigName());
+        header.setPreVersion(first.getHeader().getPreVersion());
+        header.setUpdatedVersion(last.getHeader().getUpdatedVersion());
+        header.setTransactionId(last.getHeader().getTransactionId());
+        header.setTimestamp(last.getHeader().getTimestamp());
+
+        List<ConfigUpdateEvent> events = new ArrayList<>(changes.size());
+        for (List<ConfigUpdateEvent> path : changes) {
+            for (ConfigUpdateEvent change : path) {
+                events.add(copy(change, header));
+            }
+        }
+        ConfigUpdateBatch batch = new ConfigUpdateBatch();
+        batch.setHeader(header);
+        batch.setEvents(events);
+        LogUtils.debug(ConfigurationUpdateHandler.class, String.format(
+                "Coalesced update batches. [name=%s][version=%s -> %s][events=%d]",
+                header.getConfigName(), header.getPreVersion(),
+                header.getUpdatedVersion(), events.size()));
+        return batch;
+    }
+
+    /**
+     * Copy the update event with the specified header.
+     *
+     * @param event  - Update Event.
+     * @param header - Event header.
+     * @return - Copied event.
+     */
+    private static ConfigUpdateEvent copy(ConfigUpdateEvent event,
+                                          ConfigUpdateHeader header) {
+        ConfigUpdateEvent copy = new ConfigUpdateEvent();
+        copy.setHeader(header);
+        copy.setEventType(event.getEventType());
+        copy.setPath(event.getPath());
+        copy.setTransactionSequence(event.getTransactionSequence());
+        copy.setTimestamp(event.getTimestamp());
+        copy.setValue(event.getValue());
+        return copy;
+    }
+
+    /**
+     * Get the path of the node updated by the event (the event path is the
+     * path of the parent node).
      *
      * @param event - Update Event.
+     * @return - Updated node path.
+     */
+    private static String getUpdatePath(ConfigUpdateEvent event) {
+        ConfigValueNode value = event.getValue();
+        if (value != null && !Strings.isNullOrEmpty(value.getName())) {
+            return String.format("%s%s%s", event.getPath(),
+                                 ConfigurationSettings.NODE_SEARCH_SEPERATOR,
+                                 value.getName());
+        }
+        return event.getPath();
+    }
+
+    /**
+     * Apply the batch to a copy of the loaded configuration and publish the
+     * updated copy. Only the nodes on the event paths are copied, the other
+     * sub-trees are shared with the replaced instance (frozen on publish).
+     *
+     * @param batch   - Update Batch.
+     * @param manager - Configuration Manager.
      * @throws ConfigurationException
+     * @throws ValueParseException - If the batch versions are invalid.
      */
-    private void processEvent(@Nonnull ConfigUpdateEvent event) throws
-                                                                ConfigurationException {
-        Preconditions.checkArgument(event != null);
+    void processSnapshot(@Nonnull ConfigUpdateBatch batch,
+                         @Nonnull ConfigurationManager manager)
+    throws ConfigurationException, ValueParseException {
+        String configName = batch.getHeader().getConfigName();
+        Version prev = Version.parse(batch.getHeader().getPreVersion());
+        Version curr = Version.parse(batch.getHeader().getUpdatedVersion());
+        Configuration config = manager.getWithLock(configName);
         try {
-            ConfigurationManager manager =
-                    ZConfigClientEnv.clientEnv().getConfigurationManager();
-            Configuration config = manager.getWithLock(event.getHeader().getConfigName());
-            if (config == null) {
-                LogUtils.debug(getClass(),
-                               String.format(
-                                       "Configuration not loaded. [name=%s]",
-                                       event.getHeader().getConfigName()));
-                return;
+            checkVersion(config, prev);
+            // The current instance is frozen when the snapshot is published,
+            // it's not changed if the batch fails.
+            Set<String> paths = new HashSet<>();
+            for (ConfigUpdateEvent event : batch.getEvents()) {
+                paths.add(event.getPath());
+            }
+            Configuration snapshot = config.copy(paths);
+            applyEvents(batch, snapshot);
+            snapshot.setVersion(curr);
+            snapshot.loaded();
+            manager.publish(snapshot);
+            LogUtils.info(getClass(), String.format(
+                    "Published configuration snapshot : [name=%s][version=%s]",
+                    configName, curr.toString()));
+        } finally {
+            if (!manager.releaseLock(configName)) {
+                LogUtils.warn(getClass(), String.format(
+                        "Configuration update lock release failed. [config=%s]",
+                        configName));
             }
+        }
+    }
+
+    /**
+     * Apply the batch to the loaded configuration. The configuration lock is
+     * held for the whole batch (not per event).
+     * <p>
+     * If an event fails, the events already applied are rolled back and the
+     * configuration is left at the previous version.
+     *
+     * @param batch   - Update Batch.
+     * @param manager - Configuration Manager.
+     * @throws ConfigurationException
+     * @throws ValueParseException - If the batch versions are invalid.
+     */
+    void processInPlace(@Nonnull ConfigUpdateBatch batch,
+                        @Nonnull ConfigurationManager manager)
+    throws ConfigurationException, ValueParseException {
+        String configName = batch.getHeader().getConfigName();
+        Version prev = Version.parse(batch.getHeader().getPreVersion());
+        Version curr = Version.parse(batch.getHeader().getUpdatedVersion());
+        Configuration config = manager.getWithLock(configName);
+        try {
+            checkVersion(config, prev);
+            List<ApplyUndo> undo = new ArrayList<>(batch.getEvents().size());
             try {
-                Version prev = Version.parse(event.getHeader().getPreVersion());
-                Version curr = Version.parse(event.getHeader().getUpdatedVersion());
-                if (!config.getVersion().equals(prev)) {
-                    throw new ConfigurationException(String.format(
-                            "Invalid Sync state: Event version out of sync. [expected=%s][actual=%s]",
-                            config.getVersion().toString(), prev.toString()));
+                applyEvents(batch, config, undo);
+            } catch (ConfigurationException | RuntimeException e) {
+                rollback(undo, config);
+                throw e;
+            }
+            config.setVersion(curr);
+            LogUtils.info(getClass(), String.format(
+                    "Updated configuration : [name=%s][version=%s][events=%d]",
+                    configName, curr.toString(), batch.getEvents().size()));
+        } finally {
+            if (!manager.releaseLock(configName)) {
+                LogUtils.warn(getClass(), String.format(
+                        "Configuration update lock release failed. [config=%s]",
+                        configName));
+            }
+        }
+    }
+
+    /**
+     * Check the configuration is at the version the batch was created
+     * against.
+     *
+     * @param config - Configuration instance.
+     * @param prev   - Batch previous version.
+     * @throws ConfigurationException
+     */
+    private void checkVersion(Configuration config, Version prev)
+    throws ConfigurationException {
+        if (!config.getVersion().equals(prev)) {
+            throw new ConfigurationException(String.format(
+                    "Invalid Sync state: Batch version out of sync. [expected=%s][actual=%s]",
+                    config.getVersion().toString(), prev.toString()));
+        }
+    }
+
+    /**
+     * Apply the batch events (in order) to the passed configuration instance.
+     * The event nodes are resolved up-front in one pass.
+     *
+     * @param batch  - Update Batch.
+     * @param config - Configuration instance.
+     * @throws ConfigurationException
+     */
+    private void applyEvents(ConfigUpdateBatch batch, Configuration config)
+    throws ConfigurationException {
+        applyEvents(batch, config, null);
+    }
+
+    /**
+     * Apply the batch events (in order) to the passed configuration instance,
+     * recording the changes to roll back the applied events.
+     *
+     * @param batch  - Update Batch.
+     * @param config - Configuration instance.
+     * @param undo   - Applied changes (appended to, NULL if not recorded).
+     * @throws ConfigurationException
+     */
+    private void applyEvents(ConfigUpdateBatch batch, Configuration config,
+                             List<ApplyUndo> undo)
+    throws ConfigurationException {
+        Map<String, AbstractConfigNode> nodes = resolveNodes(batch, config);
+        for (ConfigUpdateEvent event : batch.getEvents()) {
+            AbstractConfigNode node = nodes.get(event.getPath());
+            ApplyUndo change = (undo != null ? ApplyUndo.capture(event, node) : null);
+            applyEvent(event, node, config);
+            if (change != null) {
+                undo.add(change);
+            }
+        }
+    }
+
+    /**
+     * Change applied in place for an event, recorded to roll back the batch
+     * if a later event fails.
+     */
+    private static final class ApplyUndo {
+        /**
+         * Applied event.
+         */
+        private final ConfigUpdateEvent event;
+        /**
+         * Event node (parent of the updated value).
+         */
+        private final AbstractConfigNode node;
+        /**
+         * Value node before the event (NULL if not present).
+         */
+        private final ConfigValueNode prev;
+        /**
+         * Value before the event.
+         */
+        private final String value;
+        /**
+         * Value encrypted before the event?
+         */
+        private final boolean encrypted;
+        /**
+         * Position of the value in the list before the event (-1 if not a
+         * list element).
+         */
+        private final int position;
+
+        private ApplyUndo(ConfigUpdateEvent event, AbstractConfigNode node,
+                          ConfigValueNode prev, int position) {
+            this.event = event;
+            this.node = node;
+            this.prev = prev;
+            this.value = (prev != null ? prev.getValue() : null);
+            this.encrypted = (prev != null && prev.isEncrypted());
+            this.position = position;
+        }
+
+        /**
+         * Record the state of the value updated by the event, before the
+         * event is applied.
+         *
+         * @param event - Update Event.
+         * @param node  - Resolved event node (NULL if not found).
+         * @return - Recorded change (NULL if the event cannot be applied).
+         */
+        private static ApplyUndo capture(ConfigUpdateEvent event,
+                                         AbstractConfigNode node) {
+            if (node == null || event.getValue() == null
+                    || Strings.isNullOrEmpty(event.getValue().getName())) {
+                return null;
+            }
+            String name = event.getValue().getName();
+            ConfigValueNode prev = null;
+            int position = -1;
+            if (node instanceof ConfigPathNode) {
+                AbstractConfigNode cnode = ((ConfigPathNode) node).getChildNode(name);
+                if (cnode instanceof ConfigValueNode) {
+                    prev = (ConfigValueNode) cnode;
                 }
-                AbstractConfigNode node = config.find(event.getPath());
-                if (node == null) {
-                    throw new ConfigurationException(String.format(
-                            "Invalid Sync state: Specified node not found. [config=%s][path=%s]",
-                            event.getHeader().getConfigName(), event.getPath()));
+            } else if (node instanceof ConfigKeyValueNode) {
+                prev = ((ConfigKeyValueNode) node).getValue(name);
+            } else if (node instanceof ConfigListValueNode) {
+                ConfigListValueNode list = (ConfigListValueNode) node;
+                prev = list.getValue(name);
+                if (prev != null) {
+                    position = list.getValues().indexOf(prev);
                 }
-                switch (event.getEventType()) {
-                    case Add:
-                        processAddEvent(event, node, config);
-                        break;
-                    case Update:
-                        processUpdateEvent(event, node, config);
-                        break;
-                    case Remove:
-                        processDeleteEvent(event, node, config);
-                        break;
+            }
+            return new ApplyUndo(event, node, prev, position);
+        }
+
+        /**
+         * Get a value node with the value before the event (compact
+         * key/value and list entries are views, re-created from the recorded
+         * value).
+         *
+         * @param config - Configuration instance.
+         * @return - Value node.
+         */
+        private ConfigValueNode restored(Configuration config) {
+            if (node instanceof ConfigPathNode) {
+                return prev;
+            }
+            ConfigValueNode vn = new ConfigValueNode(config, node);
+            vn.setName(event.getValue().getName());
+            if (!Strings.isNullOrEmpty(value)) {
+                vn.setValue(value);
+            }
+            vn.setEncrypted(encrypted);
+            return vn;
+        }
+    }
+
+    /**
+     * Roll back the events applied in place (in reverse order).
+     *
+     * @param undo   - Applied changes.
+     * @param config - Configuration instance.
+     */
+    private void rollback(List<ApplyUndo> undo, Configuration config) {
+        for (int ii = undo.size() - 1; ii >= 0; ii--) {
+            ApplyUndo change = undo.get(ii);
+            String name = change.event.getValue().getName();
+            AbstractConfigNode node = change.node;
+            switch (change.event.getEventType()) {
+                case Add:
+                    if (node instanceof ConfigPathNode) {
+                        ((ConfigPathNode) node).removeChildNode(name);
+                    } else if (node instanceof ConfigKeyValueNode) {
+                        ((ConfigKeyValueNode) node).removeKeyValue(name);
+                    } else if (node instanceof ConfigListValueNode) {
+                        ConfigListValueNode list = (ConfigListValueNode) node;
+                        ConfigValueNode vn = list.getValue(name);
+                        if (vn != null) {
+                            list.removeValue(vn);
+                        }
+                    }
+                    break;
+                case Update:
+                    if (node instanceof ConfigKeyValueNode) {
+                        ((ConfigKeyValueNode) node).addKeyValue(change.restored(config));
+                    } else if (!Strings.isNullOrEmpty(change.value)) {
+                        AbstractConfigNode vn = (node instanceof ConfigPathNode ?
+                                ((ConfigPathNode) node).getChildNode(name) :
+                                ((ConfigListValueNode) node).getValue(name));
+                        if (vn instanceof ConfigValueNode) {
+                            ((ConfigValueNode) vn).setValue(change.value);
+                        }
+                    }
+                    break;
+                case Remove:
+                    if (node instanceof ConfigPathNode) {
+                        ((ConfigPathNode) node).addChildNode(change.restored(config));
+                    } else if (node instanceof ConfigKeyValueNode) {
+                        ((ConfigKeyValueNode) node).addKeyValue(change.restored(config));
+                    } else if (node instanceof ConfigListValueNode) {
+                        ConfigListValueNode list = (ConfigListValueNode) node;
+                        if (change.position >= 0) {
+                            list.addValue(change.position, change.restored(config));
+                        } else {
+                            list.addValue(change.restored(config));
+                        }
+                    }
+                    break;
+            }
+        }
+        LogUtils.warn(getClass(), String.format(
+                "Rolled back update events. [config=%s][events=%d]",
+                config.getName(), undo.size()));
+    }
+
+    /**
+     * Resolve the nodes for the (distinct) event paths of the batch. Paths
+     * are resolved in sorted order, so paths sharing a prefix are adjacent
+     * and the nodes resolved for the common prefix of the previous path are
+     * re-used instead of searching from the root.
+     * <p>
+     * Events only add/remove value nodes, so the parent nodes resolved
+     * before applying remain valid for the batch.
+     *
+     * @param batch  - Update Batch.
+     * @param config - Configuration instance.
+     * @return - Map of event path to node (NULL if not found).
+     * @throws ConfigurationException
+     */
+    static Map<String, AbstractConfigNode> resolveNodes(ConfigUpdateBatch batch,
+                                                        Configuration config)
+    throws ConfigurationException {
+        Map<String, AbstractConfigNode> nodes = new TreeMap<>();
+        for (ConfigUpdateEvent event : batch.getEvents()) {
+            nodes.put(event.getPath(), null);
+        }
+        AbstractConfigNode root = config.getRootConfigNode();
+        List<String> prevElements = Collections.emptyList();
+        List<AbstractConfigNode> trail = new ArrayList<>();
+        for (Map.Entry<String, AbstractConfigNode> entry : nodes.entrySet()) {
+            CompiledConfigPath path = config.compile(entry.getKey());
+            List<String> elements = path.getElements();
+            if (elements.isEmpty()
+                    || elements.get(0).compareTo(root.getName()) != 0) {
+                // Relative path, use the configuration search.
+                trail.clear();
+                prevElements = Collections.emptyList();
+                entry.setValue(config.find(path));
+                continue;
+            }
+
+            // Length of the resolved prefix shared with the previous path.
+            int shared = 1;
+            while (shared < elements.size() && shared < prevElements.size()
+                    && shared - 1 < trail.size()
+                    && elements.get(shared).compareTo(prevElements.get(shared)) == 0) {
+                shared++;
+            }
+            while (trail.size() > shared - 1) {
+                trail.remove(trail.size() - 1);
+            }
+            AbstractConfigNode node = (trail.isEmpty() ? root :
+                    trail.get(trail.size() - 1));
+            for (int ii = shared; ii < elements.size() && node != null; ii++) {
+                String name = elements.get(ii);
+                if (!(node instanceof ConfigPathNode)
+                        || ConfigurationSettings.isWildcard(name)
+                        || ConfigurationSettings.isRecursiveWildcard(name)
+                        || name.compareTo(ConfigurationSettings.NODE_PARENT_TERM) == 0) {
+                    node = null;
+                    break;
                 }
-                LogUtils.info(getClass(), String.format(
-                        "Updated configuration : [name=%s][version=%s]",
-                        event.getHeader().getConfigName(), curr.toString()));
-            } finally {
-                if (!manager.releaseLock(event.getHeader().getConfigName())) {
-                    LogUtils.warn(getClass(), String.format(
-                            "Configuration update lock release failed. [config=%s]",
-                            event.getHeader().getConfigName()));
+                node = ((ConfigPathNode) node).getChildNode(name);
+                if (node != null) {
+                    trail.add(node);
                 }
             }
-        } catch (Exception e) {
-            LogUtils.error(getClass(), e);
-            throw new ConfigurationException(e);
+            if (node == null) {
+                // Not a plain node path, use the configuration search.
+                trail.clear();
+                prevElements = Collections.emptyList();
+                entry.setValue(config.find(path));
+            } else {
+                prevElements = elements;
+                entry.setValue(node);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Apply the update event to the passed configuration instance.
+     *
+     * @param event  - Update Event.
+     * @param node   - Resolved event node (NULL if not found).
+     * @param config - Configuration instance.
+     * @throws ConfigurationException
+     */
+    private void applyEvent(ConfigUpdateEvent event, AbstractConfigNode node,
+                            Configuration config)
+    throws ConfigurationException {
+        if (node == null) {
+            throw new ConfigurationException(String.format(
+                    "Invalid Sync state: Specified node not found. [config=%s][path=%s]",
+                    event.getHeader().getConfigName(), event.getPath()));
+        }
+        ConfigValueNode value = event.getValue();
+        if (value != null) {
+            // Event values are de-serialized detached, re-set the name/value
+            // to share the pooled instances of the configuration.
+            value.setConfiguration(config);
+            if (!Strings.isNullOrEmpty(value.getName())) {
+                value.setName(value.getName());
+            }
+            if (!Strings.isNullOrEmpty(value.getValue())) {
+                value.setValue(value.getValue());
+            }
+        }
+        switch (event.getEventType()) {
+            case Add:
+                processAddEvent(event, node, config);
+                break;
+            case Update:
+                processUpdateEvent(event, node, config);
+                break;
+            case Remove:
+                processDeleteEvent(event, node, config);
+                break;
         }
     }
 
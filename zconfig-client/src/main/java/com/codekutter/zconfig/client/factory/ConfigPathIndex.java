@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 21/10/20 9:40 AM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.client.factory;
+
+import com.codekutter.zconfig.common.ConfigurationException;
+import com.codekutter.zconfig.common.model.ConfigurationSettings;
+import com.codekutter.zconfig.common.utils.ConfigUtils;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trie index of configuration node paths to the values (bound fields)
+ * registered for the path.
+ * <p>
+ * Paths are tokenized the same way as search paths (parameter/attribute tags
+ * are resolved to the node names, paths are relative to the root node), so
+ * search paths and update paths in any of the supported forms map to the same
+ * trie node.
+ *
+ * @param <V> - Indexed value type.
+ */
+class ConfigPathIndex<V> {
+    /**
+     * Trie node.
+     *
+     * @param <V> - Indexed value type.
+     */
+    private static final class Node<V> {
+        private final Map<String, Node<V>> children = new ConcurrentHashMap<>();
+        private final Set<V> values = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Configuration settings used to tokenize the paths.
+     */
+    private final ConfigurationSettings settings;
+    /**
+     * Name of the configuration root node.
+     */
+    private final String rootName;
+    /**
+     * Root trie node.
+     */
+    private final Node<V> root = new Node<>();
+
+    /**
+     * Create an index for paths of a configuration with the specified settings.
+     *
+     * @param settings - Configuration Settings.
+     * @param rootName - Name of the configuration root node.
+     */
+    ConfigPathIndex(@Nonnull ConfigurationSettings settings,
+                    @Nonnull String rootName) {
+        Preconditions.checkArgument(settings != null);
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(rootName));
+        this.settings = settings;
+        this.rootName = rootName;
+    }
+
+    /**
+     * Register the value for the specified node path.
+     *
+     * @param path  - Node path.
+     * @param value - Value to register.
+     * @throws ConfigurationException
+     */
+    void add(@Nonnull String path, @Nonnull V value)
+    throws ConfigurationException {
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(path));
+        Preconditions.checkArgument(value != null);
+
+        Node<V> node = root;
+        for (String element : tokenize(path)) {
+            node = node.children.computeIfAbsent(element, (k) -> new Node<>());
+        }
+        node.values.add(value);
+    }
+
+    /**
+     * Collect the values impacted by an update to the specified path. These
+     * are the values registered for the path, it's parent paths (the update
+     * is to a part of the bound node) and it's sub-paths (the bound node is
+     * part of the updated node).
+     *
+     * @param path   - Updated node path.
+     * @param values - Collection to add the impacted values to.
+     * @throws ConfigurationException
+     */
+    void find(@Nonnull String path, @Nonnull Collection<V> values)
+    throws ConfigurationException {
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(path));
+        Preconditions.checkArgument(values != null);
+
+        Node<V> node = root;
+        for (String element : tokenize(path)) {
+            values.addAll(node.values);
+            node = node.children.get(element);
+            if (node == null) {
+                return;
+            }
+        }
+        collect(node, values);
+    }
+
+    /**
+     * Add the values of the node and all it's descendants.
+     *
+     * @param node   - Trie node.
+     * @param values - Collection to add the values to.
+     */
+    private void collect(Node<V> node, Collection<V> values) {
+        values.addAll(node.values);
+        for (Node<V> child : node.children.values()) {
+            collect(child, values);
+        }
+    }
+
+    /**
+     * Tokenize the path into the node name elements.
+     *
+     * @param path - Node path.
+     * @return - Path elements.
+     * @throws ConfigurationException
+     */
+    private List<String> tokenize(String path) throws ConfigurationException {
+        List<String> elements = ConfigUtils.getResolvedPath(path, settings, null);
+        if (!elements.isEmpty() && elements.get(0).compareTo(rootName) == 0) {
+            return elements.subList(1, elements.size());
+        }
+        return elements;
+    }
+}
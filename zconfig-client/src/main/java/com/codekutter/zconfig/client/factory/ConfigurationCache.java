@@ -0,0 +1,605 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 17/10/20 5:40 PM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.client.factory;
+
+import com.codekutter.zconfig.common.ConfigProviderFactory;
+import com.codekutter.zconfig.common.ConfigurationException;
+import com.codekutter.zconfig.common.LogUtils;
+import com.codekutter.zconfig.common.SnapshotConfigConstants;
+import com.codekutter.zconfig.common.StringPool;
+import com.codekutter.zconfig.common.model.Configuration;
+import com.codekutter.zconfig.common.model.ConfigurationSettings;
+import com.codekutter.zconfig.common.model.Version;
+import com.codekutter.zconfig.common.parsers.AbstractConfigParser;
+import com.codekutter.zconfig.common.parsers.SnapshotConfigParser;
+import com.codekutter.zconfig.common.readers.AbstractConfigReader;
+import com.codekutter.zconfig.common.readers.ConfigFileReader;
+import com.codekutter.zconfig.common.readers.EReaderType;
+import com.codekutter.zconfig.common.writers.SnapshotFileConfigWriter;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import javax.annotation.Nonnull;
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Local on-disk cache of loaded configurations.
+ * <p>
+ * Parsed configurations are stored as binary snapshots under the configuration
+ * temp folder, keyed by the source URI, configuration type and version. Each
+ * snapshot is stored along with the validators of the source it was parsed
+ * from (HTTP ETag/Last-Modified, file modified time/size and a content hash),
+ * which are used to revalidate the cached copy without re-parsing the source.
+ * If the source is unreachable, the cached copy (if any) is returned.
+ * <p>
+ * System property/environment values substituted into the configuration are
+ * revalidated using a hash stored with the snapshot (the values are not
+ * stored). Configurations that include other configurations are not cached,
+ * only the top-level source is revalidated.
+ * <p>
+ * Note: Configurations parsed in the Lazy parse mode are not cached, writing
+ * the snapshot would parse the deferred branches. Existing snapshots are
+ * still used.
+ */
+public class ConfigurationCache {
+    private static final String CACHE_DIRECTORY = "cache";
+    private static final String META_EXTENSION = "meta";
+
+    private static final String META_URI = "uri";
+    private static final String META_ETAG = "etag";
+    private static final String META_LAST_MODIFIED = "lastModified";
+    private static final String META_MODIFIED = "modified";
+    private static final String META_LENGTH = "length";
+    private static final String META_CHECKSUM = "checksum";
+    private static final String META_ENVIRONMENT = "environment";
+    private static final String META_ENVIRONMENT_HASH = "environmentHash";
+
+    private static final int CONNECT_TIMEOUT = 5000;
+    private static final int READ_TIMEOUT = 30000;
+
+    /**
+     * Configuration settings.
+     */
+    private final ConfigurationSettings settings;
+    /**
+     * String pool for the loaded configurations (optional).
+     */
+    private final StringPool stringPool;
+
+    /**
+     * Create a cache instance using the temp folder from the passed settings.
+     *
+     * @param settings - Configuration Settings.
+     */
+    public ConfigurationCache(@Nonnull ConfigurationSettings settings) {
+        this(settings, null);
+    }
+
+    /**
+     * Create a cache instance using the temp folder from the passed settings.
+     *
+     * @param settings   - Configuration Settings.
+     * @param stringPool - String pool for the loaded configurations (can be NULL).
+     */
+    public ConfigurationCache(@Nonnull ConfigurationSettings settings,
+                              StringPool stringPool) {
+        Preconditions.checkArgument(settings != null);
+        this.settings = settings;
+        this.stringPool = stringPool;
+    }
+
+    /**
+     * Check if configurations read from the specified URI can be cached
+     * (local files and HTTP/HTTPS sources).
+     *
+     * @param uri - Configuration source URI.
+     * @return - Is supported?
+     */
+    public static boolean isSupported(@Nonnull URI uri) {
+        Preconditions.checkArgument(uri != null);
+        EReaderType type = EReaderType.parseFromUri(uri);
+        return (type == EReaderType.File || type == EReaderType.HTTP
+                || type == EReaderType.HTTPS);
+    }
+
+    /**
+     * Load the configuration from the specified URI, using the cached copy
+     * if the source hasn't changed (or can't be reached).
+     * <p>
+     * Note: Only supported sources (see isSupported()) can be loaded.
+     *
+     * @param configName - Configuration name.
+     * @param uri        - Configuration source URI.
+     * @param configType - Configuration Parser type.
+     * @param version    - Configuration version.
+     * @param password   - Password (for encrypted configurations).
+     * @return - Loaded Configuration instance.
+     * @throws ConfigurationException
+     */
+    public Configuration load(@Nonnull String configName, @Nonnull URI uri,
+                              @Nonnull ConfigProviderFactory.EConfigType configType,
+                              @Nonnull Version version, String password)
+    throws ConfigurationException {
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(configName));
+        Preconditions.checkArgument(uri != null);
+        Preconditions.checkArgument(configType != null);
+        Preconditions.checkArgument(version != null);
+
+        EReaderType type = EReaderType.parseFromUri(uri);
+        if (type == null) {
+            throw new ConfigurationException(
+                    String.format("Error getting reader for URI: [uri=%s]",
+                                  uri.toString()));
+        }
+        try {
+            String key = cacheKey(configName, uri, configType, version);
+            String dir = settings.getConfigTempFolder(CACHE_DIRECTORY);
+            File snapshot = new File(String.format("%s/%s.%s", dir, key,
+                                                   SnapshotConfigConstants.FILE_EXTENSION));
+            File metaf = new File(String.format("%s/%s.%s", dir, key,
+                                                META_EXTENSION));
+            Properties meta = readMeta(snapshot, metaf);
+
+            if (type == EReaderType.File) {
+                return loadFile(configName, uri, configType, version, password,
+                                snapshot, metaf, meta);
+            } else if (type == EReaderType.HTTP || type == EReaderType.HTTPS) {
+                return loadRemote(configName, uri, configType, version,
+                                  password, snapshot, metaf, meta);
+            }
+            throw new ConfigurationException(
+                    String.format("Reader type not supported for caching: [type=%s]",
+                                  type.name()));
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    /**
+     * Load a configuration from a local file, revalidating the cache using the
+     * file modified time and size, falling back to the content checksum.
+     */
+    private Configuration loadFile(String configName, URI uri,
+                                   ConfigProviderFactory.EConfigType configType,
+                                   Version version, String password,
+                                   File snapshot, File metaf, Properties meta)
+    throws ConfigurationException, IOException {
+        File source = Paths.get(uri).toFile();
+        if (!source.exists()) {
+            if (meta != null) {
+                LogUtils.warn(getClass(), String.format(
+                        "Source not found, using cached copy : [uri=%s]",
+                        uri.toString()));
+                return readSnapshot(configName, snapshot, version, password);
+            }
+            throw new ConfigurationException(
+                    String.format("Configuration file not found : [path=%s]",
+                                  source.getAbsolutePath()));
+        }
+        String modified = String.valueOf(source.lastModified());
+        String length = String.valueOf(source.length());
+        if (meta != null) {
+            if (modified.equals(meta.getProperty(META_MODIFIED))
+                    && length.equals(meta.getProperty(META_LENGTH))) {
+                Configuration configuration =
+                        readCached(configName, snapshot, meta, version, password);
+                if (configuration != null) {
+                    return configuration;
+                }
+            } else {
+                String checksum = checksum(source);
+                if (checksum.equals(meta.getProperty(META_CHECKSUM))) {
+                    Configuration configuration =
+                            readCached(configName, snapshot, meta, version, password);
+                    if (configuration != null) {
+                        meta.setProperty(META_MODIFIED, modified);
+                        meta.setProperty(META_LENGTH, length);
+                        writeMeta(metaf, meta);
+                        return configuration;
+                    }
+                }
+            }
+        }
+        meta = new Properties();
+        meta.setProperty(META_URI, uri.toString());
+        meta.setProperty(META_MODIFIED, modified);
+        meta.setProperty(META_LENGTH, length);
+        meta.setProperty(META_CHECKSUM, checksum(source));
+
+        return parse(configName, source, configType, version, password,
+                     snapshot, metaf, meta);
+    }
+
+    /**
+     * Load a configuration from a remote (HTTP/HTTPS) location, revalidating
+     * the cache using a conditional request.
+     */
+    private Configuration loadRemote(String configName, URI uri,
+                                     ConfigProviderFactory.EConfigType configType,
+                                     Version version, String password,
+                                     File snapshot, File metaf,
+                                     Properties meta)
+    throws ConfigurationException, IOException {
+        File download = null;
+        try {
+            HttpURLConnection connection;
+            int status;
+            try {
+                connection = connect(uri, meta);
+                status = connection.getResponseCode();
+            } catch (IOException e) {
+                return fallback(configName, uri, snapshot, version, password, e);
+            }
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && meta != null) {
+                connection.disconnect();
+                Configuration configuration =
+                        readCached(configName, snapshot, meta, version, password);
+                if (configuration != null) {
+                    return configuration;
+                }
+                // Cached copy is unusable, fetch the source unconditionally.
+                meta = null;
+                connection = connect(uri, null);
+                status = connection.getResponseCode();
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                connection.disconnect();
+                return fallback(configName, uri, snapshot, version, password,
+                                new IOException(String.format(
+                                        "Invalid response status : [status=%d]",
+                                        status)));
+            }
+            download = File.createTempFile(snapshot.getName(), ".download",
+                                           snapshot.getParentFile());
+            try (InputStream input = connection.getInputStream()) {
+                Files.copy(input, download.toPath(),
+                           StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                connection.disconnect();
+            }
+            String checksum = checksum(download);
+            Properties updated = new Properties();
+            updated.setProperty(META_URI, uri.toString());
+            updated.setProperty(META_CHECKSUM, checksum);
+            String etag = connection.getHeaderField("ETag");
+            if (!Strings.isNullOrEmpty(etag)) {
+                updated.setProperty(META_ETAG, etag);
+            }
+            String lastModified = connection.getHeaderField("Last-Modified");
+            if (!Strings.isNullOrEmpty(lastModified)) {
+                updated.setProperty(META_LAST_MODIFIED, lastModified);
+            }
+            if (meta != null && checksum.equals(meta.getProperty(META_CHECKSUM))) {
+                Configuration configuration =
+                        readCached(configName, snapshot, meta, version, password);
+                if (configuration != null) {
+                    copyEnvironment(meta, updated);
+                    writeMeta(metaf, updated);
+                    return configuration;
+                }
+            }
+            return parse(configName, download, configType, version, password,
+                         snapshot, metaf, updated);
+        } finally {
+            if (download != null && download.exists()) {
+                if (!download.delete()) {
+                    LogUtils.warn(getClass(), String.format(
+                            "Error deleting temp file : [path=%s]",
+                            download.getAbsolutePath()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Open a (conditional) connection to the remote source.
+     */
+    private HttpURLConnection connect(URI uri, Properties meta)
+    throws IOException {
+        URLConnection connection = uri.toURL().openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
+        if (meta != null) {
+            String etag = meta.getProperty(META_ETAG);
+            if (!Strings.isNullOrEmpty(etag)) {
+                connection.setRequestProperty("If-None-Match", etag);
+            }
+            String lastModified = meta.getProperty(META_LAST_MODIFIED);
+            if (!Strings.isNullOrEmpty(lastModified)) {
+                connection.setRequestProperty("If-Modified-Since", lastModified);
+            }
+        }
+        return (HttpURLConnection) connection;
+    }
+
+    /**
+     * Source is unreachable, return the cached copy if present.
+     */
+    private Configuration fallback(String configName, URI uri, File snapshot,
+                                   Version version, String password,
+                                   IOException error)
+    throws ConfigurationException {
+        if (!snapshot.exists()) {
+            throw new ConfigurationException(
+                    String.format("Error reading configuration : [uri=%s]",
+                                  uri.toString()), error);
+        }
+        LogUtils.warn(getClass(), String.format(
+                "Source unreachable, using cached copy : [uri=%s][error=%s]",
+                uri.toString(), error.getLocalizedMessage()));
+        return readSnapshot(configName, snapshot, version, password);
+    }
+
+    /**
+     * Read the cached snapshot, returning null if it can't be read or the
+     * substituted system property/environment values have changed.
+     */
+    private Configuration readCached(String configName, File snapshot,
+                                     Properties meta, Version version,
+                                     String password) {
+        if (!isEnvironmentValid(meta)) {
+            LogUtils.debug(getClass(), String.format(
+                    "Environment changed, reloading : [path=%s]",
+                    snapshot.getAbsolutePath()));
+            return null;
+        }
+        try {
+            return readSnapshot(configName, snapshot, version, password);
+        } catch (ConfigurationException e) {
+            LogUtils.warn(getClass(), String.format(
+                    "Invalid cached snapshot, reloading : [path=%s][error=%s]",
+                    snapshot.getAbsolutePath(), e.getLocalizedMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Read the configuration from the cached snapshot.
+     */
+    private Configuration readSnapshot(String configName, File snapshot,
+                                       Version version, String password)
+    throws ConfigurationException {
+        try (ConfigFileReader reader = new ConfigFileReader(snapshot)) {
+            try (SnapshotConfigParser parser = new SnapshotConfigParser()) {
+                parser.setStringPool(stringPool);
+                parser.parse(configName, reader, settings, version, password);
+                return parser.getConfiguration();
+            }
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    /**
+     * Parse the configuration from the (local copy of the) source and cache
+     * the parsed configuration along with the passed validators.
+     */
+    private Configuration parse(String configName, File source,
+                                ConfigProviderFactory.EConfigType configType,
+                                Version version, String password,
+                                File snapshot, File metaf, Properties meta)
+    throws ConfigurationException {
+        LogUtils.debug(getClass(), String.format(
+                "Parsing configuration : [name=%s][path=%s][type=%s]",
+                configName, source.getAbsolutePath(), configType.name()));
+        try (AbstractConfigReader reader = new ConfigFileReader(source)) {
+            try (AbstractConfigParser parser =
+                         ConfigProviderFactory.parser(configType)) {
+                if (parser == null) {
+                    throw new ConfigurationException(
+                            String.format(
+                                    "Error getting parser for type: [type=%s]",
+                                    configType.name()));
+                }
+                parser.setStringPool(stringPool);
+                parser.parse(configName, reader, settings, version, password);
+                Configuration configuration = parser.getConfiguration();
+                if (parser.hasIncludes()) {
+                    // Included sources are not revalidated.
+                    LogUtils.debug(getClass(), String.format(
+                            "Configuration has includes, not cached : [name=%s]",
+                            configName));
+                } else if (settings.getParseMode()
+                        == ConfigurationSettings.EParseMode.Lazy) {
+                    // Writing the snapshot would load the deferred branches.
+                    LogUtils.debug(getClass(), String.format(
+                            "Lazy parse mode, not cached : [name=%s]",
+                            configName));
+                } else {
+                    setEnvironment(meta, parser.getEnvironmentReferences());
+                    store(configuration, snapshot, metaf, meta);
+                }
+                return configuration;
+            }
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    /**
+     * Add the names and the hash of the substituted system property/
+     * environment values to the validators.
+     */
+    private static void setEnvironment(Properties meta,
+                                       Map<String, String> references) {
+        if (references.isEmpty()) {
+            return;
+        }
+        Map<String, String> sorted = new TreeMap<>(references);
+        meta.setProperty(META_ENVIRONMENT, String.join(",", sorted.keySet()));
+        meta.setProperty(META_ENVIRONMENT_HASH, environmentHash(sorted));
+    }
+
+    /**
+     * Copy the system property/environment validators of the cached snapshot.
+     */
+    private static void copyEnvironment(Properties meta, Properties updated) {
+        String names = meta.getProperty(META_ENVIRONMENT);
+        if (!Strings.isNullOrEmpty(names)) {
+            updated.setProperty(META_ENVIRONMENT, names);
+            updated.setProperty(META_ENVIRONMENT_HASH,
+                                meta.getProperty(META_ENVIRONMENT_HASH));
+        }
+    }
+
+    /**
+     * Check the current system property/environment values match the values
+     * substituted into the cached snapshot.
+     */
+    private static boolean isEnvironmentValid(Properties meta) {
+        String names = meta.getProperty(META_ENVIRONMENT);
+        if (Strings.isNullOrEmpty(names)) {
+            return true;
+        }
+        Map<String, String> current = new TreeMap<>();
+        for (String name : names.split(",")) {
+            String value = AbstractConfigParser.getEnvironmentValue(name);
+            current.put(name, (value != null ? value :
+                    AbstractConfigParser.NULL_REFERENCE));
+        }
+        return environmentHash(current)
+                .equals(meta.getProperty(META_ENVIRONMENT_HASH));
+    }
+
+    private static String environmentHash(Map<String, String> values) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            hasher.putString(entry.getKey(), StandardCharsets.UTF_8)
+                  .putChar('=')
+                  .putString(entry.getValue(), StandardCharsets.UTF_8)
+                  .putChar('\n');
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Write the snapshot and the source validators. Files are written to temp
+     * files and moved, so concurrent readers never see a partial snapshot.
+     */
+    private void store(Configuration configuration, File snapshot, File metaf,
+                       Properties meta) {
+        File tmp = null;
+        try {
+            tmp = File.createTempFile(snapshot.getName(), ".tmp",
+                                      snapshot.getParentFile());
+            try (OutputStream output = new BufferedOutputStream(
+                    new FileOutputStream(tmp))) {
+                new SnapshotFileConfigWriter().write(configuration, output);
+            }
+            move(tmp, snapshot);
+            writeMeta(metaf, meta);
+        } catch (Exception e) {
+            // Failing to cache shouldn't fail the load.
+            LogUtils.warn(getClass(), String.format(
+                    "Error caching configuration : [name=%s][error=%s]",
+                    configuration.getName(), e.getLocalizedMessage()));
+            if (tmp != null && tmp.exists()) {
+                tmp.delete();
+            }
+        }
+    }
+
+    /**
+     * Read the validators for the cached snapshot, returns null if no valid
+     * snapshot is cached.
+     */
+    private Properties readMeta(File snapshot, File metaf) {
+        if (!snapshot.exists() || !metaf.exists()) {
+            return null;
+        }
+        try (InputStream input = new FileInputStream(metaf)) {
+            Properties meta = new Properties();
+            meta.load(input);
+            if (Strings.isNullOrEmpty(meta.getProperty(META_CHECKSUM))) {
+                return null;
+            }
+            return meta;
+        } catch (IOException e) {
+            LogUtils.warn(getClass(), String.format(
+                    "Error reading cache meta-data : [path=%s][error=%s]",
+                    metaf.getAbsolutePath(), e.getLocalizedMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Write the validators for the cached snapshot.
+     */
+    private void writeMeta(File metaf, Properties meta) throws IOException {
+        File tmp = File.createTempFile(metaf.getName(), ".tmp",
+                                       metaf.getParentFile());
+        try (OutputStream output = new FileOutputStream(tmp)) {
+            meta.store(output, null);
+        }
+        move(tmp, metaf);
+    }
+
+    private static void move(File source, File target) throws IOException {
+        Path sp = source.toPath();
+        Path tp = target.toPath();
+        try {
+            Files.move(sp, tp, StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(sp, tp, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String checksum(File file) throws IOException {
+        return com.google.common.io.Files.asByteSource(file)
+                                          .hash(Hashing.sha256()).toString();
+    }
+
+    /**
+     * Get the cache key for the specified configuration source.
+     *
+     * @param configName - Configuration name.
+     * @param uri        - Configuration source URI.
+     * @param configType - Configuration Parser type.
+     * @param version    - Configuration version.
+     * @return - Cache key.
+     */
+    public static String cacheKey(@Nonnull String configName, @Nonnull URI uri,
+                                  @Nonnull ConfigProviderFactory.EConfigType configType,
+                                  @Nonnull Version version) {
+        String key = String.format("%s|%s|%s|%s", configName, uri.toString(),
+                                   configType.name(), version.toString());
+        return Hashing.sha256().hashString(key, StandardCharsets.UTF_8)
+                      .toString();
+    }
+}
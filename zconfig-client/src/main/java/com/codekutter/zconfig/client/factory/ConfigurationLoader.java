@@ -29,6 +29,7 @@ import com.google.common.base.Strings;
 import com.codekutter.zconfig.common.ConfigProviderFactory;
 import com.codekutter.zconfig.common.ConfigurationException;
 import com.codekutter.zconfig.common.LogUtils;
+import com.codekutter.zconfig.common.StringPool;
 import com.codekutter.zconfig.common.model.Configuration;
 import com.codekutter.zconfig.common.model.ConfigurationSettings;
 import com.codekutter.zconfig.common.model.Version;
@@ -36,7 +37,10 @@ import com.codekutter.zconfig.common.parsers.AbstractConfigParser;
 import com.codekutter.zconfig.common.readers.AbstractConfigReader;
 import com.codekutter.zconfig.common.readers.ConfigFileReader;
 
+import org.apache.commons.io.FilenameUtils;
+
 import javax.annotation.Nonnull;
+import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -45,6 +49,28 @@ import java.net.URISyntaxException;
  * Class to load configurations.
  */
 public class ConfigurationLoader {
+    /**
+     * String pool used to de-duplicate the node names/values of the loaded
+     * configurations (optional).
+     */
+    private final StringPool stringPool;
+
+    /**
+     * Default constructor, loaded configurations are not pooled.
+     */
+    public ConfigurationLoader() {
+        this(null);
+    }
+
+    /**
+     * Constructor with the string pool to use for the loaded configurations.
+     *
+     * @param stringPool - String pool (can be NULL).
+     */
+    public ConfigurationLoader(StringPool stringPool) {
+        this.stringPool = stringPool;
+    }
+
     /**
      * Load configuration from the specified URI.
      *
@@ -73,6 +99,15 @@ public class ConfigurationLoader {
                                    "Reading configuration: [type=%s][uri=%s][version=%s]",
                                    configType.name(), uri.toString(),
                                    version.toString()));
+            if (settings != null && settings.isCacheConfigurations()) {
+                if (ConfigurationCache.isSupported(uri)) {
+                    return new ConfigurationCache(settings, stringPool)
+                            .load(configName, uri, configType, version, password);
+                }
+                LogUtils.debug(getClass(), String.format(
+                        "Source type not supported for caching, loading directly : [uri=%s]",
+                        uri.toString()));
+            }
             try (AbstractConfigReader reader = ConfigProviderFactory.reader(uri)) {
                 if (reader == null) {
                     throw new ConfigurationException(
@@ -88,6 +123,7 @@ public class ConfigurationLoader {
                                         "Error getting parser for type: [type=%s]",
                                         configType.name()));
                     }
+                    parser.setStringPool(stringPool);
                     parser.parse(configName, reader, settings, version, password);
                     return parser.getConfiguration();
                 }
@@ -139,6 +175,16 @@ public class ConfigurationLoader {
                                "Reading configuration: [name=%s][filename=%s][version=%s]",
                                configName, filename,
                                version.toString()));
+        if (settings != null && settings.isCacheConfigurations()) {
+            ConfigProviderFactory.EConfigType configType =
+                    ConfigProviderFactory.EConfigType.parse(
+                            FilenameUtils.getExtension(filename));
+            if (configType != null) {
+                return new ConfigurationCache(settings, stringPool)
+                        .load(configName, new File(filename).toURI(),
+                              configType, version, password);
+            }
+        }
         try {
             try (ConfigFileReader reader = new ConfigFileReader(filename)) {
                 try (
@@ -150,6 +196,7 @@ public class ConfigurationLoader {
                                         "Error getting parser for file: [filename=%s]",
                                         filename));
                     }
+                    parser.setStringPool(stringPool);
                     parser.parse(configName, reader, settings, version, password);
                     return parser.getConfiguration();
                 }
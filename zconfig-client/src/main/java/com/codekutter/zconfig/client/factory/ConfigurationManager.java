@@ -24,27 +24,39 @@
 
 package com.codekutter.zconfig.client.factory;
 
-import com.codekutter.zconfig.common.model.nodes.AbstractConfigNode;
-import com.codekutter.zconfig.common.model.nodes.ConfigPathNode;
-import com.google.common.base.Preconditions;
-import com.google.common.base.Strings;
-import com.google.common.collect.*;
+import com.codekutter.zconfig.common.ConfigBinders;
 import com.codekutter.zconfig.common.ConfigProviderFactory;
 import com.codekutter.zconfig.common.ConfigurationAnnotationProcessor;
 import com.codekutter.zconfig.common.ConfigurationException;
+import com.codekutter.zconfig.common.LogUtils;
+import com.codekutter.zconfig.common.StringPool;
+import com.codekutter.zconfig.common.StringUsageReport;
 import com.codekutter.zconfig.common.model.Configuration;
 import com.codekutter.zconfig.common.model.ConfigurationSettings;
 import com.codekutter.zconfig.common.model.ESyncMode;
 import com.codekutter.zconfig.common.model.Version;
+import com.codekutter.zconfig.common.model.nodes.AbstractConfigNode;
+import com.codekutter.zconfig.common.model.nodes.ConfigPathNode;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.util.concurrent.Striped;
 
 import javax.annotation.Nonnull;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Class loads and manages configuration instances and annotated class instances.
  */
 public class ConfigurationManager {
+    /**
+     * Number of lock stripes used for load/autowire synchronization.
+     */
+    private static final int LOCK_STRIPES = 64;
+
     /**
      * Local Struct to store the autowired instances
      * loaded by this Configuration Manager.
@@ -66,6 +78,15 @@ public class ConfigurationManager {
          * Loaded instance handle.
          */
         public Object instance;
+        /**
+         * Lock used to apply updates to the instance.
+         */
+        public final ReentrantLock lock = new ReentrantLock();
+        /**
+         * Registered field change listeners (by field name).
+         */
+        public final Map<String, List<IFieldChangeListener>> listeners =
+                new ConcurrentHashMap<>();
 
         @Override
         public String toString() {
@@ -77,41 +98,74 @@ public class ConfigurationManager {
         }
     }
 
+    /**
+     * Local Struct to index a bound field of an autowired instance.
+     */
+    private static class AutowiredField {
+        /**
+         * Autowired instance the field belongs to.
+         */
+        public AutowiredIndexStruct struct;
+        /**
+         * Bound field name.
+         */
+        public String field;
+    }
+
+    /**
+     * Pool of de-duplicated node names/values, shared by all the configurations
+     * (and versions) loaded by this manager.
+     */
+    private final StringPool stringPool = new StringPool();
     /**
      * Instance of the configuration loader.
      */
-    private ConfigurationLoader loader = new ConfigurationLoader();
+    private ConfigurationLoader loader = new ConfigurationLoader(stringPool);
     /**
      * Map of Loaded configurations. Only one version of a specific configuration
      * can be loaded per client instance.
+     * <p>
+     * Updated snapshots are published by replacing the map entry, readers
+     * always get the last published configuration handle.
      */
-    private Map<String, Configuration> loadedConfigs = new HashMap<>();
+    private Map<String, Configuration> loadedConfigs = new ConcurrentHashMap<>();
     /**
      * Map of auto-wired object instances. This is to update these instances
      * upon configuration updates.
      */
-    private Map<String, Object> autowiredInstances = new HashMap<>();
+    private Map<String, Object> autowiredInstances = new ConcurrentHashMap<>();
     /**
-     * Lock to be used for synchronizing configuration loads.
+     * Striped locks used for synchronizing configuration loads, striped by
+     * configuration name.
      */
-    private ReentrantLock configCacheLock = new ReentrantLock();
+    private Striped<Lock> configCacheLocks = Striped.lock(LOCK_STRIPES);
     /**
-     * Lock to be used to update/add auto-wired instances.
+     * Striped locks used to update/add auto-wired instances, striped by
+     * the instance key.
      */
-    private ReentrantLock autowireCacheLock = new ReentrantLock();
+    private Striped<Lock> autowireCacheLocks = Striped.lock(LOCK_STRIPES);
     /**
-     * Lock to be used to synchronize specific configuration updates.
+     * Lock to be used to synchronize specific configuration updates (and the
+     * publish of updated snapshots).
      */
-    private Map<String, ReentrantLock> configInstanceLocks = new HashMap<>();
+    private Map<String, ReentrantLock> configInstanceLocks = new ConcurrentHashMap<>();
     /**
-     * Index map for reading auto-wired instances impacted by a specific update.
+     * Path index (by configuration name) for reading the auto-wired instance
+     * fields impacted by a specific update.
      */
-    private Multimap<String, AutowiredIndexStruct> autowiredIndex = HashMultimap.create();
+    private Map<String, ConfigPathIndex<AutowiredField>> autowiredIndex =
+            new ConcurrentHashMap<>();
+    /**
+     * Auto-wired instances (of configurations with updates) mapped to the index
+     * struct, by instance identity.
+     */
+    private Map<Object, AutowiredIndexStruct> autowiredStructs =
+            Collections.synchronizedMap(new IdentityHashMap<>());
     /**
      * Registered application Groups for which configurations has been loaded.
      */
-    private Multimap<String, Configuration> applicationGroups =
-            HashMultimap.create();
+    private Map<String, Set<Configuration>> applicationGroups =
+            new ConcurrentHashMap<>();
 
     /**
      * Add an externally loaded configuration.
@@ -121,11 +175,12 @@ public class ConfigurationManager {
      */
     public void add(@Nonnull Configuration configuration) throws ConfigurationException {
         Preconditions.checkArgument(configuration != null);
-        configCacheLock.lock();
+        Lock lock = configCacheLocks.get(configuration.getName());
+        lock.lock();
         try {
             postConfigurationLoad(configuration);
         } finally {
-            configCacheLock.unlock();
+            lock.unlock();
         }
     }
 
@@ -150,7 +205,8 @@ public class ConfigurationManager {
             throws ConfigurationException {
         Configuration configuration = loadedConfigs.get(configName);
         if (configuration == null) {
-            configCacheLock.lock();
+            Lock lock = configCacheLocks.get(configName);
+            lock.lock();
             try {
                 configuration = loadedConfigs.get(configName);
                 if (configuration == null) {
@@ -166,7 +222,7 @@ public class ConfigurationManager {
                     }
                 }
             } finally {
-                configCacheLock.unlock();
+                lock.unlock();
             }
         }
         return configuration;
@@ -210,7 +266,8 @@ public class ConfigurationManager {
             throws ConfigurationException {
         Configuration configuration = loadedConfigs.get(configName);
         if (configuration == null) {
-            configCacheLock.lock();
+            Lock lock = configCacheLocks.get(configName);
+            lock.lock();
             try {
                 configuration = loadedConfigs.get(configName);
                 if (configuration == null) {
@@ -226,7 +283,7 @@ public class ConfigurationManager {
                     }
                 }
             } finally {
-                configCacheLock.unlock();
+                lock.unlock();
             }
         }
         return configuration;
@@ -239,13 +296,73 @@ public class ConfigurationManager {
      */
     private void postConfigurationLoad(Configuration configuration) {
         if (configuration != null) {
+            configInstanceLocks.computeIfAbsent(configuration.getName(),
+                    (k) -> new ReentrantLock());
+            addApplicationGroup(configuration);
+            loadedConfigs.put(configuration.getName(), configuration);
+        }
+    }
+
+    /**
+     * Publish an updated snapshot of a loaded configuration. The snapshot
+     * replaces the current configuration handle and is frozen (published
+     * snapshots cannot be changed, updates are applied to a copy), the
+     * replaced instance is frozen as well. Value handles bound to the
+     * replaced instance are re-bound on next read.
+     * <p>
+     * Publish is synchronized using the configuration update lock (see
+     * getWithLock()), so the snapshot being replaced is the one the update
+     * was applied to.
+     *
+     * @param configuration - Updated configuration snapshot.
+     * @throws ConfigurationException
+     */
+    public void publish(@Nonnull Configuration configuration)
+            throws ConfigurationException {
+        Preconditions.checkArgument(configuration != null);
+        ReentrantLock lock = configInstanceLocks.get(configuration.getName());
+        if (lock == null) {
+            throw new ConfigurationException(String.format(
+                    "Specified configuration not loaded. [name=%s]",
+                    configuration.getName()));
+        }
+        lock.lock();
+        try {
+            Configuration current = loadedConfigs.get(configuration.getName());
+            if (current == null) {
+                throw new ConfigurationException(String.format(
+                        "Specified configuration not loaded. [name=%s]",
+                        configuration.getName()));
+            }
+            configuration.freeze();
+            // Sub-trees of the replaced instance can be shared with the
+            // snapshot.
+            current.freeze();
             loadedConfigs.put(configuration.getName(), configuration);
-            configInstanceLocks.put(configuration.getName(), new ReentrantLock());
-            applicationGroups.put(configuration.getApplicationGroup(),
-                    configuration);
+            // Nodes shared with the snapshot and the value handles bound to
+            // the replaced instance follow the snapshot.
+            current.replacedBy(configuration);
+            Set<Configuration> group =
+                    applicationGroups.get(current.getApplicationGroup());
+            if (group != null) {
+                group.remove(current);
+            }
+            addApplicationGroup(configuration);
+        } finally {
+            lock.unlock();
         }
     }
 
+    /**
+     * Register the configuration with it's application group.
+     *
+     * @param configuration - Configuration instance.
+     */
+    private void addApplicationGroup(Configuration configuration) {
+        applicationGroups.computeIfAbsent(configuration.getApplicationGroup(),
+                (k) -> ConcurrentHashMap.newKeySet()).add(configuration);
+    }
+
     /**
      * Load configuration from the specified filename.
      *
@@ -263,6 +380,25 @@ public class ConfigurationManager {
         return load(configName, filename, version, null, password);
     }
 
+    /**
+     * Get the string pool shared by the configurations loaded by this manager.
+     *
+     * @return - String pool.
+     */
+    public StringPool getStringPool() {
+        return stringPool;
+    }
+
+    /**
+     * Get the report of the heap used by the node names/values of the loaded
+     * configurations.
+     *
+     * @return - String usage report.
+     */
+    public StringUsageReport getStringUsage() {
+        return StringUsageReport.build(loadedConfigs.values());
+    }
+
     /**
      * Get a cached configuration handle.
      *
@@ -270,27 +406,28 @@ public class ConfigurationManager {
      * @return - Cached handle or NULL if not in cache.
      */
     public Configuration get(@Nonnull String configName) {
-        if (loadedConfigs.containsKey(configName)) {
-            return loadedConfigs.get(configName);
-        }
-        return null;
+        return loadedConfigs.get(configName);
     }
 
     /**
-     * Get a configuration handle and lock it for updates.
+     * Get a configuration handle and lock it for updates. The handle is read
+     * after the lock is acquired, so it is the last published configuration
+     * (snapshots are published under the same lock).
      *
      * @param configName - Configuration name.
      * @return - Configuration handle.
      */
     public Configuration getWithLock(@Nonnull String configName) throws ConfigurationException {
-        Configuration config = get(configName);
-        if (config != null) {
-            ReentrantLock lock = configInstanceLocks.get(configName);
+        ReentrantLock lock = configInstanceLocks.get(configName);
+        if (lock != null) {
             lock.lock();
-        } else {
-            throw new ConfigurationException(String.format("Specified configuration not loaded. [name=%s]", configName));
+            Configuration config = get(configName);
+            if (config != null) {
+                return config;
+            }
+            lock.unlock();
         }
-        return config;
+        throw new ConfigurationException(String.format("Specified configuration not loaded. [name=%s]", configName));
     }
 
     /**
@@ -323,7 +460,8 @@ public class ConfigurationManager {
     }
 
     /**
-     * Apply configuration updates to any registered Auto-wired types.
+     * Apply configuration updates to any registered Auto-wired types. Only the
+     * fields bound to the updated paths are re-applied.
      *
      * @param configName - Configuration name.
      * @param paths      - List of updated paths.
@@ -333,93 +471,180 @@ public class ConfigurationManager {
             throws ConfigurationException {
         Configuration config = loadedConfigs.get(configName);
         if (config != null && (config.getSyncMode() == ESyncMode.EVENTS || config.getSyncMode() == ESyncMode.BATCH)) {
-            Map<Integer, AutowiredIndexStruct> updated = getUpdatedTypes(configName, paths);
+            Map<AutowiredIndexStruct, Set<String>> updated = getUpdatedFields(configName, paths);
             if (updated != null && !updated.isEmpty()) {
-                for (int key : updated.keySet()) {
-                    updateAutowireType(updated.get(key));
+                for (AutowiredIndexStruct struct : updated.keySet()) {
+                    updateAutowireType(struct, updated.get(struct));
                 }
             }
         }
     }
 
     /**
-     * Resolve the auto-wired types that need to be updated due to the configuration updates.
+     * Resolve the auto-wired instance fields that need to be updated due to the configuration updates.
      *
      * @param configName - Configuration name.
      * @param paths      - List of updated node paths.
-     * @return - Map of types needing update.
+     * @return - Map of instances (and fields) needing update.
+     * @throws ConfigurationException
      */
-    private Map<Integer, AutowiredIndexStruct> getUpdatedTypes(String configName,
-                                                              List<String> paths) {
-        Map<Integer, AutowiredIndexStruct> map = new HashMap<>();
+    private Map<AutowiredIndexStruct, Set<String>> getUpdatedFields(String configName,
+                                                                   List<String> paths)
+            throws ConfigurationException {
+        ConfigPathIndex<AutowiredField> index = autowiredIndex.get(configName);
+        if (index == null) {
+            return null;
+        }
+        Set<AutowiredField> fields = new HashSet<>();
         for (String path : paths) {
-            String indexKey = getTypeIndexKey(path, configName);
-            if (autowiredIndex.containsKey(indexKey)) {
-                Collection<AutowiredIndexStruct> types = autowiredIndex.get(indexKey);
-                for (AutowiredIndexStruct type : types) {
-                    Preconditions.checkState(type.configName.compareTo(configName) == 0);
-                    int indx = type.hashCode();
-                    if (!map.containsKey(indx)) {
-                        map.put(indx, type);
-                    }
-                }
-            }
+            index.find(path, fields);
         }
-        if (map.isEmpty()) {
+        if (fields.isEmpty()) {
             return null;
         }
+        Map<AutowiredIndexStruct, Set<String>> map = new LinkedHashMap<>();
+        for (AutowiredField field : fields) {
+            Preconditions.checkState(field.struct.configName.compareTo(configName) == 0);
+            map.computeIfAbsent(field.struct, (k) -> new HashSet<>()).add(field.field);
+        }
         return map;
     }
 
     /**
-     * Create a new instance or Get a cached copy of the specified type. Types are
-     * expected to be POJOs with empty constructors.
+     * Re-apply the specified fields of an auto-wired instance.
+     * <p>
+     * The updated field values are read from the configuration node (using
+     * the generated binder, if any) without holding any lock, the changed values are
+     * then set on the instance (and the auto-invoke methods re-invoked) under
+     * the instance lock. Fields without a value in the configuration are left
+     * unchanged. Field change listeners are notified after the instance lock
+     * has been released.
      *
      * @param struct - Autowired Index Struct that needs to be reloaded.
-     * @return - Type instance.
+     * @param fields - Names of the fields to re-apply.
      * @throws ConfigurationException
      */
     @SuppressWarnings("unchecked")
-    private <T> void updateAutowireType(AutowiredIndexStruct struct)
+    private <T> void updateAutowireType(AutowiredIndexStruct struct,
+                                        Set<String> fields)
             throws ConfigurationException {
-        String key = getTypeKey(struct.type, struct.relativePath, struct.configName);
-        if (!Strings.isNullOrEmpty(key)) {
-            autowireCacheLock.lock();
-            try {
-                if (!autowiredInstances.containsKey(key)) {
-                    throw new ConfigurationException(String.format("Autowired instance not found. [key=%s]", struct.toString()));
+        Configuration config = loadedConfigs.get(struct.configName);
+        if (config == null) {
+            throw new ConfigurationException(String.format(
+                    "Specified configuration not found. [name=%s]",
+                    struct.configName));
+        }
+        Class<? extends T> type = (Class<? extends T>) struct.type;
+        T value = (T) struct.instance;
+        AbstractConfigNode node = findTypeNode(config, type, struct.relativePath);
+
+        Map<String, Object> updated = new HashMap<>(fields.size());
+        for (String field : fields) {
+            ConfigBinders.readField(type, field, node, updated);
+        }
+
+        Map<String, Object> previous = new HashMap<>();
+        struct.lock.lock();
+        try {
+            for (String field : updated.keySet()) {
+                Object current = ConfigBinders.getFieldValue(type, field, value);
+                Object fv = updated.get(field);
+                if (!Objects.equals(current, fv)) {
+                    ConfigBinders.setFieldValue(type, field, value, fv);
+                    previous.put(field, current);
                 }
-                T value = (T) autowiredInstances.get(key);
-                Configuration config = loadedConfigs.get(struct.configName);
-                if (config != null) {
-                    String path =
-                            getSearchPath(struct.type, struct.relativePath);
-                    if (!Strings.isNullOrEmpty(path)) {
-                        List<String> valuePaths = new ArrayList<>();
-                        if (Strings.isNullOrEmpty(struct.relativePath)) {
-                            value = ConfigurationAnnotationProcessor
-                                    .readConfigAnnotations((Class<? extends T>) struct.type, config, value, null, valuePaths);
-                        } else {
-                            AbstractConfigNode node = config.find(struct.relativePath);
-                            if (!(node instanceof ConfigPathNode)) {
-                                throw new ConfigurationException(
-                                        String.format("Specified configuration node not found. [config=%s][path=%s]",
-                                                struct.configName, struct.relativePath));
-                            }
-                            value = ConfigurationAnnotationProcessor.readConfigAnnotations((Class<? extends T>) struct.type,
-                                    (ConfigPathNode) node, value, valuePaths);
-                        }
+            }
+            if (!previous.isEmpty()) {
+                ConfigBinders.invokeMethods(type, node, value);
+            }
+        } finally {
+            struct.lock.unlock();
+        }
+        for (String field : previous.keySet()) {
+            List<IFieldChangeListener> listeners = struct.listeners.get(field);
+            if (listeners != null) {
+                for (IFieldChangeListener listener : listeners) {
+                    try {
+                        listener.fieldChanged(value, field, previous.get(field),
+                                updated.get(field));
+                    } catch (Exception e) {
+                        LogUtils.error(getClass(), String.format(
+                                "Field change listener failed. [type=%s][field=%s] : %s",
+                                type.getCanonicalName(), field, e.getLocalizedMessage()));
                     }
-                } else {
-                    throw new ConfigurationException(String.format(
-                            "Specified configuration not found. [name=%s]",
-                            struct.configName));
                 }
-            } finally {
-                autowireCacheLock.unlock();
             }
+        }
+    }
 
+    /**
+     * Register a listener to be notified when the specified field of an auto-wired
+     * instance is changed by a configuration update.
+     *
+     * @param instance - Auto-wired instance.
+     * @param field    - Field name.
+     * @param listener - Field change listener.
+     * @throws ConfigurationException - If the instance is not registered for updates.
+     */
+    public void addFieldListener(@Nonnull Object instance, @Nonnull String field,
+                                 @Nonnull IFieldChangeListener listener)
+            throws ConfigurationException {
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(field));
+        Preconditions.checkArgument(listener != null);
+        AutowiredIndexStruct struct = getAutowiredStruct(instance);
+        ConfigBinders.getFieldValue(struct.type, field, instance);
+        struct.listeners.computeIfAbsent(field, (k) -> new CopyOnWriteArrayList<>())
+                .add(listener);
+    }
+
+    /**
+     * Remove a registered field change listener.
+     *
+     * @param instance - Auto-wired instance.
+     * @param field    - Field name.
+     * @param listener - Field change listener.
+     * @return - Was removed?
+     * @throws ConfigurationException - If the instance is not registered for updates.
+     */
+    public boolean removeFieldListener(@Nonnull Object instance, @Nonnull String field,
+                                       @Nonnull IFieldChangeListener listener)
+            throws ConfigurationException {
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(field));
+        AutowiredIndexStruct struct = getAutowiredStruct(instance);
+        List<IFieldChangeListener> listeners = struct.listeners.get(field);
+        return (listeners != null && listeners.remove(listener));
+    }
+
+    /**
+     * Get the lock used to apply updates to the auto-wired instance. Readers can
+     * hold the lock to read a consistent set of field values.
+     *
+     * @param instance - Auto-wired instance.
+     * @return - Instance lock.
+     * @throws ConfigurationException - If the instance is not registered for updates.
+     */
+    public Lock getInstanceLock(@Nonnull Object instance)
+            throws ConfigurationException {
+        return getAutowiredStruct(instance).lock;
+    }
+
+    /**
+     * Get the index struct of an auto-wired instance.
+     *
+     * @param instance - Auto-wired instance.
+     * @return - Index struct.
+     * @throws ConfigurationException - If the instance is not registered for updates.
+     */
+    private AutowiredIndexStruct getAutowiredStruct(Object instance)
+            throws ConfigurationException {
+        Preconditions.checkArgument(instance != null);
+        AutowiredIndexStruct struct = autowiredStructs.get(instance);
+        if (struct == null) {
+            throw new ConfigurationException(String.format(
+                    "Instance not registered for updates. [type=%s]",
+                    instance.getClass().getCanonicalName()));
         }
+        return struct;
     }
 
     /**
@@ -440,14 +665,17 @@ public class ConfigurationManager {
             throws ConfigurationException {
         String key = getTypeKey(type, relativePath, configName);
         if (!Strings.isNullOrEmpty(key)) {
-            if (autowiredInstances.containsKey(key)) {
-                return (T) autowiredInstances.get(key);
+            Object instance = autowiredInstances.get(key);
+            if (instance != null) {
+                return (T) instance;
             }
             try {
-                autowireCacheLock.lock();
+                Lock lock = autowireCacheLocks.get(key);
+                lock.lock();
                 try {
-                    if (autowiredInstances.containsKey(key)) {
-                        return (T) autowiredInstances.get(key);
+                    instance = autowiredInstances.get(key);
+                    if (instance != null) {
+                        return (T) instance;
                     }
                     Configuration config = loadedConfigs.get(configName);
                     if (config != null) {
@@ -456,32 +684,36 @@ public class ConfigurationManager {
                         if (!Strings.isNullOrEmpty(path)) {
                             T value = type.newInstance();
 
-                            List<String> valuePaths = new ArrayList<>();
-                            if (Strings.isNullOrEmpty(relativePath)) {
-                                value = ConfigurationAnnotationProcessor
-                                        .readConfigAnnotations(type, config, value, null, valuePaths);
-                            } else {
-                                AbstractConfigNode node = config.find(relativePath);
-                                if (!(node instanceof ConfigPathNode)) {
-                                    throw new ConfigurationException(
-                                            String.format("Specified configuration node not found. [config=%s][path=%s]",
-                                                    configName, relativePath));
-                                }
-                                value = ConfigurationAnnotationProcessor.readConfigAnnotations(type, (ConfigPathNode) node, value, valuePaths);
-                            }
-                            autowiredInstances.put(key, value);
                             if (config.getSyncMode() == ESyncMode.EVENTS || config.getSyncMode() == ESyncMode.BATCH) {
-                                if (!valuePaths.isEmpty()) {
-                                    AutowiredIndexStruct as = new AutowiredIndexStruct();
-                                    as.configName = configName;
-                                    as.type = type;
-                                    as.relativePath = relativePath;
-                                    as.instance = value;
-                                    for (String vp : valuePaths) {
-                                        String vk = getTypeIndexKey(vp, configName);
-                                        autowiredIndex.put(vk, as);
+                                // Bind field by field to index the paths each field is bound to.
+                                AbstractConfigNode node = findTypeNode(config, type, relativePath);
+                                Map<String, List<String>> fieldPaths = new HashMap<>();
+                                ConfigBinders.bindFields(type, node, value, fieldPaths);
+
+                                AutowiredIndexStruct as = new AutowiredIndexStruct();
+                                as.configName = configName;
+                                as.type = type;
+                                as.relativePath = relativePath;
+                                as.instance = value;
+                                indexFields(config, as, fieldPaths);
+                                autowiredStructs.put(value, as);
+                                // Publish once registered for updates, readers of the
+                                // cache (without the lock) get a registered instance.
+                                autowiredInstances.put(key, value);
+                            } else {
+                                if (Strings.isNullOrEmpty(relativePath)) {
+                                    value = ConfigurationAnnotationProcessor
+                                            .readConfigAnnotations(type, config, value, null, null);
+                                } else {
+                                    AbstractConfigNode node = config.find(relativePath);
+                                    if (!(node instanceof ConfigPathNode)) {
+                                        throw new ConfigurationException(
+                                                String.format("Specified configuration node not found. [config=%s][path=%s]",
+                                                        configName, relativePath));
                                     }
+                                    value = ConfigurationAnnotationProcessor.readConfigAnnotations(type, (ConfigPathNode) node, value, null);
                                 }
+                                autowiredInstances.put(key, value);
                             }
                             return value;
                         }
@@ -491,7 +723,7 @@ public class ConfigurationManager {
                                 configName));
                     }
                 } finally {
-                    autowireCacheLock.unlock();
+                    lock.unlock();
                 }
             } catch (IllegalAccessException e) {
                 throw new ConfigurationException(e);
@@ -503,14 +735,55 @@ public class ConfigurationManager {
     }
 
     /**
-     * Get the index key to index this type instance for updates.
+     * Add the bound field paths of the auto-wired instance to the path index
+     * of the configuration.
      *
-     * @param path       - Search path for this type instance.
-     * @param configname - Configuration name.
-     * @return - Index Key.
+     * @param config     - Configuration instance.
+     * @param struct     - Autowired Index Struct.
+     * @param fieldPaths - Bound value paths (by field name).
+     * @throws ConfigurationException
+     */
+    private void indexFields(Configuration config, AutowiredIndexStruct struct,
+                             Map<String, List<String>> fieldPaths)
+            throws ConfigurationException {
+        ConfigPathIndex<AutowiredField> index = autowiredIndex.computeIfAbsent(
+                struct.configName,
+                (k) -> new ConfigPathIndex<>(config.getSettings(),
+                        config.getRootConfigNode().getName()));
+        for (String field : fieldPaths.keySet()) {
+            List<String> paths = fieldPaths.get(field);
+            if (paths.isEmpty()) {
+                continue;
+            }
+            AutowiredField af = new AutowiredField();
+            af.struct = struct;
+            af.field = field;
+            for (String path : paths) {
+                index.add(path, af);
+            }
+        }
+    }
+
+    /**
+     * Find the configuration node the type is bound to.
+     *
+     * @param config       - Configuration instance.
+     * @param type         - Type instance to autowire.
+     * @param relativePath - Relative search path.
+     * @return - Configuration node.
+     * @throws ConfigurationException
      */
-    private String getTypeIndexKey(String path, String configname) {
-        return String.format("%s::%s", configname, path);
+    private AbstractConfigNode findTypeNode(Configuration config, Class<?> type,
+                                            String relativePath)
+            throws ConfigurationException {
+        String path = getSearchPath(type, relativePath);
+        AbstractConfigNode node = config.find(path);
+        if (!(node instanceof ConfigPathNode)) {
+            throw new ConfigurationException(
+                    String.format("Specified configuration node not found. [config=%s][path=%s]",
+                            config.getName(), path));
+        }
+        return node;
     }
 
     /**
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 21/10/20 2:20 PM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.client.factory;
+
+/**
+ * Callback interface to be notified when a field of an auto-wired instance
+ * has been changed by a configuration update.
+ * <p>
+ * Callbacks are invoked after the update has been applied to the instance,
+ * outside the instance lock.
+ */
+public interface IFieldChangeListener {
+    /**
+     * Field value of the auto-wired instance has changed.
+     *
+     * @param instance - Auto-wired instance.
+     * @param field    - Changed field name.
+     * @param oldValue - Previous field value.
+     * @param newValue - Updated field value.
+     */
+    void fieldChanged(Object instance, String field, Object oldValue,
+                      Object newValue);
+}
@@ -32,28 +32,184 @@ import com.codekutter.zconfig.common.model.Configuration;
 import com.codekutter.zconfig.common.model.ESyncMode;
 
 import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Abstract base class to define configuration update listeners.
+ * <p>
+ * Received batches are submitted to the update pipeline and applied on the
+ * pipeline workers (ordered per configuration), not on the listener thread.
+ * <p>
+ * If the queue of a configuration stays full, the batch is not accepted and
+ * should be re-delivered (ex: re-queued to the broker). Later batches of the
+ * configuration are not accepted till the re-delivered batch has been, so
+ * the order is kept while other configurations continue to be accepted.
+ * Listeners should pause receiving (instead of re-delivering immediately)
+ * till the blocked configuration queues have space (see canResume()).
  */
 public abstract class AbstractUpdateListener implements Runnable, IConfigurable {
+    /**
+     * Max time to wait for pending updates on shutdown (in milliseconds).
+     */
+    private static final long SHUTDOWN_TIMEOUT = 5000;
+    /**
+     * Default max time to wait for space in a configuration queue (in
+     * milliseconds).
+     */
+    public static final long DEFAULT_SUBMIT_TIMEOUT = 100;
+    /**
+     * Time after which a configuration blocked on a re-delivery is released,
+     * the re-delivered batch may have been consumed by another listener (in
+     * milliseconds).
+     */
+    private static final long BLOCKED_EXPIRY = 5000;
+
+    /**
+     * Batch of a configuration that wasn't accepted (queue full).
+     */
+    private static final class BlockedBatch {
+        private final String transactionId;
+        private final long timestamp;
+
+        private BlockedBatch(String transactionId) {
+            this.transactionId = transactionId;
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        private boolean isExpired() {
+            return (System.currentTimeMillis() - timestamp > BLOCKED_EXPIRY);
+        }
+    }
+
     protected ClientState state = new ClientState();
+    /**
+     * Update pipeline (created on first use).
+     */
+    private ConfigUpdatePipeline pipeline = null;
+    /**
+     * Number of pipeline worker threads.
+     */
+    protected int updateWorkers = ConfigUpdatePipeline.DEFAULT_WORKER_COUNT;
+    /**
+     * Max pending batches per configuration.
+     */
+    protected int updateQueueCapacity =
+            ConfigUpdatePipeline.DEFAULT_QUEUE_CAPACITY;
+    /**
+     * Max time to wait for space in a configuration queue (in milliseconds).
+     */
+    protected long submitTimeout = DEFAULT_SUBMIT_TIMEOUT;
+    /**
+     * Configurations waiting on the re-delivery of a batch that wasn't
+     * accepted.
+     */
+    private final Map<String, BlockedBatch> blocked = new ConcurrentHashMap<>();
 
     /**
-     * Execute the batch update.
+     * Get the update pipeline for this listener.
+     *
+     * @return - Update pipeline.
+     */
+    protected synchronized ConfigUpdatePipeline getPipeline() {
+        if (pipeline == null) {
+            pipeline = new ConfigUpdatePipeline(this::applyUpdateBatches,
+                                                updateWorkers,
+                                                updateQueueCapacity);
+            pipeline.setCoalesceWindow(this::getCoalesceWindow);
+        }
+        return pipeline;
+    }
+
+    /**
+     * Get the coalesce window set on the update handler (read by the pipeline
+     * each time a drain is scheduled).
+     *
+     * @return - Coalesce window (in milliseconds).
+     */
+    protected long getCoalesceWindow() {
+        try {
+            return ZConfigClientEnv.clientEnv().getUpdateHandler()
+                                   .getCoalesceWindow();
+        } catch (EnvException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Submit the batch update to the update pipeline. Waits up to the submit
+     * timeout if the queue for the batch configuration is full.
      *
      * @param batch - Configuration Update Batch.
+     * @return - Accepted? If not, the batch should be re-delivered.
      * @throws ConfigurationException
      */
-    protected void executeUpdateBatch(@Nonnull ConfigUpdateBatch batch) throws
-                                                                        ConfigurationException {
+    protected boolean executeUpdateBatch(@Nonnull ConfigUpdateBatch batch) throws
+                                                                           ConfigurationException {
+        String configName = batch.getHeader().getConfigName();
+        String transactionId = batch.getHeader().getTransactionId();
+        BlockedBatch waiting = blocked.get(configName);
+        if (waiting != null && !waiting.isExpired()
+                && !Objects.equals(waiting.transactionId, transactionId)) {
+            // Keep later batches behind the batch waiting for re-delivery.
+            return false;
+        }
+        try {
+            if (getPipeline().submit(batch, submitTimeout,
+                                     TimeUnit.MILLISECONDS)) {
+                blocked.remove(configName);
+                return true;
+            }
+            LogUtils.debug(getClass(), String.format(
+                    "Update queue full, batch not accepted. [config=%s][transaction=%s]",
+                    configName, transactionId));
+            blocked.put(configName, new BlockedBatch(transactionId));
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConfigurationException(e);
+        } catch (RuntimeException e) {
+            blocked.remove(configName);
+            throw new ConfigurationException(e);
+        }
+    }
+
+    /**
+     * Check if the configurations waiting on a re-delivery can accept batches
+     * again (the queue has space, or the wait has expired).
+     *
+     * @return - Can resume receiving?
+     */
+    protected boolean canResume() {
+        ConfigUpdatePipeline pipeline = getPipeline();
+        for (Map.Entry<String, BlockedBatch> entry : blocked.entrySet()) {
+            if (!entry.getValue().isExpired()
+                    && pipeline.isSaturated(entry.getKey())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Apply the pending batch updates of a configuration (called by the
+     * pipeline workers). Successive batches are coalesced by the update
+     * handler.
+     *
+     * @param batches - Configuration Update Batches.
+     */
+    protected void applyUpdateBatches(@Nonnull List<ConfigUpdateBatch> batches) {
         try {
             ConfigurationManager manager =
                     ZConfigClientEnv.clientEnv().getConfigurationManager();
-            Configuration config = manager.get(batch.getHeader().getConfigName());
+            Configuration config =
+                    manager.get(batches.get(0).getHeader().getConfigName());
             if (config != null && config.getSyncMode() == ESyncMode.EVENTS) {
                 ZConfigClientEnv.clientEnv().getUpdateHandler()
-                                .processEvents(batch);
+                                .processEvents(batches);
             }
         } catch (Exception e) {
             LogUtils.error(getClass(), e);
@@ -62,5 +218,20 @@ public abstract class AbstractUpdateListener implements Runnable, IConfigurable
 
     public void shutdown() {
         state.setState(EClientState.Disposed);
+        ConfigUpdatePipeline pipeline;
+        synchronized (this) {
+            pipeline = this.pipeline;
+            this.pipeline = null;
+        }
+        if (pipeline != null) {
+            try {
+                if (!pipeline.shutdown(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    LogUtils.warn(getClass(),
+                                  "Timeout waiting for pending updates.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 }
@@ -0,0 +1,412 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 22/10/20 10:10 AM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.client.listeners;
+
+import com.codekutter.zconfig.common.LogUtils;
+import com.codekutter.zconfig.transport.events.ConfigUpdateBatch;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Pipeline stage between receiving update batches and applying them.
+ * <p>
+ * Batches are queued per configuration and the queues are drained by a pool
+ * of worker threads. A configuration queue is drained by at most one worker
+ * at a time, so updates to a configuration are applied in the order received,
+ * while updates to different configurations are applied in parallel.
+ * <p>
+ * Configuration queues are bounded, submit() blocks (or times out) when the
+ * queue for the configuration is full, this is the backpressure signal to the
+ * listener.
+ * <p>
+ * The pending batches of a configuration are passed to the processor together
+ * (in order), so successive batches can be coalesced. If a coalesce window is
+ * set, the drain of a configuration queue is scheduled on a timer to run once
+ * the window has elapsed (or the queue is full), the workers don't wait for
+ * the window. The window can be read from a setting (ex: the update handler)
+ * each time a drain is scheduled.
+ */
+public class ConfigUpdatePipeline {
+    /**
+     * Default number of worker threads.
+     */
+    public static final int DEFAULT_WORKER_COUNT = 4;
+    /**
+     * Default max pending batches per configuration.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    /**
+     * Callback to apply update batches.
+     */
+    public interface IBatchProcessor {
+        /**
+         * Apply the update batches (of a configuration, in the order
+         * received).
+         *
+         * @param batches - Configuration Update Batches.
+         * @throws Exception
+         */
+        void process(@Nonnull List<ConfigUpdateBatch> batches) throws Exception;
+    }
+
+    /**
+     * Pending batches of a configuration.
+     */
+    private static final class ConfigQueue {
+        private final String configName;
+        private final BlockingQueue<ConfigUpdateBatch> queue;
+        /**
+         * Is the queue scheduled on (or being drained by) a worker.
+         */
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        /**
+         * Is the scheduled drain waiting for the coalesce window to elapse.
+         */
+        private final AtomicBoolean delayed = new AtomicBoolean(false);
+
+        private ConfigQueue(String configName, int capacity) {
+            this.configName = configName;
+            this.queue = new LinkedBlockingQueue<>(capacity);
+        }
+    }
+
+    /**
+     * Batch processor to apply the updates.
+     */
+    private final IBatchProcessor processor;
+    /**
+     * Max pending batches per configuration (also the max batches applied by
+     * a worker in one run, before yielding to other configurations).
+     */
+    private final int capacity;
+    /**
+     * Time to wait for more batches before applying (in nanoseconds), read
+     * each time a drain is scheduled.
+     */
+    private volatile LongSupplier coalesceWindow = () -> 0;
+    /**
+     * Worker pool.
+     */
+    private final ExecutorService executor;
+    /**
+     * Timer to start the drains delayed by the coalesce window.
+     */
+    private final ScheduledExecutorService timer;
+    /**
+     * Configuration queues.
+     */
+    private final Map<String, ConfigQueue> queues = new ConcurrentHashMap<>();
+    /**
+     * Is the pipeline shutting down (drains are no longer delayed).
+     */
+    private volatile boolean stopping = false;
+
+    /**
+     * Create a pipeline with the default worker count and capacity.
+     *
+     * @param processor - Batch processor to apply the updates.
+     */
+    public ConfigUpdatePipeline(@Nonnull IBatchProcessor processor) {
+        this(processor, DEFAULT_WORKER_COUNT, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Create a pipeline.
+     *
+     * @param processor - Batch processor to apply the updates.
+     * @param workers   - Number of worker threads.
+     * @param capacity  - Max pending batches per configuration.
+     */
+    public ConfigUpdatePipeline(@Nonnull IBatchProcessor processor, int workers,
+                                int capacity) {
+        Preconditions.checkArgument(processor != null);
+        Preconditions.checkArgument(workers > 0);
+        Preconditions.checkArgument(capacity > 0);
+        this.processor = processor;
+        this.capacity = capacity;
+        this.executor = Executors.newFixedThreadPool(workers,
+                                                     new ThreadFactoryBuilder()
+                                                             .setNameFormat(
+                                                                     "zconfig-update-%d")
+                                                             .setDaemon(true)
+                                                             .build());
+        this.timer = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder()
+                        .setNameFormat("zconfig-update-timer-%d")
+                        .setDaemon(true)
+                        .build());
+    }
+
+    /**
+     * Set the time to wait for more batches of a configuration to arrive
+     * before applying the pending batches.
+     *
+     * @param window - Coalesce window.
+     * @param unit   - Window unit.
+     */
+    public void setCoalesceWindow(long window, @Nonnull TimeUnit unit) {
+        Preconditions.checkArgument(window >= 0);
+        long nanos = unit.toNanos(window);
+        this.coalesceWindow = () -> nanos;
+    }
+
+    /**
+     * Set the source of the time to wait for more batches of a configuration
+     * to arrive, the window is read each time the drain of a configuration
+     * queue is scheduled (changes apply to the next drain).
+     *
+     * @param window - Coalesce window source (in milliseconds).
+     */
+    public void setCoalesceWindow(@Nonnull LongSupplier window) {
+        Preconditions.checkArgument(window != null);
+        this.coalesceWindow =
+                () -> TimeUnit.MILLISECONDS.toNanos(window.getAsLong());
+    }
+
+    /**
+     * Submit a batch, blocking till there is space in the configuration queue.
+     *
+     * @param batch - Configuration Update Batch.
+     * @throws InterruptedException
+     */
+    public void submit(@Nonnull ConfigUpdateBatch batch)
+    throws InterruptedException {
+        ConfigQueue queue = queue(batch);
+        queue.queue.put(batch);
+        schedule(queue);
+    }
+
+    /**
+     * Submit a batch, waiting up to the specified timeout for space in the
+     * configuration queue.
+     *
+     * @param batch   - Configuration Update Batch.
+     * @param timeout - Max time to wait.
+     * @param unit    - Timeout unit.
+     * @return - Accepted? (false if the queue is still full)
+     * @throws InterruptedException
+     */
+    public boolean submit(@Nonnull ConfigUpdateBatch batch, long timeout,
+                          @Nonnull TimeUnit unit) throws InterruptedException {
+        ConfigQueue queue = queue(batch);
+        if (!queue.queue.offer(batch, timeout, unit)) {
+            return false;
+        }
+        schedule(queue);
+        return true;
+    }
+
+    /**
+     * Get the number of batches pending for the configuration.
+     *
+     * @param configName - Configuration name.
+     * @return - Pending batches.
+     */
+    public int getPending(@Nonnull String configName) {
+        ConfigQueue queue = queues.get(configName);
+        return (queue != null ? queue.queue.size() : 0);
+    }
+
+    /**
+     * Get the total number of batches pending.
+     *
+     * @return - Pending batches.
+     */
+    public int getPending() {
+        int count = 0;
+        for (ConfigQueue queue : queues.values()) {
+            count += queue.queue.size();
+        }
+        return count;
+    }
+
+    /**
+     * Check if the queue for the configuration is full (submit will block).
+     *
+     * @param configName - Configuration name.
+     * @return - Is saturated?
+     */
+    public boolean isSaturated(@Nonnull String configName) {
+        ConfigQueue queue = queues.get(configName);
+        return (queue != null && queue.queue.remainingCapacity() == 0);
+    }
+
+    /**
+     * Stop accepting batches and wait for the pending batches to be applied.
+     * Drains waiting for the coalesce window are started immediately.
+     *
+     * @param timeout - Max time to wait.
+     * @param unit    - Timeout unit.
+     * @return - All pending batches applied?
+     * @throws InterruptedException
+     */
+    public boolean shutdown(long timeout, @Nonnull TimeUnit unit)
+    throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        stopping = true;
+        timer.shutdownNow();
+        for (ConfigQueue queue : queues.values()) {
+            release(queue);
+        }
+        // Drain tasks re-schedule themselves, wait for the queues to empty
+        // before shutting down the pool.
+        while (getPending() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        executor.shutdown();
+        return executor.awaitTermination(
+                Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get (or create) the queue for the batch configuration.
+     *
+     * @param batch - Configuration Update Batch.
+     * @return - Configuration queue.
+     */
+    private ConfigQueue queue(ConfigUpdateBatch batch) {
+        Preconditions.checkArgument(batch != null);
+        Preconditions.checkArgument(batch.getHeader() != null);
+        String configName = batch.getHeader().getConfigName();
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(configName));
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException(
+                    "Update pipeline has been shutdown.");
+        }
+        return queues.computeIfAbsent(configName,
+                                      (k) -> new ConfigQueue(k, capacity));
+    }
+
+    /**
+     * Schedule the queue to be drained, if not already scheduled. If a
+     * coalesce window is set, the drain is started by the timer once the
+     * window has elapsed, or as soon as the queue is full.
+     *
+     * @param queue - Configuration queue.
+     */
+    private void schedule(ConfigQueue queue) {
+        if (!queue.queue.isEmpty() && queue.scheduled.compareAndSet(false, true)) {
+            long window = (stopping ? 0 : coalesceWindow.getAsLong());
+            if (window > 0) {
+                queue.delayed.set(true);
+                try {
+                    timer.schedule(() -> release(queue), window,
+                                   TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down, drain now.
+                    release(queue);
+                }
+                return;
+            }
+            execute(queue);
+        } else if (queue.delayed.get() && queue.queue.remainingCapacity() == 0) {
+            // No more batches can be coalesced, don't wait out the window.
+            release(queue);
+        }
+    }
+
+    /**
+     * Start the drain delayed by the coalesce window (if not already
+     * started).
+     *
+     * @param queue - Configuration queue.
+     */
+    private void release(ConfigQueue queue) {
+        if (queue.delayed.compareAndSet(true, false)) {
+            try {
+                execute(queue);
+            } catch (RejectedExecutionException e) {
+                LogUtils.warn(getClass(), String.format(
+                        "Update pipeline shutdown, pending batches dropped. [config=%s][pending=%d]",
+                        queue.configName, queue.queue.size()));
+            }
+        }
+    }
+
+    /**
+     * Submit the drain of the (scheduled) queue to the worker pool.
+     *
+     * @param queue - Configuration queue.
+     */
+    private void execute(ConfigQueue queue) {
+        try {
+            executor.execute(() -> drain(queue));
+        } catch (RejectedExecutionException e) {
+            queue.scheduled.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Apply the pending batches of the configuration (up to the queue
+     * capacity).
+     *
+     * @param queue - Configuration queue.
+     */
+    private void drain(ConfigQueue queue) {
+        try {
+            List<ConfigUpdateBatch> batches = new ArrayList<>();
+            queue.queue.drainTo(batches, capacity);
+            if (!batches.isEmpty()) {
+                try {
+                    processor.process(batches);
+                } catch (Throwable t) {
+                    LogUtils.error(getClass(), String.format(
+                            "Error applying update batches. [config=%s][batches=%d]",
+                            queue.configName, batches.size()));
+                    LogUtils.error(getClass(), t);
+                }
+            }
+        } finally {
+            queue.scheduled.set(false);
+            // Batches submitted while this run was finishing, or left over
+            // after the drain limit.
+            try {
+                schedule(queue);
+            } catch (RejectedExecutionException e) {
+                LogUtils.warn(getClass(), String.format(
+                        "Update pipeline shutdown, pending batches dropped. [config=%s][pending=%d]",
+                        queue.configName, queue.queue.size()));
+            }
+        }
+    }
+}
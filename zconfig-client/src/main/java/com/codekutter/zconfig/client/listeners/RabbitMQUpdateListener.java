@@ -29,7 +29,10 @@ import com.codekutter.zconfig.common.model.annotations.MethodInvoke;
 import com.codekutter.zconfig.common.model.nodes.AbstractConfigNode;
 import com.codekutter.zconfig.transport.rabbitmq.RMQChannelConstants;
 import com.codekutter.zconfig.transport.rabbitmq.RMQConnectionFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.rabbitmq.client.*;
 import com.codekutter.zconfig.common.ConfigurationException;
 import com.codekutter.zconfig.common.LogUtils;
@@ -39,12 +42,35 @@ import com.codekutter.zconfig.transport.events.RegisterMessage;
 import javax.annotation.Nonnull;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class RabbitMQUpdateListener extends AbstractUpdateListener {
     public static final String NODE_NAME_LISTENER = "listener";
+    /**
+     * Interval to check if paused consumption can be resumed (in
+     * milliseconds).
+     */
+    private static final long RESUME_INTERVAL = 50;
 
     private RMQConnectionFactory connectionFactory = new RMQConnectionFactory();
 
+    /**
+     * Update channel and consumer state (used to pause/resume consumption).
+     */
+    private Channel updateChannel = null;
+    private String queueName = null;
+    private DeliverCallback deliverCallback = null;
+    private String consumerTag = null;
+    /**
+     * Scheduler to check if paused consumption can be resumed (created on
+     * first pause).
+     */
+    private ScheduledExecutorService scheduler = null;
+    private ScheduledFuture<?> resumeTask = null;
+
     /**
      * Configure this type instance.
      *
@@ -74,10 +100,11 @@ public class RabbitMQUpdateListener extends AbstractUpdateListener {
             try (
                     Channel updateChannel = connectionFactory.getConnection()
                             .createChannel()) {
+                this.updateChannel = updateChannel;
                 updateChannel
                         .exchangeDeclarePassive(
                                 RMQChannelConstants.RMQ_UPDATE_CHANNEL);
-                String queueName = updateChannel.queueDeclarePassive(
+                queueName = updateChannel.queueDeclarePassive(
                         RMQChannelConstants.getGroupUpdateQueue(
                                 ZConfigClientEnv.clientEnv().getInstance()
                                         .getApplicationGroup()))
@@ -86,35 +113,75 @@ public class RabbitMQUpdateListener extends AbstractUpdateListener {
                         RMQChannelConstants.RMQ_UPDATE_CHANNEL,
                         ZConfigClientEnv.clientEnv().getInstance()
                                 .getApplicationName());
-                DeliverCallback deliverCallback = (consumerTag, delivery) -> {
-                    try {
-                        if (!state.isAvailable()) {
+                ObjectMapper mapper =
+                        ZConfigClientEnv.clientEnv().getJsonMapper();
+                deliverCallback = (consumerTag, delivery) -> {
+                    long tag = delivery.getEnvelope().getDeliveryTag();
+                    if (!state.isAvailable()) {
+                        // Shutting down, re-queue the batch for the next
+                        // consumer.
+                        updateChannel.basicNack(tag, false, true);
+                        try {
                             updateChannel.close();
                             updateServer(
                                     RMQChannelConstants.RMQ_SHUTDOWN_ROUTING_KEY);
-                            return;
+                        } catch (Exception e) {
+                            LogUtils.error(getClass(), e);
                         }
-                        String message = new String(delivery.getBody(),
-                                StandardCharsets.UTF_8);
-                        LogUtils.debug(getClass(), " [x] Received '" +
-                                delivery.getEnvelope()
-                                        .getRoutingKey() +
-                                "':'" + message + "'");
-                        ObjectMapper mapper =
-                                ZConfigClientEnv.clientEnv().getJsonMapper();
-                        ConfigUpdateBatch batch = mapper.readValue(message,
+                        return;
+                    }
+                    String message = new String(delivery.getBody(),
+                            StandardCharsets.UTF_8);
+                    LogUtils.debug(getClass(), " [x] Received '" +
+                            delivery.getEnvelope()
+                                    .getRoutingKey() +
+                            "':'" + message + "'");
+                    ConfigUpdateBatch batch = null;
+                    try {
+                        batch = mapper.readValue(message,
                                 ConfigUpdateBatch.class);
-                        executeUpdateBatch(batch);
-                        LogUtils.debug(getClass(), batch);
+                    } catch (JsonProcessingException e) {
+                        LogUtils.error(getClass(), e);
+                    }
+                    if (batch == null || batch.getHeader() == null
+                            || Strings.isNullOrEmpty(
+                                    batch.getHeader().getConfigName())) {
+                        // Not an update batch, reject the message (not
+                        // re-queued, dead-lettered if configured on the
+                        // queue), a bad message doesn't stop the listener.
+                        LogUtils.error(getClass(), String.format(
+                                "Update message rejected. [tag=%d]", tag));
+                        updateChannel.basicNack(tag, false, false);
+                        return;
+                    }
+                    try {
+                        if (executeUpdateBatch(batch)) {
+                            updateChannel.basicAck(tag, false);
+                            LogUtils.debug(getClass(), batch);
+                        } else {
+                            // Configuration queue is full, stop consuming till
+                            // the queue has space and re-queue the batch (to
+                            // it's original position).
+                            pause();
+                            updateChannel.basicNack(tag, false, true);
+                        }
                     } catch (Exception e) {
-                        state.setError(e);
+                        // Not accepted (shutting down or the pipeline failed),
+                        // the batch is valid so re-queue it. Pause so the
+                        // batch isn't re-delivered to this listener in a loop.
+                        LogUtils.error(getClass(), String.format(
+                                "Update batch not accepted, re-queued. [tag=%d][config=%s][transaction=%s]",
+                                tag, batch.getHeader().getConfigName(),
+                                batch.getHeader().getTransactionId()));
                         LogUtils.error(getClass(), e);
-                        throw new IOException(e);
+                        pause();
+                        updateChannel.basicNack(tag, false, true);
                     }
                 };
-                updateChannel.basicConsume(queueName, true, deliverCallback,
-                        consumerTag -> {
-                        });
+                // Limit un-acknowledged deliveries, batches are acknowledged
+                // once accepted by the update pipeline (re-queued if not).
+                updateChannel.basicQos(updateQueueCapacity);
+                consume();
                 LogUtils.warn(getClass(),
                         String.format(
                                 "Shutting down Update listener: [type=%s][state=%s]",
@@ -122,6 +189,7 @@ public class RabbitMQUpdateListener extends AbstractUpdateListener {
                                 state.getState().name()));
 
             } finally {
+                stopScheduler();
                 connectionFactory.close();
             }
         } catch (Exception e) {
@@ -130,6 +198,86 @@ public class RabbitMQUpdateListener extends AbstractUpdateListener {
         }
     }
 
+    /**
+     * Start consuming from the update queue.
+     *
+     * @throws IOException
+     */
+    private synchronized void consume() throws IOException {
+        consumerTag = updateChannel.basicConsume(queueName, false,
+                                                 deliverCallback,
+                                                 consumerTag -> {
+                                                 });
+    }
+
+    /**
+     * Pause consuming from the update queue (if not already paused), and
+     * schedule the check to resume once the blocked configuration queues have
+     * space. Deliveries are not re-queued to this listener in a loop while the
+     * queues are full (or the batches are not accepted).
+     *
+     * @throws IOException
+     */
+    private synchronized void pause() throws IOException {
+        if (consumerTag == null) {
+            return;
+        }
+        updateChannel.basicCancel(consumerTag);
+        consumerTag = null;
+        LogUtils.debug(getClass(), "Update queue full, consumption paused.");
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder()
+                            .setNameFormat("zconfig-rmq-resume-%d")
+                            .setDaemon(true)
+                            .build());
+        }
+        resumeTask = scheduler.scheduleWithFixedDelay(this::resume,
+                                                      RESUME_INTERVAL,
+                                                      RESUME_INTERVAL,
+                                                      TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Resume consuming from the update queue if the blocked configuration
+     * queues have space (called by the scheduler).
+     */
+    private synchronized void resume() {
+        if (consumerTag != null || resumeTask == null) {
+            return;
+        }
+        if (!state.isAvailable() || !updateChannel.isOpen()) {
+            resumeTask.cancel(false);
+            resumeTask = null;
+            return;
+        }
+        if (!canResume()) {
+            return;
+        }
+        try {
+            consume();
+            resumeTask.cancel(false);
+            resumeTask = null;
+            LogUtils.debug(getClass(), "Update consumption resumed.");
+        } catch (Exception e) {
+            state.setError(e);
+            LogUtils.error(getClass(), e);
+            resumeTask.cancel(false);
+            resumeTask = null;
+        }
+    }
+
+    /**
+     * Stop the resume scheduler (if started).
+     */
+    private synchronized void stopScheduler() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+            resumeTask = null;
+        }
+    }
+
     /**
      * Update the server regarding client startup/shutdown.
      *
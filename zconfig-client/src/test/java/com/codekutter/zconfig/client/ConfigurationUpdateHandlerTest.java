@@ -0,0 +1,286 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 22/10/20 3:40 PM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.client;
+
+import com.codekutter.zconfig.client.factory.ConfigurationManager;
+import com.codekutter.zconfig.common.ConfigurationException;
+import com.codekutter.zconfig.common.LogUtils;
+import com.codekutter.zconfig.common.model.Configuration;
+import com.codekutter.zconfig.common.model.ConfigurationSettings;
+import com.codekutter.zconfig.common.model.Version;
+import com.codekutter.zconfig.common.model.nodes.AbstractConfigNode;
+import com.codekutter.zconfig.common.model.nodes.ConfigValueNode;
+import com.codekutter.zconfig.transport.events.ConfigUpdateBatch;
+import com.codekutter.zconfig.transport.events.ConfigUpdateEvent;
+import com.codekutter.zconfig.transport.events.ConfigUpdateHeader;
+import com.codekutter.zconfig.transport.events.EUpdateEventType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurationUpdateHandlerTest {
+    private static final String CONFIG_NAME = "zconfig-client";
+    private static final String CONFIG_FILE =
+            "src/main/resources/zconfig-client.json";
+    private static final String PATH = "zconfig/client/rmq/settings/#";
+
+    private static ConfigUpdateBatch batch(String preVersion,
+                                           String updatedVersion,
+                                           Object... events) {
+        ConfigUpdateHeader header = new ConfigUpdateHeader();
+        header.setGroup("test");
+        header.setApplication("test");
+        header.setConfigName(CONFIG_NAME);
+        header.setPreVersion(preVersion);
+        header.setUpdatedVersion(updatedVersion);
+        header.setTransactionId(updatedVersion);
+        header.setTimestamp(System.currentTimeMillis());
+
+        List<ConfigUpdateEvent> list = new ArrayList<>();
+        for (int ii = 0; ii < events.length; ii += 3) {
+            ConfigValueNode value = new ConfigValueNode();
+            value.setName((String) events[ii + 1]);
+            if (!((String) events[ii + 2]).isEmpty()) {
+                value.setValue((String) events[ii + 2]);
+            }
+            ConfigUpdateEvent event = new ConfigUpdateEvent();
+            event.setHeader(header);
+            event.setEventType((EUpdateEventType) events[ii]);
+            event.setPath(PATH);
+            event.setValue(value);
+            list.add(event);
+        }
+        ConfigUpdateBatch batch = new ConfigUpdateBatch();
+        batch.setHeader(header);
+        batch.setEvents(list);
+        return batch;
+    }
+
+    @Test
+    void coalesce() {
+        try {
+            ConfigUpdateBatch b1 = batch("0.1", "0.2",
+                                         EUpdateEventType.Update, "hostname", "h1",
+                                         EUpdateEventType.Add, "timeout", "10");
+            ConfigUpdateBatch b2 = batch("0.2", "0.3",
+                                         EUpdateEventType.Update, "hostname", "h2",
+                                         EUpdateEventType.Remove, "timeout", "");
+            ConfigUpdateBatch b3 = batch("0.3", "0.4",
+                                         EUpdateEventType.Remove, "port", "",
+                                         EUpdateEventType.Add, "port", "5673");
+            // Doesn't chain (version gap).
+            ConfigUpdateBatch b4 = batch("0.5", "0.6",
+                                         EUpdateEventType.Remove, "hostname", "");
+            // Cannot be merged (Update after Remove).
+            ConfigUpdateBatch b5 = batch("0.6", "0.7",
+                                         EUpdateEventType.Update, "hostname", "h3");
+
+            List<ConfigUpdateBatch> batches = ConfigurationUpdateHandler
+                    .coalesce(Arrays.asList(b1, b2, b3, b4, b5));
+            assertEquals(3, batches.size());
+
+            ConfigUpdateBatch merged = batches.get(0);
+            merged.validate();
+            assertEquals("0.1", merged.getHeader().getPreVersion());
+            assertEquals("0.4", merged.getHeader().getUpdatedVersion());
+            // Net changes: hostname updated, timeout added and removed (both
+            // kept, the Add can fail), port removed and re-added.
+            assertEquals(4, merged.getEvents().size());
+            ConfigUpdateEvent hostname = merged.getEvents().get(0);
+            assertEquals(EUpdateEventType.Update, hostname.getEventType());
+            assertEquals("hostname", hostname.getValue().getName());
+            assertEquals("h2", hostname.getValue().getValue());
+            assertEquals(EUpdateEventType.Add,
+                         merged.getEvents().get(1).getEventType());
+            assertEquals(EUpdateEventType.Remove,
+                         merged.getEvents().get(2).getEventType());
+            assertEquals("timeout", merged.getEvents().get(2).getValue().getName());
+            ConfigUpdateEvent port = merged.getEvents().get(3);
+            assertEquals(EUpdateEventType.Update, port.getEventType());
+            assertEquals("5673", port.getValue().getValue());
+
+            assertSame(b4, batches.get(1));
+            assertSame(b5, batches.get(2));
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void coalesceRollback() {
+        try {
+            ConfigUpdateBatch b1 = batch("0.1", "0.2",
+                                         EUpdateEventType.Update, "hostname", "h1");
+            ConfigUpdateBatch b2 = batch("0.2", "0.3",
+                                         EUpdateEventType.Update, "hostname", "h2",
+                                         EUpdateEventType.Add, "timeout", "10");
+            // Fails on the last event (Add after Update), the changes for the
+            // preceding events are rolled back.
+            ConfigUpdateBatch b3 = batch("0.3", "0.4",
+                                         EUpdateEventType.Update, "hostname", "h3",
+                                         EUpdateEventType.Remove, "timeout", "",
+                                         EUpdateEventType.Add, "port", "5673",
+                                         EUpdateEventType.Add, "hostname", "h4");
+
+            List<ConfigUpdateBatch> batches = ConfigurationUpdateHandler
+                    .coalesce(Arrays.asList(b1, b2, b3));
+            assertEquals(2, batches.size());
+
+            ConfigUpdateBatch merged = batches.get(0);
+            assertEquals("0.1", merged.getHeader().getPreVersion());
+            assertEquals("0.3", merged.getHeader().getUpdatedVersion());
+            assertEquals(2, merged.getEvents().size());
+            ConfigUpdateEvent hostname = merged.getEvents().get(0);
+            assertEquals(EUpdateEventType.Update, hostname.getEventType());
+            assertEquals("h2", hostname.getValue().getValue());
+            ConfigUpdateEvent timeout = merged.getEvents().get(1);
+            assertEquals(EUpdateEventType.Add, timeout.getEventType());
+            assertEquals("timeout", timeout.getValue().getName());
+
+            assertSame(b3, batches.get(1));
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void processSnapshot() {
+        try {
+            ConfigurationManager manager = new ConfigurationManager();
+            Configuration config =
+                    manager.load(CONFIG_NAME, CONFIG_FILE, Version.parse("0.*"),
+                                 new ConfigurationSettings(), null);
+            String hostname = PATH + "hostname";
+            ConfigurationUpdateHandler handler = new ConfigurationUpdateHandler();
+            handler.setCopyOnWrite(true);
+
+            // Fails on the last event (port exists), nothing is published.
+            ConfigUpdateBatch failed = batch("0.0", "0.1",
+                                             EUpdateEventType.Update, "hostname", "h1",
+                                             EUpdateEventType.Add, "port", "5673");
+            assertThrows(ConfigurationException.class,
+                         () -> handler.processSnapshot(failed, manager));
+            assertSame(config, manager.get(CONFIG_NAME));
+            assertFalse(config.isFrozen());
+            assertEquals("localhost",
+                         ((ConfigValueNode) config.find(hostname)).getValue());
+
+            handler.processSnapshot(batch("0.0", "0.1",
+                                          EUpdateEventType.Update, "hostname", "h1"),
+                                    manager);
+            Configuration snapshot = manager.get(CONFIG_NAME);
+            assertNotSame(config, snapshot);
+            assertTrue(config.isFrozen());
+            assertTrue(snapshot.isFrozen());
+            assertEquals(Version.parse("0.1"), snapshot.getVersion());
+            assertEquals("h1",
+                         ((ConfigValueNode) snapshot.find(hostname)).getValue());
+            assertEquals("localhost",
+                         ((ConfigValueNode) config.find(hostname)).getValue());
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void processInPlace() {
+        try {
+            ConfigurationManager manager = new ConfigurationManager();
+            Configuration config =
+                    manager.load(CONFIG_NAME, CONFIG_FILE, Version.parse("0.*"),
+                                 new ConfigurationSettings(), null);
+            ConfigurationUpdateHandler handler = new ConfigurationUpdateHandler();
+
+            // Fails on the last event (hostname exists), the applied events
+            // are rolled back.
+            ConfigUpdateBatch failed = batch("0.0", "0.1",
+                                             EUpdateEventType.Update, "hostname", "h1",
+                                             EUpdateEventType.Remove, "port", "",
+                                             EUpdateEventType.Add, "timeout", "10",
+                                             EUpdateEventType.Add, "hostname", "h2");
+            assertThrows(ConfigurationException.class,
+                         () -> handler.processInPlace(failed, manager));
+            assertSame(config, manager.get(CONFIG_NAME));
+            assertEquals(Version.parse("0.0"), config.getVersion());
+            assertEquals("localhost",
+                         ((ConfigValueNode) config.find(PATH + "hostname")).getValue());
+            assertEquals("5672",
+                         ((ConfigValueNode) config.find(PATH + "port")).getValue());
+            assertNull(config.find(PATH + "timeout"));
+
+            handler.processInPlace(batch("0.0", "0.1",
+                                         EUpdateEventType.Update, "hostname", "h1",
+                                         EUpdateEventType.Remove, "port", ""),
+                                   manager);
+            assertEquals(Version.parse("0.1"), config.getVersion());
+            assertEquals("h1",
+                         ((ConfigValueNode) config.find(PATH + "hostname")).getValue());
+            assertNull(config.find(PATH + "port"));
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void resolveNodes() {
+        try {
+            ConfigurationManager manager = new ConfigurationManager();
+            Configuration config =
+                    manager.load(CONFIG_NAME, CONFIG_FILE, Version.parse("0.*"),
+                                 new ConfigurationSettings(), null);
+            String[] paths = {PATH, "zconfig/client/rmq/settings",
+                              "zconfig/client/rmq", "client/rmq/settings/#",
+                              "zconfig/client/missing/node", "zconfig/server"};
+            ConfigUpdateBatch batch = batch("0.1", "0.2");
+            for (String path : paths) {
+                ConfigUpdateEvent event = new ConfigUpdateEvent();
+                event.setHeader(batch.getHeader());
+                event.setEventType(EUpdateEventType.Update);
+                event.setPath(path);
+                batch.getEvents().add(event);
+            }
+            Map<String, AbstractConfigNode> nodes =
+                    ConfigurationUpdateHandler.resolveNodes(batch, config);
+            assertEquals(paths.length, nodes.size());
+            for (String path : paths) {
+                assertSame(config.find(path), nodes.get(path), path);
+            }
+            assertNotNull(nodes.get(PATH));
+            assertNull(nodes.get("zconfig/client/missing/node"));
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t);
+        }
+    }
+}
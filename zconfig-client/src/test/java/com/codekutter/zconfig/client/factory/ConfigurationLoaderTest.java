@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 17/10/20 6:30 PM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.client.factory;
+
+import com.codekutter.zconfig.common.ConfigProviderFactory;
+import com.codekutter.zconfig.common.ConfigurationException;
+import com.codekutter.zconfig.common.LogUtils;
+import com.codekutter.zconfig.common.SnapshotConfigConstants;
+import com.codekutter.zconfig.common.model.Configuration;
+import com.codekutter.zconfig.common.model.ConfigurationSettings;
+import com.codekutter.zconfig.common.model.Version;
+import com.codekutter.zconfig.common.model.nodes.AbstractConfigNode;
+import com.codekutter.zconfig.common.model.nodes.ConfigPathNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurationLoaderTest {
+    private static final String CONFIG_FILE =
+            "src/main/resources/zconfig-client.json";
+    private static final String CONFIG_VERSION = "0.*";
+    private static final String CONFIG_NAME = "zconfig-client";
+    private static final String CONFIG_DESCRIPTION =
+            "This is a Sample ZConfig Client configuration.";
+
+    @Test
+    void loadCached() {
+        try {
+            File dir = Files.createTempDirectory("zconfig-cache").toFile();
+            File source = new File(dir, "zconfig-client.json");
+            Files.copy(new File(CONFIG_FILE).toPath(), source.toPath());
+
+            ConfigurationSettings settings = new ConfigurationSettings();
+            settings.setTempDirectory(dir.getAbsolutePath());
+            settings.setCacheConfigurations(true);
+            Version version = Version.parse(CONFIG_VERSION);
+
+            ConfigurationLoader loader = new ConfigurationLoader();
+            Configuration configuration =
+                    loader.load(CONFIG_NAME, source.getAbsolutePath(), version,
+                                settings, null);
+            assertNotNull(configuration);
+            assertEquals(CONFIG_DESCRIPTION, configuration.getDescription());
+
+            File snapshot = new File(String.format("%s/cache/%s.%s",
+                                                   dir.getAbsolutePath(),
+                                                   ConfigurationCache.cacheKey(
+                                                           CONFIG_NAME,
+                                                           source.toURI(),
+                                                           ConfigProviderFactory.EConfigType.JSON,
+                                                           version),
+                                                   SnapshotConfigConstants.FILE_EXTENSION));
+            assertTrue(snapshot.exists());
+            long cached = snapshot.lastModified();
+
+            // Unchanged source (only touched), served from the snapshot.
+            assertTrue(source.setLastModified(
+                    source.lastModified() - 10000));
+            Configuration second =
+                    loader.load(CONFIG_NAME, source.getAbsolutePath(), version,
+                                settings, null);
+            assertEquals(configuration.getId(), second.getId());
+            assertEquals(CONFIG_DESCRIPTION, second.getDescription());
+            assertEquals(cached, snapshot.lastModified());
+
+            // Changed source, re-parsed.
+            String data = new String(Files.readAllBytes(source.toPath()),
+                                     StandardCharsets.UTF_8);
+            Files.write(source.toPath(),
+                        data.replace(CONFIG_DESCRIPTION, "Updated Description")
+                            .getBytes(StandardCharsets.UTF_8));
+            Configuration third =
+                    loader.load(CONFIG_NAME, source.getAbsolutePath(), version,
+                                settings, null);
+            assertEquals("Updated Description", third.getDescription());
+
+            // Source removed, served from the snapshot.
+            assertTrue(source.delete());
+            Configuration fallback =
+                    loader.load(CONFIG_NAME, source.getAbsolutePath(), version,
+                                settings, null);
+            assertEquals("Updated Description", fallback.getDescription());
+
+            settings.setCacheConfigurations(false);
+            assertThrows(ConfigurationException.class,
+                         () -> loader.load(CONFIG_NAME, source.getAbsolutePath(),
+                                           version, settings, null));
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void loadLazyNotCached() {
+        try {
+            File dir = Files.createTempDirectory("zconfig-cache").toFile();
+            File source = new File(dir, "zconfig-client.json");
+            Files.copy(new File(CONFIG_FILE).toPath(), source.toPath());
+
+            ConfigurationSettings settings = new ConfigurationSettings();
+            settings.setTempDirectory(dir.getAbsolutePath());
+            settings.setCacheConfigurations(true);
+            settings.setParseMode(ConfigurationSettings.EParseMode.Lazy);
+            Version version = Version.parse(CONFIG_VERSION);
+
+            // Deferred branches are not loaded to write a snapshot.
+            Configuration configuration =
+                    new ConfigurationLoader().load(CONFIG_NAME,
+                                                   source.getAbsolutePath(),
+                                                   version, settings, null);
+            assertEquals(CONFIG_DESCRIPTION, configuration.getDescription());
+            AbstractConfigNode client =
+                    configuration.getRootConfigNode().getChildNode("client");
+            assertTrue(client instanceof ConfigPathNode);
+            assertFalse(((ConfigPathNode) client).isMaterialized());
+            File snapshot = new File(String.format("%s/cache/%s.%s",
+                                                   dir.getAbsolutePath(),
+                                                   ConfigurationCache.cacheKey(
+                                                           CONFIG_NAME,
+                                                           source.toURI(),
+                                                           ConfigProviderFactory.EConfigType.JSON,
+                                                           version),
+                                                   SnapshotConfigConstants.FILE_EXTENSION));
+            assertFalse(snapshot.exists());
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void loadCachedEnvironment() {
+        String property = "zconfig.test.hostname";
+        try {
+            File dir = Files.createTempDirectory("zconfig-cache").toFile();
+            File source = new File(dir, "zconfig-client.json");
+            String data = new String(Files.readAllBytes(
+                    new File(CONFIG_FILE).toPath()), StandardCharsets.UTF_8);
+            Files.write(source.toPath(),
+                        data.replace("\"hostname\": \"localhost\"",
+                                     "\"hostname\": \"${" + property + "}\"")
+                            .getBytes(StandardCharsets.UTF_8));
+
+            ConfigurationSettings settings = new ConfigurationSettings();
+            settings.setTempDirectory(dir.getAbsolutePath());
+            settings.setCacheConfigurations(true);
+            Version version = Version.parse(CONFIG_VERSION);
+            File snapshot = new File(String.format("%s/cache/%s.%s",
+                                                   dir.getAbsolutePath(),
+                                                   ConfigurationCache.cacheKey(
+                                                           CONFIG_NAME,
+                                                           source.toURI(),
+                                                           ConfigProviderFactory.EConfigType.JSON,
+                                                           version),
+                                                   SnapshotConfigConstants.FILE_EXTENSION));
+
+            System.setProperty(property, "rmq-host-1");
+            ConfigurationLoader loader = new ConfigurationLoader();
+            Configuration configuration =
+                    loader.load(CONFIG_NAME, source.getAbsolutePath(), version,
+                                settings, null);
+            assertEquals("rmq-host-1", hostname(configuration));
+            assertTrue(snapshot.exists());
+            assertTrue(snapshot.setLastModified(
+                    snapshot.lastModified() - 10000));
+            long cached = snapshot.lastModified();
+
+            // Unchanged property, served from the snapshot.
+            configuration = loader.load(CONFIG_NAME, source.getAbsolutePath(),
+                                        version, settings, null);
+            assertEquals("rmq-host-1", hostname(configuration));
+            assertEquals(cached, snapshot.lastModified());
+
+            // Changed property, re-parsed.
+            System.setProperty(property, "rmq-host-2");
+            configuration = loader.load(CONFIG_NAME, source.getAbsolutePath(),
+                                        version, settings, null);
+            assertEquals("rmq-host-2", hostname(configuration));
+            assertNotEquals(cached, snapshot.lastModified());
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t);
+        } finally {
+            System.clearProperty(property);
+        }
+    }
+
+    private static String hostname(Configuration configuration)
+    throws ConfigurationException {
+        return ((ConfigPathNode) configuration.find("zconfig/client/rmq/settings"))
+                .parmeters().getValue("hostname").getValue();
+    }
+
+    @Test
+    void loadUncachedSource() {
+        try {
+            File dir = Files.createTempDirectory("zconfig-cache").toFile();
+            ConfigurationSettings settings = new ConfigurationSettings();
+            settings.setTempDirectory(dir.getAbsolutePath());
+            settings.setCacheConfigurations(true);
+            Version version = Version.parse(CONFIG_VERSION);
+            String uri = "ftp://localhost/zconfig/zconfig-client.json";
+
+            assertFalse(ConfigurationCache.isSupported(new URI(uri)));
+            assertTrue(ConfigurationCache.isSupported(
+                    new File(CONFIG_FILE).toURI()));
+
+            // Sources that can't be cached are loaded directly.
+            ConfigurationLoader loader = new ConfigurationLoader();
+            ConfigurationException cached =
+                    assertThrows(ConfigurationException.class,
+                                 () -> loader.load(CONFIG_NAME, uri,
+                                                   ConfigProviderFactory.EConfigType.JSON,
+                                                   version, settings, null));
+            settings.setCacheConfigurations(false);
+            ConfigurationException direct =
+                    assertThrows(ConfigurationException.class,
+                                 () -> loader.load(CONFIG_NAME, uri,
+                                                   ConfigProviderFactory.EConfigType.JSON,
+                                                   version, settings, null));
+            assertEquals(direct.getMessage(), cached.getMessage());
+            assertFalse(new File(dir, "cache").exists());
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t);
+        }
+    }
+}
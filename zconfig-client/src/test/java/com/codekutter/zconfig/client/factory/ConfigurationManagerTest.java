@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 21/10/20 11:15 AM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.client.factory;
+
+import com.codekutter.zconfig.common.ConfigBinders;
+import com.codekutter.zconfig.common.ConfigurationException;
+import com.codekutter.zconfig.common.IConfigBinder;
+import com.codekutter.zconfig.common.LogUtils;
+import com.codekutter.zconfig.common.model.Configuration;
+import com.codekutter.zconfig.common.model.ConfigurationSettings;
+import com.codekutter.zconfig.common.model.ESyncMode;
+import com.codekutter.zconfig.common.model.Version;
+import com.codekutter.zconfig.common.model.annotations.ConfigParam;
+import com.codekutter.zconfig.common.model.annotations.ConfigPath;
+import com.codekutter.zconfig.common.model.nodes.AbstractConfigNode;
+import com.codekutter.zconfig.common.model.nodes.ConfigPathNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurationManagerTest {
+    private static final String CONFIG_FILE =
+            "src/main/resources/zconfig-client.json";
+    private static final String CONFIG_VERSION = "0.*";
+    private static final String CONFIG_NAME = "zconfig-client";
+    private static final String SETTINGS_PATH = "zconfig/client/rmq/settings";
+
+    @ConfigPath(path = SETTINGS_PATH)
+    public static class RmqSettings {
+        @ConfigParam(name = "hostname")
+        private String hostname;
+        @ConfigParam(name = "port")
+        private int port;
+        private int hostnameSets = 0;
+        private int portSets = 0;
+
+        public String getHostname() {
+            return hostname;
+        }
+
+        public void setHostname(String hostname) {
+            this.hostname = hostname;
+            hostnameSets++;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+            portSets++;
+        }
+    }
+
+    @Test
+    void fieldListeners() {
+        try {
+            ConfigurationManager manager = new ConfigurationManager();
+            Configuration config =
+                    manager.load(CONFIG_NAME, CONFIG_FILE,
+                                 Version.parse(CONFIG_VERSION),
+                                 new ConfigurationSettings(), null);
+            config.setSyncMode(ESyncMode.EVENTS);
+
+            RmqSettings settings =
+                    manager.autowireType(RmqSettings.class, CONFIG_NAME, null);
+            List<String> changes = new ArrayList<>();
+            IFieldChangeListener listener =
+                    (instance, field, oldValue, newValue) -> {
+                        assertSame(settings, instance);
+                        changes.add(String.format("%s:%s:%s", field, oldValue,
+                                                  newValue));
+                    };
+            manager.addFieldListener(settings, "hostname", listener);
+            assertThrows(ConfigurationException.class,
+                         () -> manager.addFieldListener(settings, "hostnameSets",
+                                                        listener));
+            assertThrows(ConfigurationException.class,
+                         () -> manager.addFieldListener(new RmqSettings(),
+                                                        "hostname", listener));
+
+            ConfigPathNode node = (ConfigPathNode) config.find(SETTINGS_PATH);
+            node.parmeters().getValue("hostname").setValue("rmq-host");
+            node.parmeters().getValue("port").setValue("5673");
+            manager.applyConfigurationUpdates(CONFIG_NAME, Collections
+                    .singletonList("client/rmq/settings"));
+            assertEquals(5673, settings.getPort());
+            assertEquals(Collections.singletonList("hostname:localhost:rmq-host"),
+                         changes);
+
+            // Unchanged values are not notified.
+            manager.applyConfigurationUpdates(CONFIG_NAME, Collections
+                    .singletonList("client/rmq/settings"));
+            assertEquals(1, changes.size());
+
+            assertTrue(manager.removeFieldListener(settings, "hostname", listener));
+            node.parmeters().getValue("hostname").setValue("rmq-host-2");
+            manager.applyConfigurationUpdates(CONFIG_NAME, Collections
+                    .singletonList("client/rmq/settings"));
+            assertEquals("rmq-host-2", settings.getHostname());
+            assertEquals(1, changes.size());
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void applyConfigurationUpdates() {
+        try {
+            ConfigurationManager manager = new ConfigurationManager();
+            Configuration config =
+                    manager.load(CONFIG_NAME, CONFIG_FILE,
+                                 Version.parse(CONFIG_VERSION),
+                                 new ConfigurationSettings(), null);
+            config.setSyncMode(ESyncMode.EVENTS);
+
+            RmqSettings settings =
+                    manager.autowireType(RmqSettings.class, CONFIG_NAME, null);
+            assertNotNull(settings);
+            assertEquals("localhost", settings.getHostname());
+            assertEquals(5672, settings.getPort());
+            assertEquals(1, settings.hostnameSets);
+            assertEquals(1, settings.portSets);
+
+            ConfigPathNode node = (ConfigPathNode) config.find(SETTINGS_PATH);
+            node.parmeters().getValue("hostname").setValue("rmq-host");
+            node.parmeters().getValue("port").setValue("5673");
+
+            // Update to a parameter key, only the bound field is re-applied.
+            manager.applyConfigurationUpdates(CONFIG_NAME, Collections
+                    .singletonList("client/rmq/settings/#/hostname"));
+            assertEquals("rmq-host", settings.getHostname());
+            assertEquals(5672, settings.getPort());
+            assertEquals(2, settings.hostnameSets);
+            assertEquals(1, settings.portSets);
+
+            // Search path form of the key path.
+            manager.applyConfigurationUpdates(CONFIG_NAME, Collections
+                    .singletonList(SETTINGS_PATH + "#/port"));
+            assertEquals(5673, settings.getPort());
+            assertEquals(2, settings.hostnameSets);
+            assertEquals(2, settings.portSets);
+
+            // Unrelated paths.
+            manager.applyConfigurationUpdates(CONFIG_NAME, Arrays.asList(
+                    "zconfig/server/type", "client/rmq/settings/#/virtualHost"));
+            assertEquals(2, settings.hostnameSets);
+            assertEquals(2, settings.portSets);
+
+            // Update to a parent node, all the fields under it are re-applied
+            // (only changed values are set).
+            node.parmeters().getValue("hostname").setValue("rmq-host-2");
+            manager.applyConfigurationUpdates(CONFIG_NAME, Collections
+                    .singletonList("client/rmq"));
+            assertEquals("rmq-host-2", settings.getHostname());
+            assertEquals(3, settings.hostnameSets);
+            assertEquals(2, settings.portSets);
+
+            // Removed values leave the field unchanged.
+            assertTrue(node.parmeters().removeKeyValue("hostname"));
+            manager.applyConfigurationUpdates(CONFIG_NAME, Collections
+                    .singletonList("client/rmq"));
+            assertEquals("rmq-host-2", settings.getHostname());
+            assertEquals(3, settings.hostnameSets);
+            assertEquals(2, settings.portSets);
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void generatedBinder() {
+        try {
+            ConfigurationManager manager = new ConfigurationManager();
+            Configuration config =
+                    manager.load(CONFIG_NAME, CONFIG_FILE,
+                                 Version.parse(CONFIG_VERSION),
+                                 new ConfigurationSettings(), null);
+            IConfigBinder<RmqSettings> binder =
+                    ConfigBinders.get(RmqSettings.class);
+            assertNotNull(binder);
+
+            // Per-field reads record the bound value paths.
+            AbstractConfigNode node = config.find(SETTINGS_PATH);
+            List<String> paths = new ArrayList<>();
+            assertEquals(5672, binder.readField("port", node, paths));
+            assertEquals(1, paths.size());
+            assertSame(IConfigBinder.UNSET,
+                       binder.readField("port", config.find("zconfig/client"),
+                                        null));
+            assertThrows(ConfigurationException.class,
+                         () -> binder.readField("hostnameSets", node, null));
+
+            RmqSettings settings = new RmqSettings();
+            binder.setField("port", settings, 5673);
+            assertEquals(5673, settings.getPort());
+            assertTrue(binder.bindField("hostname", node, settings, null));
+            assertEquals("localhost", settings.getHostname());
+            assertEquals(1, settings.hostnameSets);
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void publishWithLock() {
+        try {
+            ConfigurationManager manager = new ConfigurationManager();
+            Configuration config =
+                    manager.load(CONFIG_NAME, CONFIG_FILE,
+                                 Version.parse(CONFIG_VERSION),
+                                 new ConfigurationSettings(), null);
+            assertThrows(ConfigurationException.class,
+                         () -> manager.getWithLock("not-loaded"));
+
+            Configuration snapshot = config.copy();
+            snapshot.loaded();
+            assertSame(config, manager.getWithLock(CONFIG_NAME));
+            CompletableFuture<Void> publish = CompletableFuture.runAsync(() -> {
+                try {
+                    manager.publish(snapshot);
+                } catch (ConfigurationException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            try {
+                // Publish waits for the update lock.
+                assertThrows(TimeoutException.class,
+                             () -> publish.get(200, TimeUnit.MILLISECONDS));
+                assertSame(config, manager.get(CONFIG_NAME));
+            } finally {
+                assertTrue(manager.releaseLock(CONFIG_NAME));
+            }
+            publish.get(5, TimeUnit.SECONDS);
+
+            // The handle is read under the lock (the published snapshot).
+            assertSame(snapshot, manager.getWithLock(CONFIG_NAME));
+            assertTrue(manager.releaseLock(CONFIG_NAME));
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 23/10/20 2:30 PM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.client.listeners;
+
+import com.codekutter.zconfig.common.LogUtils;
+import com.codekutter.zconfig.common.model.nodes.AbstractConfigNode;
+import com.codekutter.zconfig.transport.events.ConfigUpdateBatch;
+import com.codekutter.zconfig.transport.events.ConfigUpdateHeader;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AbstractUpdateListenerTest {
+    private static final class TestListener extends AbstractUpdateListener {
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<String> applied = new CopyOnWriteArrayList<>();
+
+        private TestListener() {
+            updateQueueCapacity = 1;
+            submitTimeout = 10;
+        }
+
+        @Override
+        protected void applyUpdateBatches(@Nonnull List<ConfigUpdateBatch> batches) {
+            try {
+                for (ConfigUpdateBatch batch : batches) {
+                    if (batch.getHeader().getConfigName().equals("slow")) {
+                        release.await();
+                    }
+                    applied.add(String.format("%s:%s",
+                                              batch.getHeader().getConfigName(),
+                                              batch.getHeader().getTransactionId()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void configure(@Nonnull AbstractConfigNode node) {
+        }
+
+        @Override
+        public void run() {
+        }
+    }
+
+    private static ConfigUpdateBatch batch(String configName, int sequence) {
+        ConfigUpdateHeader header = new ConfigUpdateHeader();
+        header.setConfigName(configName);
+        header.setTransactionId(String.valueOf(sequence));
+        ConfigUpdateBatch batch = new ConfigUpdateBatch();
+        batch.setHeader(header);
+        return batch;
+    }
+
+    @Test
+    void executeUpdateBatch() {
+        try {
+            TestListener listener = new TestListener();
+            assertTrue(listener.executeUpdateBatch(batch("slow", 0)));
+            // Wait for the first batch to be taken by a worker.
+            while (listener.getPipeline().getPending("slow") > 0) {
+                Thread.sleep(5);
+            }
+            assertTrue(listener.executeUpdateBatch(batch("slow", 1)));
+
+            // Queue full : not accepted (without blocking other configurations).
+            assertFalse(listener.executeUpdateBatch(batch("slow", 2)));
+            // Later batches are kept behind the re-delivered batch.
+            assertFalse(listener.executeUpdateBatch(batch("slow", 3)));
+            assertTrue(listener.executeUpdateBatch(batch("fast", 0)));
+            // Receiving stays paused till the blocked queue has space.
+            assertFalse(listener.canResume());
+
+            listener.release.countDown();
+            while (listener.getPipeline().getPending() > 0) {
+                Thread.sleep(5);
+            }
+            assertTrue(listener.canResume());
+            assertFalse(listener.executeUpdateBatch(batch("slow", 3)));
+            assertTrue(listener.executeUpdateBatch(batch("slow", 2)));
+            while (listener.getPipeline().getPending() > 0) {
+                Thread.sleep(5);
+            }
+            assertTrue(listener.executeUpdateBatch(batch("slow", 3)));
+            listener.shutdown();
+
+            List<String> slow = new CopyOnWriteArrayList<>();
+            for (String applied : listener.applied) {
+                if (applied.startsWith("slow")) {
+                    slow.add(applied);
+                }
+            }
+            assertEquals(4, slow.size());
+            for (int ii = 0; ii < 4; ii++) {
+                assertEquals("slow:" + ii, slow.get(ii));
+            }
+            assertTrue(listener.applied.contains("fast:0"));
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t);
+        }
+    }
+}
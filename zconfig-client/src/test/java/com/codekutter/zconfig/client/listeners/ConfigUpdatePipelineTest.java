@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 22/10/20 11:30 AM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.client.listeners;
+
+import com.codekutter.zconfig.common.LogUtils;
+import com.codekutter.zconfig.transport.events.ConfigUpdateBatch;
+import com.codekutter.zconfig.transport.events.ConfigUpdateHeader;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigUpdatePipelineTest {
+    private static ConfigUpdateBatch batch(String configName, int sequence) {
+        ConfigUpdateHeader header = new ConfigUpdateHeader();
+        header.setConfigName(configName);
+        header.setTransactionId(String.valueOf(sequence));
+        ConfigUpdateBatch batch = new ConfigUpdateBatch();
+        batch.setHeader(header);
+        return batch;
+    }
+
+    @Test
+    void orderedPerConfiguration() {
+        try {
+            int count = 200;
+            Map<String, List<Integer>> applied = new ConcurrentHashMap<>();
+            ConfigUpdatePipeline pipeline = new ConfigUpdatePipeline(
+                    (batches) -> {
+                        for (ConfigUpdateBatch batch : batches) {
+                            String name = batch.getHeader().getConfigName();
+                            applied.computeIfAbsent(name,
+                                                    (k) -> new ArrayList<>())
+                                   .add(Integer.parseInt(batch.getHeader()
+                                                              .getTransactionId()));
+                        }
+                    }, 4, 8);
+            for (int ii = 0; ii < count; ii++) {
+                for (int jj = 0; jj < 3; jj++) {
+                    pipeline.submit(batch("config-" + jj, ii));
+                }
+            }
+            assertTrue(pipeline.shutdown(10, TimeUnit.SECONDS));
+            assertEquals(3, applied.size());
+            for (List<Integer> sequence : applied.values()) {
+                assertEquals(count, sequence.size());
+                for (int ii = 0; ii < count; ii++) {
+                    assertEquals(ii, (int) sequence.get(ii));
+                }
+            }
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void parallelAndBackpressure() {
+        try {
+            CountDownLatch blocked = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch other = new CountDownLatch(1);
+            ConfigUpdatePipeline pipeline = new ConfigUpdatePipeline(
+                    (batches) -> {
+                        if (batches.get(0).getHeader().getConfigName()
+                                   .equals("slow")) {
+                            blocked.countDown();
+                            release.await();
+                        } else {
+                            other.countDown();
+                        }
+                    }, 2, 2);
+            pipeline.submit(batch("slow", 0));
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+            // A slow configuration doesn't block the others.
+            pipeline.submit(batch("fast", 0));
+            assertTrue(other.await(5, TimeUnit.SECONDS));
+
+            // Queue of the slow configuration fills up.
+            assertTrue(pipeline.submit(batch("slow", 1), 1, TimeUnit.SECONDS));
+            assertTrue(pipeline.submit(batch("slow", 2), 1, TimeUnit.SECONDS));
+            assertTrue(pipeline.isSaturated("slow"));
+            assertFalse(pipeline.isSaturated("fast"));
+            assertFalse(pipeline.submit(batch("slow", 3), 10,
+                                        TimeUnit.MILLISECONDS));
+            assertEquals(2, pipeline.getPending("slow"));
+
+            release.countDown();
+            assertTrue(pipeline.shutdown(5, TimeUnit.SECONDS));
+            assertEquals(0, pipeline.getPending());
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void coalesceWindow() {
+        try {
+            List<Integer> sizes = new ArrayList<>();
+            ConfigUpdatePipeline pipeline = new ConfigUpdatePipeline(
+                    (batches) -> sizes.add(batches.size()), 1, 8);
+            pipeline.setCoalesceWindow(500, TimeUnit.MILLISECONDS);
+            for (int ii = 0; ii < 4; ii++) {
+                pipeline.submit(batch("config", ii));
+            }
+            assertTrue(pipeline.shutdown(5, TimeUnit.SECONDS));
+            // Batches submitted within the window are applied together.
+            assertEquals(1, sizes.size());
+            assertEquals(4, (int) sizes.get(0));
+
+            // Window source is read on each drain.
+            AtomicLong window = new AtomicLong(0);
+            List<Integer> drained = new CopyOnWriteArrayList<>();
+            pipeline = new ConfigUpdatePipeline(
+                    (batches) -> drained.add(batches.size()), 1, 8);
+            pipeline.setCoalesceWindow(window::get);
+            pipeline.submit(batch("config", 0));
+            while (pipeline.getPending() > 0 || drained.isEmpty()) {
+                Thread.sleep(5);
+            }
+            window.set(500);
+            for (int ii = 1; ii < 4; ii++) {
+                pipeline.submit(batch("config", ii));
+            }
+            assertTrue(pipeline.shutdown(5, TimeUnit.SECONDS));
+            assertEquals(2, drained.size());
+            assertEquals(3, (int) drained.get(1));
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void coalesceWindowOnTimer() {
+        try {
+            AtomicLong window = new AtomicLong(5000);
+            List<String> applied = new CopyOnWriteArrayList<>();
+            CountDownLatch fast = new CountDownLatch(1);
+            ConfigUpdatePipeline pipeline = new ConfigUpdatePipeline(
+                    (batches) -> {
+                        String name = batches.get(0).getHeader().getConfigName();
+                        applied.add(name);
+                        if (name.equals("fast")) {
+                            fast.countDown();
+                        }
+                    }, 1, 2);
+            pipeline.setCoalesceWindow(window::get);
+            pipeline.submit(batch("slow", 0));
+
+            // The only worker isn't held while the slow configuration waits
+            // for it's window.
+            window.set(0);
+            pipeline.submit(batch("fast", 0));
+            assertTrue(fast.await(1, TimeUnit.SECONDS));
+            assertFalse(applied.contains("slow"));
+
+            // A full queue doesn't wait out the window.
+            window.set(5000);
+            pipeline.submit(batch("full", 0));
+            pipeline.submit(batch("full", 1));
+            long start = System.currentTimeMillis();
+            while (!applied.contains("full")
+                    && System.currentTimeMillis() - start < 1000) {
+                Thread.sleep(5);
+            }
+            assertTrue(applied.contains("full"));
+            assertFalse(applied.contains("slow"));
+
+            // Delayed drains are started on shutdown.
+            assertTrue(pipeline.shutdown(1, TimeUnit.SECONDS));
+            assertTrue(applied.contains("slow"));
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t);
+        }
+    }
+}
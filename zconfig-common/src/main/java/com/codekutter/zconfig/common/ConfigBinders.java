@@ -0,0 +1,511 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 16/10/20 5:05 PM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common;
+
+import com.codekutter.zconfig.common.model.nodes.*;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Registry of generated configuration binders and the runtime support methods
+ * used by the generated binder code.
+ * <p>
+ * Binders are looked up once per type, types without a generated binder are
+ * bound by the reflective annotation processor.
+ */
+public final class ConfigBinders {
+    /**
+     * Suffix of the generated binder class names.
+     */
+    public static final String BINDER_SUFFIX = "$$ConfigBinder";
+
+    private static final ClassValue<Optional<IConfigBinder<?>>> binders =
+            new ClassValue<Optional<IConfigBinder<?>>>() {
+                @Override
+                protected Optional<IConfigBinder<?>> computeValue(Class<?> type) {
+                    return Optional.ofNullable(load(type));
+                }
+            };
+
+    private ConfigBinders() {
+    }
+
+    /**
+     * Get the generated binder for the specified type.
+     *
+     * @param type - Annotated type.
+     * @param <T>  - Annotated type.
+     * @return - Generated binder or NULL if none exists.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> IConfigBinder<T> get(@Nonnull Class<? extends T> type) {
+        Preconditions.checkArgument(type != null);
+        return (IConfigBinder<T>) binders.get(type).orElse(null);
+    }
+
+    /**
+     * Get the generated binder class name for the specified type (binary
+     * name of the type, nested type names are joined with '$').
+     *
+     * @param type - Annotated type.
+     * @return - Binder class name.
+     */
+    public static String getBinderName(@Nonnull Class<?> type) {
+        Preconditions.checkArgument(type != null);
+        return type.getName() + BINDER_SUFFIX;
+    }
+
+    /**
+     * Load and create the generated binder for the type, if present.
+     *
+     * @param type - Annotated type.
+     * @return - Binder instance or NULL.
+     */
+    private static IConfigBinder<?> load(Class<?> type) {
+        ClassLoader loader = type.getClassLoader();
+        if (loader == null || type.isAnonymousClass() || type.isLocalClass()) {
+            return null;
+        }
+        try {
+            Class<?> cls = Class.forName(getBinderName(type), true, loader);
+            if (IConfigBinder.class.isAssignableFrom(cls)) {
+                return (IConfigBinder<?>) cls.newInstance();
+            }
+        } catch (ClassNotFoundException e) {
+            // No generated binder, use reflection.
+        } catch (Exception e) {
+            LogUtils.warn(ConfigBinders.class, String.format(
+                    "Error creating binder, using reflection. [type=%s][error=%s]",
+                    type.getCanonicalName(), e.getLocalizedMessage()));
+        }
+        return null;
+    }
+
+    /**
+     * Get the String value of a @ConfigValue field.
+     *
+     * @param node       - Configuration node of the type.
+     * @param name       - Value name/path.
+     * @param required   - Is value required?
+     * @param valuePaths - List to add the value path to (can be NULL).
+     * @return - Value or NULL if not found/empty.
+     * @throws ConfigurationException
+     */
+    public static String value(@Nonnull AbstractConfigNode node,
+                               @Nonnull String name, boolean required,
+                               List<String> valuePaths)
+    throws ConfigurationException {
+        String value = null;
+        if (node instanceof ConfigPathNode) {
+            AbstractConfigNode fnode = node.find(name);
+            if (fnode != null) {
+                if (fnode instanceof ConfigValueNode) {
+                    ConfigValueNode cv = (ConfigValueNode) fnode;
+                    if (cv.isEncrypted()) {
+                        throw new ConfigurationException(String.format(
+                                "Encrypted value cannot be used. [path=%s]",
+                                cv.getSearchPath()));
+                    }
+                    value = cv.getValue();
+                }
+                if (valuePaths != null) {
+                    valuePaths.add(fnode.getSearchPath());
+                }
+            }
+        }
+        if (Strings.isNullOrEmpty(value)) {
+            if (required) {
+                throw new ConfigurationException(String.format(
+                        "Required configuration value not specified: [path=%s][name=%s]",
+                        node.getAbsolutePath(), name));
+            }
+            return null;
+        }
+        return value;
+    }
+
+    /**
+     * Get the String value of a @ConfigParam field.
+     *
+     * @param node       - Configuration node of the type.
+     * @param name       - Parameter name ([path]#name).
+     * @param required   - Is value required?
+     * @param valuePaths - List to add the node path to (can be NULL).
+     * @return - Value or NULL if not found/empty.
+     * @throws ConfigurationException
+     */
+    public static String parameter(@Nonnull AbstractConfigNode node,
+                                   @Nonnull String name, boolean required,
+                                   List<String> valuePaths)
+    throws ConfigurationException {
+        return keyValue(node, name, ConfigParametersNode.NODE_ABBR_PREFIX,
+                        required, valuePaths);
+    }
+
+    /**
+     * Get the String value of a @ConfigAttribute field.
+     *
+     * @param node       - Configuration node of the type.
+     * @param name       - Attribute name ([path]@name).
+     * @param required   - Is value required?
+     * @param valuePaths - List to add the node path to (can be NULL).
+     * @return - Value or NULL if not found/empty.
+     * @throws ConfigurationException
+     */
+    public static String attribute(@Nonnull AbstractConfigNode node,
+                                   @Nonnull String name, boolean required,
+                                   List<String> valuePaths)
+    throws ConfigurationException {
+        return keyValue(node, name, ConfigAttributesNode.NODE_ABBR_PREFIX,
+                        required, valuePaths);
+    }
+
+    /**
+     * Apply a field using the reflective annotation processor. Used by generated
+     * binders for fields that are not bound directly.
+     *
+     * @param type       - Annotated type.
+     * @param field      - Field name.
+     * @param node       - Configuration node of the type.
+     * @param target     - Target instance.
+     * @param valuePaths - List to add the bound value paths to (can be NULL).
+     * @param <T>        - Annotated type.
+     * @return - Is the value defined? (field is left unchanged if not)
+     * @throws ConfigurationException
+     */
+    public static <T> boolean bindField(@Nonnull Class<? extends T> type,
+                                     @Nonnull String field,
+                                     @Nonnull AbstractConfigNode node,
+                                     @Nonnull T target,
+                                     List<String> valuePaths)
+    throws ConfigurationException {
+        return ConfigurationAnnotationProcessor
+                .processField(type, node, target, binding(type, field),
+                              valuePaths);
+    }
+
+    /**
+     * Read a field using the reflective annotation processor. Used by
+     * generated binders for fields that are not bound directly.
+     *
+     * @param type       - Annotated type.
+     * @param field      - Field name.
+     * @param node       - Configuration node of the type.
+     * @param valuePaths - List to add the bound value paths to (can be NULL).
+     * @param <T>        - Annotated type.
+     * @return - Field value or UNSET if not defined.
+     * @throws ConfigurationException
+     */
+    public static <T> Object readBinding(@Nonnull Class<? extends T> type,
+                                         @Nonnull String field,
+                                         @Nonnull AbstractConfigNode node,
+                                         List<String> valuePaths)
+    throws ConfigurationException {
+        return ConfigurationAnnotationProcessor
+                .readField(type, node, binding(type, field), valuePaths);
+    }
+
+    /**
+     * Set a field using the field binding. Used by generated binders for
+     * fields that are not bound directly.
+     *
+     * @param type   - Annotated type.
+     * @param field  - Field name.
+     * @param target - Target instance.
+     * @param value  - Value to set.
+     * @param <T>    - Annotated type.
+     * @throws ConfigurationException
+     */
+    public static <T> void setBinding(@Nonnull Class<? extends T> type,
+                                      @Nonnull String field,
+                                      @Nonnull T target, Object value)
+    throws ConfigurationException {
+        try {
+            binding(type, field).setValue(target, value);
+        } catch (ConfigurationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    /**
+     * Apply the annotated fields one at a time and invoke the auto-invoke
+     * methods. Fields are applied by the generated binder (if any) or the
+     * reflective annotation processor. The value paths are recorded per
+     * field, so that the fields impacted by an update can be re-applied
+     * individually (see readField()).
+     *
+     * @param type       - Annotated type.
+     * @param node       - Configuration node of the type.
+     * @param target     - Target instance.
+     * @param fieldPaths - Map to add the bound value paths to (by field name).
+     * @param <T>        - Annotated type.
+     * @throws ConfigurationException
+     */
+    public static <T> void bindFields(@Nonnull Class<? extends T> type,
+                                      @Nonnull AbstractConfigNode node,
+                                      @Nonnull T target,
+                                      @Nonnull Map<String, List<String>> fieldPaths)
+    throws ConfigurationException {
+        Preconditions.checkArgument(fieldPaths != null);
+        IConfigBinder<T> binder = get(type);
+        for (ConfigBindingPlan.FieldBinding binding :
+                ConfigBindingPlan.get(type).getFields()) {
+            List<String> paths = fieldPaths.computeIfAbsent(
+                    binding.getField().getName(), (k) -> new ArrayList<>());
+            if (binder != null) {
+                binder.bindField(binding.getField().getName(), node, target,
+                                 paths);
+            } else {
+                ConfigurationAnnotationProcessor
+                        .processField(type, node, target, binding, paths);
+            }
+        }
+        invokeMethods(type, node, target);
+    }
+
+    /**
+     * Read the value of an annotated field from the configuration node,
+     * without setting it on an instance. Values are read by the generated
+     * binder (if any) or converted the same way as bindField().
+     *
+     * @param type   - Annotated type.
+     * @param field  - Field name.
+     * @param node   - Configuration node of the type.
+     * @param values - Map to add the field value to (by field name).
+     * @param <T>    - Annotated type.
+     * @return - Is the value defined? (field is left unchanged if not)
+     * @throws ConfigurationException
+     */
+    public static <T> boolean readField(@Nonnull Class<? extends T> type,
+                                        @Nonnull String field,
+                                        @Nonnull AbstractConfigNode node,
+                                        @Nonnull Map<String, Object> values)
+    throws ConfigurationException {
+        Preconditions.checkArgument(values != null);
+        IConfigBinder<T> binder = get(type);
+        Object value = (binder != null ? binder.readField(field, node, null) :
+                readBinding(type, field, node, null));
+        if (value == IConfigBinder.UNSET) {
+            return false;
+        }
+        values.put(field, value);
+        return true;
+    }
+
+    /**
+     * Get the current value of an annotated field.
+     *
+     * @param type   - Annotated type.
+     * @param field  - Field name.
+     * @param target - Target instance.
+     * @param <T>    - Annotated type.
+     * @return - Field value.
+     * @throws ConfigurationException
+     */
+    public static <T> Object getFieldValue(@Nonnull Class<? extends T> type,
+                                           @Nonnull String field,
+                                           @Nonnull T target)
+    throws ConfigurationException {
+        try {
+            return binding(type, field).getValue(target);
+        } catch (ConfigurationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    /**
+     * Set the value of an annotated field, using the generated binder (if
+     * any).
+     *
+     * @param type   - Annotated type.
+     * @param field  - Field name.
+     * @param target - Target instance.
+     * @param value  - Value to set.
+     * @param <T>    - Annotated type.
+     * @throws ConfigurationException
+     */
+    public static <T> void setFieldValue(@Nonnull Class<? extends T> type,
+                                         @Nonnull String field,
+                                         @Nonnull T target, Object value)
+    throws ConfigurationException {
+        IConfigBinder<T> binder = get(type);
+        if (binder != null) {
+            binder.setField(field, target, value);
+        } else {
+            setBinding(type, field, target, value);
+        }
+    }
+
+    /**
+     * Get the binding of an annotated field.
+     *
+     * @param type  - Annotated type.
+     * @param field - Field name.
+     * @return - Field binding.
+     * @throws ConfigurationException - If the field is not annotated.
+     */
+    private static ConfigBindingPlan.FieldBinding binding(Class<?> type,
+                                                         String field)
+    throws ConfigurationException {
+        ConfigBindingPlan.FieldBinding binding =
+                ConfigBindingPlan.get(type).getField(field);
+        if (binding == null) {
+            throw new ConfigurationException(String.format(
+                    "Annotated field not found. [type=%s][field=%s]",
+                    type.getCanonicalName(), field));
+        }
+        return binding;
+    }
+
+    /**
+     * Invoke all the auto-invoke methods of the type.
+     *
+     * @param type   - Annotated type.
+     * @param node   - Configuration node of the type.
+     * @param target - Target instance.
+     * @param <T>    - Annotated type.
+     * @throws ConfigurationException
+     */
+    public static <T> void invokeMethods(@Nonnull Class<? extends T> type,
+                                         @Nonnull AbstractConfigNode node,
+                                         @Nonnull T target)
+    throws ConfigurationException {
+        for (ConfigBindingPlan.InvokeBinding binding :
+                ConfigBindingPlan.get(type).getMethods()) {
+            ConfigurationAnnotationProcessor
+                    .processMethod(type, node, target, binding);
+        }
+    }
+
+    /**
+     * Invoke an auto-invoke method using the annotation processor. Used by
+     * generated binders for @MethodInvoke methods.
+     *
+     * @param type       - Annotated type.
+     * @param method     - Method name.
+     * @param paramTypes - Method parameter types.
+     * @param node       - Configuration node of the type.
+     * @param target     - Target instance.
+     * @param <T>        - Annotated type.
+     * @throws ConfigurationException
+     */
+    public static <T> void invoke(@Nonnull Class<? extends T> type,
+                                  @Nonnull String method,
+                                  @Nonnull Class<?>[] paramTypes,
+                                  @Nonnull AbstractConfigNode node,
+                                  @Nonnull T target)
+    throws ConfigurationException {
+        for (ConfigBindingPlan.InvokeBinding binding :
+                ConfigBindingPlan.get(type).getMethods()) {
+            if (binding.getExecutable().getName().equals(method) &&
+                    Arrays.equals(binding.getExecutable().getParameterTypes(),
+                                  paramTypes)) {
+                ConfigurationAnnotationProcessor
+                        .processMethod(type, node, target, binding);
+                return;
+            }
+        }
+        throw new ConfigurationException(String.format(
+                "Auto-invoke method not found. [type=%s][method=%s]",
+                type.getCanonicalName(), method));
+    }
+
+    /**
+     * Get the String value of a parameter/attribute.
+     *
+     * @param node       - Configuration node of the type.
+     * @param name       - Key name ([path][tag]name).
+     * @param tag        - Parameter/Attribute tag.
+     * @param required   - Is value required?
+     * @param valuePaths - List to add the node path to (can be NULL).
+     * @return - Value or NULL if not found/empty.
+     * @throws ConfigurationException
+     */
+    private static String keyValue(AbstractConfigNode node, String name,
+                                   String tag, boolean required,
+                                   List<String> valuePaths)
+    throws ConfigurationException {
+        AbstractConfigNode knode = node;
+        String key = name;
+        int index = name.indexOf(tag);
+        if (index >= 0) {
+            if (name.indexOf(tag, index + 1) >= 0 || index == name.length() - 1) {
+                throw new ConfigurationException(
+                        String.format("Invalid ConfigParam : [name=%s]", name));
+            }
+            key = name.substring(index + 1);
+            if (index > 0) {
+                knode = node.find(name.substring(0, index));
+                if (knode == null) {
+                    throw new ConfigurationException(String.format(
+                            "Invalid ConfigParam : path not found. [name=%s]",
+                            name));
+                }
+            }
+        }
+        String value = null;
+        if (node instanceof ConfigPathNode) {
+            ConfigPathNode pathNode = (ConfigPathNode) knode;
+            ConfigKeyValueNode kvNode =
+                    (tag.equals(ConfigParametersNode.NODE_ABBR_PREFIX) ?
+                            pathNode.parmeters() : pathNode.attributes());
+            if (kvNode != null && !kvNode.isEmpty() && kvNode.hasKey(key)) {
+                ConfigValueNode vn = kvNode.getValue(key);
+                if (vn != null) {
+                    if (vn.isEncrypted()) {
+                        throw new ConfigurationException(String.format(
+                                "Encrypted value cannot be used. [path=%s]",
+                                vn.getSearchPath()));
+                    }
+                    value = vn.getValue();
+                }
+            }
+            if (valuePaths != null) {
+                valuePaths.add(ConfigurationAnnotationProcessor
+                                       .keyPath(pathNode, tag, key));
+            }
+        }
+        if (Strings.isNullOrEmpty(value)) {
+            if (required) {
+                throw new ConfigurationException(String.format(
+                        "Required parameter not specified: [path=%s][name=%s]",
+                        node.getAbsolutePath(), key));
+            }
+            return null;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,984 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 16/10/20 2:40 PM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common;
+
+import com.codekutter.zconfig.common.model.EncryptedValue;
+import com.codekutter.zconfig.common.model.annotations.*;
+import com.codekutter.zconfig.common.model.annotations.transformers.NullTransformer;
+import com.codekutter.zconfig.common.model.nodes.AbstractConfigNode;
+import com.codekutter.zconfig.common.model.nodes.ConfigAttributesNode;
+import com.codekutter.zconfig.common.model.nodes.ConfigParametersNode;
+import com.codekutter.zconfig.common.utils.ReflectionUtils;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.reflect.MethodUtils;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable binding plan for a configuration annotated type.
+ * <p>
+ * The plan holds the annotated fields, methods and constructor of the type along
+ * with the resolved names, transformer instances and type checks, so that
+ * applying a configuration to an instance does not need to re-scan the type.
+ * Plans are computed once per type and cached.
+ * <p>
+ * Field values are set/read through method handles bound to the bean
+ * setters/getters (or to the field itself if no setter/getter is defined), and
+ * auto-invoked methods/constructors are called through method handles, falling
+ * back to reflection if a handle cannot be created.
+ */
+final class ConfigBindingPlan {
+    /**
+     * Field binding annotation types.
+     */
+    enum EBindingType {
+        /**
+         * Field annotated with @ConfigParam.
+         */
+        Parameter,
+        /**
+         * Field annotated with @ConfigAttribute.
+         */
+        Attribute,
+        /**
+         * Field annotated with @ConfigValue.
+         */
+        Value
+    }
+
+    /**
+     * Parser to convert a String value to the field value type.
+     */
+    private interface IValueParser {
+        /**
+         * Parse the String value.
+         *
+         * @param value - String value.
+         * @return - Parsed value.
+         * @throws Exception
+         */
+        Object parse(String value) throws Exception;
+    }
+
+    /**
+     * Value returned when the configuration doesn't define a value for a
+     * field (the field is left unchanged).
+     */
+    static final Object UNSET = IConfigBinder.UNSET;
+
+    /**
+     * Method type the field setter handles are adapted to.
+     */
+    private static final MethodType SETTER_TYPE =
+            MethodType.methodType(void.class, Object.class, Object.class);
+    /**
+     * Method type the field getter handles are adapted to.
+     */
+    private static final MethodType GETTER_TYPE =
+            MethodType.methodType(Object.class, Object.class);
+    /**
+     * Method type the auto-invoke method handles are adapted to (the return
+     * value is discarded).
+     */
+    private static final MethodType INVOKE_TYPE =
+            MethodType.methodType(void.class, Object.class, Object[].class);
+    /**
+     * Method type the constructor handles are adapted to.
+     */
+    private static final MethodType CONSTRUCTOR_TYPE =
+            MethodType.methodType(Object.class, Object[].class);
+    private static final Object[] EMPTY_ARGS = new Object[0];
+
+    /**
+     * Binding definition for an annotated field.
+     */
+    static final class FieldBinding {
+        private final Field field;
+        private final EBindingType bindingType;
+        private final Annotation annotation;
+        private final String name;
+        private final boolean required;
+        private final String tagPath;
+        private final String tagName;
+        private final String tagError;
+        private final ITransformer<?, String> transformer;
+        private final Exception transformerError;
+        private final boolean canSet;
+        private final boolean canProcess;
+        private final Exception typeError;
+        private final String nestedPath;
+        private final MethodHandle setter;
+        private final MethodHandle getter;
+        private final IValueParser parser;
+
+        /**
+         * Create the binding for the specified field/annotation.
+         *
+         * @param type        - Type the plan is defined for.
+         * @param field       - Annotated field.
+         * @param bindingType - Annotation type.
+         * @param annotation  - Field annotation.
+         */
+        @SuppressWarnings("unchecked")
+        private FieldBinding(Class<?> type, Field field, EBindingType bindingType,
+                             Annotation annotation) {
+            this.field = field;
+            this.bindingType = bindingType;
+            this.annotation = annotation;
+
+            String name = null;
+            boolean required = false;
+            Class<? extends ITransformer> tt = NullTransformer.class;
+            String tag = null;
+            switch (bindingType) {
+                case Parameter:
+                    ConfigParam param = (ConfigParam) annotation;
+                    name = param.name();
+                    required = param.required();
+                    tt = param.transformer();
+                    tag = ConfigParametersNode.NODE_ABBR_PREFIX;
+                    break;
+                case Attribute:
+                    ConfigAttribute attr = (ConfigAttribute) annotation;
+                    name = attr.name();
+                    required = attr.required();
+                    tt = attr.transformer();
+                    tag = ConfigAttributesNode.NODE_ABBR_PREFIX;
+                    break;
+                case Value:
+                    ConfigValue value = (ConfigValue) annotation;
+                    name = value.name();
+                    required = value.required();
+                    tt = value.transformer();
+                    break;
+            }
+            if (Strings.isNullOrEmpty(name)) {
+                name = field.getName();
+            }
+            this.name = name;
+            this.required = required;
+
+            String tagPath = null;
+            String tagName = name;
+            String tagError = null;
+            if (tag != null && name.contains(tag)) {
+                String[] parts = name.split(tag);
+                if (parts.length == 2) {
+                    if (!Strings.isNullOrEmpty(parts[0])) {
+                        tagPath = parts[0];
+                    }
+                    tagName = parts[1];
+                } else {
+                    tagError = String.format("Invalid ConfigParam : [name=%s]",
+                                             name);
+                }
+            }
+            this.tagPath = tagPath;
+            this.tagName = tagName;
+            this.tagError = tagError;
+
+            ITransformer<?, String> transformer = null;
+            Exception transformerError = null;
+            if (tt != null && tt != NullTransformer.class) {
+                try {
+                    transformer = tt.newInstance();
+                } catch (Exception e) {
+                    transformerError = e;
+                }
+            }
+            this.transformer = transformer;
+            this.transformerError = transformerError;
+
+            boolean canSet = false;
+            boolean canProcess = false;
+            Exception typeError = null;
+            try {
+                canSet = ConfigurationAnnotationProcessor.canSetFieldType(field);
+                canProcess = ConfigurationAnnotationProcessor
+                        .canProcessFieldType(field);
+            } catch (Exception e) {
+                typeError = e;
+            }
+            this.canSet = canSet;
+            this.canProcess = canProcess;
+            this.typeError = typeError;
+
+            ConfigPath cPath = field.getType().getAnnotation(ConfigPath.class);
+            this.nestedPath = (cPath != null ? cPath.path() : null);
+
+            this.setter = findSetter(type, field);
+            this.getter = findGetter(type, field);
+            this.parser = valueParser(field.getType());
+        }
+
+        /**
+         * Set the field value on the target, using the bean setter or the
+         * field setter handle.
+         *
+         * @param target - Target instance.
+         * @param value  - Value to set.
+         * @throws Exception
+         */
+        void setValue(@Nonnull Object target, Object value) throws Exception {
+            if (setter == null) {
+                ReflectionUtils.setObjectValue(target, field, value);
+                return;
+            }
+            try {
+                setter.invokeExact(target, value);
+            } catch (Throwable t) {
+                throw invokeError(t);
+            }
+        }
+
+        /**
+         * Get the field value from the target, using the bean getter or the
+         * field getter handle.
+         *
+         * @param target - Target instance.
+         * @return - Field value.
+         * @throws Exception
+         */
+        Object getValue(@Nonnull Object target) throws Exception {
+            if (getter == null) {
+                return ReflectionUtils.getFieldValue(target, field);
+            }
+            try {
+                return (Object) getter.invokeExact(target);
+            } catch (Throwable t) {
+                throw invokeError(t);
+            }
+        }
+
+        /**
+         * Convert the String value to the field type.
+         *
+         * @param value - String value to convert.
+         * @return - Converted value or UNSET if values of the field type are
+         * not set.
+         * @throws ConfigurationException
+         */
+        Object valueFromString(@Nonnull String value)
+        throws ConfigurationException {
+            Preconditions.checkArgument(!Strings.isNullOrEmpty(value));
+            if (parser == null) {
+                return UNSET;
+            }
+            try {
+                return parser.parse(value);
+            } catch (Exception e) {
+                throw new ConfigurationException(
+                        "Error converting value : [type="
+                                + field.getDeclaringClass().getCanonicalName()
+                                + "][field=" + field.getName() + "]",
+                        e);
+            }
+        }
+
+        /**
+         * Set the field value on the target by converting the String value
+         * to the field type.
+         *
+         * @param value  - String value to set.
+         * @param target - Target instance.
+         * @throws ConfigurationException
+         */
+        void setValueFromString(@Nonnull String value, @Nonnull Object target)
+        throws ConfigurationException {
+            Object v = valueFromString(value);
+            try {
+                if (v != UNSET) {
+                    setValue(target, v);
+                }
+            } catch (Exception e) {
+                throw new ConfigurationException(
+                        "Error setting object value : [type="
+                                + target.getClass().getCanonicalName() + "][field="
+                                + field.getName() + "]",
+                        e);
+            }
+        }
+
+        /**
+         * Get the annotated field.
+         *
+         * @return - Field.
+         */
+        Field getField() {
+            return field;
+        }
+
+        /**
+         * Get the field annotation type.
+         *
+         * @return - Binding type.
+         */
+        EBindingType getBindingType() {
+            return bindingType;
+        }
+
+        /**
+         * Get the field annotation.
+         *
+         * @return - Annotation.
+         */
+        Annotation getAnnotation() {
+            return annotation;
+        }
+
+        /**
+         * Get the configuration name (annotation name or field name).
+         *
+         * @return - Configuration name.
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * Is this value required?
+         *
+         * @return - Is required?
+         */
+        boolean isRequired() {
+            return required;
+        }
+
+        /**
+         * Get the node path prefix of a tagged (path#name/path@name) name.
+         *
+         * @return - Node path or NULL if not specified.
+         * @throws ConfigurationException - If the tagged name is invalid.
+         */
+        String getTagPath() throws ConfigurationException {
+            if (tagError != null) {
+                throw new ConfigurationException(tagError);
+            }
+            return tagPath;
+        }
+
+        /**
+         * Get the parameter/attribute name of a tagged (path#name/path@name) name.
+         *
+         * @return - Key name.
+         * @throws ConfigurationException - If the tagged name is invalid.
+         */
+        String getTagName() throws ConfigurationException {
+            if (tagError != null) {
+                throw new ConfigurationException(tagError);
+            }
+            return tagName;
+        }
+
+        /**
+         * Get the transformer instance. Transformer instances are shared by all
+         * bindings of the type.
+         *
+         * @return - Transformer or NULL if not specified.
+         * @throws ConfigurationException - If the transformer could not be created.
+         */
+        ITransformer<?, String> getTransformer() throws ConfigurationException {
+            if (transformerError != null) {
+                throw new ConfigurationException(transformerError);
+            }
+            return transformer;
+        }
+
+        /**
+         * Is the field type an enum?
+         *
+         * @return - Is Enum?
+         */
+        boolean isEnum() {
+            return field.getType().isEnum();
+        }
+
+        /**
+         * Is the field an encrypted value?
+         *
+         * @return - Is encrypted?
+         */
+        boolean isEncrypted() {
+            return field.getType() == EncryptedValue.class;
+        }
+
+        /**
+         * Can the field type be set directly from a value/list?
+         *
+         * @return - Can set?
+         * @throws ConfigurationException - If the field type is invalid.
+         */
+        boolean canSet() throws ConfigurationException {
+            if (typeError != null) {
+                throw new ConfigurationException(typeError);
+            }
+            return canSet;
+        }
+
+        /**
+         * Can the field type be processed?
+         *
+         * @return - Can process?
+         * @throws ConfigurationException - If the field type is invalid.
+         */
+        boolean canProcess() throws ConfigurationException {
+            if (typeError != null) {
+                throw new ConfigurationException(typeError);
+            }
+            return canProcess;
+        }
+
+        /**
+         * Get the config path of the field type, if the field type is
+         * itself a configuration annotated type.
+         *
+         * @return - Config path or NULL.
+         */
+        String getNestedPath() {
+            return nestedPath;
+        }
+    }
+
+    /**
+     * Binding definition for a method/constructor parameter.
+     */
+    static final class ParameterBinding {
+        private final Parameter parameter;
+        private final ConfigParam annotation;
+        private final String name;
+
+        /**
+         * Create the binding for the specified parameter.
+         *
+         * @param parameter - Method/Constructor parameter.
+         */
+        private ParameterBinding(Parameter parameter) {
+            this.parameter = parameter;
+            this.annotation = parameter.getAnnotation(ConfigParam.class);
+            String name = null;
+            if (annotation != null) {
+                name = annotation.name();
+                if (Strings.isNullOrEmpty(name) &&
+                        !parameter.getType().equals(AbstractConfigNode.class)) {
+                    name = parameter.getName();
+                }
+            }
+            this.name = name;
+        }
+
+        /**
+         * Get the parameter.
+         *
+         * @return - Parameter.
+         */
+        Parameter getParameter() {
+            return parameter;
+        }
+
+        /**
+         * Get the parameter annotation.
+         *
+         * @return - Annotation or NULL if not annotated.
+         */
+        ConfigParam getAnnotation() {
+            return annotation;
+        }
+
+        /**
+         * Get the resolved configuration parameter name.
+         *
+         * @return - Parameter name.
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * Get the parameter type.
+         *
+         * @return - Parameter type.
+         */
+        Class<?> getType() {
+            return parameter.getType();
+        }
+    }
+
+    /**
+     * Binding definition for an auto-invoked method/constructor.
+     */
+    static final class InvokeBinding {
+        private final Executable executable;
+        private final MethodInvoke invoke;
+        private final List<ParameterBinding> parameters;
+        private final MethodHandle handle;
+
+        /**
+         * Create the binding for the specified method/constructor.
+         *
+         * @param executable - Method/Constructor.
+         * @param invoke     - Method Invoke annotation.
+         */
+        private InvokeBinding(Executable executable, MethodInvoke invoke) {
+            this.executable = executable;
+            this.invoke = invoke;
+            ImmutableList.Builder<ParameterBinding> builder = ImmutableList.builder();
+            Parameter[] params = executable.getParameters();
+            if (params != null) {
+                for (Parameter param : params) {
+                    builder.add(new ParameterBinding(param));
+                }
+            }
+            this.parameters = builder.build();
+
+            MethodHandle handle = null;
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                int count = parameters.size();
+                if (executable instanceof Method) {
+                    handle = lookup.unreflect((Method) executable)
+                                   .asSpreader(Object[].class, count)
+                                   .asType(INVOKE_TYPE);
+                } else {
+                    handle = lookup.unreflectConstructor(
+                            (Constructor<?>) executable)
+                                   .asSpreader(Object[].class, count)
+                                   .asType(CONSTRUCTOR_TYPE);
+                }
+            } catch (IllegalAccessException e) {
+                LogUtils.debug(ConfigBindingPlan.class, String.format(
+                        "Using reflection for method. [method=%s][error=%s]",
+                        executable, e.getLocalizedMessage()));
+            }
+            this.handle = handle;
+        }
+
+        /**
+         * Invoke the method on the target instance.
+         *
+         * @param target - Target instance.
+         * @param args   - Method arguments (NULL if no parameters).
+         * @throws Exception
+         */
+        void invoke(@Nonnull Object target, Object[] args) throws Exception {
+            if (args == null) {
+                args = EMPTY_ARGS;
+            }
+            if (handle == null) {
+                try {
+                    ((Method) executable).invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw invokeError(e.getCause());
+                }
+                return;
+            }
+            try {
+                handle.invokeExact(target, args);
+            } catch (Throwable t) {
+                throw invokeError(t);
+            }
+        }
+
+        /**
+         * Create a new instance using the constructor.
+         *
+         * @param args - Constructor arguments (NULL if no parameters).
+         * @return - New instance.
+         * @throws Exception
+         */
+        Object newInstance(Object[] args) throws Exception {
+            if (args == null) {
+                args = EMPTY_ARGS;
+            }
+            if (handle == null) {
+                try {
+                    return ((Constructor<?>) executable).newInstance(args);
+                } catch (InvocationTargetException e) {
+                    throw invokeError(e.getCause());
+                }
+            }
+            try {
+                return (Object) handle.invokeExact(args);
+            } catch (Throwable t) {
+                throw invokeError(t);
+            }
+        }
+
+        /**
+         * Get the method/constructor.
+         *
+         * @return - Method/Constructor.
+         */
+        Executable getExecutable() {
+            return executable;
+        }
+
+        /**
+         * Get the node path to invoke with.
+         *
+         * @return - Node path or NULL/Empty for the current node.
+         */
+        String getPath() {
+            return invoke.path();
+        }
+
+        /**
+         * Get the parameter bindings.
+         *
+         * @return - Parameter bindings.
+         */
+        List<ParameterBinding> getParameters() {
+            return parameters;
+        }
+    }
+
+    private static final ClassValue<ConfigBindingPlan> plans =
+            new ClassValue<ConfigBindingPlan>() {
+                @Override
+                protected ConfigBindingPlan computeValue(Class<?> type) {
+                    return new ConfigBindingPlan(type);
+                }
+            };
+
+    private final Class<?> type;
+    private final ConfigPath configPath;
+    private final List<FieldBinding> fields;
+    private final Map<String, FieldBinding> fieldIndex;
+    private final List<InvokeBinding> methods;
+    private final InvokeBinding constructor;
+    private final boolean defaultConstructor;
+
+    /**
+     * Build the binding plan for the specified type.
+     *
+     * @param type - Type to build plan for.
+     */
+    private ConfigBindingPlan(Class<?> type) {
+        this.type = type;
+        this.configPath = type.getAnnotation(ConfigPath.class);
+
+        ImmutableList.Builder<FieldBinding> fb = ImmutableList.builder();
+        Field[] fields = ReflectionUtils.getAllFields(type);
+        if (fields != null) {
+            for (Field field : fields) {
+                if (field.isAnnotationPresent(ConfigParam.class)) {
+                    fb.add(new FieldBinding(type, field, EBindingType.Parameter,
+                                            field.getAnnotation(ConfigParam.class)));
+                } else if (field.isAnnotationPresent(ConfigAttribute.class)) {
+                    fb.add(new FieldBinding(type, field, EBindingType.Attribute,
+                                            field.getAnnotation(
+                                                    ConfigAttribute.class)));
+                } else if (field.isAnnotationPresent(ConfigValue.class)) {
+                    fb.add(new FieldBinding(type, field, EBindingType.Value,
+                                            field.getAnnotation(ConfigValue.class)));
+                }
+            }
+        }
+        this.fields = fb.build();
+        Map<String, FieldBinding> fieldIndex = new HashMap<>();
+        for (FieldBinding binding : this.fields) {
+            fieldIndex.putIfAbsent(binding.getField().getName(), binding);
+        }
+        this.fieldIndex = ImmutableMap.copyOf(fieldIndex);
+
+        ImmutableList.Builder<InvokeBinding> mb = ImmutableList.builder();
+        Method[] methods = ReflectionUtils.getAllMethods(type);
+        if (methods != null) {
+            for (Method method : methods) {
+                if (method.isAnnotationPresent(MethodInvoke.class)) {
+                    method.setAccessible(true);
+                    mb.add(new InvokeBinding(method, method.getAnnotation(
+                            MethodInvoke.class)));
+                }
+            }
+        }
+        this.methods = mb.build();
+
+        InvokeBinding constructor = null;
+        boolean defaultConstructor = false;
+        for (Constructor<?> constr : type.getConstructors()) {
+            if (Modifier.isPublic(constr.getModifiers())) {
+                if (constr.getParameterCount() == 0) {
+                    defaultConstructor = true;
+                } else if (constructor == null &&
+                        constr.isAnnotationPresent(MethodInvoke.class)) {
+                    constr.setAccessible(true);
+                    constructor = new InvokeBinding(constr, constr.getAnnotation(
+                            MethodInvoke.class));
+                }
+            }
+        }
+        this.constructor = constructor;
+        this.defaultConstructor = defaultConstructor;
+    }
+
+    /**
+     * Get the type this plan is defined for.
+     *
+     * @return - Type.
+     */
+    Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Get the Config Path annotation of the type.
+     *
+     * @return - Config Path or NULL if not annotated.
+     */
+    ConfigPath getConfigPath() {
+        return configPath;
+    }
+
+    /**
+     * Get the annotated field bindings.
+     *
+     * @return - Field bindings.
+     */
+    List<FieldBinding> getFields() {
+        return fields;
+    }
+
+    /**
+     * Get the annotated field binding for the field name. If a field name is
+     * declared in more than one class, the binding of the sub-class field
+     * is returned.
+     *
+     * @param name - Field name.
+     * @return - Field binding or NULL if not found.
+     */
+    FieldBinding getField(@Nonnull String name) {
+        return fieldIndex.get(name);
+    }
+
+    /**
+     * Get the auto-invoked method bindings.
+     *
+     * @return - Method bindings.
+     */
+    List<InvokeBinding> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Get the annotated constructor binding.
+     *
+     * @return - Constructor binding or NULL if not defined.
+     */
+    InvokeBinding getConstructor() {
+        return constructor;
+    }
+
+    /**
+     * Does the type define a public default (empty) constructor?
+     *
+     * @return - Has default constructor?
+     */
+    boolean hasDefaultConstructor() {
+        return defaultConstructor;
+    }
+
+    /**
+     * Find the bean setter for the field and get a method handle for it, if no
+     * setter is defined a setter handle for the field is used.
+     * Uses the same setter resolution as ReflectionUtils.setObjectValue().
+     *
+     * @param type  - Type to find setter in.
+     * @param field - Field to find setter for.
+     * @return - Setter handle or NULL if not found.
+     */
+    private static MethodHandle findSetter(Class<?> type, Field field) {
+        Method m = MethodUtils.getAccessibleMethod(type,
+                                                   "set" + StringUtils.capitalize(
+                                                           field.getName()),
+                                                   field.getType());
+        if (m == null) {
+            m = MethodUtils.getAccessibleMethod(type, field.getName(),
+                                                field.getType());
+        }
+        if (m == null) {
+            return unreflect(field, true);
+        }
+        return unreflect(m, SETTER_TYPE);
+    }
+
+    /**
+     * Find the bean getter for the field and get a method handle for it, if no
+     * getter is defined a getter handle for the field is used.
+     * Uses the same getter resolution as ReflectionUtils.getFieldValue().
+     *
+     * @param type  - Type to find getter in.
+     * @param field - Field to find getter for.
+     * @return - Getter handle or NULL if not found.
+     */
+    private static MethodHandle findGetter(Class<?> type, Field field) {
+        Method m = MethodUtils.getAccessibleMethod(type,
+                                                   "get" + StringUtils.capitalize(
+                                                           field.getName()));
+        if (m == null) {
+            m = MethodUtils.getAccessibleMethod(type, field.getName());
+        }
+        if (m == null && (field.getType().equals(boolean.class) ||
+                field.getType().equals(Boolean.class))) {
+            m = MethodUtils.getAccessibleMethod(type,
+                                                "is" + StringUtils.capitalize(
+                                                        field.getName()));
+        }
+        if (m == null) {
+            return unreflect(field, false);
+        }
+        return unreflect(m, GETTER_TYPE);
+    }
+
+    /**
+     * Get a setter/getter method handle for the field, adapted to the
+     * setter/getter type.
+     *
+     * @param field  - Field to get handle for.
+     * @param setter - Get the setter handle?
+     * @return - Method handle or NULL.
+     */
+    private static MethodHandle unreflect(Field field, boolean setter) {
+        try {
+            field.setAccessible(true);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            if (setter) {
+                return lookup.unreflectSetter(field).asType(SETTER_TYPE);
+            }
+            return lookup.unreflectGetter(field).asType(GETTER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            LogUtils.debug(ConfigBindingPlan.class, String.format(
+                    "Using reflection for field. [field=%s][error=%s]",
+                    field, e.getLocalizedMessage()));
+        }
+        return null;
+    }
+
+    /**
+     * Get the method handle for the method, adapted to the specified type.
+     *
+     * @param method     - Method to get handle for.
+     * @param methodType - Method type to adapt to.
+     * @return - Method handle or NULL.
+     */
+    private static MethodHandle unreflect(Method method, MethodType methodType) {
+        if (method != null) {
+            try {
+                return MethodHandles.publicLookup().unreflect(method)
+                                    .asType(methodType);
+            } catch (IllegalAccessException e) {
+                LogUtils.debug(ConfigBindingPlan.class, String.format(
+                        "Using reflection for method. [method=%s][error=%s]",
+                        method, e.getLocalizedMessage()));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the String value parser for the field type.
+     * Uses the same conversions as ReflectionUtils.setValueFromString().
+     *
+     * @param type - Field type.
+     * @return - Value parser or NULL if values of this type are not set.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static IValueParser valueParser(Class<?> type) {
+        if (ReflectionUtils.isPrimitiveTypeOrClass(type)) {
+            if (type.equals(boolean.class) || type.equals(Boolean.class)) {
+                return Boolean::valueOf;
+            } else if (type.equals(short.class) || type.equals(Short.class)) {
+                return Short::parseShort;
+            } else if (type.equals(int.class) || type.equals(Integer.class)) {
+                return Integer::parseInt;
+            } else if (type.equals(float.class) || type.equals(Float.class)) {
+                return Float::parseFloat;
+            } else if (type.equals(double.class) || type.equals(Double.class)) {
+                return Double::parseDouble;
+            } else if (type.equals(long.class) || type.equals(Long.class)) {
+                return Long::parseLong;
+            } else if (type.equals(char.class) || type.equals(Character.class)) {
+                return (value) -> value.charAt(0);
+            }
+            return null;
+        } else if (type.equals(String.class)) {
+            return (value) -> value;
+        } else if (type.isEnum()) {
+            return (value) -> Enum.valueOf((Class<Enum>) type, value);
+        } else if (type.equals(File.class)) {
+            return File::new;
+        } else if (type.equals(Class.class)) {
+            return (value) -> Class.forName(value.trim());
+        }
+        return (value) -> {
+            Class<?> cls = Class.forName(value.trim());
+            if (type.isAssignableFrom(cls)) {
+                return cls.newInstance();
+            }
+            throw new InstantiationException(
+                    "Cannot create instance of type [type="
+                            + cls.getCanonicalName()
+                            + "] and assign to field type [type="
+                            + type.getCanonicalName() + "]");
+        };
+    }
+
+    /**
+     * Get the exception to raise for an error thrown by an invoked handle.
+     *
+     * @param t - Error thrown.
+     * @return - Exception to raise.
+     */
+    private static Exception invokeError(Throwable t) {
+        if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t instanceof Exception) {
+            return (Exception) t;
+        }
+        return new ConfigurationException(t);
+    }
+
+    /**
+     * Get the binding plan for the specified type.
+     *
+     * @param type - Type to get plan for.
+     * @return - Binding plan.
+     */
+    static ConfigBindingPlan get(@Nonnull Class<?> type) {
+        return plans.get(type);
+    }
+}
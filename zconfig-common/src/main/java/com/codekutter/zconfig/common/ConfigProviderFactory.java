@@ -25,12 +25,14 @@
 package com.codekutter.zconfig.common;
 
 import com.codekutter.zconfig.common.parsers.JSONConfigParser;
+import com.codekutter.zconfig.common.parsers.SnapshotConfigParser;
 import com.codekutter.zconfig.common.parsers.XMLConfigParser;
 import com.codekutter.zconfig.common.readers.ConfigFileReader;
 import com.codekutter.zconfig.common.readers.ConfigURLReader;
 import com.codekutter.zconfig.common.readers.EReaderType;
 import com.codekutter.zconfig.common.writers.AbstractConfigWriter;
 import com.codekutter.zconfig.common.writers.JSONFileConfigWriter;
+import com.codekutter.zconfig.common.writers.SnapshotFileConfigWriter;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.codekutter.zconfig.common.parsers.AbstractConfigParser;
@@ -59,7 +61,11 @@ public class ConfigProviderFactory {
         /**
          * XML configuration file.
          */
-        XML;
+        XML,
+        /**
+         * Binary configuration snapshot.
+         */
+        SNAPSHOT;
 
         /**
          * Get the config type based on passed string.
@@ -74,6 +80,8 @@ public class ConfigProviderFactory {
                     return JSON;
                 } else if (value.compareTo(XML.name()) == 0) {
                     return XML;
+                } else if (value.compareTo(SNAPSHOT.name()) == 0) {
+                    return SNAPSHOT;
                 }
             }
             return null;
@@ -112,6 +120,8 @@ public class ConfigProviderFactory {
                 return new JSONConfigParser();
             case XML:
                 return new XMLConfigParser();
+            case SNAPSHOT:
+                return new SnapshotConfigParser();
             default:
                 return null;
         }
@@ -129,6 +139,8 @@ public class ConfigProviderFactory {
                 return new JSONFileConfigWriter();
             case XML:
                 return null;
+            case SNAPSHOT:
+                return new SnapshotFileConfigWriter();
             default:
                 return null;
         }
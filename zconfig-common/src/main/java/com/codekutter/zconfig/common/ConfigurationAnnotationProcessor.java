@@ -25,15 +25,14 @@
 package com.codekutter.zconfig.common;
 
 import com.codekutter.zconfig.common.model.Configuration;
+import com.codekutter.zconfig.common.model.ConfigurationSettings;
 import com.codekutter.zconfig.common.model.EncryptedValue;
 import com.codekutter.zconfig.common.model.annotations.*;
-import com.codekutter.zconfig.common.model.annotations.transformers.NullTransformer;
 import com.codekutter.zconfig.common.model.nodes.*;
 import com.codekutter.zconfig.common.utils.CollectionUtils;
 import com.codekutter.zconfig.common.utils.ReflectionUtils;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
-import org.apache.commons.lang3.reflect.MethodUtils;
 
 import javax.annotation.Nonnull;
 import java.lang.annotation.Annotation;
@@ -106,7 +105,7 @@ public class ConfigurationAnnotationProcessor {
         Preconditions.checkArgument(target != null);
         Preconditions.checkArgument(type != null);
 
-        ConfigPath cPath = type.getAnnotation(ConfigPath.class);
+        ConfigPath cPath = ConfigBindingPlan.get(type).getConfigPath();
         if (cPath != null) {
             if (!Strings.isNullOrEmpty(path)) {
                 path = String.format("%s.%s", path, cPath.path());
@@ -165,7 +164,7 @@ public class ConfigurationAnnotationProcessor {
         Preconditions.checkArgument(target != null);
         Preconditions.checkArgument(type != null);
 
-        ConfigPath cPath = type.getAnnotation(ConfigPath.class);
+        ConfigPath cPath = ConfigBindingPlan.get(type).getConfigPath();
         if (cPath != null) {
             String path = cPath.path();
             if (Strings.isNullOrEmpty(path)) {
@@ -202,7 +201,7 @@ public class ConfigurationAnnotationProcessor {
         Preconditions.checkArgument(type != null);
 
 
-        ConfigPath cPath = type.getAnnotation(ConfigPath.class);
+        ConfigPath cPath = ConfigBindingPlan.get(type).getConfigPath();
         if (cPath != null) {
             if (!Strings.isNullOrEmpty(path)) {
                 path = String.format("%s.%s", path, cPath.path());
@@ -245,7 +244,7 @@ public class ConfigurationAnnotationProcessor {
         Preconditions.checkArgument(type != null);
 
 
-        ConfigPath cPath = type.getAnnotation(ConfigPath.class);
+        ConfigPath cPath = ConfigBindingPlan.get(type).getConfigPath();
         if (cPath != null) {
             String path = cPath.path();
             if (Strings.isNullOrEmpty(path)) {
@@ -304,55 +303,38 @@ public class ConfigurationAnnotationProcessor {
                                         AbstractConfigNode node)
             throws ConfigurationException {
         try {
-            Constructor<?>[] constructors = type.getConstructors();
-            Constructor<?> defaultConst = null;
+            ConfigBindingPlan plan = ConfigBindingPlan.get(type);
+            ConfigBindingPlan.InvokeBinding constr = plan.getConstructor();
             T target = null;
-            for (Constructor<?> constr : constructors) {
-                if (Modifier.isPublic(constr.getModifiers())) {
-                    Parameter[] params = constr.getParameters();
-                    if (params == null || params.length == 0) {
-                        defaultConst = constr;
-                    } else {
-                        if (constr.isAnnotationPresent(MethodInvoke.class)) {
-                            MethodInvoke mi =
-                                    constr.getAnnotation(MethodInvoke.class);
-                            if (!Strings.isNullOrEmpty(mi.path())) {
-                                node = node.find(mi.path());
-                            }
-                            if (node == null) {
-                                throw new ConfigurationException(String.format(
-                                        "Configuration Node not found. [path=%s]",
-                                        mi.path()));
-                            }
-                            Object[] input = null;
-                            List<Object> values = new ArrayList<>();
-                            for (Parameter param : params) {
-                                Object value = getParamValue(type, node, param);
-                                values.add(value);
-                            }
-                            input = values.toArray();
-                            target = (T) constr.newInstance(input);
-
-                            break;
-                        }
-                    }
+            if (constr != null) {
+                if (!Strings.isNullOrEmpty(constr.getPath())) {
+                    node = node.find(constr.getPath());
                 }
-            }
-            if (target == null && defaultConst != null) {
+                if (node == null) {
+                    throw new ConfigurationException(String.format(
+                            "Configuration Node not found. [path=%s]",
+                            constr.getPath()));
+                }
+                Object[] input = getParamValues(type, node, constr);
+                target = (T) constr.newInstance(input);
+            } else if (plan.hasDefaultConstructor()) {
                 target = type.newInstance();
-            } else if (target == null) {
+            } else {
                 throw new ConfigurationException(
                         String.format("No valid constructor found. [type=%s]",
                                 type.getCanonicalName()));
             }
             return target;
-        } catch (IllegalAccessException | InstantiationException | InvocationTargetException e) {
+        } catch (ConfigurationException e) {
+            throw e;
+        } catch (Exception e) {
             throw new ConfigurationException(e);
         }
     }
 
     /**
      * Check and apply any annotations for all fields and methods.
+     * Uses the generated binder for the type, if one exists.
      *
      * @param type   - Type of the target object.
      * @param node   - Extracted configuration node.
@@ -363,85 +345,94 @@ public class ConfigurationAnnotationProcessor {
     private static <T> void processType(Class<? extends T> type,
                                         AbstractConfigNode node, T target, List<String> valuePaths)
             throws ConfigurationException {
-        Field[] fields = ReflectionUtils.getAllFields(type);
-        if (fields != null && fields.length > 0) {
-            for (Field field : fields) {
-                processField(type, node, target, field, valuePaths);
-            }
+        IConfigBinder<T> binder = ConfigBinders.get(type);
+        if (binder != null) {
+            binder.bind(node, target, valuePaths);
+            return;
         }
-        Method[] methods = ReflectionUtils.getAllMethods(type);
-        if (methods != null && methods.length > 0) {
-            for (Method method : methods) {
-                processMethod(type, node, target, method);
-            }
+        ConfigBindingPlan plan = ConfigBindingPlan.get(type);
+        for (ConfigBindingPlan.FieldBinding field : plan.getFields()) {
+            processField(type, node, target, field, valuePaths);
+        }
+        for (ConfigBindingPlan.InvokeBinding method : plan.getMethods()) {
+            processMethod(type, node, target, method);
         }
     }
 
     /**
-     * Check if method(s) have been marked for auto-invoke and invoke them
-     * with the configuration parameters.
+     * Invoke a method marked for auto-invoke with the configuration parameters.
      *
      * @param type   - Instance Type
      * @param node   - Configuration Node.
      * @param target - Target instance.
-     * @param method - Method to check.
+     * @param method - Method binding.
      * @param <T>    - Annotated object type.
      * @throws ConfigurationException
      */
-    private static <T> void processMethod(Class<? extends T> type,
+    static <T> void processMethod(Class<? extends T> type,
                                           AbstractConfigNode node, T target,
-                                          Method method)
+                                          ConfigBindingPlan.InvokeBinding method)
             throws ConfigurationException {
-        if (method.isAnnotationPresent(MethodInvoke.class)) {
-            MethodInvoke mi = method.getAnnotation(MethodInvoke.class);
-            if (!Strings.isNullOrEmpty(mi.path())) {
-                node = node.find(mi.path());
-            }
-            if (node == null) {
-                throw new ConfigurationException(
-                        String.format("Configuration Node Not Found : [path=%s]",
-                                mi.path()));
-            }
+        if (!Strings.isNullOrEmpty(method.getPath())) {
+            node = node.find(method.getPath());
+        }
+        if (node == null) {
+            throw new ConfigurationException(
+                    String.format("Configuration Node Not Found : [path=%s]",
+                            method.getPath()));
+        }
 
-            try {
-                Object[] input = null;
-                Parameter[] params = method.getParameters();
-                if (params != null && params.length > 0) {
-                    List<Object> values = new ArrayList<>();
-                    for (Parameter param : params) {
-                        Object value = getParamValue(type, node, param);
-                        values.add(value);
-                    }
-                    input = values.toArray();
-                }
-                MethodUtils.invokeMethod(target, method.getName(), input);
-            } catch (InvocationTargetException | IllegalAccessException | NoSuchMethodException e) {
-                throw new ConfigurationException(e);
-            }
+        try {
+            Object[] input = getParamValues(type, node, method);
+            method.invoke(target, input);
+        } catch (Exception e) {
+            throw new ConfigurationException(e);
         }
     }
 
+    /**
+     * Get the values of the annotated parameters of the method/constructor.
+     *
+     * @param type   - Instance Type
+     * @param node   - Configuration Node.
+     * @param method - Method/Constructor binding.
+     * @param <T>    - Annotated object type.
+     * @return - Parameter values or NULL if no parameters.
+     * @throws ConfigurationException
+     */
+    private static <T> Object[] getParamValues(Class<? extends T> type,
+                                               AbstractConfigNode node,
+                                               ConfigBindingPlan.InvokeBinding method)
+            throws ConfigurationException {
+        List<ConfigBindingPlan.ParameterBinding> params = method.getParameters();
+        if (params.isEmpty()) {
+            return null;
+        }
+        Object[] input = new Object[params.size()];
+        for (int ii = 0; ii < input.length; ii++) {
+            input[ii] = getParamValue(type, node, params.get(ii));
+        }
+        return input;
+    }
+
     /**
      * Get the value of the annotated parameter from the configuration node.
      *
      * @param type  - Instance Type
      * @param node  - Configuration Node.
-     * @param param - Method/Constructor parameter.
+     * @param binding - Method/Constructor parameter binding.
      * @param <T>   - Annotated object type.
      * @return - Value extracted from configuration.
      * @throws ConfigurationException
      */
     private static <T> Object getParamValue(Class<? extends T> type,
                                             AbstractConfigNode node,
-                                            Parameter param)
+                                            ConfigBindingPlan.ParameterBinding binding)
             throws ConfigurationException {
-        if (param.isAnnotationPresent(ConfigParam.class)) {
-            ConfigParam p = param.getAnnotation(ConfigParam.class);
-            String pname = p.name();
-            if (Strings.isNullOrEmpty(pname) &&
-                    !param.getType().equals(AbstractConfigNode.class)) {
-                pname = param.getName();
-            }
+        Parameter param = binding.getParameter();
+        if (binding.getAnnotation() != null) {
+            ConfigParam p = binding.getAnnotation();
+            String pname = binding.getName();
             if (param.getType().equals(AbstractConfigNode.class)) {
                 if (!Strings.isNullOrEmpty(pname)) {
                     node = node.find(pname);
@@ -497,54 +488,90 @@ public class ConfigurationAnnotationProcessor {
      * @param type   - Type of the target object.
      * @param node   - Extracted configuration node.
      * @param target - Target to apply the values to.
-     * @param field  - Field to check and apply to.
+     * @param field  - Field binding to check and apply to.
      * @param <T>    - Annotated object type.
+     * @return - Is the value defined? (field is left unchanged if not)
      * @throws ConfigurationException
      */
-    private static <T> void processField(Class<? extends T> type,
+    static <T> boolean processField(Class<? extends T> type,
                                          AbstractConfigNode node, T target,
-                                         Field field, List<String> valuePaths)
+                                         ConfigBindingPlan.FieldBinding field,
+                                         List<String> valuePaths)
+            throws ConfigurationException {
+        Object value = readField(type, node, field, valuePaths);
+        try {
+            if (value != ConfigBindingPlan.UNSET) {
+                field.setValue(target, value);
+                return true;
+            } else if (field.isRequired()
+                    && field.getBindingType() == ConfigBindingPlan.EBindingType.Value
+                    && !Strings.isNullOrEmpty(field.getNestedPath())
+                    && field.getValue(target) == null) {
+                // Nested type not defined, the target may already have a value.
+                throw new ConfigurationException(String.format(
+                        "Required configuration value not specified: [path=%s][name=%s]",
+                        node.getAbsolutePath(), field.getName()));
+            }
+            return false;
+        } catch (ConfigurationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    /**
+     * Read the value of an annotated field from the configuration node,
+     * without setting it on a target instance.
+     *
+     * @param type  - Type of the target object.
+     * @param node  - Extracted configuration node.
+     * @param field - Field binding to read the value for.
+     * @param <T>   - Annotated object type.
+     * @return - Field value or UNSET if the node doesn't define a value.
+     * @throws ConfigurationException
+     */
+    static <T> Object readField(Class<? extends T> type,
+                                AbstractConfigNode node,
+                                ConfigBindingPlan.FieldBinding field,
+                                List<String> valuePaths)
             throws ConfigurationException {
         try {
-            if (field.isAnnotationPresent(ConfigParam.class)) {
-                ConfigParam param = field.getAnnotation(ConfigParam.class);
-                processParam(param, field, node, target, valuePaths);
-            } else if (field.isAnnotationPresent(ConfigAttribute.class)) {
-                ConfigAttribute attr =
-                        field.getAnnotation(ConfigAttribute.class);
-                processAttributes(attr, field, node, target, valuePaths);
-            } else if (field.isAnnotationPresent(ConfigValue.class)) {
-                ConfigValue value = field.getAnnotation(ConfigValue.class);
-                processValue(type, value, field, node, target, valuePaths);
+            switch (field.getBindingType()) {
+                case Parameter:
+                    return readParam(field, node, valuePaths);
+                case Attribute:
+                    return readAttribute(field, node, valuePaths);
+                case Value:
+                    return readValue(type, field, node, valuePaths);
             }
+            return ConfigBindingPlan.UNSET;
         } catch (Exception e) {
             throw new ConfigurationException(e);
         }
     }
 
     /**
-     * Process a Config Value annotation.
+     * Read the value of a Config Value annotated field.
      *
      * @param type        - Target type.
-     * @param configValue - Config Value annotation.
-     * @param field       - Field to process.
+     * @param binding     - Config Value field binding.
      * @param node        - Configuration node.
-     * @param target      - Target instance.
      * @param <T>         - Target Type
+     * @return - Field value or UNSET if not defined.
      * @throws ConfigurationException
      */
     @SuppressWarnings("unchecked")
-    private static <T> void processValue(Class<? extends T> type,
-                                         ConfigValue configValue, Field field,
-                                         AbstractConfigNode node, T target, List<String> valuePaths)
+    private static <T> Object readValue(Class<? extends T> type,
+                                        ConfigBindingPlan.FieldBinding binding,
+                                        AbstractConfigNode node, List<String> valuePaths)
             throws ConfigurationException {
         try {
-            String name = configValue.name();
-            if (Strings.isNullOrEmpty(name)) {
-                name = field.getName();
-            }
-            if (field.getType().isEnum() || canSetFieldType(field)) {
+            Field field = binding.getField();
+            String name = binding.getName();
+            if (binding.isEnum() || binding.canSet()) {
                 String value = null;
+                Object listValue = null;
                 if (node instanceof ConfigPathNode) {
                     AbstractConfigNode fnode = node.find(name);
                     if (fnode != null) {
@@ -557,9 +584,8 @@ public class ConfigurationAnnotationProcessor {
                             }
                             value = cv.getValue();
                         } else if (fnode instanceof ConfigListValueNode) {
-                            setListValueFromNode(type,
-                                    ((ConfigListValueNode) fnode),
-                                    target, field);
+                            listValue = getListValueFromNode(
+                                    ((ConfigListValueNode) fnode), field);
                         }
                         if (valuePaths != null) {
                             valuePaths.add(fnode.getSearchPath());
@@ -567,14 +593,15 @@ public class ConfigurationAnnotationProcessor {
                     }
                 }
                 if (!Strings.isNullOrEmpty(value)) {
-                    ReflectionUtils
-                            .setValueFromString(value, target, field);
-                } else if (configValue.required()) {
+                    return binding.valueFromString(value);
+                } else if (listValue != null) {
+                    return listValue;
+                } else if (binding.isRequired()) {
                     throw new ConfigurationException(String.format(
                             "Required configuration value not specified: [path=%s][name=%s]",
                             node.getAbsolutePath(), name));
                 }
-            } else if (field.getType() == EncryptedValue.class) {
+            } else if (binding.isEncrypted()) {
                 ConfigValueNode vn = null;
                 if (node instanceof ConfigPathNode) {
                     AbstractConfigNode fnode = node.find(name);
@@ -593,19 +620,17 @@ public class ConfigurationAnnotationProcessor {
                     }
                 }
                 if (vn == null) {
-                    if (configValue.required()) {
+                    if (binding.isRequired()) {
                         throw new ConfigurationException(String.format(
                                 "Required parameter not specified: [path=%s][name=%s]",
                                 node.getAbsolutePath(), node.getName()));
                     }
                 } else {
-                    EncryptedValue ev = new EncryptedValue(vn);
-                    ReflectionUtils.setObjectValue(target, field, ev);
+                    return new EncryptedValue(vn);
                 }
             } else {
-                Class<? extends ITransformer> tt = configValue.transformer();
-                if (tt != NullTransformer.class) {
-                    ITransformer<?, String> transformer = tt.newInstance();
+                ITransformer<?, String> transformer = binding.getTransformer();
+                if (transformer != null) {
                     String value = null;
                     if (node instanceof ConfigPathNode) {
                         AbstractConfigNode fnode = node.find(name);
@@ -620,16 +645,15 @@ public class ConfigurationAnnotationProcessor {
                         }
                     }
                     if (!Strings.isNullOrEmpty(value)) {
-                        Object tValue = transformer.transform(value);
-                        ReflectionUtils.setObjectValue(target, field, tValue);
-                    } else if (configValue.required()) {
+                        return transformer.transform(value);
+                    } else if (binding.isRequired()) {
                         throw new ConfigurationException(String.format(
                                 "Required configuration value not specified: [path=%s][name=%s]",
                                 node.getAbsolutePath(), name));
                     }
                 } else {
                     Class<?> ftype = field.getType();
-                    String path = hasConfigAnnotation(ftype);
+                    String path = binding.getNestedPath();
                     if (!Strings.isNullOrEmpty(path) &&
                             (node instanceof ConfigPathNode)) {
                         if (path.equals(".")) {
@@ -644,17 +668,10 @@ public class ConfigurationAnnotationProcessor {
                             value = readConfigAnnotations(ftype,
                                     (ConfigPathNode) cnode,
                                     value, valuePaths);
-                            ReflectionUtils
-                                    .setObjectValue(target, field, value);
                             if (valuePaths != null) {
                                 valuePaths.add(cnode.getSearchPath());
                             }
-                        }
-                        Object fv = ReflectionUtils.getFieldValue(target, field);
-                        if (fv == null && configValue.required()) {
-                            throw new ConfigurationException(String.format(
-                                    "Required configuration value not specified: [path=%s][name=%s]",
-                                    node.getAbsolutePath(), name));
+                            return value;
                         }
                     } else {
                         throw new ConfigurationException(String.format(
@@ -663,33 +680,29 @@ public class ConfigurationAnnotationProcessor {
                     }
                 }
             }
+            return ConfigBindingPlan.UNSET;
         } catch (Exception e) {
             throw new ConfigurationException(e);
         }
     }
 
     /**
-     * Process a Config Parameter annotation.
+     * Read the value of a Config Parameter annotated field.
      *
-     * @param param  - Config Parameter annotation.
-     * @param field  - Field to process.
+     * @param binding - Config Parameter field binding.
      * @param node   - Configuration node.
-     * @param target - Target instance.
      * @param <T>    - Target Type
+     * @return - Field value or UNSET if not defined.
      * @throws ConfigurationException
      */
     @SuppressWarnings("unchecked")
-    private static <T> void processParam(ConfigParam param, Field field,
-                                         AbstractConfigNode node, T target, List<String> valuePaths)
+    private static <T> Object readParam(ConfigBindingPlan.FieldBinding binding,
+                                        AbstractConfigNode node, List<String> valuePaths)
             throws ConfigurationException {
         try {
-            String name = param.name();
-            if (Strings.isNullOrEmpty(name)) {
-                name = field.getName();
-            }
-            StructNodeInfo nodeInfo = checkAnnotationTags(name, node,
-                    ConfigParametersNode.NODE_ABBR_PREFIX);
-            if (field.getType() == EncryptedValue.class) {
+            Field field = binding.getField();
+            StructNodeInfo nodeInfo = checkAnnotationTags(binding, node);
+            if (binding.isEncrypted()) {
                 ConfigValueNode vn = null;
                 if (node instanceof ConfigPathNode) {
                     ConfigPathNode pathNode = (ConfigPathNode) nodeInfo.node;
@@ -699,21 +712,21 @@ public class ConfigurationAnnotationProcessor {
                             vn = params.getValue(nodeInfo.name);
                     }
                     if (valuePaths != null) {
-                        valuePaths.add(node.getSearchPath());
+                        valuePaths.add(keyPath(pathNode, ConfigParametersNode.NODE_ABBR_PREFIX,
+                                                   nodeInfo.name));
                     }
                 }
                 if (vn == null) {
-                    if (param.required()) {
+                    if (binding.isRequired()) {
                         throw new ConfigurationException(String.format(
                                 "Required parameter not specified: [path=%s][name=%s]",
                                 node.getAbsolutePath(), nodeInfo.name));
                     }
                 } else {
-                    EncryptedValue ev = new EncryptedValue(vn);
-                    ReflectionUtils.setObjectValue(target, field, ev);
+                    return new EncryptedValue(vn);
                 }
 
-                return;
+                return ConfigBindingPlan.UNSET;
             }
             String value = null;
             if (node instanceof ConfigPathNode) {
@@ -733,57 +746,51 @@ public class ConfigurationAnnotationProcessor {
                     }
                 }
                 if (valuePaths != null) {
-                    valuePaths.add(pathNode.getSearchPath());
+                    valuePaths.add(keyPath(pathNode, ConfigParametersNode.NODE_ABBR_PREFIX,
+                                               nodeInfo.name));
                 }
             }
 
             if (!Strings.isNullOrEmpty(value)) {
-                if (canProcessFieldType(field) || field.getType().isEnum()) {
+                if (binding.canProcess() || binding.isEnum()) {
                     if (!Strings.isNullOrEmpty(value)) {
-                        ReflectionUtils.setValueFromString(value, target, field);
+                        return binding.valueFromString(value);
                     } else {
-                        Class<? extends ITransformer> tt = param.transformer();
-                        if (tt != NullTransformer.class) {
-                            ITransformer<?, String> transformer = tt.newInstance();
+                        ITransformer<?, String> transformer = binding.getTransformer();
+                        if (transformer != null) {
 
-                            Object tValue = transformer.transform(value);
-                            ReflectionUtils.setObjectValue(target, field, tValue);
+                            return transformer.transform(value);
                         }
                     }
                 }
-            } else if (param.required()) {
+            } else if (binding.isRequired()) {
                 throw new ConfigurationException(String.format(
                         "Required parameter not specified: [path=%s][name=%s]",
                         node.getAbsolutePath(), nodeInfo.name));
             }
+            return ConfigBindingPlan.UNSET;
         } catch (Exception e) {
             throw new ConfigurationException(e);
         }
     }
 
     /**
-     * Process a Config Attribute annotation.
+     * Read the value of a Config Attribute annotated field.
      *
-     * @param attribute - Config Attribute annotation.
-     * @param field     - Field to process.
+     * @param binding   - Config Attribute field binding.
      * @param node      - Configuration node.
-     * @param target    - Target instance.
      * @param <T>       - Target Type
+     * @return - Field value or UNSET if not defined.
      * @throws ConfigurationException
      */
     @SuppressWarnings("unchecked")
-    private static <T> void processAttributes(ConfigAttribute attribute,
-                                              Field field,
-                                              AbstractConfigNode node, T target, List<String> valuePaths)
+    private static <T> Object readAttribute(ConfigBindingPlan.FieldBinding binding,
+                                            AbstractConfigNode node, List<String> valuePaths)
             throws ConfigurationException {
         try {
-            String name = attribute.name();
-            if (Strings.isNullOrEmpty(name)) {
-                name = field.getName();
-            }
-            StructNodeInfo nodeInfo = checkAnnotationTags(name, node,
-                    ConfigAttributesNode.NODE_ABBR_PREFIX);
-            if (field.getType() == EncryptedValue.class) {
+            Field field = binding.getField();
+            StructNodeInfo nodeInfo = checkAnnotationTags(binding, node);
+            if (binding.isEncrypted()) {
                 ConfigValueNode vn = null;
                 if (node instanceof ConfigPathNode) {
                     ConfigPathNode pathNode = (ConfigPathNode) nodeInfo.node;
@@ -793,21 +800,21 @@ public class ConfigurationAnnotationProcessor {
                             vn = attrs.getValue(nodeInfo.name);
                     }
                     if (valuePaths != null) {
-                        valuePaths.add(node.getSearchPath());
+                        valuePaths.add(keyPath(pathNode, ConfigAttributesNode.NODE_ABBR_PREFIX,
+                                                   nodeInfo.name));
                     }
                 }
                 if (vn == null) {
-                    if (attribute.required()) {
+                    if (binding.isRequired()) {
                         throw new ConfigurationException(String.format(
                                 "Required parameter not specified: [path=%s][name=%s]",
                                 node.getAbsolutePath(), nodeInfo.name));
                     }
                 } else {
-                    EncryptedValue ev = new EncryptedValue(vn);
-                    ReflectionUtils.setObjectValue(target, field, ev);
+                    return new EncryptedValue(vn);
                 }
 
-                return;
+                return ConfigBindingPlan.UNSET;
             }
 
             String value = null;
@@ -828,87 +835,83 @@ public class ConfigurationAnnotationProcessor {
                     }
                 }
                 if (valuePaths != null) {
-                    valuePaths.add(node.getSearchPath());
+                    valuePaths.add(keyPath(pathNode, ConfigAttributesNode.NODE_ABBR_PREFIX,
+                                               nodeInfo.name));
                 }
             }
             if (!Strings.isNullOrEmpty(value)) {
-                if (canProcessFieldType(field) || field.getType().isEnum()) {
-                    ReflectionUtils.setValueFromString(value, target, field);
+                if (binding.canProcess() || binding.isEnum()) {
+                    return binding.valueFromString(value);
                 } else {
-                    Class<? extends ITransformer> tt = attribute.transformer();
-                    if (tt != NullTransformer.class) {
-                        ITransformer<?, String> transformer = tt.newInstance();
+                    ITransformer<?, String> transformer = binding.getTransformer();
+                    if (transformer != null) {
 
-                        Object tValue = transformer.transform(value);
-                        ReflectionUtils.setObjectValue(target, field, tValue);
+                        return transformer.transform(value);
                     }
                 }
-            } else if (attribute.required()) {
+            } else if (binding.isRequired()) {
                 throw new ConfigurationException(String.format(
                         "Required parameter not specified: [path=%s][name=%s]",
                         node.getAbsolutePath(), nodeInfo.name));
             }
+            return ConfigBindingPlan.UNSET;
         } catch (Exception e) {
             throw new ConfigurationException(e);
         }
     }
 
     /**
-     * Check field for annotation tag.
+     * Get the search path of a parameter/attribute key. Fields are bound to the
+     * key path (not the node path), so that updates to other keys of the node
+     * don't impact the field.
+     *
+     * @param node - Path node the key belongs to.
+     * @param tag  - Parameter/Attribute tag.
+     * @param name - Key name.
+     * @return - Key search path.
+     */
+    static String keyPath(AbstractConfigNode node, String tag, String name) {
+        return String.format("%s%s%s%s", node.getSearchPath(), tag,
+                             ConfigurationSettings.NODE_SEARCH_SEPERATOR, name);
+    }
+
+    /**
+     * Resolve the node/name for a tagged (path#name/path@name) field binding.
      *
-     * @param name - Annotation name property.
-     * @param node - Configuration node.
-     * @param tag  - Annotation tag.
+     * @param binding - Parameter/Attribute field binding.
+     * @param node    - Configuration node.
      * @return - Processed Name/Node.
      * @throws ConfigurationException
      */
-    private static StructNodeInfo checkAnnotationTags(String name,
-                                                      AbstractConfigNode node,
-                                                      String tag)
+    private static StructNodeInfo checkAnnotationTags(ConfigBindingPlan.FieldBinding binding,
+                                                      AbstractConfigNode node)
             throws ConfigurationException {
         StructNodeInfo ni = new StructNodeInfo();
-        ni.name = name;
+        ni.name = binding.getTagName();
         ni.node = node;
-        if (name.contains(tag)) {
-            String[] parts =
-                    name.split(tag);
-            if (parts.length == 2) {
-                String path = parts[0];
-                String nname = parts[1];
-                if (Strings.isNullOrEmpty(path)) {
-                    ni.name = nname;
-                } else {
-                    ni.node = node.find(path);
-                    if (ni.node == null) {
-                        throw new ConfigurationException(
-                                String.format(
-                                        "Invalid ConfigParam : path not found. [name=%s]",
-                                        name));
-                    }
-                    ni.name = nname;
-                }
-            } else {
+        String path = binding.getTagPath();
+        if (!Strings.isNullOrEmpty(path)) {
+            ni.node = node.find(path);
+            if (ni.node == null) {
                 throw new ConfigurationException(
-                        String.format("Invalid ConfigParam : [name=%s]",
-                                name));
+                        String.format(
+                                "Invalid ConfigParam : path not found. [name=%s]",
+                                binding.getName()));
             }
         }
         return ni;
     }
 
     /**
-     * Set the value of the Collection type based on the passed Value list.
+     * Get the value of the Collection type based on the passed Value list.
      *
-     * @param type          - Class type of the target object.
      * @param listValueNode - List Value node to extract values from.
-     * @param target        - Target object to set the values for
      * @param field         - Field in the target object.
-     * @param <T>           - Generic type.
+     * @return - Collection value or NULL if the field type is not supported.
      * @throws ConfigurationException
      */
-    private static <T> void setListValueFromNode(Class<? extends T> type,
-                                                 ConfigListValueNode listValueNode,
-                                                 T target, Field field)
+    private static Object getListValueFromNode(ConfigListValueNode listValueNode,
+                                               Field field)
             throws ConfigurationException {
         List<String> values = new ArrayList<>(listValueNode.size());
         List<ConfigValueNode> nodes = listValueNode.getValues();
@@ -917,11 +920,12 @@ public class ConfigurationAnnotationProcessor {
         }
         try {
             if (ReflectionUtils.implementsInterface(List.class, field.getType())) {
-                CollectionUtils.setListValues(target, field, values);
+                return CollectionUtils.createListValues(field, values);
             } else if (ReflectionUtils
                     .implementsInterface(Set.class, field.getType())) {
-                CollectionUtils.setSetValues(target, field, values);
+                return CollectionUtils.createSetValues(field, values);
             }
+            return null;
         } catch (Exception e) {
             throw new ConfigurationException(e);
         }
@@ -934,7 +938,7 @@ public class ConfigurationAnnotationProcessor {
      * @return - Can process?
      * @throws Exception
      */
-    private static boolean canProcessFieldType(Field field) throws Exception {
+    static boolean canProcessFieldType(Field field) throws Exception {
         if (ReflectionUtils.isPrimitiveTypeOrString(field)) {
             return true;
         } else if (canSetFieldType(field)) {
@@ -949,7 +953,7 @@ public class ConfigurationAnnotationProcessor {
         return false;
     }
 
-    private static boolean canSetFieldType(Field field) throws Exception {
+    static boolean canSetFieldType(Field field) throws Exception {
         if (ReflectionUtils.isPrimitiveTypeOrString(field) ||
                 field.getType().isEnum()) {
             return true;
@@ -987,7 +991,7 @@ public class ConfigurationAnnotationProcessor {
      * @return - Config Path annotation value.
      */
     public static <T> String hasConfigAnnotation(Class<? extends T> type) {
-        ConfigPath cPath = type.getAnnotation(ConfigPath.class);
+        ConfigPath cPath = ConfigBindingPlan.get(type).getConfigPath();
         if (cPath != null) {
             return cPath.path();
         }
@@ -1006,30 +1010,12 @@ public class ConfigurationAnnotationProcessor {
         String path = hasConfigAnnotation(type);
         if (!Strings.isNullOrEmpty(path)) {
             List<StructFieldAnnotation> annotations = new ArrayList<>();
-            Field[] fields = ReflectionUtils.getAllFields(type);
-            if (fields != null && fields.length > 0) {
-                for (Field field : fields) {
-                    if (field.isAnnotationPresent(ConfigParam.class)) {
-                        ConfigParam param = field.getAnnotation(ConfigParam.class);
-                        StructFieldAnnotation fa = new StructFieldAnnotation();
-                        fa.field = field;
-                        fa.annotation = param;
-                        annotations.add(fa);
-                    } else if (field.isAnnotationPresent(ConfigValue.class)) {
-                        ConfigValue param = field.getAnnotation(ConfigValue.class);
-                        StructFieldAnnotation fa = new StructFieldAnnotation();
-                        fa.field = field;
-                        fa.annotation = param;
-                        annotations.add(fa);
-                    } else if (field.isAnnotationPresent(ConfigAttribute.class)) {
-                        ConfigAttribute param =
-                                field.getAnnotation(ConfigAttribute.class);
-                        StructFieldAnnotation fa = new StructFieldAnnotation();
-                        fa.field = field;
-                        fa.annotation = param;
-                        annotations.add(fa);
-                    }
-                }
+            for (ConfigBindingPlan.FieldBinding field :
+                    ConfigBindingPlan.get(type).getFields()) {
+                StructFieldAnnotation fa = new StructFieldAnnotation();
+                fa.field = field.getField();
+                fa.annotation = field.getAnnotation();
+                annotations.add(fa);
             }
             if (!annotations.isEmpty()) {
                 return annotations;
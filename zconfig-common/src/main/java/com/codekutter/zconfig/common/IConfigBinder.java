@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 16/10/20 5:05 PM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common;
+
+import com.codekutter.zconfig.common.model.nodes.AbstractConfigNode;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * Interface for binders that apply configuration values to an annotated type.
+ * <p>
+ * Implementations are generated at compile time (see zconfig-processor) as
+ * [Type]ConfigBinder in the package of the annotated type.
+ *
+ * @param <T> - Annotated type.
+ */
+public interface IConfigBinder<T> {
+    /**
+     * Value returned by readField() when the configuration doesn't define a
+     * value for the field (the field is left unchanged).
+     */
+    Object UNSET = new Object();
+
+    /**
+     * Apply the annotated field values and invoke the annotated methods
+     * for the target instance.
+     *
+     * @param node       - Configuration node of the type path.
+     * @param target     - Target instance.
+     * @param valuePaths - List to add the bound value paths to (can be NULL).
+     * @throws ConfigurationException
+     */
+    void bind(@Nonnull AbstractConfigNode node, @Nonnull T target,
+              List<String> valuePaths) throws ConfigurationException;
+
+    /**
+     * Read the value of an annotated field from the configuration node,
+     * without setting it on an instance.
+     *
+     * @param field      - Field name.
+     * @param node       - Configuration node of the type path.
+     * @param valuePaths - List to add the bound value paths to (can be NULL).
+     * @return - Field value or UNSET if not defined.
+     * @throws ConfigurationException - If the field is not annotated.
+     */
+    Object readField(@Nonnull String field, @Nonnull AbstractConfigNode node,
+                     List<String> valuePaths) throws ConfigurationException;
+
+    /**
+     * Set the value (as returned by readField()) of an annotated field.
+     *
+     * @param field  - Field name.
+     * @param target - Target instance.
+     * @param value  - Value to set.
+     * @throws ConfigurationException - If the field is not annotated.
+     */
+    void setField(@Nonnull String field, @Nonnull T target, Object value)
+    throws ConfigurationException;
+
+    /**
+     * Apply the value of an annotated field to the target instance.
+     *
+     * @param field      - Field name.
+     * @param node       - Configuration node of the type path.
+     * @param target     - Target instance.
+     * @param valuePaths - List to add the bound value paths to (can be NULL).
+     * @return - Is the value defined? (field is left unchanged if not)
+     * @throws ConfigurationException - If the field is not annotated.
+     */
+    default boolean bindField(@Nonnull String field,
+                              @Nonnull AbstractConfigNode node,
+                              @Nonnull T target, List<String> valuePaths)
+    throws ConfigurationException {
+        Object value = readField(field, node, valuePaths);
+        if (value == UNSET) {
+            return false;
+        }
+        setField(field, target, value);
+        return true;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 17/10/20 1:10 PM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common;
+
+/**
+ * Class encapsulating the constants defined for the binary configuration
+ * snapshot format.
+ * <p>
+ * Snapshot layout (integers are unsigned varints, strings are references into
+ * the string table, 0 = NULL):
+ * <pre>
+ *     [magic][format version]
+ *     [string count]([byte length][UTF-8 bytes])*
+ *     [header : id, group, application, name, description, version,
+ *               created by (user, timestamp), updated by (user, timestamp),
+ *               sync mode, encryption hash, timestamp]
+ *     [root node]
+ * </pre>
+ * Nodes are written as [tag][name] followed by the node type specific data.
+ */
+public class SnapshotConfigConstants {
+    public static final String FILE_EXTENSION = "snapshot";
+    public static final byte[] MAGIC = {'Z', 'C', 'F', 'G'};
+    public static final int FORMAT_VERSION = 1;
+
+    public static final byte NODE_PATH = 1;
+    public static final byte NODE_VALUE = 2;
+    public static final byte NODE_PARAMETERS = 3;
+    public static final byte NODE_PROPERTIES = 4;
+    public static final byte NODE_ATTRIBUTES = 5;
+    public static final byte NODE_LIST_VALUE = 6;
+    public static final byte NODE_LIST_ELEMENT = 7;
+    public static final byte NODE_INCLUDE = 8;
+    public static final byte NODE_RESOURCE_FILE = 9;
+    public static final byte NODE_RESOURCE_DIRECTORY = 10;
+    public static final byte NODE_RESOURCE_BLOB = 11;
+
+    public static final int FLAG_ENCRYPTED = 1;
+}
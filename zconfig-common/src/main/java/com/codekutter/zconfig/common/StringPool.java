@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 18/10/20 2:20 PM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of de-duplicated strings shared by configuration instances (node names
+ * and values).
+ * <p>
+ * Pooled strings are weakly referenced, strings no longer referenced by any
+ * configuration are released by the GC.
+ */
+public class StringPool {
+    /**
+     * Weak interner, instances are thread-safe.
+     */
+    private final Interner<String> interner = Interners.newWeakInterner();
+    /**
+     * Number of intern requests.
+     */
+    private final LongAdder requests = new LongAdder();
+    /**
+     * Number of requests that returned an already pooled instance.
+     */
+    private final LongAdder hits = new LongAdder();
+    /**
+     * Estimated heap size of the duplicate instances replaced by pooled instances.
+     */
+    private final LongAdder savedBytes = new LongAdder();
+
+    /**
+     * Get the pooled instance for the specified string.
+     *
+     * @param value - String value.
+     * @return - Pooled instance (NULL if value is NULL).
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        requests.increment();
+        String pooled = interner.intern(value);
+        if (pooled != value) {
+            hits.increment();
+            savedBytes.add(sizeOf(value));
+        }
+        return pooled;
+    }
+
+    /**
+     * Get the number of intern requests.
+     *
+     * @return - Request count.
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * Get the number of requests that returned an already pooled instance.
+     *
+     * @return - Hit count.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the estimated heap size of the duplicate instances replaced by
+     * pooled instances.
+     *
+     * @return - Saved bytes.
+     */
+    public long getSavedBytes() {
+        return savedBytes.sum();
+    }
+
+    /**
+     * Get the estimated heap size of a String instance (String object and the
+     * backing char array, 8 byte aligned).
+     *
+     * @param value - String value.
+     * @return - Estimated size in bytes.
+     */
+    public static long sizeOf(String value) {
+        if (value == null) {
+            return 0;
+        }
+        return align(24) + align(16 + 2L * value.length());
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StringPool{requests=%d, hits=%d, savedBytes=%d}",
+                             getRequestCount(), getHitCount(), getSavedBytes());
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 18/10/20 3:05 PM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common;
+
+import com.codekutter.zconfig.common.model.Configuration;
+import com.codekutter.zconfig.common.model.nodes.*;
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+
+/**
+ * Report of the (estimated) heap used by the node name/value strings of a set
+ * of configurations.
+ * <p>
+ * The report compares the heap retained by the distinct String instances
+ * referenced by the node trees with the heap that would be used without
+ * de-duplication (one instance per reference) and with complete
+ * de-duplication (one instance per distinct value).
+ * <p>
+ * Note: Deferred (lazy) branches that haven't been loaded are not included.
+ */
+public class StringUsageReport {
+    /**
+     * Number of string references (node names/values).
+     */
+    private long references = 0;
+    /**
+     * Number of distinct String instances referenced.
+     */
+    private long instances = 0;
+    /**
+     * Number of distinct string values.
+     */
+    private long values = 0;
+    /**
+     * Estimated heap size of the distinct String instances referenced.
+     */
+    private long retainedBytes = 0;
+    /**
+     * Estimated heap size with one String instance per reference.
+     */
+    private long unpooledBytes = 0;
+    /**
+     * Estimated heap size with one String instance per distinct value.
+     */
+    private long minimumBytes = 0;
+
+    private StringUsageReport() {
+    }
+
+    /**
+     * Get the number of string references (node names/values).
+     *
+     * @return - Number of references.
+     */
+    public long getReferences() {
+        return references;
+    }
+
+    /**
+     * Get the number of distinct String instances referenced.
+     *
+     * @return - Number of instances.
+     */
+    public long getInstances() {
+        return instances;
+    }
+
+    /**
+     * Get the number of distinct string values.
+     *
+     * @return - Number of values.
+     */
+    public long getValues() {
+        return values;
+    }
+
+    /**
+     * Get the estimated heap size of the distinct String instances referenced.
+     *
+     * @return - Size in bytes.
+     */
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    /**
+     * Get the estimated heap size with one String instance per reference.
+     *
+     * @return - Size in bytes.
+     */
+    public long getUnpooledBytes() {
+        return unpooledBytes;
+    }
+
+    /**
+     * Get the estimated heap size with one String instance per distinct value.
+     *
+     * @return - Size in bytes.
+     */
+    public long getMinimumBytes() {
+        return minimumBytes;
+    }
+
+    /**
+     * Get the estimated heap saved by shared String instances.
+     *
+     * @return - Size in bytes.
+     */
+    public long getSavedBytes() {
+        return unpooledBytes - retainedBytes;
+    }
+
+    /**
+     * Get the estimated heap still used by duplicate String instances.
+     *
+     * @return - Size in bytes.
+     */
+    public long getDuplicateBytes() {
+        return retainedBytes - minimumBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "StringUsageReport{references=%d, instances=%d, values=%d, " +
+                        "retainedBytes=%d, unpooledBytes=%d, savedBytes=%d, " +
+                        "duplicateBytes=%d}",
+                references, instances, values, retainedBytes, unpooledBytes,
+                getSavedBytes(), getDuplicateBytes());
+    }
+
+    /**
+     * Build the report for the specified configurations.
+     *
+     * @param configurations - Configurations to report on.
+     * @return - String usage report.
+     */
+    public static StringUsageReport build(
+            @Nonnull Collection<Configuration> configurations) {
+        Preconditions.checkArgument(configurations != null);
+
+        Set<String> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<String> values = new HashSet<>();
+        StringUsageReport report = new StringUsageReport();
+        for (Configuration configuration : configurations) {
+            if (configuration.getRootConfigNode() != null) {
+                report.readNode(configuration.getRootConfigNode(), instances,
+                                values);
+            }
+        }
+        report.instances = instances.size();
+        report.values = values.size();
+        for (String value : instances) {
+            report.retainedBytes += StringPool.sizeOf(value);
+        }
+        for (String value : values) {
+            report.minimumBytes += StringPool.sizeOf(value);
+        }
+        return report;
+    }
+
+    private void readNode(AbstractConfigNode node, Set<String> instances,
+                          Set<String> values) {
+        addString(node.getName(), instances, values);
+        if (node instanceof ConfigPathNode) {
+            ConfigPathNode cp = (ConfigPathNode) node;
+            if (!cp.isMaterialized()) {
+                return;
+            }
+            Map<String, AbstractConfigNode> children = cp.getChildren();
+            if (children != null) {
+                for (AbstractConfigNode child : children.values()) {
+                    readNode(child, instances, values);
+                }
+            }
+        } else if (node instanceof ConfigKeyValueNode) {
+            Map<String, ConfigValueNode> kvs =
+                    ((ConfigKeyValueNode) node).getKeyValues();
+            if (kvs != null) {
+                for (ConfigValueNode child : kvs.values()) {
+                    readNode(child, instances, values);
+                }
+            }
+        } else if (node instanceof ConfigListNode) {
+            List<?> list = ((ConfigListNode<?>) node).getValues();
+            if (list != null) {
+                for (Object child : list) {
+                    readNode((AbstractConfigNode) child, instances, values);
+                }
+            }
+        } else if (node instanceof ConfigValueNode) {
+            addString(((ConfigValueNode) node).getValue(), instances, values);
+        }
+    }
+
+    private void addString(String value, Set<String> instances,
+                           Set<String> values) {
+        if (value != null) {
+            references++;
+            unpooledBytes += StringPool.sizeOf(value);
+            instances.add(value);
+            values.add(value);
+        }
+    }
+}
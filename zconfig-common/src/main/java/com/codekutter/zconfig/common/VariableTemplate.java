@@ -0,0 +1,348 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 17/10/20 9:40 AM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Compiled form of a value string with variable place holders.
+ * <p>
+ * Values are tokenized once into literal and variable segments, and resolved
+ * in a single pass. Supported references:
+ * <pre>
+ *     ${name}           - Replaced by the variable value.
+ *     ${name:-default}  - Replaced by the default if the variable is not defined.
+ *     ${prefix.${name}} - Variable names/defaults can contain nested references.
+ * </pre>
+ * References to variables that are not defined (and have no default) are
+ * left as-is.
+ */
+public final class VariableTemplate {
+    /**
+     * Max number of compiled templates to retain in the cache.
+     */
+    public static final int MAX_CACHED_TEMPLATES = 4096;
+
+    private static final String VAR_START = "${";
+    private static final char VAR_END = '}';
+    private static final String VAR_DEFAULT = ":-";
+
+    private static final Cache<String, VariableTemplate> cache =
+            CacheBuilder.newBuilder().maximumSize(MAX_CACHED_TEMPLATES)
+                        .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+                        .build();
+
+    /**
+     * Resolver to lookup variable values.
+     */
+    @FunctionalInterface
+    public interface Resolver {
+        /**
+         * Get the value of the specified variable.
+         *
+         * @param name - Variable name.
+         * @return - Variable value or NULL if not defined.
+         */
+        String resolve(String name);
+    }
+
+    /**
+     * Source value string.
+     */
+    private final String source;
+    /**
+     * Literal/Variable segments.
+     */
+    private final List<Segment> segments;
+    /**
+     * Does the source contain any variable references?
+     */
+    private final boolean variables;
+
+    /**
+     * Private constructor, use compile() to get an instance.
+     *
+     * @param source   - Source value string.
+     * @param segments - Tokenized segments.
+     */
+    private VariableTemplate(String source, List<Segment> segments) {
+        this.source = source;
+        this.segments = ImmutableList.copyOf(segments);
+        boolean variables = false;
+        for (Segment segment : this.segments) {
+            if (segment instanceof VariableSegment) {
+                variables = true;
+                break;
+            }
+        }
+        this.variables = variables;
+    }
+
+    /**
+     * Get the source value string.
+     *
+     * @return - Source value.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Check if the source value contains variable references.
+     *
+     * @return - Has variables?
+     */
+    public boolean hasVariables() {
+        return variables;
+    }
+
+    /**
+     * Get the names of the (top level) variables referenced.
+     *
+     * @return - List of variable names (nested names are returned unresolved).
+     */
+    public List<String> getVariables() {
+        List<String> names = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment instanceof VariableSegment) {
+                names.add(((VariableSegment) segment).name.source);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Resolve the variables using the specified resolver.
+     *
+     * @param resolver - Variable value resolver.
+     * @return - Resolved value.
+     */
+    public String resolve(@Nonnull Resolver resolver) {
+        Preconditions.checkArgument(resolver != null);
+        if (!variables) {
+            return source;
+        }
+        StringBuilder buffer = new StringBuilder(source.length());
+        render(buffer, resolver);
+        return buffer.toString();
+    }
+
+    /**
+     * Append the resolved value to the buffer.
+     *
+     * @param buffer   - Output buffer.
+     * @param resolver - Variable value resolver.
+     */
+    private void render(StringBuilder buffer, Resolver resolver) {
+        if (!variables) {
+            buffer.append(source);
+            return;
+        }
+        for (Segment segment : segments) {
+            segment.render(buffer, resolver);
+        }
+    }
+
+    /**
+     * Override default toString().
+     *
+     * @return - Source value.
+     */
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    /**
+     * Get the compiled template for the specified value, compiled templates are
+     * cached and re-used for subsequent calls.
+     *
+     * @param value - Value string.
+     * @return - Compiled template.
+     */
+    public static VariableTemplate compile(@Nonnull String value) {
+        Preconditions.checkArgument(value != null);
+        if (value.indexOf(VAR_START) < 0) {
+            return new VariableTemplate(value, ImmutableList.of(
+                    new LiteralSegment(value)));
+        }
+        try {
+            return cache.get(value, () -> parse(value));
+        } catch (ExecutionException e) {
+            // Parse does not throw checked exceptions.
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Clear all the cached templates.
+     */
+    public static void clearCache() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Tokenize the value string.
+     *
+     * @param value - Value string.
+     * @return - Compiled template.
+     */
+    private static VariableTemplate parse(String value) {
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int index = 0;
+        while (index < value.length()) {
+            if (value.startsWith(VAR_START, index)) {
+                int end = findEnd(value, index + VAR_START.length());
+                if (end < 0) {
+                    // Unterminated reference, treat the remainder as literal.
+                    literal.append(value, index, value.length());
+                    break;
+                }
+                if (literal.length() > 0) {
+                    segments.add(new LiteralSegment(literal.toString()));
+                    literal.setLength(0);
+                }
+                segments.add(variable(value.substring(index, end + 1),
+                                      value.substring(index + VAR_START.length(),
+                                                      end)));
+                index = end + 1;
+            } else {
+                literal.append(value.charAt(index));
+                index++;
+            }
+        }
+        if (literal.length() > 0) {
+            segments.add(new LiteralSegment(literal.toString()));
+        }
+        return new VariableTemplate(value, segments);
+    }
+
+    /**
+     * Create a variable segment, splitting the default value (if any).
+     *
+     * @param text - Source reference text.
+     * @param body - Reference body (without the enclosing braces).
+     * @return - Variable segment.
+     */
+    private static VariableSegment variable(String text, String body) {
+        int depth = 0;
+        for (int ii = 0; ii < body.length(); ii++) {
+            if (body.startsWith(VAR_START, ii)) {
+                depth++;
+                ii++;
+            } else if (body.charAt(ii) == VAR_END) {
+                depth--;
+            } else if (depth == 0 && body.startsWith(VAR_DEFAULT, ii)) {
+                return new VariableSegment(text, parse(body.substring(0, ii)),
+                                           parse(body.substring(
+                                                   ii + VAR_DEFAULT.length())));
+            }
+        }
+        return new VariableSegment(text, parse(body), null);
+    }
+
+    /**
+     * Find the index of the brace closing the reference.
+     *
+     * @param value - Value string.
+     * @param start - Index after the reference start.
+     * @return - Index of the closing brace or -1 if not terminated.
+     */
+    private static int findEnd(String value, int start) {
+        int depth = 1;
+        for (int ii = start; ii < value.length(); ii++) {
+            if (value.startsWith(VAR_START, ii)) {
+                depth++;
+                ii++;
+            } else if (value.charAt(ii) == VAR_END) {
+                depth--;
+                if (depth == 0) {
+                    return ii;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Template segment.
+     */
+    private interface Segment {
+        void render(StringBuilder buffer, Resolver resolver);
+    }
+
+    /**
+     * Literal text segment.
+     */
+    private static final class LiteralSegment implements Segment {
+        private final String text;
+
+        private LiteralSegment(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void render(StringBuilder buffer, Resolver resolver) {
+            buffer.append(text);
+        }
+    }
+
+    /**
+     * Variable reference segment.
+     */
+    private static final class VariableSegment implements Segment {
+        private final String text;
+        private final VariableTemplate name;
+        private final VariableTemplate defaultValue;
+
+        private VariableSegment(String text, VariableTemplate name,
+                                VariableTemplate defaultValue) {
+            this.text = text;
+            this.name = name;
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        public void render(StringBuilder buffer, Resolver resolver) {
+            String value = resolver.resolve(name.resolve(resolver));
+            if (value != null && !value.isEmpty()) {
+                buffer.append(value);
+            } else if (defaultValue != null) {
+                defaultValue.render(buffer, resolver);
+            } else {
+                buffer.append(text);
+            }
+        }
+    }
+}
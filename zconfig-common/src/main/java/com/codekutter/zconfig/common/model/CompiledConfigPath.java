@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 16/10/20 10:15 AM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common.model;
+
+import com.codekutter.zconfig.common.ConfigurationException;
+import com.codekutter.zconfig.common.utils.ConfigUtils;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Immutable, pre-tokenized form of a configuration search path.
+ * <p>
+ * Compiled paths are cached (keyed by the path string and the node names
+ * defined in the settings) so repeated lookups of the same path do not
+ * re-parse the path string.
+ */
+public final class CompiledConfigPath {
+    /**
+     * Max number of compiled paths to retain in the cache.
+     */
+    public static final int MAX_CACHED_PATHS = 4096;
+
+    private static final Cache<String, CompiledConfigPath> cache =
+            CacheBuilder.newBuilder().maximumSize(MAX_CACHED_PATHS)
+                        .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+                        .build();
+
+    /**
+     * Source path string.
+     */
+    private final String path;
+    /**
+     * Tokenized path elements.
+     */
+    private final List<String> elements;
+    /**
+     * Absolute path key used to probe the configuration path index.
+     */
+    private final String indexKey;
+    /**
+     * Can this path be resolved using the path index
+     * (no wildcard or parent references)?
+     */
+    private final boolean indexable;
+
+    /**
+     * Private constructor, use compile() to get an instance.
+     *
+     * @param path     - Source path string.
+     * @param elements - Tokenized path elements.
+     */
+    private CompiledConfigPath(String path, List<String> elements) {
+        this.path = path;
+        this.elements = ImmutableList.copyOf(elements);
+
+        boolean indexable = !this.elements.isEmpty();
+        StringBuilder buff = new StringBuilder();
+        for (String element : this.elements) {
+            if (ConfigurationSettings.isWildcard(element) ||
+                    ConfigurationSettings.isRecursiveWildcard(element) ||
+                    element.compareTo(ConfigurationSettings.NODE_PARENT_TERM) == 0) {
+                indexable = false;
+            }
+            buff.append(ConfigurationSettings.NODE_SEARCH_SEPERATOR).append(element);
+        }
+        this.indexable = indexable;
+        this.indexKey = buff.toString();
+    }
+
+    /**
+     * Get the source path string.
+     *
+     * @return - Source path.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Get the tokenized path elements (unmodifiable).
+     *
+     * @return - Path elements.
+     */
+    public List<String> getElements() {
+        return elements;
+    }
+
+    /**
+     * Get the absolute path key for this path, as used by the configuration
+     * path index.
+     *
+     * @return - Index key.
+     */
+    public String getIndexKey() {
+        return indexKey;
+    }
+
+    /**
+     * Check if this path can be resolved using the configuration path index.
+     *
+     * @return - Is indexable?
+     */
+    public boolean isIndexable() {
+        return indexable;
+    }
+
+    /**
+     * Get the first path element.
+     *
+     * @return - First element or NULL if empty.
+     */
+    public String first() {
+        if (!elements.isEmpty()) {
+            return elements.get(0);
+        }
+        return null;
+    }
+
+    /**
+     * Get the number of path elements.
+     *
+     * @return - Number of elements.
+     */
+    public int size() {
+        return elements.size();
+    }
+
+    /**
+     * Check if this path is empty.
+     *
+     * @return - Is empty?
+     */
+    public boolean isEmpty() {
+        return elements.isEmpty();
+    }
+
+    /**
+     * Get a new compiled path with the specified element prepended.
+     * Prepended paths are not added to the cache.
+     *
+     * @param name - Element to prepend.
+     * @return - New compiled path.
+     */
+    public CompiledConfigPath prepend(@Nonnull String name) {
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(name));
+        ImmutableList.Builder<String> builder = ImmutableList.builder();
+        builder.add(name).addAll(elements);
+        return new CompiledConfigPath(
+                String.format("%s%s%s", name,
+                              ConfigurationSettings.NODE_SEARCH_SEPERATOR, path),
+                builder.build());
+    }
+
+    /**
+     * Override default toString().
+     *
+     * @return - Source path.
+     */
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    /**
+     * Get the compiled form of the specified path, compiled paths are cached and
+     * re-used for subsequent calls.
+     *
+     * @param path     - Path to compile.
+     * @param settings - Configuration Settings.
+     * @return - Compiled path.
+     * @throws ConfigurationException
+     */
+    public static CompiledConfigPath compile(@Nonnull String path,
+                                             @Nonnull ConfigurationSettings settings)
+    throws ConfigurationException {
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(path));
+        Preconditions.checkArgument(settings != null);
+
+        String key = cacheKey(path, settings);
+        CompiledConfigPath cp = cache.getIfPresent(key);
+        if (cp == null) {
+            try {
+                cp = cache.get(key, () -> {
+                    List<String> elements =
+                            ConfigUtils.getResolvedPath(path, settings, null);
+                    return new CompiledConfigPath(path, elements);
+                });
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof ConfigurationException) {
+                    throw (ConfigurationException) e.getCause();
+                }
+                throw new ConfigurationException(e);
+            }
+        }
+        return cp;
+    }
+
+    /**
+     * Clear all the cached compiled paths.
+     */
+    public static void clearCache() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Create the cache key for the path/settings. Node names are included as
+     * they are resolved into the compiled path elements.
+     *
+     * @param path     - Path string.
+     * @param settings - Configuration Settings.
+     * @return - Cache key.
+     */
+    private static String cacheKey(String path, ConfigurationSettings settings) {
+        return settings.getParametersNodeName() + '|' +
+                settings.getAttributesNodeName() + '|' +
+                settings.getPropertiesNodeName() + '|' + path;
+    }
+}
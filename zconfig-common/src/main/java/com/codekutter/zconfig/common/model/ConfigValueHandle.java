@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 20/10/20 10:25 AM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common.model;
+
+import com.codekutter.zconfig.common.ConfigurationException;
+import com.codekutter.zconfig.common.model.nodes.AbstractConfigNode;
+import com.codekutter.zconfig.common.model.nodes.ConfigValueNode;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Handle to a configuration value, bound to a path once and read without
+ * searching the node tree (see Configuration.bindInt() etc.).
+ * <p>
+ * The value node is resolved when the handle is created and re-resolved only
+ * if the node structure of the configuration has changed since, or the
+ * configuration has been replaced by a published snapshot (copy-on-write
+ * updates), in which case the handle is re-bound to the snapshot. Reads in
+ * the steady state don't allocate: the parsed value is cached by the value
+ * node (till the value is updated).
+ * <p>
+ * Note: Elements of (non-compact) value lists are not re-resolved when the
+ * list is modified.
+ */
+public abstract class ConfigValueHandle {
+    /**
+     * Resolved value node, with the configuration instance and the structure
+     * version it was resolved at (not changed once created).
+     */
+    private static final class Binding {
+        private final Configuration configuration;
+        private final ConfigValueNode node;
+        private final int version;
+
+        private Binding(Configuration configuration, ConfigValueNode node,
+                        int version) {
+            this.configuration = configuration;
+            this.node = node;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Compiled value path.
+     */
+    private final CompiledConfigPath path;
+    /**
+     * Current binding (NULL till resolved).
+     */
+    private volatile Binding binding = null;
+
+    /**
+     * Create and resolve a handle for the specified path.
+     *
+     * @param configuration - Configuration to bind to.
+     * @param path          - Value path.
+     * @throws ConfigurationException
+     */
+    protected ConfigValueHandle(@Nonnull Configuration configuration,
+                                @Nonnull String path)
+    throws ConfigurationException {
+        Preconditions.checkArgument(configuration != null);
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(path));
+        this.path = configuration.compile(path);
+        resolve(configuration);
+    }
+
+    /**
+     * Get the path this handle is bound to.
+     *
+     * @return - Value path.
+     */
+    public String getPath() {
+        return path.getPath();
+    }
+
+    /**
+     * Check if the value is defined (node exists and value is not empty).
+     *
+     * @return - Is defined?
+     */
+    public boolean isDefined() {
+        return (current() != null);
+    }
+
+    /**
+     * Get the configuration instance the handle is currently bound to.
+     *
+     * @return - Bound configuration.
+     */
+    public Configuration getConfiguration() {
+        return binding.configuration;
+    }
+
+    /**
+     * Get the bound value node, re-resolving the node if the configuration
+     * structure has changed or the configuration has been replaced.
+     *
+     * @return - Value node or NULL if not found/value not set.
+     */
+    protected ConfigValueNode current() {
+        Binding binding = this.binding;
+        Configuration configuration = binding.configuration.getCurrent();
+        ConfigValueNode node = binding.node;
+        if (configuration != binding.configuration
+                || binding.version != configuration.getStructureVersion()) {
+            try {
+                node = resolve(configuration);
+            } catch (ConfigurationException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        if (node != null && Strings.isNullOrEmpty(node.getValue())) {
+            return null;
+        }
+        return node;
+    }
+
+    /**
+     * Resolve the value node for the bound path.
+     *
+     * @param configuration - Configuration instance to resolve in.
+     * @return - Value node or NULL if not found.
+     * @throws ConfigurationException
+     */
+    private synchronized ConfigValueNode resolve(Configuration configuration)
+    throws ConfigurationException {
+        int version = configuration.getStructureVersion();
+        AbstractConfigNode found = configuration.find(path);
+        ConfigValueNode node = null;
+        if (found != null) {
+            if (!(found instanceof ConfigValueNode)) {
+                throw new ConfigurationException(String.format(
+                        "Invalid value path : Node is not a value. [path=%s][type=%s]",
+                        path.getPath(), found.getClass().getCanonicalName()));
+            }
+            node = (ConfigValueNode) found;
+            if (node.isEncrypted()) {
+                throw new ConfigurationException(String.format(
+                        "Encrypted value cannot be used. [path=%s]",
+                        path.getPath()));
+            }
+        }
+        validate(node);
+        this.binding = new Binding(configuration, node, version);
+        return node;
+    }
+
+    /**
+     * Validate that the bound value can be read as the handle type.
+     *
+     * @param node - Value node (can be NULL).
+     * @throws ConfigurationException
+     */
+    private void validate(ConfigValueNode node) throws ConfigurationException {
+        if (node != null && !Strings.isNullOrEmpty(node.getValue())) {
+            try {
+                read(node);
+            } catch (RuntimeException e) {
+                throw new ConfigurationException(String.format(
+                        "Invalid value : Cannot parse as %s. [path=%s]",
+                        getClass().getSimpleName(), path.getPath()), e);
+            }
+        }
+    }
+
+    /**
+     * Read (and cache) the typed value of the node.
+     *
+     * @param node - Value node.
+     */
+    protected abstract void read(ConfigValueNode node);
+
+    /**
+     * Handle to an int value.
+     */
+    public static final class IntHandle extends ConfigValueHandle {
+        private final int defaultValue;
+
+        IntHandle(Configuration configuration, String path, int defaultValue)
+        throws ConfigurationException {
+            super(configuration, path);
+            this.defaultValue = defaultValue;
+        }
+
+        /**
+         * Get the current value.
+         *
+         * @return - Value or the default if not defined.
+         */
+        public int get() {
+            ConfigValueNode node = current();
+            return (node != null ? node.getIntValue() : defaultValue);
+        }
+
+        @Override
+        protected void read(ConfigValueNode node) {
+            node.getIntValue();
+        }
+    }
+
+    /**
+     * Handle to a long value.
+     */
+    public static final class LongHandle extends ConfigValueHandle {
+        private final long defaultValue;
+
+        LongHandle(Configuration configuration, String path, long defaultValue)
+        throws ConfigurationException {
+            super(configuration, path);
+            this.defaultValue = defaultValue;
+        }
+
+        /**
+         * Get the current value.
+         *
+         * @return - Value or the default if not defined.
+         */
+        public long get() {
+            ConfigValueNode node = current();
+            return (node != null ? node.getLongValue() : defaultValue);
+        }
+
+        @Override
+        protected void read(ConfigValueNode node) {
+            node.getLongValue();
+        }
+    }
+
+    /**
+     * Handle to a double value.
+     */
+    public static final class DoubleHandle extends ConfigValueHandle {
+        private final double defaultValue;
+
+        DoubleHandle(Configuration configuration, String path,
+                     double defaultValue)
+        throws ConfigurationException {
+            super(configuration, path);
+            this.defaultValue = defaultValue;
+        }
+
+        /**
+         * Get the current value.
+         *
+         * @return - Value or the default if not defined.
+         */
+        public double get() {
+            ConfigValueNode node = current();
+            return (node != null ? node.getDoubleValue() : defaultValue);
+        }
+
+        @Override
+        protected void read(ConfigValueNode node) {
+            node.getDoubleValue();
+        }
+    }
+
+    /**
+     * Handle to a boolean value.
+     */
+    public static final class BooleanHandle extends ConfigValueHandle {
+        private final boolean defaultValue;
+
+        BooleanHandle(Configuration configuration, String path,
+                      boolean defaultValue)
+        throws ConfigurationException {
+            super(configuration, path);
+            this.defaultValue = defaultValue;
+        }
+
+        /**
+         * Get the current value.
+         *
+         * @return - Value or the default if not defined.
+         */
+        public boolean get() {
+            ConfigValueNode node = current();
+            return (node != null ? node.getBooleanValue() : defaultValue);
+        }
+
+        @Override
+        protected void read(ConfigValueNode node) {
+            node.getBooleanValue();
+        }
+    }
+}
@@ -26,16 +26,21 @@ package com.codekutter.zconfig.common.model;
 
 import com.codekutter.zconfig.common.ConfigurationException;
 import com.codekutter.zconfig.common.LogUtils;
+import com.codekutter.zconfig.common.StringPool;
 import com.codekutter.zconfig.common.model.nodes.*;
-import com.codekutter.zconfig.common.utils.ConfigUtils;
 import com.codekutter.zconfig.common.utils.CypherUtils;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import lombok.Data;
 
+import javax.annotation.Nonnull;
 import java.io.IOException;
 import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -117,6 +122,65 @@ public class Configuration {
 
     private ConfigurationSettings settings;
 
+    /**
+     * Index of the configuration nodes by absolute path.
+     * <p>
+     * Built once the configuration has been loaded and maintained by the
+     * path/key-value nodes on add/remove. The index is immutable, updates
+     * replace it and partial copies share it (see copy(Collection)).
+     */
+    @JsonIgnore
+    private volatile PathIndex<AbstractConfigNode> pathIndex = null;
+    /**
+     * Lock for the path index updates (the index is replaced on update,
+     * reads don't lock).
+     */
+    private final Object indexLock = new Object();
+
+    /**
+     * Pool used to de-duplicate the node names/values (optional).
+     */
+    @JsonIgnore
+    private StringPool stringPool = null;
+    /**
+     * Version of the node structure, incremented when nodes are
+     * added/removed from the path index (used by the bound value handles).
+     */
+    @JsonIgnore
+    private volatile int structureVersion = 0;
+    /**
+     * Is this configuration frozen (published snapshot), the loaded nodes
+     * reject changes once frozen.
+     */
+    @JsonIgnore
+    private volatile boolean frozen = false;
+    /**
+     * Snapshot that replaced this configuration (NULL if this is the
+     * current instance), used by the bound value handles to follow updates.
+     */
+    @JsonIgnore
+    private volatile Configuration replacedBy = null;
+    /**
+     * Is this a partial copy (see copy(Collection)), the path index is
+     * carried over from the source snapshot instead of being re-built.
+     */
+    @JsonIgnore
+    private boolean shared = false;
+    /**
+     * Latest snapshot that shares the nodes of this configuration (NULL if
+     * the nodes are not shared), see getOwner().
+     */
+    @JsonIgnore
+    private volatile Configuration sharedBy = null;
+    /**
+     * Configuration this partial copy was created from and the copied path
+     * nodes (source -> copy), cleared once the copy replaces the source.
+     */
+    @JsonIgnore
+    private Configuration copiedFrom = null;
+    @JsonIgnore
+    private Map<ConfigPathNode, ConfigPathNode> copiedPaths = null;
+
     /**
      * Default Empty constructor.
      */
@@ -263,6 +327,10 @@ public class Configuration {
      */
     public void setVersion(Version version) {
         Preconditions.checkArgument(version != null);
+        if (frozen) {
+            throw new IllegalStateException(String.format(
+                    "Configuration is frozen. [name=%s]", header.name));
+        }
         this.header.version = version;
     }
 
@@ -348,6 +416,9 @@ public class Configuration {
             ConfigPathNode rootConfigNode) {
         Preconditions.checkArgument(rootConfigNode != null);
         this.rootConfigNode = rootConfigNode;
+        if (pathIndex != null) {
+            buildPathIndex();
+        }
     }
 
     /**
@@ -386,6 +457,39 @@ public class Configuration {
         this.settings = settings;
     }
 
+    /**
+     * Get the string pool used to de-duplicate node names/values.
+     *
+     * @return - String pool or NULL.
+     */
+    @JsonIgnore
+    public StringPool getStringPool() {
+        return stringPool;
+    }
+
+    /**
+     * Set the string pool used to de-duplicate node names/values.
+     *
+     * @param stringPool - String pool.
+     */
+    public void setStringPool(StringPool stringPool) {
+        this.stringPool = stringPool;
+    }
+
+    /**
+     * Get the pooled instance of the string, if a string pool is set.
+     *
+     * @param value - String value.
+     * @return - Pooled instance or the passed value.
+     */
+    public String intern(String value) {
+        StringPool pool = stringPool;
+        if (pool != null) {
+            return pool.intern(value);
+        }
+        return value;
+    }
+
     /**
      * Match the passed password Key with the MD5 hash value set for
      * this configuration.
@@ -422,8 +526,465 @@ public class Configuration {
                                              state.getError());
         }
         state.setState(ENodeState.Synced);
-        if (rootConfigNode != null)
+        if (rootConfigNode != null) {
             rootConfigNode.loaded();
+            if (shared && pathIndex != null) {
+                structureVersion++;
+            } else {
+                buildPathIndex();
+            }
+        }
+    }
+
+    /**
+     * Freeze this configuration, the loaded nodes reject changes once frozen.
+     * Published snapshots are frozen, updates are applied to a copy.
+     */
+    public void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * Check if this configuration has been frozen.
+     *
+     * @return - Is frozen?
+     */
+    @JsonIgnore
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Mark this configuration as replaced by the specified (published)
+     * snapshot. Value handles bound to this configuration are re-bound to
+     * the snapshot on next read.
+     * <p>
+     * If the snapshot is a partial copy of this configuration (see
+     * copy(Collection)), the nodes shared with the snapshot resolve their
+     * configuration and the copied parent nodes through the snapshot.
+     *
+     * @param configuration - Published snapshot.
+     */
+    public void replacedBy(@Nonnull Configuration configuration) {
+        Preconditions.checkArgument(configuration != null);
+        Preconditions.checkArgument(configuration != this);
+        Map<ConfigPathNode, ConfigPathNode> copies = configuration.copiedPaths;
+        if (copies != null && configuration.copiedFrom == this) {
+            for (Map.Entry<ConfigPathNode, ConfigPathNode> entry :
+                    copies.entrySet()) {
+                entry.getKey().replacedBy(entry.getValue());
+            }
+            sharedBy = configuration;
+        }
+        configuration.copiedFrom = null;
+        configuration.copiedPaths = null;
+        replacedBy = configuration;
+    }
+
+    /**
+     * Get the current instance of this configuration, following the
+     * published snapshots that replaced this instance.
+     *
+     * @return - Current configuration instance.
+     */
+    @JsonIgnore
+    public Configuration getCurrent() {
+        Configuration current = this;
+        Configuration next = current.replacedBy;
+        while (next != null) {
+            current = next;
+            next = current.replacedBy;
+        }
+        if (current != this && current != replacedBy) {
+            // Shorten the chain, the replaced snapshots can be collected.
+            replacedBy = current;
+        }
+        return current;
+    }
+
+    /**
+     * Get the latest published snapshot that shares the nodes of this
+     * configuration, following the partial copies (see copy(Collection))
+     * that replaced this instance. Nodes resolve the configuration they
+     * belong to through the owner, so nodes shared between snapshots see
+     * the header/settings and path index of the latest snapshot.
+     *
+     * @return - Owner configuration (this instance if not shared).
+     */
+    @JsonIgnore
+    public Configuration getOwner() {
+        Configuration owner = this;
+        Configuration next = owner.sharedBy;
+        if (next == null) {
+            return this;
+        }
+        while (next != null) {
+            owner = next;
+            next = owner.sharedBy;
+        }
+        if (owner != sharedBy) {
+            sharedBy = owner;
+        }
+        return owner;
+    }
+
+    /**
+     * Create a deep copy of this configuration instance. The copy shares the
+     * instance ID, settings and string pool, the header and the node tree
+     * are copied.
+     * <p>
+     * Note: Nodes are not shared between the copies, nodes hold references to
+     * the parent node and the configuration they belong to, the loaded nodes
+     * are copied. Deferred (lazy) branches that haven't been loaded are not
+     * loaded by the copy, the copy loads them on access. Use copy(Collection)
+     * to only copy the nodes to be changed.
+     * <p>
+     * Note: The copy is in the Loading state and not frozen, loaded() should
+     * be invoked once any changes have been applied.
+     *
+     * @return - Copy of this configuration.
+     */
+    public Configuration copy() {
+        Configuration config = copyHeader();
+        if (rootConfigNode != null) {
+            config.rootConfigNode = rootConfigNode.copy(config, null);
+        }
+        return config;
+    }
+
+    /**
+     * Create a copy of this configuration instance that only copies the
+     * nodes on the specified paths. Path nodes from the root to the
+     * specified nodes are copied (sharing their other child nodes), the
+     * specified nodes are copied with their value nodes. All the other
+     * sub-trees are shared with this instance, the path index is shared
+     * (only the entries of the copied nodes are replaced).
+     * <p>
+     * Note: Shared nodes still reference the parent node/configuration they
+     * were loaded in. Once the copy replaces this instance (see replacedBy()),
+     * the shared nodes resolve their configuration and parent through the
+     * copy. Until then this instance must not be changed and changes to the
+     * copy must only be applied to the nodes on the specified paths. Paths
+     * that are not found are ignored.
+     * <p>
+     * Note: Falls back to a deep copy if the path index hasn't been built.
+     *
+     * @param paths - Paths of the nodes to be changed.
+     * @return - Copy of this configuration.
+     * @throws ConfigurationException
+     */
+    public Configuration copy(@Nonnull Collection<String> paths)
+    throws ConfigurationException {
+        Preconditions.checkArgument(paths != null);
+        PathIndex<AbstractConfigNode> index = pathIndex;
+        if (index == null || rootConfigNode == null) {
+            return copy();
+        }
+        Configuration config = copyHeader();
+        ConfigPathNode root = rootConfigNode.copyShallow(config, null);
+        // Copied nodes (source -> copy) and the index keys of the source.
+        Map<AbstractConfigNode, AbstractConfigNode> copies =
+                new IdentityHashMap<>();
+        Map<AbstractConfigNode, String> keys = new IdentityHashMap<>();
+        String rootKey = String.format("%s%s",
+                                       ConfigurationSettings.NODE_SEARCH_SEPERATOR,
+                                       rootConfigNode.getName());
+        copies.put(rootConfigNode, root);
+        keys.put(rootConfigNode, rootKey);
+
+        for (String path : paths) {
+            AbstractConfigNode node = find(path);
+            if (node == null) {
+                continue;
+            }
+            List<String> names = new ArrayList<>();
+            for (AbstractConfigNode pn = node; pn != null; pn = pn.getParent()) {
+                names.add(0, pn.getName());
+            }
+            if (names.get(0).compareTo(rootConfigNode.getName()) != 0) {
+                return copy();
+            }
+            // Walk down by name from the root.
+            AbstractConfigNode current = rootConfigNode;
+            String key = rootKey;
+            for (int ii = 1; ii < names.size(); ii++) {
+                if (!(current instanceof ConfigPathNode)) {
+                    return copy();
+                }
+                AbstractConfigNode child =
+                        ((ConfigPathNode) current).getChildNode(names.get(ii));
+                if (child == null) {
+                    return copy();
+                }
+                key = childKey(key, child.getName());
+                if (!copies.containsKey(child)) {
+                    ConfigPathNode parent = (ConfigPathNode) copies.get(current);
+                    AbstractConfigNode cnode;
+                    if (child instanceof ConfigPathNode) {
+                        cnode = ((ConfigPathNode) child).copyShallow(config, parent);
+                    } else {
+                        cnode = child.copy(config, parent);
+                    }
+                    parent.replaceChildNode(cnode);
+                    copies.put(child, cnode);
+                    keys.put(child, key);
+                }
+                current = child;
+                if (!(current instanceof ConfigPathNode)) {
+                    // Sub-tree has been copied.
+                    break;
+                }
+            }
+            if (current != node && current instanceof ConfigPathNode) {
+                return copy();
+            }
+            if (node instanceof ConfigPathNode) {
+                // Value nodes are changed in-place by the updates.
+                ConfigPathNode parent = (ConfigPathNode) copies.get(node);
+                Map<String, AbstractConfigNode> children =
+                        ((ConfigPathNode) node).getChildren();
+                if (children != null && !children.isEmpty()) {
+                    for (AbstractConfigNode child : children.values()) {
+                        if (child instanceof ConfigValueNode
+                                && !copies.containsKey(child)) {
+                            AbstractConfigNode cnode = child.copy(config, parent);
+                            parent.replaceChildNode(cnode);
+                            copies.put(child, cnode);
+                            keys.put(child, childKey(key, child.getName()));
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<ConfigPathNode, ConfigPathNode> pathCopies = new IdentityHashMap<>();
+        for (Map.Entry<AbstractConfigNode, AbstractConfigNode> entry :
+                copies.entrySet()) {
+            AbstractConfigNode source = entry.getKey();
+            AbstractConfigNode cnode = entry.getValue();
+            String key = keys.get(source);
+            if (source instanceof ConfigPathNode) {
+                if (index.get(key) == source) {
+                    index = index.put(key, cnode);
+                }
+                pathCopies.put((ConfigPathNode) source, (ConfigPathNode) cnode);
+            } else {
+                index = unindexNode(index, key, source);
+                index = indexNode(index, key, cnode);
+            }
+        }
+        config.rootConfigNode = root;
+        config.pathIndex = index;
+        config.shared = true;
+        config.copiedFrom = this;
+        config.copiedPaths = pathCopies;
+        return config;
+    }
+
+    /**
+     * Create a copy of this configuration with the header (without the node
+     * tree).
+     *
+     * @return - Configuration copy.
+     */
+    private Configuration copyHeader() {
+        Configuration config = new Configuration(settings);
+        config.instanceId = instanceId;
+        config.stringPool = stringPool;
+        config.header.id = header.id;
+        config.header.applicationGroup = header.applicationGroup;
+        config.header.application = header.application;
+        config.header.name = header.name;
+        config.header.description = header.description;
+        config.header.version = header.version;
+        config.header.createdBy = header.createdBy;
+        config.header.updatedBy = header.updatedBy;
+        config.header.syncMode = header.syncMode;
+        config.header.encryptionHash = header.encryptionHash;
+        config.header.timestamp = header.timestamp;
+        return config;
+    }
+
+    /**
+     * Build the absolute path index for the loaded node tree.
+     */
+    private void buildPathIndex() {
+        synchronized (indexLock) {
+            pathIndex = indexNode(PathIndex.empty(), String.format("%s%s",
+                                                  ConfigurationSettings.NODE_SEARCH_SEPERATOR,
+                                                  rootConfigNode.getName()),
+                                  rootConfigNode);
+            structureVersion++;
+        }
+    }
+
+    /**
+     * Get the version of the node structure, the version changes when nodes
+     * are added/removed after the configuration has been loaded.
+     *
+     * @return - Structure version.
+     */
+    @JsonIgnore
+    public int getStructureVersion() {
+        return structureVersion;
+    }
+
+    /**
+     * Mark the node structure as changed for nodes that are not part of the
+     * path index (compact key/value entries).
+     * <p>
+     * Note: Invoked by the configuration nodes, should not be called directly.
+     */
+    public void structureChanged() {
+        structureVersion++;
+    }
+
+    /**
+     * Check if the node type can be resolved directly from the path index.
+     * Nodes under lists and included configurations are resolved by
+     * searching the tree.
+     *
+     * @param node - Configuration node.
+     * @return - Is indexable?
+     */
+    private boolean isIndexable(AbstractConfigNode node) {
+        return (node instanceof ConfigPathNode ||
+                node instanceof ConfigKeyValueNode ||
+                node instanceof ConfigValueNode ||
+                node instanceof ConfigListNode ||
+                node instanceof ConfigResourceNode);
+    }
+
+    /**
+     * Add the node and it's sub-tree to the specified index.
+     *
+     * @param index - Path index.
+     * @param key   - Absolute path of the node.
+     * @param node  - Configuration node.
+     * @return - Updated index.
+     */
+    private PathIndex<AbstractConfigNode> indexNode(PathIndex<AbstractConfigNode> index,
+                                                    String key,
+                                                    AbstractConfigNode node) {
+        if (!isIndexable(node)) {
+            return index;
+        }
+        index = index.put(key, node);
+        if (node instanceof ConfigPathNode) {
+            if (!((ConfigPathNode) node).isMaterialized()) {
+                // Deferred nodes are indexed when loaded.
+                return index;
+            }
+            Map<String, AbstractConfigNode> children =
+                    ((ConfigPathNode) node).getChildren();
+            if (children != null && !children.isEmpty()) {
+                for (String name : children.keySet()) {
+                    index = indexNode(index, childKey(key, name), children.get(name));
+                }
+            }
+        } else if (node instanceof ConfigKeyValueNode &&
+                !((ConfigKeyValueNode) node).isCompact()) {
+            // Compact key/values are resolved from the owner node.
+            Map<String, ConfigValueNode> values =
+                    ((ConfigKeyValueNode) node).getKeyValues();
+            if (values != null && !values.isEmpty()) {
+                for (String name : values.keySet()) {
+                    index = indexNode(index, childKey(key, name), values.get(name));
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Remove the node and it's sub-tree from the specified index.
+     *
+     * @param index - Path index.
+     * @param key   - Absolute path of the node.
+     * @param node  - Configuration node.
+     * @return - Updated index.
+     */
+    private PathIndex<AbstractConfigNode> unindexNode(PathIndex<AbstractConfigNode> index,
+                                                      String key,
+                                                      AbstractConfigNode node) {
+        PathIndex<AbstractConfigNode> removed = index.remove(key, node);
+        if (removed == index) {
+            return index;
+        }
+        index = removed;
+        if (node instanceof ConfigPathNode) {
+            if (!((ConfigPathNode) node).isMaterialized()) {
+                return index;
+            }
+            Map<String, AbstractConfigNode> children =
+                    ((ConfigPathNode) node).getChildren();
+            if (children != null && !children.isEmpty()) {
+                for (String name : children.keySet()) {
+                    index = unindexNode(index, childKey(key, name), children.get(name));
+                }
+            }
+        } else if (node instanceof ConfigKeyValueNode &&
+                !((ConfigKeyValueNode) node).isCompact()) {
+            Map<String, ConfigValueNode> values =
+                    ((ConfigKeyValueNode) node).getKeyValues();
+            if (values != null && !values.isEmpty()) {
+                for (String name : values.keySet()) {
+                    index = unindexNode(index, childKey(key, name), values.get(name));
+                }
+            }
+        }
+        return index;
+    }
+
+    private static String childKey(String key, String name) {
+        return key + ConfigurationSettings.NODE_SEARCH_SEPERATOR + name;
+    }
+
+    /**
+     * Add a node (and it's sub-tree) that has been attached to the specified
+     * parent to the path index. Ignored if the index hasn't been built or the
+     * parent is not reachable from the root node.
+     * <p>
+     * Note: Invoked by the configuration nodes, should not be called directly.
+     *
+     * @param parent - Parent node the node was added to.
+     * @param node   - Added node.
+     */
+    public void addToPathIndex(@Nonnull AbstractConfigNode parent,
+                               @Nonnull AbstractConfigNode node) {
+        synchronized (indexLock) {
+            PathIndex<AbstractConfigNode> index = pathIndex;
+            if (index != null) {
+                structureVersion++;
+                String key = parent.getAbsolutePath();
+                if (index.get(key) == parent) {
+                    pathIndex = indexNode(index, childKey(key, node.getName()), node);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove a node (and it's sub-tree) that has been detached from the
+     * specified parent from the path index.
+     * <p>
+     * Note: Invoked by the configuration nodes, should not be called directly.
+     *
+     * @param parent - Parent node the node was removed from.
+     * @param node   - Removed node.
+     */
+    public void removeFromPathIndex(@Nonnull AbstractConfigNode parent,
+                                    @Nonnull AbstractConfigNode node) {
+        synchronized (indexLock) {
+            PathIndex<AbstractConfigNode> index = pathIndex;
+            if (index != null) {
+                structureVersion++;
+                String key = parent.getAbsolutePath();
+                if (index.get(key) == parent) {
+                    pathIndex = unindexNode(index, childKey(key, node.getName()), node);
+                }
+            }
+        }
     }
 
     /**
@@ -443,13 +1004,56 @@ public class Configuration {
         Preconditions.checkArgument(node != null);
         Preconditions.checkArgument(!Strings.isNullOrEmpty(path));
 
-        List<String> stack = ConfigUtils.getResolvedPath(path, settings, node);
-        if (stack != null && !stack.isEmpty()) {
-            return node.find(stack, 0);
+        return find(node, CompiledConfigPath.compile(path, settings));
+    }
+
+    /**
+     * Find the configuration node at the specified (pre-compiled) path under the specified node.
+     *
+     * @param node - Configuration node to search under.
+     * @param path - Compiled path to search for.
+     * @return - Configuration Node or NULL.
+     */
+    public AbstractConfigNode find(AbstractConfigNode node, CompiledConfigPath path)
+    throws ConfigurationException {
+        Preconditions.checkArgument(node != null);
+        Preconditions.checkArgument(path != null);
+
+        if (!path.isEmpty()) {
+            PathIndex<AbstractConfigNode> index = pathIndex;
+            if (index != null && node == rootConfigNode && path.isIndexable()) {
+                AbstractConfigNode found = index.get(path.getIndexKey());
+                if (found != null) {
+                    return found;
+                }
+            }
+            return node.find(path.getElements(), 0);
         }
         return null;
     }
 
+    /**
+     * Find the configuration node at the specified (pre-compiled) path under the root node.
+     *
+     * @param path - Compiled path to search for.
+     * @return - Configuration Node or NULL.
+     */
+    public AbstractConfigNode find(CompiledConfigPath path)
+    throws ConfigurationException {
+        return find(rootConfigNode, path);
+    }
+
+    /**
+     * Get the compiled form of the specified path, using this configuration's settings.
+     *
+     * @param path - Path to compile.
+     * @return - Compiled path.
+     * @throws ConfigurationException
+     */
+    public CompiledConfigPath compile(String path) throws ConfigurationException {
+        return CompiledConfigPath.compile(path, settings);
+    }
+
     /**
      * Find the configuration node at the specified path under the root node.
      * <p>
@@ -465,6 +1069,249 @@ public class Configuration {
         return find(rootConfigNode, path);
     }
 
+    /**
+     * Get the value node at the specified path.
+     *
+     * @param path - Path to search for.
+     * @return - Value node or NULL if not found/value not set.
+     * @throws ConfigurationException - If node is not a (non-encrypted) value.
+     */
+    private ConfigValueNode findValue(String path) throws ConfigurationException {
+        AbstractConfigNode node = find(path);
+        if (node == null) {
+            return null;
+        }
+        if (!(node instanceof ConfigValueNode)) {
+            throw new ConfigurationException(String.format(
+                    "Invalid value path : Node is not a value. [path=%s][type=%s]",
+                    path, node.getClass().getCanonicalName()));
+        }
+        ConfigValueNode vn = (ConfigValueNode) node;
+        if (vn.isEncrypted()) {
+            throw new ConfigurationException(String.format(
+                    "Encrypted value cannot be used. [path=%s]", path));
+        }
+        if (Strings.isNullOrEmpty(vn.getValue())) {
+            return null;
+        }
+        return vn;
+    }
+
+    /**
+     * Get the exception to raise for a value that cannot be parsed.
+     *
+     * @param path - Value path.
+     * @param type - Required value type.
+     * @param e    - Parse error.
+     * @return - Configuration exception.
+     */
+    private static ConfigurationException parseError(String path, String type,
+                                                     Exception e) {
+        return new ConfigurationException(String.format(
+                "Invalid value : Cannot parse as %s. [path=%s]", type, path), e);
+    }
+
+    /**
+     * Bind a handle to the int value at the specified path. Reads through the
+     * handle don't search the node tree or allocate (steady state).
+     *
+     * @param path         - Value path.
+     * @param defaultValue - Default value if not defined.
+     * @return - Bound value handle.
+     * @throws ConfigurationException
+     */
+    public ConfigValueHandle.IntHandle bindInt(String path, int defaultValue)
+    throws ConfigurationException {
+        return new ConfigValueHandle.IntHandle(this, path, defaultValue);
+    }
+
+    /**
+     * Bind a handle to the long value at the specified path. Reads through the
+     * handle don't search the node tree or allocate (steady state).
+     *
+     * @param path         - Value path.
+     * @param defaultValue - Default value if not defined.
+     * @return - Bound value handle.
+     * @throws ConfigurationException
+     */
+    public ConfigValueHandle.LongHandle bindLong(String path, long defaultValue)
+    throws ConfigurationException {
+        return new ConfigValueHandle.LongHandle(this, path, defaultValue);
+    }
+
+    /**
+     * Bind a handle to the double value at the specified path. Reads through
+     * the handle don't search the node tree or allocate (steady state).
+     *
+     * @param path         - Value path.
+     * @param defaultValue - Default value if not defined.
+     * @return - Bound value handle.
+     * @throws ConfigurationException
+     */
+    public ConfigValueHandle.DoubleHandle bindDouble(String path,
+                                                     double defaultValue)
+    throws ConfigurationException {
+        return new ConfigValueHandle.DoubleHandle(this, path, defaultValue);
+    }
+
+    /**
+     * Bind a handle to the boolean value at the specified path. Reads through
+     * the handle don't search the node tree or allocate (steady state).
+     *
+     * @param path         - Value path.
+     * @param defaultValue - Default value if not defined.
+     * @return - Bound value handle.
+     * @throws ConfigurationException
+     */
+    public ConfigValueHandle.BooleanHandle bindBoolean(String path,
+                                                       boolean defaultValue)
+    throws ConfigurationException {
+        return new ConfigValueHandle.BooleanHandle(this, path, defaultValue);
+    }
+
+    /**
+     * Get the String value at the specified path.
+     *
+     * @param path         - Value path.
+     * @param defaultValue - Default value if not found.
+     * @return - Value or the default.
+     * @throws ConfigurationException
+     */
+    public String getString(String path, String defaultValue)
+    throws ConfigurationException {
+        ConfigValueNode vn = findValue(path);
+        return (vn != null ? vn.getValue() : defaultValue);
+    }
+
+    /**
+     * Get the boolean value at the specified path. The parsed value is cached
+     * by the value node (till the value is updated).
+     *
+     * @param path         - Value path.
+     * @param defaultValue - Default value if not found.
+     * @return - Value or the default.
+     * @throws ConfigurationException
+     */
+    public boolean getBoolean(String path, boolean defaultValue)
+    throws ConfigurationException {
+        ConfigValueNode vn = findValue(path);
+        return (vn != null ? vn.getBooleanValue() : defaultValue);
+    }
+
+    /**
+     * Get the int value at the specified path. The parsed value is cached
+     * by the value node (till the value is updated).
+     *
+     * @param path         - Value path.
+     * @param defaultValue - Default value if not found.
+     * @return - Value or the default.
+     * @throws ConfigurationException
+     */
+    public int getInt(String path, int defaultValue)
+    throws ConfigurationException {
+        ConfigValueNode vn = findValue(path);
+        if (vn != null) {
+            try {
+                return vn.getIntValue();
+            } catch (NumberFormatException e) {
+                throw parseError(path, "int", e);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Get the long value at the specified path. The parsed value is cached
+     * by the value node (till the value is updated).
+     *
+     * @param path         - Value path.
+     * @param defaultValue - Default value if not found.
+     * @return - Value or the default.
+     * @throws ConfigurationException
+     */
+    public long getLong(String path, long defaultValue)
+    throws ConfigurationException {
+        ConfigValueNode vn = findValue(path);
+        if (vn != null) {
+            try {
+                return vn.getLongValue();
+            } catch (NumberFormatException e) {
+                throw parseError(path, "long", e);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Get the double value at the specified path. The parsed value is cached
+     * by the value node (till the value is updated).
+     *
+     * @param path         - Value path.
+     * @param defaultValue - Default value if not found.
+     * @return - Value or the default.
+     * @throws ConfigurationException
+     */
+    public double getDouble(String path, double defaultValue)
+    throws ConfigurationException {
+        ConfigValueNode vn = findValue(path);
+        if (vn != null) {
+            try {
+                return vn.getDoubleValue();
+            } catch (NumberFormatException e) {
+                throw parseError(path, "double", e);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Get the duration value at the specified path (see
+     * ConfigUtils.parseDuration() for the supported formats). The parsed
+     * value is cached by the value node (till the value is updated).
+     *
+     * @param path         - Value path.
+     * @param defaultValue - Default value if not found.
+     * @return - Value or the default.
+     * @throws ConfigurationException
+     */
+    public Duration getDuration(String path, Duration defaultValue)
+    throws ConfigurationException {
+        ConfigValueNode vn = findValue(path);
+        if (vn != null) {
+            try {
+                return vn.getDurationValue();
+            } catch (RuntimeException e) {
+                throw parseError(path, "duration", e);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Get the enum value at the specified path. The parsed value is cached
+     * by the value node (till the value is updated).
+     *
+     * @param path         - Value path.
+     * @param type         - Enum type.
+     * @param defaultValue - Default value if not found.
+     * @param <E>          - Enum type.
+     * @return - Value or the default.
+     * @throws ConfigurationException
+     */
+    public <E extends Enum<E>> E getEnum(String path, @Nonnull Class<E> type,
+                                         E defaultValue)
+    throws ConfigurationException {
+        ConfigValueNode vn = findValue(path);
+        if (vn != null) {
+            try {
+                return vn.getEnumValue(type);
+            } catch (IllegalArgumentException e) {
+                throw parseError(path, type.getSimpleName(), e);
+            }
+        }
+        return defaultValue;
+    }
+
     /**
      * Get the parameters, if any, for the specified node.
      *
@@ -547,40 +1394,39 @@ public class Configuration {
      */
     public ConfigPropertiesNode resolvedProperties(AbstractConfigNode node) {
         Preconditions.checkArgument(node != null);
-        node = findParentPath(node);
-        if (node instanceof ConfigPathNode) {
-            ConfigPropertiesNode props = null;
-            ConfigPathNode cp = (ConfigPathNode) node;
-            ConfigPropertiesNode pn = cp.properties();
-            if (pn != null) {
-                props = pn.copy();
-            } else {
-                props = new ConfigPropertiesNode(this, cp);
-                props.setConfiguration(this);
-            }
-            if (node.getParent() != null) {
-                ConfigPropertiesNode pp = resolvedProperties(node.getParent());
-                if (pp != null && !pp.isEmpty()) {
-                    Map<String, ConfigValueNode> pmap = pp.getKeyValues();
-                    if (pmap != null && !pmap.isEmpty()) {
-                        if (!props.isEmpty()) {
-                            for (String key : pmap.keySet()) {
-                                if (!props.hasKey(key)) {
-                                    props.addKeyValue(key,
-                                                      pmap.get(key).getValue());
-                                }
-                            }
-                        } else {
-                            props.addAll(pmap);
-                        }
-                    }
-                }
+        ConfigPathNode cp = findParentPath(node);
+        if (cp != null) {
+            ConfigPropertiesNode props = new ConfigPropertiesNode(this, cp);
+            props.setConfiguration(this);
+            PropertyScope scope = propertyScope(cp);
+            if (!scope.isEmpty()) {
+                props.addAll(scope.flatten());
             }
             return props;
         }
         return null;
     }
 
+    /**
+     * Get the property scope for the specified node, the scope chains the
+     * properties defined on the node path and all of its ancestor paths.
+     *
+     * @param node - Node to get the scope for.
+     * @return - Property scope.
+     */
+    public PropertyScope propertyScope(AbstractConfigNode node) {
+        Preconditions.checkArgument(node != null);
+        ConfigPathNode cp = findParentPath(node);
+        if (cp == null) {
+            return PropertyScope.EMPTY;
+        }
+        PropertyScope scope = PropertyScope.EMPTY;
+        if (cp.getParent() != null) {
+            scope = propertyScope(cp.getParent());
+        }
+        return scope.push(cp);
+    }
+
     /**
      * Find the closest ancestor node that is a Config Path node.
      *
@@ -66,6 +66,26 @@ public class ConfigurationSettings {
         ReuseData
     }
 
+    /**
+     * Enum to specify how configuration sources are parsed.
+     */
+    public static enum EParseMode {
+        /**
+         * Read the source document into a tree, then build the configuration nodes.
+         */
+        Tree,
+        /**
+         * Build the configuration nodes directly from the source token stream.
+         */
+        Streaming,
+        /**
+         * Only the top-level configuration branches are indexed on load, the
+         * branches are parsed (and post-processed) on first access. Parsers
+         * that do not support deferred loading use the Streaming mode.
+         */
+        Lazy
+    }
+
     /**
      * Wildcard for node search.
      */
@@ -95,6 +115,12 @@ public class ConfigurationSettings {
     private EStartupOptions downloadRemoteFiles = EStartupOptions.OnStartUp;
     @ConfigValue(name = "shutdownOption")
     private EShutdownOptions clearTempFolder = EShutdownOptions.ReuseData;
+    @ConfigValue(name = "parseMode")
+    private EParseMode parseMode = EParseMode.Streaming;
+    @ConfigValue(name = "cacheConfigurations")
+    private boolean cacheConfigurations = false;
+    @ConfigValue(name = "compactValues")
+    private boolean compactValues = false;
 
     /**
      * Get the Properties Node name.
@@ -206,6 +232,63 @@ public class ConfigurationSettings {
         this.clearTempFolder = clearTempFolder;
     }
 
+    /**
+     * Get the mode used to parse configuration sources.
+     *
+     * @return - Parse Mode.
+     */
+    public EParseMode getParseMode() {
+        return parseMode;
+    }
+
+    /**
+     * Set the mode used to parse configuration sources.
+     *
+     * @param parseMode - Parse Mode.
+     */
+    public void setParseMode(EParseMode parseMode) {
+        this.parseMode = parseMode;
+    }
+
+    /**
+     * Check if loaded configurations should be cached locally (as snapshots
+     * under the temp directory).
+     *
+     * @return - Cache configurations?
+     */
+    public boolean isCacheConfigurations() {
+        return cacheConfigurations;
+    }
+
+    /**
+     * Set if loaded configurations should be cached locally.
+     *
+     * @param cacheConfigurations - Cache configurations?
+     */
+    public void setCacheConfigurations(boolean cacheConfigurations) {
+        this.cacheConfigurations = cacheConfigurations;
+    }
+
+    /**
+     * Check if the key/value and value list nodes should store their entries
+     * in the compact (array) form, value nodes are created on demand.
+     *
+     * @return - Compact values?
+     */
+    public boolean isCompactValues() {
+        return compactValues;
+    }
+
+    /**
+     * Set if the key/value and value list nodes should store their entries
+     * in the compact (array) form.
+     *
+     * @param compactValues - Compact values?
+     */
+    public void setCompactValues(boolean compactValues) {
+        this.compactValues = compactValues;
+    }
+
     /**
      * Get the temp directory to store configuration temporary files.
      * Will attempt to create folder(s) if required.
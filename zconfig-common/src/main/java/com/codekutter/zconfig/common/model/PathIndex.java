@@ -0,0 +1,373 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 17/10/20 9:40 AM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common.model;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Immutable (persistent) map of absolute node paths to values, used as the
+ * configuration path index.
+ * <p>
+ * The index is a hash trie (32-way branching on the key hash), put/remove
+ * return a new index that shares all the trie nodes not on the path to the
+ * changed entry. Snapshots of a configuration share the index of the
+ * snapshot they were copied from, an update only copies O(log32 n) trie
+ * nodes.
+ *
+ * @param <V> - Value type.
+ */
+final class PathIndex<V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    @SuppressWarnings("rawtypes")
+    private static final PathIndex EMPTY = new PathIndex<>(null, 0);
+
+    /**
+     * Root trie node (NULL if empty).
+     */
+    private final Node root;
+    /**
+     * Number of entries.
+     */
+    private final int size;
+
+    private PathIndex(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Get the empty index.
+     *
+     * @param <V> - Value type.
+     * @return - Empty index.
+     */
+    @SuppressWarnings("unchecked")
+    static <V> PathIndex<V> empty() {
+        return (PathIndex<V>) EMPTY;
+    }
+
+    /**
+     * Get the number of entries in this index.
+     *
+     * @return - Number of entries.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the value for the specified path.
+     *
+     * @param key - Absolute path.
+     * @return - Value or NULL if not found.
+     */
+    @SuppressWarnings("unchecked")
+    V get(@Nonnull String key) {
+        Preconditions.checkArgument(key != null);
+        if (root == null) {
+            return null;
+        }
+        return (V) root.get(key.hashCode(), 0, key);
+    }
+
+    /**
+     * Get an index with the specified path set to the value.
+     *
+     * @param key   - Absolute path.
+     * @param value - Value.
+     * @return - Updated index (this instance if unchanged).
+     */
+    PathIndex<V> put(@Nonnull String key, @Nonnull V value) {
+        Preconditions.checkArgument(key != null);
+        Preconditions.checkArgument(value != null);
+        int hash = key.hashCode();
+        if (root == null) {
+            return new PathIndex<>(new BitmapNode(0, new Object[0])
+                                           .put(hash, 0, key, value, null), 1);
+        }
+        boolean[] added = new boolean[1];
+        Node node = root.put(hash, 0, key, value, added);
+        if (node == root) {
+            return this;
+        }
+        return new PathIndex<>(node, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Get an index with the specified path removed.
+     *
+     * @param key - Absolute path.
+     * @return - Updated index (this instance if not found).
+     */
+    PathIndex<V> remove(@Nonnull String key) {
+        return remove(key, null);
+    }
+
+    /**
+     * Get an index with the specified path removed, if the path is set to
+     * the specified value (any value if NULL).
+     *
+     * @param key      - Absolute path.
+     * @param expected - Expected value or NULL.
+     * @return - Updated index (this instance if not removed).
+     */
+    PathIndex<V> remove(@Nonnull String key, V expected) {
+        Preconditions.checkArgument(key != null);
+        if (root == null) {
+            return this;
+        }
+        Node node = root.remove(key.hashCode(), 0, key, expected);
+        if (node == root) {
+            return this;
+        }
+        if (node == null) {
+            return empty();
+        }
+        return new PathIndex<>(node, size - 1);
+    }
+
+    /**
+     * Trie node.
+     */
+    private interface Node {
+        Object get(int hash, int shift, String key);
+
+        Node put(int hash, int shift, String key, Object value, boolean[] added);
+
+        Node remove(int hash, int shift, String key, Object expected);
+    }
+
+    /**
+     * Trie node with up to 32 slots, the slot array holds [key, value] pairs,
+     * a NULL key marks a slot that holds a child node.
+     */
+    private static final class BitmapNode implements Node {
+        private final int bitmap;
+        private final Object[] slots;
+
+        private BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        public Object get(int hash, int shift, String key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int idx = 2 * index(bit);
+            Object k = slots[idx];
+            if (k == null) {
+                return ((Node) slots[idx + 1]).get(hash, shift + BITS, key);
+            }
+            if (key.equals(k)) {
+                return slots[idx + 1];
+            }
+            return null;
+        }
+
+        @Override
+        public Node put(int hash, int shift, String key, Object value,
+                        boolean[] added) {
+            int bit = bit(hash, shift);
+            int idx = 2 * index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] array = new Object[slots.length + 2];
+                System.arraycopy(slots, 0, array, 0, idx);
+                array[idx] = key;
+                array[idx + 1] = value;
+                System.arraycopy(slots, idx, array, idx + 2, slots.length - idx);
+                if (added != null) {
+                    added[0] = true;
+                }
+                return new BitmapNode(bitmap | bit, array);
+            }
+            Object k = slots[idx];
+            Object v = slots[idx + 1];
+            if (k == null) {
+                Node child = ((Node) v).put(hash, shift + BITS, key, value, added);
+                if (child == v) {
+                    return this;
+                }
+                return set(idx + 1, child);
+            }
+            if (key.equals(k)) {
+                if (v == value) {
+                    return this;
+                }
+                return set(idx + 1, value);
+            }
+            if (added != null) {
+                added[0] = true;
+            }
+            Object[] array = slots.clone();
+            array[idx] = null;
+            array[idx + 1] = create(shift + BITS, (String) k, v, hash, key, value);
+            return new BitmapNode(bitmap, array);
+        }
+
+        @Override
+        public Node remove(int hash, int shift, String key, Object expected) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int idx = 2 * index(bit);
+            Object k = slots[idx];
+            Object v = slots[idx + 1];
+            if (k == null) {
+                Node child = ((Node) v).remove(hash, shift + BITS, key, expected);
+                if (child == v) {
+                    return this;
+                }
+                if (child != null) {
+                    return set(idx + 1, child);
+                }
+            } else if (!key.equals(k) || (expected != null && expected != v)) {
+                return this;
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] array = new Object[slots.length - 2];
+            System.arraycopy(slots, 0, array, 0, idx);
+            System.arraycopy(slots, idx + 2, array, idx, slots.length - idx - 2);
+            return new BitmapNode(bitmap ^ bit, array);
+        }
+
+        private BitmapNode set(int idx, Object value) {
+            Object[] array = slots.clone();
+            array[idx] = value;
+            return new BitmapNode(bitmap, array);
+        }
+
+        /**
+         * Create the node for two entries that map to the same slot.
+         */
+        private static Node create(int shift, String key1, Object value1,
+                                   int hash2, String key2, Object value2) {
+            int hash1 = key1.hashCode();
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1,
+                                         new Object[]{key1, value1, key2, value2});
+            }
+            // Hashes differ, so they differ in a slot at shift <= 30.
+            return new BitmapNode(0, new Object[0])
+                    .put(hash1, shift, key1, value1, null)
+                    .put(hash2, shift, key2, value2, null);
+        }
+    }
+
+    /**
+     * Trie node for keys with the same hash, the [key, value] pairs are
+     * searched linearly.
+     */
+    private static final class CollisionNode implements Node {
+        private final int hash;
+        private final Object[] slots;
+
+        private CollisionNode(int hash, Object[] slots) {
+            this.hash = hash;
+            this.slots = slots;
+        }
+
+        private int find(String key) {
+            for (int ii = 0; ii < slots.length; ii += 2) {
+                if (key.equals(slots[ii])) {
+                    return ii;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Object get(int hash, int shift, String key) {
+            if (hash != this.hash) {
+                return null;
+            }
+            int idx = find(key);
+            return (idx >= 0 ? slots[idx + 1] : null);
+        }
+
+        @Override
+        public Node put(int hash, int shift, String key, Object value,
+                        boolean[] added) {
+            if (hash != this.hash) {
+                // Push this node one level down.
+                return new BitmapNode(BitmapNode.bit(this.hash, shift),
+                                      new Object[]{null, this})
+                        .put(hash, shift, key, value, added);
+            }
+            int idx = find(key);
+            if (idx >= 0) {
+                if (slots[idx + 1] == value) {
+                    return this;
+                }
+                Object[] array = slots.clone();
+                array[idx + 1] = value;
+                return new CollisionNode(hash, array);
+            }
+            Object[] array = new Object[slots.length + 2];
+            System.arraycopy(slots, 0, array, 0, slots.length);
+            array[slots.length] = key;
+            array[slots.length + 1] = value;
+            if (added != null) {
+                added[0] = true;
+            }
+            return new CollisionNode(hash, array);
+        }
+
+        @Override
+        public Node remove(int hash, int shift, String key, Object expected) {
+            if (hash != this.hash) {
+                return this;
+            }
+            int idx = find(key);
+            if (idx < 0 || (expected != null && expected != slots[idx + 1])) {
+                return this;
+            }
+            if (slots.length == 2) {
+                return null;
+            }
+            Object[] array = new Object[slots.length - 2];
+            System.arraycopy(slots, 0, array, 0, idx);
+            System.arraycopy(slots, idx + 2, array, idx, slots.length - idx - 2);
+            return new CollisionNode(hash, array);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 17/10/20 11:20 AM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common.model;
+
+import com.codekutter.zconfig.common.model.nodes.ConfigPathNode;
+import com.codekutter.zconfig.common.model.nodes.ConfigPropertiesNode;
+import com.codekutter.zconfig.common.model.nodes.ConfigValueNode;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Chained (parent linked) scope of the properties visible to a configuration
+ * node.
+ * <p>
+ * A new frame is only created at path nodes that define properties, lookups
+ * walk the chain from the closest frame, so properties defined on a node
+ * override the ones defined by its ancestors. The chain of frames is never
+ * modified once created, but frames are not snapshots: a frame references the
+ * properties map of its node (not a copy), so changes to the node properties
+ * (ex: variable replacement during post-load) are visible through the scope.
+ */
+public final class PropertyScope {
+    /**
+     * Empty root scope.
+     */
+    public static final PropertyScope EMPTY =
+            new PropertyScope(null, Collections.emptyMap());
+
+    /**
+     * Enclosing scope (NULL for the root).
+     */
+    private final PropertyScope parent;
+    /**
+     * Properties defined in this frame.
+     */
+    private final Map<String, ConfigValueNode> properties;
+
+    /**
+     * Private constructor, use push() to create frames.
+     *
+     * @param parent     - Enclosing scope.
+     * @param properties - Properties defined in this frame.
+     */
+    private PropertyScope(PropertyScope parent,
+                          Map<String, ConfigValueNode> properties) {
+        this.parent = parent;
+        this.properties = properties;
+    }
+
+    /**
+     * Get the scope for the specified path node, a new frame is created only
+     * if the node defines properties.
+     *
+     * @param node - Path node.
+     * @return - Scope for the node.
+     */
+    public PropertyScope push(@Nonnull ConfigPathNode node) {
+        ConfigPropertiesNode props = node.properties();
+        if (props != null) {
+            return push(props.getKeyValues());
+        }
+        return this;
+    }
+
+    /**
+     * Get the scope with the specified properties defined, a new frame is
+     * created only if the properties are not empty. The map is referenced by
+     * the frame, not copied.
+     *
+     * @param properties - Properties to define.
+     * @return - Scope with the properties.
+     */
+    public PropertyScope push(Map<String, ConfigValueNode> properties) {
+        if (properties == null || properties.isEmpty()) {
+            return this;
+        }
+        return new PropertyScope(this, properties);
+    }
+
+    /**
+     * Get the closest definition of the specified property.
+     *
+     * @param name - Property name.
+     * @return - Property value node or NULL if not defined.
+     */
+    public ConfigValueNode get(String name) {
+        PropertyScope scope = this;
+        while (scope != null) {
+            ConfigValueNode node = scope.properties.get(name);
+            if (node != null) {
+                return node;
+            }
+            scope = scope.parent;
+        }
+        return null;
+    }
+
+    /**
+     * Check if the scope (including the enclosing scopes) defines any properties.
+     *
+     * @return - Is empty?
+     */
+    public boolean isEmpty() {
+        return parent == null && properties.isEmpty();
+    }
+
+    /**
+     * Get all the properties visible in this scope.
+     *
+     * @return - Map of the closest definition of each property.
+     */
+    public Map<String, ConfigValueNode> flatten() {
+        Map<String, ConfigValueNode> values = new HashMap<>();
+        PropertyScope scope = this;
+        while (scope != null) {
+            for (Map.Entry<String, ConfigValueNode> entry :
+                    scope.properties.entrySet()) {
+                values.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+            scope = scope.parent;
+        }
+        return values;
+    }
+}
@@ -25,9 +25,9 @@
 package com.codekutter.zconfig.common.model.nodes;
 
 import com.codekutter.zconfig.common.ConfigurationException;
+import com.codekutter.zconfig.common.model.CompiledConfigPath;
 import com.codekutter.zconfig.common.model.Configuration;
 import com.codekutter.zconfig.common.model.ConfigurationSettings;
-import com.codekutter.zconfig.common.utils.ConfigUtils;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
@@ -59,6 +59,13 @@ public abstract class AbstractConfigNode {
      */
     @JsonIgnore
     private AbstractConfigNode parent = null;
+    /**
+     * Copy of this node in the published snapshot that replaced the
+     * configuration this node belongs to (NULL if not replaced), the child
+     * nodes shared with the snapshot resolve the parent through the copy.
+     */
+    @JsonIgnore
+    private volatile AbstractConfigNode replacedBy = null;
     /**
      * Name of this configuration node.
      * <p>
@@ -91,6 +98,23 @@ public abstract class AbstractConfigNode {
         state.setState(ENodeState.Loading);
     }
 
+    /**
+     * Constructor for nodes that are views of an entry stored by the parent
+     * node (state is shared with the parent).
+     *
+     * @param configuration - Configuration this node belong to.
+     * @param parent        - Parent node.
+     * @param name          - Node name.
+     * @param state         - Node state.
+     */
+    AbstractConfigNode(Configuration configuration, AbstractConfigNode parent,
+                       String name, NodeState state) {
+        this.configuration = configuration;
+        this.parent = parent;
+        this.name = name;
+        this.state = state;
+    }
+
     /**
      * Set the node state.
      *
@@ -119,11 +143,25 @@ public abstract class AbstractConfigNode {
     }
 
     /**
-     * Get the parent configuration instance.
+     * Get the parent configuration instance. Nodes shared between snapshots
+     * return the latest snapshot they belong to (see Configuration.getOwner()).
      *
      * @return - Parent configuration.
      */
     public Configuration getConfiguration() {
+        Configuration configuration = this.configuration;
+        if (configuration != null) {
+            return configuration.getOwner();
+        }
+        return null;
+    }
+
+    /**
+     * Get the configuration instance this node was created in.
+     *
+     * @return - Configuration instance.
+     */
+    Configuration getLoadedConfiguration() {
         return configuration;
     }
 
@@ -148,18 +186,74 @@ public abstract class AbstractConfigNode {
             throw new RuntimeException(
                     "Invalid name string. Name cannot contain (.) or (/)");
         }
-        this.name = name;
+        this.name = intern(name);
+    }
+
+    /**
+     * Get the pooled instance of the string, if the configuration this node
+     * belongs to has a string pool.
+     *
+     * @param value - String value.
+     * @return - Pooled instance or the passed value.
+     */
+    protected String intern(String value) {
+        Configuration configuration = getConfiguration();
+        if (configuration != null) {
+            return configuration.intern(value);
+        }
+        return value;
     }
 
     /**
-     * Get the parent node for this configuration node.
+     * Get the parent node for this configuration node. If the parent has
+     * been replaced by a copy in a published snapshot (this node is shared
+     * with the snapshot), the copy is returned.
      *
      * @return - Parent path node or NULL if root node.
      */
     public AbstractConfigNode getParent() {
+        AbstractConfigNode parent = this.parent;
+        if (parent != null && parent.replacedBy != null) {
+            return parent.getCurrent();
+        }
         return parent;
     }
 
+    /**
+     * Mark this node as replaced by the specified copy in a published
+     * snapshot.
+     * <p>
+     * Note: Invoked by the configuration on publish, should not be called
+     * directly.
+     *
+     * @param node - Copy of this node.
+     */
+    public void replacedBy(@Nonnull AbstractConfigNode node) {
+        Preconditions.checkArgument(node != null);
+        Preconditions.checkArgument(node != this);
+        replacedBy = node;
+    }
+
+    /**
+     * Get the latest copy of this node, following the snapshots that
+     * replaced this node.
+     *
+     * @return - Current node instance.
+     */
+    private AbstractConfigNode getCurrent() {
+        AbstractConfigNode current = this;
+        AbstractConfigNode next = current.replacedBy;
+        while (next != null) {
+            current = next;
+            next = current.replacedBy;
+        }
+        if (current != this && current != replacedBy) {
+            // Shorten the chain, the replaced copies can be collected.
+            replacedBy = current;
+        }
+        return current;
+    }
+
     /**
      * Set the parent node for this configuration node.
      *
@@ -177,6 +271,7 @@ public abstract class AbstractConfigNode {
      */
     public String getAbsolutePath() {
         String path = null;
+        AbstractConfigNode parent = getParent();
         if (parent != null) {
             path = parent.getAbsolutePath();
             path = String.format("%s/%s", path, name);
@@ -193,6 +288,7 @@ public abstract class AbstractConfigNode {
      */
     public String getSearchPath() {
         String path = null;
+        AbstractConfigNode parent = getParent();
         if (parent != null) {
             path = parent.getSearchPath();
             path = String.format("%s/%s", path, name);
@@ -223,7 +319,7 @@ public abstract class AbstractConfigNode {
         path = path.trim();
         Preconditions.checkArgument(!Strings.isNullOrEmpty(path));
         if (path.startsWith(ConfigurationSettings.NODE_SEARCH_SEPERATOR)) {
-            return configuration.find(path);
+            return getConfiguration().find(path);
         }
 
         if (path.equals(".")) {
@@ -233,16 +329,26 @@ public abstract class AbstractConfigNode {
             path = String.format("%s%s", getName(), path);
         }
 
-        List<String> stack =
-                ConfigUtils.getResolvedPath(path, getConfiguration().getSettings(),
-                                            this);
-        if (stack != null && !stack.isEmpty()) {
-            String node = stack.get(0);
+        return find(CompiledConfigPath
+                            .compile(path, getConfiguration().getSettings()));
+    }
+
+    /**
+     * Find the specified (pre-compiled) path under this configuration node.
+     *
+     * @param path - Compiled path.
+     * @return - Node at path
+     */
+    public AbstractConfigNode find(@Nonnull CompiledConfigPath path)
+    throws ConfigurationException {
+        Preconditions.checkArgument(path != null);
+        if (!path.isEmpty()) {
+            String node = path.first();
             if (node.compareTo(getName()) != 0 &&
                     node.compareTo(ConfigurationSettings.NODE_PARENT_TERM) != 0) {
-                stack.add(0, getName());
+                path = path.prepend(getName());
             }
-            return find(stack, 0);
+            return find(path.getElements(), 0);
         }
         return null;
     }
@@ -257,6 +363,20 @@ public abstract class AbstractConfigNode {
     public abstract AbstractConfigNode find(List<String> path, int index)
     throws ConfigurationException;
 
+    /**
+     * Check that this node can be changed, nodes of a frozen (published)
+     * configuration can only be changed while being loaded.
+     */
+    protected void checkMutable() {
+        Configuration configuration = getConfiguration();
+        if (configuration != null && configuration.isFrozen()
+                && !state.isLoading()) {
+            throw new IllegalStateException(String.format(
+                    "Configuration is frozen, node cannot be changed. [path=%s]",
+                    getAbsolutePath()));
+        }
+    }
+
     /**
      * Indicate this node has been updated.
      */
@@ -331,4 +451,24 @@ public abstract class AbstractConfigNode {
      * @param configuration - Changed configuration.
      */
     public abstract void changeConfiguration(Configuration configuration);
+
+    /**
+     * Create a deep copy of this node (and it's sub-tree) that belongs to
+     * the specified configuration/parent node.
+     *
+     * @param configuration - Configuration the copy belongs to.
+     * @param parent        - Parent node of the copy.
+     * @return - Copy of this node.
+     */
+    public abstract AbstractConfigNode copy(Configuration configuration,
+                                            AbstractConfigNode parent);
+
+    /**
+     * Copy the base properties of this node to the target node.
+     *
+     * @param target - Target node.
+     */
+    protected void copyTo(AbstractConfigNode target) {
+        target.name = name;
+    }
 }
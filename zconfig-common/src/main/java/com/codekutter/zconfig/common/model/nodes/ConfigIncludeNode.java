@@ -311,4 +311,26 @@ public class ConfigIncludeNode extends ConfigElementNode {
         String path = getParent().getSearchPath();
         return String.format("%s.%s", path, node.getName());
     }
+
+    /**
+     * Create a deep copy of this node and the included configuration node.
+     *
+     * @param configuration - Configuration the copy belongs to.
+     * @param parent        - Parent node of the copy.
+     * @return - Copy of this node.
+     */
+    @Override
+    public ConfigIncludeNode copy(Configuration configuration,
+                                  AbstractConfigNode parent) {
+        ConfigIncludeNode copy = new ConfigIncludeNode(configuration, parent);
+        copyTo(copy);
+        copy.configName = configName;
+        copy.path = path;
+        copy.readerType = readerType;
+        copy.version = version;
+        if (node != null) {
+            copy.node = node.copy(configuration, copy);
+        }
+        return copy;
+    }
 }
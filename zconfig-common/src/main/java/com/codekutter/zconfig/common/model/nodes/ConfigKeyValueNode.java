@@ -44,6 +44,12 @@ public abstract class ConfigKeyValueNode extends ConfigElementNode {
      * Map containing the defined parameters within a node definition.
      */
     private Map<String, ConfigValueNode> keyValues = new HashMap<>();
+    /**
+     * Compact storage of the key/values (NULL if not enabled), keyValues is a
+     * view of the store.
+     */
+    @JsonIgnore
+    private ConfigValueStore store = null;
 
     /**
      * Default constructor - Initialize the state object.
@@ -61,6 +67,21 @@ public abstract class ConfigKeyValueNode extends ConfigElementNode {
             Configuration configuration,
             AbstractConfigNode parent) {
         super(configuration, parent);
+        if (ConfigValueStore.isEnabled(configuration)) {
+            store = new ConfigValueStore(this);
+            keyValues = store.asMap();
+        }
+    }
+
+    /**
+     * Check if the key/values are stored in the compact form (value nodes are
+     * created on demand).
+     *
+     * @return - Is compact?
+     */
+    @JsonIgnore
+    public boolean isCompact() {
+        return (store != null);
     }
 
     /**
@@ -78,8 +99,33 @@ public abstract class ConfigKeyValueNode extends ConfigElementNode {
      * @param keyValues - Map of parameters.
      */
     public void setKeyValues(Map<String, ConfigValueNode> keyValues) {
+        checkMutable();
         updated();
+        if (store != null) {
+            if (keyValues != this.keyValues) {
+                store.clear();
+                if (keyValues != null) {
+                    for (ConfigValueNode node : keyValues.values()) {
+                        store.put(node.getName(), node.getValue(),
+                                  node.isEncrypted());
+                    }
+                }
+                storeChanged();
+            }
+            return;
+        }
+        Configuration configuration = getConfiguration();
+        if (configuration != null && this.keyValues != null) {
+            for (ConfigValueNode node : this.keyValues.values()) {
+                configuration.removeFromPathIndex(this, node);
+            }
+        }
         this.keyValues = keyValues;
+        if (configuration != null && keyValues != null) {
+            for (ConfigValueNode node : keyValues.values()) {
+                configuration.addToPathIndex(this, node);
+            }
+        }
     }
 
     /**
@@ -127,12 +173,29 @@ public abstract class ConfigKeyValueNode extends ConfigElementNode {
      */
     public void addAll(Map<String, ConfigValueNode> map) {
         Preconditions.checkArgument(map != null);
+        checkMutable();
         if (!map.isEmpty()) {
+            if (store != null) {
+                for (String key : map.keySet()) {
+                    ConfigValueNode node = map.get(key);
+                    store.put(key, node.getValue(), node.isEncrypted());
+                }
+                storeChanged();
+                return;
+            }
             if (keyValues == null) {
                 keyValues = new HashMap<>(map);
             } else {
+                for (String key : map.keySet()) {
+                    indexReplaced(keyValues.get(key), map.get(key));
+                }
                 keyValues.putAll(map);
             }
+            if (getConfiguration() != null) {
+                for (ConfigValueNode node : map.values()) {
+                    getConfiguration().addToPathIndex(this, node);
+                }
+            }
         }
     }
 
@@ -144,6 +207,14 @@ public abstract class ConfigKeyValueNode extends ConfigElementNode {
      */
     public void addKeyValue(String key, String value) {
         Preconditions.checkArgument(!Strings.isNullOrEmpty(key));
+        checkMutable();
+        if (store != null) {
+            Preconditions.checkArgument(!Strings.isNullOrEmpty(value));
+            store.put(key, value, false);
+            storeChanged();
+            updated();
+            return;
+        }
         if (keyValues == null) {
             keyValues = new HashMap<>();
         }
@@ -153,7 +224,7 @@ public abstract class ConfigKeyValueNode extends ConfigElementNode {
         vn.setParent(this);
         vn.setValue(value);
 
-        keyValues.put(key, vn);
+        putKeyValue(vn);
         updated();
     }
 
@@ -164,13 +235,55 @@ public abstract class ConfigKeyValueNode extends ConfigElementNode {
      */
     public void addKeyValue(ConfigValueNode node) {
         Preconditions.checkArgument(node != null);
+        checkMutable();
+        if (store != null) {
+            store.put(node.getName(), node.getValue(), node.isEncrypted());
+            storeChanged();
+            updated();
+            return;
+        }
         if (keyValues == null) {
             keyValues = new HashMap<>();
         }
-        keyValues.put(node.getName(), node);
+        putKeyValue(node);
         updated();
     }
 
+    /**
+     * Put the value node into the map and update the configuration path index.
+     *
+     * @param node - Value Node.
+     */
+    private void putKeyValue(ConfigValueNode node) {
+        ConfigValueNode prev = keyValues.put(node.getName(), node);
+        indexReplaced(prev, node);
+        if (getConfiguration() != null) {
+            getConfiguration().addToPathIndex(this, node);
+        }
+    }
+
+    /**
+     * Notify the configuration that the (compact) entries have changed, compact
+     * entries are not part of the path index.
+     */
+    private void storeChanged() {
+        if (getConfiguration() != null) {
+            getConfiguration().structureChanged();
+        }
+    }
+
+    /**
+     * Remove a replaced value node from the configuration path index.
+     *
+     * @param prev - Replaced Value Node (can be NULL).
+     * @param node - New Value Node.
+     */
+    private void indexReplaced(ConfigValueNode prev, ConfigValueNode node) {
+        if (prev != null && prev != node && getConfiguration() != null) {
+            getConfiguration().removeFromPathIndex(this, prev);
+        }
+    }
+
     /**
      * Remove the key/value with the specified key.
      *
@@ -179,9 +292,23 @@ public abstract class ConfigKeyValueNode extends ConfigElementNode {
      */
     public boolean removeKeyValue(String key) {
         Preconditions.checkArgument(!Strings.isNullOrEmpty(key));
+        checkMutable();
+        if (store != null) {
+            int index = store.indexOf(key);
+            if (index >= 0) {
+                store.remove(index);
+                storeChanged();
+                updated();
+                return true;
+            }
+            return false;
+        }
         if (keyValues != null && !keyValues.isEmpty()) {
             if (keyValues.containsKey(key)) {
-                keyValues.remove(key);
+                ConfigValueNode node = keyValues.remove(key);
+                if (node != null && getConfiguration() != null) {
+                    getConfiguration().removeFromPathIndex(this, node);
+                }
                 updated();
                 return true;
             }
@@ -301,9 +428,32 @@ public abstract class ConfigKeyValueNode extends ConfigElementNode {
     @Override
     public void changeConfiguration(Configuration configuration) {
         setConfiguration(configuration);
+        if (store != null) {
+            // Value views are created with the owner's configuration.
+            return;
+        }
         for (String key : keyValues.keySet()) {
             ConfigValueNode vn = keyValues.get(key);
             vn.changeConfiguration(configuration);
         }
     }
+
+    /**
+     * Copy the key/values of this node to the target node.
+     *
+     * @param target - Target node.
+     */
+    protected void copyTo(ConfigKeyValueNode target) {
+        super.copyTo(target);
+        if (store != null && target.store != null) {
+            target.store = store.copy(target);
+            target.keyValues = target.store.asMap();
+        } else if (keyValues != null && !keyValues.isEmpty()) {
+            for (String key : keyValues.keySet()) {
+                target.keyValues.put(key, keyValues.get(key)
+                                                   .copy(target.getConfiguration(),
+                                                         target));
+            }
+        }
+    }
 }
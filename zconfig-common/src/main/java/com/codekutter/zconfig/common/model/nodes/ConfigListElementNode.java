@@ -64,6 +64,7 @@ public class ConfigListElementNode extends ConfigListNode<ConfigElementNode> {
     @Override
     public void addValue(ConfigElementNode value) {
         Preconditions.checkArgument(value != null);
+        checkMutable();
         value.setParent(this);
         super.addValue(value);
     }
@@ -76,15 +77,8 @@ public class ConfigListElementNode extends ConfigListNode<ConfigElementNode> {
      */
     public ConfigElementNode getElement(String name) {
         Preconditions.checkArgument(!Strings.isNullOrEmpty(name));
-        List<ConfigElementNode> values = getValues();
-        if (values != null && !values.isEmpty()) {
-            for (ConfigElementNode value : values) {
-                if (value != null && value.getName().compareTo(name) == 0) {
-                    return value;
-                }
-            }
-        }
-        return null;
+        int index = indexOf(name);
+        return (index >= 0 ? getValues().get(index) : null);
     }
 
     /**
@@ -164,4 +158,19 @@ public class ConfigListElementNode extends ConfigListNode<ConfigElementNode> {
         }
     }
 
+
+    /**
+     * Create a deep copy of this list node and the element values.
+     *
+     * @param configuration - Configuration the copy belongs to.
+     * @param parent        - Parent node of the copy.
+     * @return - Copy of this node.
+     */
+    @Override
+    public ConfigListElementNode copy(Configuration configuration,
+                                      AbstractConfigNode parent) {
+        ConfigListElementNode node = new ConfigListElementNode(configuration, parent);
+        copyTo(node);
+        return node;
+    }
 }
@@ -30,7 +30,9 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.base.Preconditions;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Class represents a array of node elements.
@@ -42,7 +44,51 @@ import java.util.List;
  */
 public abstract class ConfigListNode<T extends AbstractConfigNode>
         extends ConfigElementNode {
+    /**
+     * Minimum list size for which the name index is used, smaller lists are
+     * searched linearly.
+     */
+    public static final int NAME_INDEX_THRESHOLD = 16;
+
+    /**
+     * Name index, the index is updated in place when elements are added or
+     * removed.
+     * <p>
+     * Note: Changes are made by the configuration update, under the
+     * configuration lock. Lookups on a list that can be changed (configuration
+     * not frozen) must also hold the configuration lock. Lists of a published
+     * (frozen) configuration are not changed, the index is built once and read
+     * without locking (published through the volatile field).
+     */
+    private static final class NameIndex {
+        /**
+         * Element name to the position of the first element with the name.
+         */
+        private final Map<String, Integer> positions;
+        /**
+         * List size the index is current for.
+         */
+        private int size;
+
+        private NameIndex(Map<String, Integer> positions, int size) {
+            this.positions = positions;
+            this.size = size;
+        }
+    }
+
     private List<T> values = new ArrayList<>();
+    /**
+     * Name index (NULL if not built), lookups can build the index on read,
+     * updates to the list maintain the index once built.
+     */
+    @JsonIgnore
+    private volatile NameIndex nameIndex = null;
+    /**
+     * Name index can be used (disabled for compact storage that provides
+     * it's own lookup).
+     */
+    @JsonIgnore
+    private boolean indexable = true;
 
     /**
      * Default constructor - Initialize the state object.
@@ -70,6 +116,18 @@ public abstract class ConfigListNode<T extends AbstractConfigNode>
         return values;
     }
 
+    /**
+     * Set the storage of the element values (used by the sub-classes that
+     * store the elements in a compact form).
+     *
+     * @param values - List (view) of element values.
+     */
+    void initValues(List<T> values) {
+        this.values = values;
+        this.nameIndex = null;
+        this.indexable = false;
+    }
+
     /**
      * Set the list of element values.
      *
@@ -78,8 +136,13 @@ public abstract class ConfigListNode<T extends AbstractConfigNode>
     public void setValues(List<T> values) {
         Preconditions.checkArgument(values != null);
         Preconditions.checkArgument(!values.isEmpty());
+        checkMutable();
 
         this.values = values;
+        nameIndex = null;
+        if (indexable && values.size() >= NAME_INDEX_THRESHOLD) {
+            buildIndex();
+        }
         updated();
     }
 
@@ -90,11 +153,33 @@ public abstract class ConfigListNode<T extends AbstractConfigNode>
      */
     public void addValue(T value) {
         Preconditions.checkArgument(value != null);
+        checkMutable();
         if (values == null) {
             values = new ArrayList<>();
         }
 
         values.add(value);
+        indexAdded(value, values.size() - 1);
+        updated();
+    }
+
+    /**
+     * Insert a new element value at the specified position in the list.
+     *
+     * @param position - Position to insert at.
+     * @param value    - Element value to add.
+     */
+    public void addValue(int position, T value) {
+        Preconditions.checkArgument(value != null);
+        Preconditions.checkArgument(position >= 0);
+        if (values == null || position >= values.size()) {
+            addValue(value);
+            return;
+        }
+        checkMutable();
+        values.add(position, value);
+        // Positions after the insert are shifted, rebuilt on next lookup.
+        nameIndex = null;
         updated();
     }
 
@@ -105,11 +190,153 @@ public abstract class ConfigListNode<T extends AbstractConfigNode>
      */
     public void removeValue(T value) {
         Preconditions.checkArgument(value != null);
+        checkMutable();
         if (values != null) {
-            if (values.remove(value)) {
+            int index = -1;
+            if (indexable) {
+                index = indexOf(value.getName());
+                if (index < 0 || values.get(index) != value) {
+                    index = values.indexOf(value);
+                }
+            } else if (values.remove(value)) {
                 updated();
+                return;
+            }
+            if (index >= 0) {
+                values.remove(index);
+                indexRemoved(value, index);
+                updated();
+            }
+        }
+    }
+
+    /**
+     * Update the name index for an element appended at the specified position.
+     *
+     * @param value    - Element added.
+     * @param position - Position of the added element.
+     */
+    private void indexAdded(T value, int position) {
+        NameIndex index = nameIndex;
+        if (index == null) {
+            return;
+        }
+        if (index.size != position) {
+            // Index is stale (list modified directly), rebuilt on next lookup.
+            nameIndex = null;
+            return;
+        }
+        index.positions.putIfAbsent(value.getName(), position);
+        index.size = position + 1;
+        nameIndex = index;
+    }
+
+    /**
+     * Update the name index for an element removed from the specified position,
+     * only the entries at or after the position are shifted.
+     *
+     * @param value    - Element removed.
+     * @param position - Position the element was removed from.
+     */
+    private void indexRemoved(T value, int position) {
+        NameIndex index = nameIndex;
+        if (index == null) {
+            return;
+        }
+        int size = values.size();
+        if (index.size != size + 1) {
+            // Index is stale (list modified directly), rebuilt on next lookup.
+            nameIndex = null;
+            return;
+        }
+        Map<String, Integer> positions = index.positions;
+        String name = value.getName();
+        boolean relocate = positions.remove(name, position);
+        for (int ii = position; ii < size; ii++) {
+            T next = values.get(ii);
+            if (next == null) {
+                continue;
+            }
+            String nn = next.getName();
+            if (relocate && nn.compareTo(name) == 0) {
+                positions.put(nn, ii);
+                relocate = false;
+            } else {
+                positions.replace(nn, ii + 1, ii);
+            }
+        }
+        index.size = size;
+        nameIndex = index;
+    }
+
+    /**
+     * Get the position of the first element with the specified name.
+     * <p>
+     * Lists larger than NAME_INDEX_THRESHOLD are looked up using the name index,
+     * the index is (re-)built if the list has been modified directly.
+     *
+     * @param name - Element name.
+     * @return - Element index or -1 if not found.
+     */
+    protected int indexOf(String name) {
+        if (values == null || values.isEmpty()) {
+            return -1;
+        }
+        if (indexable && values.size() >= NAME_INDEX_THRESHOLD) {
+            NameIndex index = nameIndex;
+            if (index == null || index.size != values.size()) {
+                index = buildIndex();
+            }
+            Integer pos = index.positions.get(name);
+            if (pos == null) {
+                return -1;
+            }
+            if (!hasName(pos, name)) {
+                // Index is stale (list modified directly), rebuild.
+                pos = buildIndex().positions.get(name);
+            }
+            return (pos != null ? pos : -1);
+        }
+        for (int ii = 0; ii < values.size(); ii++) {
+            if (hasName(ii, name)) {
+                return ii;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check if the element at the specified position has the specified name.
+     *
+     * @param position - Element position.
+     * @param name     - Element name.
+     * @return - Is matched?
+     */
+    private boolean hasName(int position, String name) {
+        if (position < values.size()) {
+            T value = values.get(position);
+            return (value != null && value.getName().compareTo(name) == 0);
+        }
+        return false;
+    }
+
+    /**
+     * Build the name index for the current list elements.
+     *
+     * @return - Name index.
+     */
+    private NameIndex buildIndex() {
+        int size = values.size();
+        Map<String, Integer> positions = new HashMap<>(size * 2);
+        for (int ii = 0; ii < size; ii++) {
+            T value = values.get(ii);
+            if (value != null) {
+                positions.putIfAbsent(value.getName(), ii);
             }
         }
+        NameIndex index = new NameIndex(positions, size);
+        nameIndex = index;
+        return index;
     }
 
     /**
@@ -185,4 +412,31 @@ public abstract class ConfigListNode<T extends AbstractConfigNode>
             }
         }
     }
+
+    /**
+     * Copy the element values of this list to the target node.
+     *
+     * @param target - Target node.
+     */
+    protected void copyTo(ConfigListNode<T> target) {
+        super.copyTo(target);
+        copyValues(target);
+    }
+
+    /**
+     * Copy the element values of this list to the (empty) target node.
+     *
+     * @param target - Target node.
+     */
+    @SuppressWarnings("unchecked")
+    protected void copyValues(ConfigListNode<T> target) {
+        if (values != null && !values.isEmpty()) {
+            if (target.values == null) {
+                target.values = new ArrayList<>(values.size());
+            }
+            for (T value : values) {
+                target.values.add((T) value.copy(target.getConfiguration(), target));
+            }
+        }
+    }
 }
@@ -24,6 +24,7 @@
 
 package com.codekutter.zconfig.common.model.nodes;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.codekutter.zconfig.common.ConfigurationException;
@@ -36,6 +37,12 @@ import java.util.List;
  * Class represent a configuration node of type list with String values.
  */
 public class ConfigListValueNode extends ConfigListNode<ConfigValueNode> {
+    /**
+     * Compact storage of the values (NULL if not enabled), the element list is
+     * a view of the store.
+     */
+    @JsonIgnore
+    private ConfigValueStore store = null;
 
     /**
      * Default constructor - Initialize the state object.
@@ -53,6 +60,43 @@ public class ConfigListValueNode extends ConfigListNode<ConfigValueNode> {
             Configuration configuration,
             AbstractConfigNode parent) {
         super(configuration, parent);
+        if (ConfigValueStore.isEnabled(configuration)) {
+            store = new ConfigValueStore(this);
+            initValues(store.asList());
+        }
+    }
+
+    /**
+     * Check if the values are stored in the compact form (value nodes are
+     * created on demand).
+     *
+     * @return - Is compact?
+     */
+    @JsonIgnore
+    public boolean isCompact() {
+        return (store != null);
+    }
+
+    /**
+     * Set the list of element values.
+     *
+     * @param values - List of element values.
+     */
+    @Override
+    public void setValues(List<ConfigValueNode> values) {
+        checkMutable();
+        if (store != null) {
+            Preconditions.checkArgument(values != null);
+            Preconditions.checkArgument(!values.isEmpty());
+            List<ConfigValueNode> current = getValues();
+            if (values != current) {
+                store.clear();
+                current.addAll(values);
+            }
+            updated();
+        } else {
+            super.setValues(values);
+        }
     }
 
     /**
@@ -63,15 +107,12 @@ public class ConfigListValueNode extends ConfigListNode<ConfigValueNode> {
      */
     public ConfigValueNode getValue(String name) {
         Preconditions.checkArgument(!Strings.isNullOrEmpty(name));
-        List<ConfigValueNode> values = getValues();
-        if (values != null && !values.isEmpty()) {
-            for (ConfigValueNode value : values) {
-                if (value != null && value.getName().compareTo(name) == 0) {
-                    return value;
-                }
-            }
+        if (store != null) {
+            int index = store.indexOf(name);
+            return (index >= 0 ? store.view(index) : null);
         }
-        return null;
+        int index = indexOf(name);
+        return (index >= 0 ? getValues().get(index) : null);
     }
 
 
@@ -87,15 +128,9 @@ public class ConfigListValueNode extends ConfigListNode<ConfigValueNode> {
         if (getName().compareTo(key) == 0) {
             if (index == path.size() - 1) {
                 return this;
-            } else if (!isEmpty()) {
-                index = index + 1;
-                List<ConfigValueNode> nodes = getValues();
-                for (AbstractConfigNode node : nodes) {
-                    AbstractConfigNode fn = node.find(path, index);
-                    if (fn != null) {
-                        return fn;
-                    }
-                }
+            } else if (!isEmpty() && index + 1 == path.size() - 1) {
+                // Value nodes only match the last path element.
+                return getValue(path.get(index + 1));
             }
         }
         return null;
@@ -124,6 +159,10 @@ public class ConfigListValueNode extends ConfigListNode<ConfigValueNode> {
                     getState().getState().name()));
         }
         updateState(ENodeState.Synced);
+        if (store != null) {
+            // Value views share the state of this node.
+            return;
+        }
         List<ConfigValueNode> values = getValues();
         if (values != null && !values.isEmpty()) {
             for (ConfigValueNode v : values) {
@@ -131,4 +170,35 @@ public class ConfigListValueNode extends ConfigListNode<ConfigValueNode> {
             }
         }
     }
+
+    /**
+     * Create a deep copy of this list node and the element values.
+     *
+     * @param configuration - Configuration the copy belongs to.
+     * @param parent        - Parent node of the copy.
+     * @return - Copy of this node.
+     */
+    @Override
+    public ConfigListValueNode copy(Configuration configuration,
+                                    AbstractConfigNode parent) {
+        ConfigListValueNode node = new ConfigListValueNode(configuration, parent);
+        copyTo(node);
+        return node;
+    }
+
+    /**
+     * Copy the element values of this list to the (empty) target node.
+     *
+     * @param target - Target node.
+     */
+    @Override
+    protected void copyValues(ConfigListNode<ConfigValueNode> target) {
+        ConfigListValueNode node = (ConfigListValueNode) target;
+        if (store != null && node.store != null) {
+            node.store = store.copy(node);
+            node.initValues(node.store.asList());
+        } else {
+            super.copyValues(target);
+        }
+    }
 }
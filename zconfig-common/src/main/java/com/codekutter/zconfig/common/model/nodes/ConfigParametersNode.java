@@ -127,4 +127,19 @@ public class ConfigParametersNode extends ConfigKeyValueNode {
         String path = getParent().getSearchPath();
         return String.format("%s%s", path, NODE_ABBR_PREFIX);
     }
+
+    /**
+     * Create a deep copy of this node and the key/values.
+     *
+     * @param configuration - Configuration the copy belongs to.
+     * @param parent        - Parent node of the copy.
+     * @return - Copy of this node.
+     */
+    @Override
+    public ConfigParametersNode copy(Configuration configuration,
+                                     AbstractConfigNode parent) {
+        ConfigParametersNode node = new ConfigParametersNode(configuration, parent);
+        copyTo(node);
+        return node;
+    }
 }
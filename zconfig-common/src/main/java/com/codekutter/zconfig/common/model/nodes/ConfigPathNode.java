@@ -49,6 +49,17 @@ public class ConfigPathNode extends ConfigElementNode {
      */
     private Map<String, AbstractConfigNode> children = new HashMap<>();
 
+    /**
+     * Loader for the deferred child nodes (lazy load), NULL once the children
+     * have been loaded.
+     */
+    private volatile ILazyNodeLoader loader = null;
+
+    /**
+     * Children are being loaded by the current (lock owner) thread.
+     */
+    private boolean materializing = false;
+
     /**
      * Default constructor - Initialize the state object.
      */
@@ -72,6 +83,77 @@ public class ConfigPathNode extends ConfigElementNode {
      * @return - Map of child nodes.
      */
     public Map<String, AbstractConfigNode> getChildren() {
+        return children();
+    }
+
+    /**
+     * Set the loader for the deferred child nodes. The children are loaded
+     * on first access.
+     *
+     * @param loader - Lazy node loader.
+     */
+    public void setLoader(ILazyNodeLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Check if the child nodes have been loaded.
+     *
+     * @return - Is materialized?
+     */
+    @JsonIgnore
+    public boolean isMaterialized() {
+        return (loader == null);
+    }
+
+    /**
+     * Load the deferred child nodes, if not already loaded.
+     *
+     * @throws ConfigurationException
+     */
+    public void materialize() throws ConfigurationException {
+        if (loader == null) {
+            return;
+        }
+        synchronized (this) {
+            ILazyNodeLoader current = loader;
+            if (current == null || materializing) {
+                return;
+            }
+            materializing = true;
+            try {
+                current.load(this);
+                loader = null;
+            } catch (ConfigurationException e) {
+                // Discard the partially loaded children, the load will be
+                // retried on next access.
+                Configuration configuration = getConfiguration();
+                if (configuration != null && children != null) {
+                    for (AbstractConfigNode node : children.values()) {
+                        configuration.removeFromPathIndex(this, node);
+                    }
+                }
+                children = new HashMap<>();
+                throw e;
+            } finally {
+                materializing = false;
+            }
+        }
+    }
+
+    /**
+     * Get the child nodes, loading the deferred nodes if required.
+     *
+     * @return - Map of child nodes.
+     */
+    private Map<String, AbstractConfigNode> children() {
+        if (loader != null) {
+            try {
+                materialize();
+            } catch (ConfigurationException e) {
+                throw new RuntimeException(e);
+            }
+        }
         return children;
     }
 
@@ -82,7 +164,20 @@ public class ConfigPathNode extends ConfigElementNode {
      * @param children - Map of child nodes.
      */
     public void setChildren(Map<String, AbstractConfigNode> children) {
+        checkMutable();
+        loader = null;
+        Configuration configuration = getConfiguration();
+        if (configuration != null && this.children != null) {
+            for (AbstractConfigNode node : this.children.values()) {
+                configuration.removeFromPathIndex(this, node);
+            }
+        }
         this.children = children;
+        if (configuration != null && children != null) {
+            for (AbstractConfigNode node : children.values()) {
+                configuration.addToPathIndex(this, node);
+            }
+        }
     }
 
     /**
@@ -95,15 +190,43 @@ public class ConfigPathNode extends ConfigElementNode {
      */
     public void addChildNode(AbstractConfigNode node) {
         Preconditions.checkArgument(node != null);
+        // Deferred children are added to loaded nodes.
+        if (!(materializing && Thread.holdsLock(this))) {
+            checkMutable();
+        }
 
+        children();
         if (children == null) {
             children = new HashMap<>();
         }
         node.setParent(this);
-        children.put(node.getName(), node);
+        AbstractConfigNode prev = children.put(node.getName(), node);
+        Configuration configuration = getConfiguration();
+        if (configuration != null) {
+            if (prev != null && prev != node) {
+                configuration.removeFromPathIndex(this, prev);
+            }
+            configuration.addToPathIndex(this, node);
+        }
         updated();
     }
 
+    /**
+     * Replace the child node with the same name, the path index and the node
+     * state are not updated.
+     * <p>
+     * Note: Used to attach the copied nodes to a copy of this node (see
+     * Configuration.copy(Collection)), should not be called directly.
+     *
+     * @param node - Child node (copy) to set.
+     */
+    public void replaceChildNode(AbstractConfigNode node) {
+        Preconditions.checkArgument(node != null);
+        checkMutable();
+        node.setParent(this);
+        children().put(node.getName(), node);
+    }
+
     /**
      * Get the child node (if any) with the specified node name.
      *
@@ -114,6 +237,7 @@ public class ConfigPathNode extends ConfigElementNode {
     public AbstractConfigNode getChildNode(String name) {
         Preconditions.checkArgument(!Strings.isNullOrEmpty(name));
 
+        Map<String, AbstractConfigNode> children = children();
         if (children != null) {
             return children.get(name);
         }
@@ -128,8 +252,13 @@ public class ConfigPathNode extends ConfigElementNode {
      */
     public boolean removeChildNode(String name) {
         Preconditions.checkArgument(!Strings.isNullOrEmpty(name));
+        checkMutable();
+        Map<String, AbstractConfigNode> children = children();
         if (children != null && children.containsKey(name)) {
-            children.remove(name);
+            AbstractConfigNode node = children.remove(name);
+            if (node != null && getConfiguration() != null) {
+                getConfiguration().removeFromPathIndex(this, node);
+            }
             updated();
             return true;
         }
@@ -142,6 +271,7 @@ public class ConfigPathNode extends ConfigElementNode {
      * @return - Parameters node, else NULL.
      */
     public ConfigParametersNode parmeters() {
+        Map<String, AbstractConfigNode> children = children();
         if (children != null &&
                 children.containsKey(
                         getConfiguration().getSettings().getParametersNodeName())) {
@@ -157,6 +287,7 @@ public class ConfigPathNode extends ConfigElementNode {
      * @return - Properties node, else NULL.
      */
     public ConfigPropertiesNode properties() {
+        Map<String, AbstractConfigNode> children = children();
         if (children != null &&
                 children.containsKey(
                         getConfiguration().getSettings().getPropertiesNodeName())) {
@@ -172,6 +303,7 @@ public class ConfigPathNode extends ConfigElementNode {
      * @return - Properties node, else NULL.
      */
     public ConfigAttributesNode attributes() {
+        Map<String, AbstractConfigNode> children = children();
         if (children != null &&
                 children.containsKey(
                         getConfiguration().getSettings().getAttributesNodeName())) {
@@ -191,6 +323,7 @@ public class ConfigPathNode extends ConfigElementNode {
     @Override
     public AbstractConfigNode find(List<String> path, int index)
     throws ConfigurationException {
+        materialize();
         String key = path.get(index);
         if (key.compareTo(ConfigurationSettings.NODE_PARENT_TERM) == 0) {
             if (getParent() != null) {
@@ -236,6 +369,7 @@ public class ConfigPathNode extends ConfigElementNode {
      */
     public AbstractConfigNode findChild(List<String> path, int index)
     throws ConfigurationException {
+        materialize();
         String cname = path.get(index + 1);
         String name = path.get(index);
         if (children.containsKey(cname)) {
@@ -351,7 +485,7 @@ public class ConfigPathNode extends ConfigElementNode {
         if (children != null && !children.isEmpty()) {
             for (String key : children.keySet()) {
                 AbstractConfigNode node = children.get(key);
-                if (node instanceof ConfigElementNode) {
+                if (node instanceof ConfigElementNode && !isShared(node)) {
                     ((ConfigElementNode) node).updateState(state);
                 }
             }
@@ -374,11 +508,26 @@ public class ConfigPathNode extends ConfigElementNode {
         if (children != null && !children.isEmpty()) {
             for (String key : children.keySet()) {
                 AbstractConfigNode node = children.get(key);
-                node.loaded();
+                if (!isShared(node)) {
+                    node.loaded();
+                }
             }
         }
     }
 
+    /**
+     * Check if the child node is shared with the snapshot this node was
+     * copied from, shared nodes are not changed by this node.
+     *
+     * @param node - Child node.
+     * @return - Is shared?
+     */
+    private boolean isShared(AbstractConfigNode node) {
+        Configuration configuration = node.getLoadedConfiguration();
+        return (configuration != null
+                && configuration != getLoadedConfiguration());
+    }
+
     /**
      * Validate that this node has been setup correctly.
      *
@@ -402,10 +551,62 @@ public class ConfigPathNode extends ConfigElementNode {
      */
     @Override
     public void changeConfiguration(Configuration configuration) {
+        Map<String, AbstractConfigNode> children = children();
         if (children != null && !children.isEmpty()) {
             for (String key : children.keySet()) {
                 children.get(key).changeConfiguration(configuration);
             }
         }
     }
+
+    /**
+     * Create a copy of this path node that shares the child nodes (the shared
+     * children still belong to the configuration/node they were loaded in).
+     * Children to be changed are copied and attached using replaceChildNode().
+     *
+     * @param configuration - Configuration the copy belongs to.
+     * @param parent        - Parent node of the copy.
+     * @return - Copy of this node.
+     */
+    public ConfigPathNode copyShallow(Configuration configuration,
+                                      AbstractConfigNode parent) {
+        ConfigPathNode node = new ConfigPathNode(configuration, parent);
+        copyTo(node);
+        Map<String, AbstractConfigNode> children = children();
+        if (children != null && !children.isEmpty()) {
+            node.children.putAll(children);
+        }
+        return node;
+    }
+
+    /**
+     * Create a deep copy of this path node and all the loaded child nodes.
+     * If the children are deferred, the copy shares the loader and loads
+     * them on access.
+     *
+     * @param configuration - Configuration the copy belongs to.
+     * @param parent        - Parent node of the copy.
+     * @return - Copy of this node.
+     */
+    @Override
+    public ConfigPathNode copy(Configuration configuration,
+                               AbstractConfigNode parent) {
+        ConfigPathNode node = new ConfigPathNode(configuration, parent);
+        copyTo(node);
+        synchronized (this) {
+            // Don't load the deferred children for the copy.
+            ILazyNodeLoader current = loader;
+            if (current != null && !materializing) {
+                node.loader = current;
+                return node;
+            }
+        }
+        Map<String, AbstractConfigNode> children = children();
+        if (children != null && !children.isEmpty()) {
+            for (String key : children.keySet()) {
+                node.children.put(key, children.get(key).copy(configuration, node));
+            }
+        }
+        return node;
+    }
 }
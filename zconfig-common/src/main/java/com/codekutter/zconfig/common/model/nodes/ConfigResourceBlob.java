@@ -101,4 +101,19 @@ public class ConfigResourceBlob extends ConfigResourceFile {
             throw new ConfigurationException(e);
         }
     }
+
+    /**
+     * Create a copy of this resource node. The resource handle is shared.
+     *
+     * @param configuration - Configuration the copy belongs to.
+     * @param parent        - Parent node of the copy.
+     * @return - Copy of this node.
+     */
+    @Override
+    public ConfigResourceBlob copy(Configuration configuration,
+                                   AbstractConfigNode parent) {
+        ConfigResourceBlob node = new ConfigResourceBlob(configuration, parent);
+        copyTo(node);
+        return node;
+    }
 }
@@ -133,4 +133,19 @@ public class ConfigResourceDirectory extends ConfigResourceFile {
 
         return findFile(getResourceHandle(), parts, 0);
     }
+
+    /**
+     * Create a copy of this resource node. The resource handle is shared.
+     *
+     * @param configuration - Configuration the copy belongs to.
+     * @param parent        - Parent node of the copy.
+     * @return - Copy of this node.
+     */
+    @Override
+    public ConfigResourceDirectory copy(Configuration configuration,
+                                        AbstractConfigNode parent) {
+        ConfigResourceDirectory node = new ConfigResourceDirectory(configuration, parent);
+        copyTo(node);
+        return node;
+    }
 }
@@ -101,4 +101,29 @@ public class ConfigResourceFile extends ConfigResourceNode {
             throw new ConfigurationException("No File resource handle loaded.");
         }
     }
+
+    /**
+     * Create a copy of this resource node. The resource handle is shared.
+     *
+     * @param configuration - Configuration the copy belongs to.
+     * @param parent        - Parent node of the copy.
+     * @return - Copy of this node.
+     */
+    @Override
+    public ConfigResourceFile copy(Configuration configuration,
+                                   AbstractConfigNode parent) {
+        ConfigResourceFile node = new ConfigResourceFile(configuration, parent);
+        copyTo(node);
+        return node;
+    }
+
+    /**
+     * Copy the resource properties and handle of this node to the target node.
+     *
+     * @param target - Target node.
+     */
+    protected void copyTo(ConfigResourceFile target) {
+        super.copyTo(target);
+        target.resourceHandle = resourceHandle;
+    }
 }
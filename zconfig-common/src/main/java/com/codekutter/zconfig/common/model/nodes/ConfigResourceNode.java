@@ -216,4 +216,16 @@ public abstract class ConfigResourceNode extends ConfigElementNode {
     public void changeConfiguration(Configuration configuration) {
         setConfiguration(configuration);
     }
+
+    /**
+     * Copy the resource properties of this node to the target node.
+     *
+     * @param target - Target node.
+     */
+    protected void copyTo(ConfigResourceNode target) {
+        super.copyTo(target);
+        target.type = type;
+        target.location = location;
+        target.resourceName = resourceName;
+    }
 }
@@ -151,4 +151,24 @@ public class ConfigSearchListNode extends ConfigListNode<AbstractConfigNode> {
     public void loaded() throws ConfigurationException {
         throw new RuntimeException("Method should not be called.");
     }
+
+    /**
+     * Create a copy of this search result. Search results hold references to
+     * nodes in the configuration tree, the referenced nodes are not copied.
+     *
+     * @param configuration - Configuration the copy belongs to.
+     * @param parent        - Parent node of the copy.
+     * @return - Copy of this node.
+     */
+    @Override
+    public ConfigSearchListNode copy(Configuration configuration,
+                                     AbstractConfigNode parent) {
+        ConfigSearchListNode node = new ConfigSearchListNode(configuration, parent);
+        if (!isEmpty()) {
+            for (AbstractConfigNode value : getValues()) {
+                node.addValue(value);
+            }
+        }
+        return node;
+    }
 }
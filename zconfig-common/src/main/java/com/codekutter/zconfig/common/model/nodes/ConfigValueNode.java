@@ -25,6 +25,7 @@
 package com.codekutter.zconfig.common.model.nodes;
 
 import com.codekutter.zconfig.common.ZConfigEnv;
+import com.codekutter.zconfig.common.utils.ConfigUtils;
 import com.codekutter.zconfig.common.utils.CypherUtils;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.common.base.Preconditions;
@@ -33,11 +34,15 @@ import com.codekutter.zconfig.common.ConfigurationException;
 import com.codekutter.zconfig.common.GlobalConstants;
 import com.codekutter.zconfig.common.model.Configuration;
 import com.codekutter.zconfig.common.model.ENodeState;
+import com.codekutter.zconfig.common.model.NodeState;
 import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 
+import javax.annotation.Nonnull;
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * Class represents a configuration value element. All configuration values are treated as String values
@@ -60,11 +65,48 @@ public class ConfigValueNode extends AbstractConfigNode
     /**
      * Configuration value element.
      */
-    private String value;
+    private volatile String value;
     /**
      * Is the data in this node encrypted?
      */
     private boolean encrypted = false;
+    /**
+     * Cached parsed (typed) value, valid only for the value string it was
+     * parsed from.
+     */
+    @JsonIgnore
+    private transient volatile ParsedValue parsedValue = null;
+
+    /**
+     * Parsed value paired with the value string it was parsed from. A reader
+     * that parsed a value that has since been replaced can still store it's
+     * result, the source check makes the stale entry a cache miss.
+     */
+    static final class ParsedValue {
+        private final String source;
+        private final Object value;
+
+        ParsedValue(String source, Object value) {
+            this.source = source;
+            this.value = value;
+        }
+
+        /**
+         * Get the parsed value, if this entry was parsed from the specified
+         * value string and is of the requested type.
+         *
+         * @param source - Current value string.
+         * @param type   - Parsed value type.
+         * @param <T>    - Parsed value type.
+         * @return - Parsed value or NULL.
+         */
+        <T> T get(String source, Class<T> type) {
+            if (this.source == source && type.isInstance(value)) {
+                return type.cast(value);
+            }
+            return null;
+        }
+    }
 
     /**
      * Default constructor - Initialize the state object.
@@ -83,6 +125,19 @@ public class ConfigValueNode extends AbstractConfigNode
         super(configuration, parent);
     }
 
+    /**
+     * Constructor for value views of a compact Key/Value or List node.
+     *
+     * @param configuration - Configuration this node belong to.
+     * @param parent        - Parent node.
+     * @param name          - Node name.
+     * @param state         - Node state (shared with the parent).
+     */
+    ConfigValueNode(Configuration configuration, AbstractConfigNode parent,
+                    String name, NodeState state) {
+        super(configuration, parent, name, state);
+    }
+
     /**
      * Get the configuration value element.
      *
@@ -100,15 +155,16 @@ public class ConfigValueNode extends AbstractConfigNode
      */
     @JsonIgnore
     public String getDecryptedValue() {
-        if (encrypted && !Strings.isNullOrEmpty(this.value)) {
+        String value = getValue();
+        if (isEncrypted() && !Strings.isNullOrEmpty(value)) {
             try {
-                String value = ZConfigEnv.getVault()
-                                         .decrypt(this.value, getConfiguration());
-                if (Strings.isNullOrEmpty(value)) {
+                String decrypted = ZConfigEnv.getVault()
+                                             .decrypt(value, getConfiguration());
+                if (Strings.isNullOrEmpty(decrypted)) {
                     throw new Exception(
                             "Error Decrypting Value. NULL value returned.");
                 }
-                return value;
+                return decrypted;
             } catch (Exception ex) {
                 throw new RuntimeException(ex);
             }
@@ -123,7 +179,55 @@ public class ConfigValueNode extends AbstractConfigNode
      */
     public void setValue(String value) {
         Preconditions.checkArgument(!Strings.isNullOrEmpty(value));
-        this.value = value;
+        checkMutable();
+        this.value = intern(value);
+        this.parsedValue = null;
+    }
+
+    /**
+     * Get the cached parsed value.
+     *
+     * @return - Parsed value or NULL if not cached.
+     */
+    ParsedValue getParsedValue() {
+        return parsedValue;
+    }
+
+    /**
+     * Cache the parsed value.
+     *
+     * @param parsedValue - Parsed value.
+     */
+    void setParsedValue(ParsedValue parsedValue) {
+        this.parsedValue = parsedValue;
+    }
+
+    /**
+     * Get the value parsed using the specified parser, the parsed value is
+     * cached till the node value is updated.
+     *
+     * @param type   - Parsed value type.
+     * @param parser - Value parser (should not capture state).
+     * @param <T>    - Parsed value type.
+     * @return - Parsed value or NULL if value string is NULL/Empty.
+     */
+    private <T> T parsed(Class<T> type, Function<String, T> parser) {
+        // Read the value before the cache, the cached entry is only used if
+        // it was parsed from this value string.
+        String value = getValue();
+        if (Strings.isNullOrEmpty(value)) {
+            return null;
+        }
+        ParsedValue parsed = getParsedValue();
+        if (parsed != null) {
+            T result = parsed.get(value, type);
+            if (result != null) {
+                return result;
+            }
+        }
+        T result = parser.apply(value);
+        setParsedValue(new ParsedValue(value, result));
+        return result;
     }
 
     /**
@@ -141,6 +245,7 @@ public class ConfigValueNode extends AbstractConfigNode
      * @param encrypted - Encrypted?
      */
     public void setEncrypted(boolean encrypted) {
+        checkMutable();
         this.encrypted = encrypted;
     }
 
@@ -153,10 +258,8 @@ public class ConfigValueNode extends AbstractConfigNode
      */
     @JsonIgnore
     public boolean getBooleanValue() {
-        if (!Strings.isNullOrEmpty(value)) {
-            return Boolean.parseBoolean(value);
-        }
-        return false;
+        Boolean value = parsed(Boolean.class, Boolean::valueOf);
+        return (value != null ? value : false);
     }
 
     /**
@@ -168,10 +271,8 @@ public class ConfigValueNode extends AbstractConfigNode
      */
     @JsonIgnore
     public short getShortValue() {
-        if (!Strings.isNullOrEmpty(value)) {
-            return Short.parseShort(value);
-        }
-        return Short.MIN_VALUE;
+        Short value = parsed(Short.class, Short::valueOf);
+        return (value != null ? value : Short.MIN_VALUE);
     }
 
     /**
@@ -183,10 +284,8 @@ public class ConfigValueNode extends AbstractConfigNode
      */
     @JsonIgnore
     public int getIntValue() {
-        if (!Strings.isNullOrEmpty(value)) {
-            return Integer.parseInt(value);
-        }
-        return Integer.MIN_VALUE;
+        Integer value = parsed(Integer.class, Integer::valueOf);
+        return (value != null ? value : Integer.MIN_VALUE);
     }
 
     /**
@@ -198,10 +297,8 @@ public class ConfigValueNode extends AbstractConfigNode
      */
     @JsonIgnore
     public long getLongValue() {
-        if (!Strings.isNullOrEmpty(value)) {
-            return Long.parseLong(value);
-        }
-        return Long.MIN_VALUE;
+        Long value = parsed(Long.class, Long::valueOf);
+        return (value != null ? value : Long.MIN_VALUE);
     }
 
     /**
@@ -213,10 +310,8 @@ public class ConfigValueNode extends AbstractConfigNode
      */
     @JsonIgnore
     public float getFloatValue() {
-        if (!Strings.isNullOrEmpty(value)) {
-            return Float.parseFloat(value);
-        }
-        return Float.MIN_VALUE;
+        Float value = parsed(Float.class, Float::valueOf);
+        return (value != null ? value : Float.MIN_VALUE);
     }
 
     /**
@@ -228,10 +323,34 @@ public class ConfigValueNode extends AbstractConfigNode
      */
     @JsonIgnore
     public double getDoubleValue() {
-        if (!Strings.isNullOrEmpty(value)) {
-            return Double.parseDouble(value);
-        }
-        return Double.MIN_VALUE;
+        Double value = parsed(Double.class, Double::valueOf);
+        return (value != null ? value : Double.MIN_VALUE);
+    }
+
+    /**
+     * Get the value parsed as a Duration (see ConfigUtils.parseDuration()).
+     * <p>
+     * Note: If value string is NULL/Empty will return null.
+     *
+     * @return - Value parsed as duration.
+     */
+    @JsonIgnore
+    public Duration getDurationValue() {
+        return parsed(Duration.class, ConfigUtils::parseDuration);
+    }
+
+    /**
+     * Get the value parsed as an enum of the specified type.
+     * <p>
+     * Note: If value string is NULL/Empty will return null.
+     *
+     * @param type - Enum type.
+     * @param <E>  - Enum type.
+     * @return - Value parsed as enum.
+     */
+    public <E extends Enum<E>> E getEnumValue(@Nonnull Class<E> type) {
+        Preconditions.checkArgument(type != null);
+        return parsed(type, (value) -> Enum.valueOf(type, value));
     }
 
     /**
@@ -245,6 +364,7 @@ public class ConfigValueNode extends AbstractConfigNode
      */
     @JsonIgnore
     public DateTime getDateValue() {
+        String value = getValue();
         if (!Strings.isNullOrEmpty(value)) {
             DateTimeFormatter formatter =
                     DateTimeFormat
@@ -266,6 +386,7 @@ public class ConfigValueNode extends AbstractConfigNode
     @JsonIgnore
     public DateTime getDateValue(String format) {
         Preconditions.checkArgument(!Strings.isNullOrEmpty(format));
+        String value = getValue();
         if (!Strings.isNullOrEmpty(value)) {
             DateTimeFormatter formatter =
                     DateTimeFormat.forPattern(format);
@@ -285,6 +406,7 @@ public class ConfigValueNode extends AbstractConfigNode
      */
     @JsonIgnore
     public DateTime getDateTimeValue() {
+        String value = getValue();
         if (!Strings.isNullOrEmpty(value)) {
             DateTimeFormatter formatter =
                     DateTimeFormat
@@ -346,4 +468,21 @@ public class ConfigValueNode extends AbstractConfigNode
     public void changeConfiguration(Configuration configuration) {
         setConfiguration(configuration);
     }
+
+    /**
+     * Create a copy of this value node.
+     *
+     * @param configuration - Configuration the copy belongs to.
+     * @param parent        - Parent node of the copy.
+     * @return - Copy of this node.
+     */
+    @Override
+    public ConfigValueNode copy(Configuration configuration,
+                                AbstractConfigNode parent) {
+        ConfigValueNode node = new ConfigValueNode(configuration, parent);
+        copyTo(node);
+        node.value = getValue();
+        node.encrypted = isEncrypted();
+        return node;
+    }
 }
@@ -0,0 +1,650 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 19/10/20 11:40 AM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common.model.nodes;
+
+import com.codekutter.zconfig.common.model.Configuration;
+import com.codekutter.zconfig.common.model.ConfigurationSettings;
+import com.codekutter.zconfig.common.model.NodeState;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+
+import java.util.*;
+
+/**
+ * Compact storage for the value entries of Key/Value and Value List nodes.
+ * <p>
+ * Entries are stored as parallel arrays (names/values/flags) with an open
+ * addressing index on the names. Value nodes are not retained, they are
+ * created on demand as views that read/write through to the store and share
+ * the state of the owner node.
+ * <p>
+ * Note: Changes are not thread-safe, same as the Map/List storage it
+ * replaces. Concurrent reads are safe once loaded, the name index built on
+ * read is published through a volatile field.
+ */
+final class ConfigValueStore {
+    private static final byte FLAG_ENCRYPTED = 0x01;
+    private static final int DEFAULT_CAPACITY = 4;
+
+    /**
+     * Node the entries belong to.
+     */
+    private final AbstractConfigNode owner;
+    private String[] names;
+    private String[] values;
+    private byte[] flags;
+    private int size = 0;
+    /**
+     * Cached parsed values of the entries (paired with the value string they
+     * were parsed from), created on first use.
+     */
+    private volatile ConfigValueNode.ParsedValue[] parsed = null;
+    /**
+     * Name index : entry index + 1 (0 = empty slot), created on first lookup.
+     * Lookups can build the index on read, the index is published once
+     * built (read once per lookup).
+     */
+    private volatile int[] table = null;
+
+    /**
+     * Create an empty store for the specified owner node.
+     *
+     * @param owner - Owner node.
+     */
+    ConfigValueStore(AbstractConfigNode owner) {
+        this.owner = owner;
+        names = new String[DEFAULT_CAPACITY];
+        values = new String[DEFAULT_CAPACITY];
+        flags = new byte[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Check if the compact storage is enabled for the specified configuration.
+     *
+     * @param configuration - Configuration instance (can be NULL).
+     * @return - Is compact?
+     */
+    static boolean isEnabled(Configuration configuration) {
+        if (configuration != null) {
+            ConfigurationSettings settings = configuration.getSettings();
+            return (settings != null && settings.isCompactValues());
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    String name(int index) {
+        return names[index];
+    }
+
+    String value(int index) {
+        return values[index];
+    }
+
+    boolean isEncrypted(int index) {
+        return (flags[index] & FLAG_ENCRYPTED) != 0;
+    }
+
+    void setValue(int index, String value) {
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(value));
+        values[index] = owner.intern(value);
+        setParsed(index, null);
+    }
+
+    ConfigValueNode.ParsedValue getParsed(int index) {
+        ConfigValueNode.ParsedValue[] parsed = this.parsed;
+        return (parsed != null && index < parsed.length ? parsed[index] : null);
+    }
+
+    void setParsed(int index, ConfigValueNode.ParsedValue value) {
+        ConfigValueNode.ParsedValue[] parsed = this.parsed;
+        if (parsed == null) {
+            if (value == null) {
+                return;
+            }
+            parsed = new ConfigValueNode.ParsedValue[names.length];
+            this.parsed = parsed;
+        }
+        if (index < parsed.length) {
+            parsed[index] = value;
+        }
+    }
+
+    void setEncrypted(int index, boolean encrypted) {
+        if (encrypted) {
+            flags[index] |= FLAG_ENCRYPTED;
+        } else {
+            flags[index] &= ~FLAG_ENCRYPTED;
+        }
+    }
+
+    /**
+     * Get the index of the first entry with the specified name.
+     *
+     * @param name - Entry name.
+     * @return - Entry index or -1 if not found.
+     */
+    int indexOf(String name) {
+        if (name == null || size == 0) {
+            return -1;
+        }
+        int[] table = this.table;
+        if (table == null) {
+            table = rebuildTable();
+        }
+        int mask = table.length - 1;
+        for (int slot = hash(name) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            String current = names[entry - 1];
+            if (current == name || current.equals(name)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    /**
+     * Set the value of the entry with the specified name, the entry is
+     * appended if not present.
+     *
+     * @param name      - Entry name.
+     * @param value     - Entry value (can be NULL).
+     * @param encrypted - Is value encrypted?
+     * @return - Entry index.
+     */
+    int put(String name, String value, boolean encrypted) {
+        int index = indexOf(name);
+        if (index >= 0) {
+            values[index] = owner.intern(value);
+            flags[index] = encrypted ? FLAG_ENCRYPTED : 0;
+            setParsed(index, null);
+            return index;
+        }
+        return insert(size, name, value, encrypted);
+    }
+
+    /**
+     * Insert an entry at the specified index (duplicate names are allowed).
+     *
+     * @param index     - Index to insert at.
+     * @param name      - Entry name.
+     * @param value     - Entry value (can be NULL).
+     * @param encrypted - Is value encrypted?
+     * @return - Entry index.
+     */
+    int insert(int index, String name, String value, boolean encrypted) {
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(name));
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException(
+                    String.format("[index=%d][size=%d]", index, size));
+        }
+        if (size == names.length) {
+            int capacity = size + (size >> 1) + 1;
+            names = Arrays.copyOf(names, capacity);
+            values = Arrays.copyOf(values, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+        ConfigValueNode.ParsedValue[] parsed = this.parsed;
+        if (parsed != null) {
+            if (index < size) {
+                this.parsed = null;
+            } else if (parsed.length < names.length) {
+                this.parsed = Arrays.copyOf(parsed, names.length);
+            }
+        }
+        if (index < size) {
+            System.arraycopy(names, index, names, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            System.arraycopy(flags, index, flags, index + 1, size - index);
+        }
+        names[index] = owner.intern(name);
+        values[index] = owner.intern(value);
+        flags[index] = encrypted ? FLAG_ENCRYPTED : 0;
+        size++;
+        int[] table = this.table;
+        if (table != null) {
+            if (index == size - 1 && size * 2 <= table.length) {
+                addToTable(table, index);
+            } else {
+                this.table = null;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Remove the entry at the specified index.
+     *
+     * @param index - Entry index.
+     */
+    void remove(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(
+                    String.format("[index=%d][size=%d]", index, size));
+        }
+        int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(names, index + 1, names, index, moved);
+            System.arraycopy(values, index + 1, values, index, moved);
+            System.arraycopy(flags, index + 1, flags, index, moved);
+        }
+        size--;
+        names[size] = null;
+        values[size] = null;
+        flags[size] = 0;
+        table = null;
+        parsed = null;
+    }
+
+    /**
+     * Remove all the entries.
+     */
+    void clear() {
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        Arrays.fill(flags, 0, size, (byte) 0);
+        size = 0;
+        table = null;
+        parsed = null;
+    }
+
+    /**
+     * Create a copy of the entries for the specified owner node.
+     *
+     * @param owner - Owner node of the copy.
+     * @return - Copied store.
+     */
+    ConfigValueStore copy(AbstractConfigNode owner) {
+        ConfigValueStore store = new ConfigValueStore(owner);
+        int capacity = Math.max(size, DEFAULT_CAPACITY);
+        store.names = Arrays.copyOf(names, capacity);
+        store.values = Arrays.copyOf(values, capacity);
+        store.flags = Arrays.copyOf(flags, capacity);
+        store.size = size;
+        int[] table = this.table;
+        if (table != null) {
+            store.table = Arrays.copyOf(table, table.length);
+        }
+        return store;
+    }
+
+    /**
+     * Get the value node (view) for the entry at the specified index.
+     *
+     * @param index - Entry index.
+     * @return - Value node.
+     */
+    ConfigValueNode view(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(
+                    String.format("[index=%d][size=%d]", index, size));
+        }
+        return new View(this, index);
+    }
+
+    /**
+     * Get a detached value node with the current name/value of the entry at the
+     * specified index.
+     *
+     * @param index - Entry index.
+     * @return - Value node.
+     */
+    private ConfigValueNode detach(int index) {
+        ConfigValueNode node =
+                new ConfigValueNode(owner.getConfiguration(), owner);
+        node.setName(names[index]);
+        if (!Strings.isNullOrEmpty(values[index])) {
+            node.setValue(values[index]);
+        }
+        node.setEncrypted(isEncrypted(index));
+        return node;
+    }
+
+    /**
+     * Get the index of the entry the specified node is a view of, or the
+     * first entry with the same name/value for other value nodes.
+     *
+     * @param node - Value node.
+     * @return - Entry index or -1.
+     */
+    private int indexOf(Object node) {
+        if (node instanceof View && ((View) node).store == this) {
+            return ((View) node).resolve();
+        } else if (node instanceof ConfigValueNode) {
+            ConfigValueNode vn = (ConfigValueNode) node;
+            for (int ii = 0; ii < size; ii++) {
+                if (Objects.equals(names[ii], vn.getName()) &&
+                        Objects.equals(values[ii], vn.getValue())) {
+                    return ii;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Build and publish the name index for the current entries.
+     *
+     * @return - Name index.
+     */
+    private int[] rebuildTable() {
+        int capacity = Integer.highestOneBit(Math.max(size, 2) * 2 - 1) << 1;
+        int[] table = new int[capacity];
+        for (int ii = 0; ii < size; ii++) {
+            addToTable(table, ii);
+        }
+        this.table = table;
+        return table;
+    }
+
+    private void addToTable(int[] table, int index) {
+        int mask = table.length - 1;
+        int slot = hash(names[index]) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index + 1;
+    }
+
+    private static int hash(String name) {
+        int h = name.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Get a Map view (by entry name) of this store.
+     *
+     * @return - Map view.
+     */
+    Map<String, ConfigValueNode> asMap() {
+        return new MapView();
+    }
+
+    /**
+     * Get a List view (by entry index) of this store.
+     *
+     * @return - List view.
+     */
+    List<ConfigValueNode> asList() {
+        return new ListView();
+    }
+
+    /**
+     * Value node backed by a store entry. The entry is tracked by name, the
+     * index is re-resolved if entries have been inserted/removed.
+     */
+    private static final class View extends ConfigValueNode {
+        private final ConfigValueStore store;
+        private int index;
+
+        private View(ConfigValueStore store, int index) {
+            super(store.owner.getConfiguration(), store.owner,
+                  store.names[index], store.owner.getState());
+            this.store = store;
+            this.index = index;
+        }
+
+        /**
+         * Get the current index of the entry.
+         *
+         * @return - Entry index or -1 if the entry has been removed.
+         */
+        private int resolve() {
+            if (index < 0 || index >= store.size ||
+                    store.names[index] != getName()) {
+                index = store.indexOf(getName());
+            }
+            return index;
+        }
+
+        private int entry() {
+            int index = resolve();
+            if (index < 0) {
+                throw new IllegalStateException(String.format(
+                        "Value entry has been removed. [path=%s]",
+                        getAbsolutePath()));
+            }
+            return index;
+        }
+
+        @Override
+        public String getValue() {
+            int index = resolve();
+            return (index >= 0 ? store.values[index] : null);
+        }
+
+        @Override
+        public void setValue(String value) {
+            checkMutable();
+            store.setValue(entry(), value);
+        }
+
+        @Override
+        public boolean isEncrypted() {
+            int index = resolve();
+            return (index >= 0 && store.isEncrypted(index));
+        }
+
+        @Override
+        public void setEncrypted(boolean encrypted) {
+            checkMutable();
+            store.setEncrypted(entry(), encrypted);
+        }
+
+        @Override
+        ParsedValue getParsedValue() {
+            int index = resolve();
+            return (index >= 0 ? store.getParsed(index) : null);
+        }
+
+        @Override
+        void setParsedValue(ParsedValue parsedValue) {
+            int index = resolve();
+            if (index >= 0) {
+                store.setParsed(index, parsedValue);
+            }
+        }
+
+        @Override
+        public NodeState getState() {
+            return store.owner.getState();
+        }
+    }
+
+    /**
+     * Map (by name) view of the entries.
+     */
+    private final class MapView extends AbstractMap<String, ConfigValueNode> {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return (key instanceof String && indexOf((String) key) >= 0);
+        }
+
+        @Override
+        public ConfigValueNode get(Object key) {
+            if (key instanceof String) {
+                int index = indexOf((String) key);
+                if (index >= 0) {
+                    return view(index);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public ConfigValueNode put(String key, ConfigValueNode node) {
+            Preconditions.checkArgument(node != null);
+            int index = indexOf(key);
+            ConfigValueNode prev = (index >= 0 ? detach(index) : null);
+            ConfigValueStore.this.put(key, node.getValue(), node.isEncrypted());
+            return prev;
+        }
+
+        @Override
+        public ConfigValueNode remove(Object key) {
+            if (key instanceof String) {
+                int index = indexOf((String) key);
+                if (index >= 0) {
+                    ConfigValueNode prev = detach(index);
+                    ConfigValueStore.this.remove(index);
+                    return prev;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void clear() {
+            ConfigValueStore.this.clear();
+        }
+
+        @Override
+        public Set<Entry<String, ConfigValueNode>> entrySet() {
+            return new AbstractSet<Entry<String, ConfigValueNode>>() {
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public Iterator<Entry<String, ConfigValueNode>> iterator() {
+                    return new Iterator<Entry<String, ConfigValueNode>>() {
+                        private int next = 0;
+                        private int last = -1;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < size;
+                        }
+
+                        @Override
+                        public Entry<String, ConfigValueNode> next() {
+                            if (next >= size) {
+                                throw new NoSuchElementException();
+                            }
+                            last = next++;
+                            return new SimpleImmutableEntry<>(names[last],
+                                                              view(last));
+                        }
+
+                        @Override
+                        public void remove() {
+                            if (last < 0) {
+                                throw new IllegalStateException();
+                            }
+                            ConfigValueStore.this.remove(last);
+                            next = last;
+                            last = -1;
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    /**
+     * List (by index) view of the entries.
+     */
+    private final class ListView extends AbstractList<ConfigValueNode>
+            implements RandomAccess {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public ConfigValueNode get(int index) {
+            return view(index);
+        }
+
+        @Override
+        public ConfigValueNode set(int index, ConfigValueNode node) {
+            Preconditions.checkArgument(node != null);
+            ConfigValueNode prev = detach(index);
+            if (names[index].compareTo(node.getName()) == 0) {
+                values[index] = owner.intern(node.getValue());
+                setEncrypted(index, node.isEncrypted());
+                setParsed(index, null);
+            } else {
+                ConfigValueStore.this.remove(index);
+                insert(index, node.getName(), node.getValue(),
+                       node.isEncrypted());
+            }
+            return prev;
+        }
+
+        @Override
+        public void add(int index, ConfigValueNode node) {
+            Preconditions.checkArgument(node != null);
+            insert(index, node.getName(), node.getValue(), node.isEncrypted());
+            modCount++;
+        }
+
+        @Override
+        public ConfigValueNode remove(int index) {
+            ConfigValueNode prev = detach(index);
+            ConfigValueStore.this.remove(index);
+            modCount++;
+            return prev;
+        }
+
+        @Override
+        public int indexOf(Object node) {
+            return ConfigValueStore.this.indexOf(node);
+        }
+
+        @Override
+        public boolean contains(Object node) {
+            return indexOf(node) >= 0;
+        }
+
+        @Override
+        public boolean remove(Object node) {
+            int index = indexOf(node);
+            if (index >= 0) {
+                ConfigValueStore.this.remove(index);
+                modCount++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void clear() {
+            ConfigValueStore.this.clear();
+            modCount++;
+        }
+    }
+}
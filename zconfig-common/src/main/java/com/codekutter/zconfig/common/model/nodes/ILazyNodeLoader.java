@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 18/10/20 10:15 AM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common.model.nodes;
+
+import com.codekutter.zconfig.common.ConfigurationException;
+
+/**
+ * Interface to load the deferred child nodes of a lazily loaded path node.
+ */
+public interface ILazyNodeLoader {
+    /**
+     * Parse and add the child nodes to the specified path node. Loaders are
+     * expected to apply the post-load steps (variable replacement, validation)
+     * to the loaded sub-tree.
+     *
+     * @param node - Path node to load the children of.
+     * @throws ConfigurationException
+     */
+    void load(ConfigPathNode node) throws ConfigurationException;
+}
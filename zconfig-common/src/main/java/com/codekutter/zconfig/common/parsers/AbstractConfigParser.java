@@ -25,23 +25,69 @@
 package com.codekutter.zconfig.common.parsers;
 
 import com.codekutter.zconfig.common.ConfigurationException;
-import com.codekutter.zconfig.common.VariableRegexParser;
+import com.codekutter.zconfig.common.LogUtils;
+import com.codekutter.zconfig.common.StringPool;
+import com.codekutter.zconfig.common.VariableTemplate;
 import com.codekutter.zconfig.common.model.Configuration;
 import com.codekutter.zconfig.common.model.ConfigurationSettings;
+import com.codekutter.zconfig.common.model.PropertyScope;
 import com.codekutter.zconfig.common.model.Version;
 import com.codekutter.zconfig.common.model.nodes.*;
 import com.codekutter.zconfig.common.readers.AbstractConfigReader;
 import com.google.common.base.Strings;
 
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Abstract base class for defining configuration parsers.
  */
 public abstract class AbstractConfigParser implements Closeable {
+    /**
+     * Max number of included configurations/remote resources resolved
+     * concurrently (shared by all parser instances).
+     */
+    public static final int MAX_RESOLVER_THREADS = 8;
+
+    /**
+     * Value recorded for referenced variables that are not defined.
+     */
+    public static final String NULL_REFERENCE = "\u0000";
+
+    /**
+     * Shared executor used to resolve included configurations and remote
+     * resources while the parse continues.
+     */
+    private static final ThreadPoolExecutor resolver = createResolver();
+
+    /**
+     * Pending resolutions, in the order they were defined in the configuration.
+     */
+    private final List<PendingResolution<?>> pending = new ArrayList<>();
+
+    /**
+     * System property/environment values looked up during the post load
+     * (reset for each parse).
+     */
+    private Map<String, String> environment = null;
+
+    /**
+     * System property/environment values substituted by this parser (NULL
+     * value if not defined), used to revalidate cached copies.
+     */
+    private final Map<String, String> references = new ConcurrentHashMap<>();
+
+    /**
+     * Does the parsed configuration include other configurations?
+     */
+    private volatile boolean includes = false;
+
     /**
      * Configuration settings to be used by this parser.
      */
@@ -52,6 +98,11 @@ public abstract class AbstractConfigParser implements Closeable {
      */
     protected Configuration configuration;
 
+    /**
+     * String pool to de-duplicate the node names/values (optional).
+     */
+    protected StringPool stringPool = null;
+
     /**
      * Get the handle to the parsed configuration.
      *
@@ -61,6 +112,25 @@ public abstract class AbstractConfigParser implements Closeable {
         return configuration;
     }
 
+    /**
+     * Get the string pool used to de-duplicate the node names/values.
+     *
+     * @return - String pool or NULL.
+     */
+    public StringPool getStringPool() {
+        return stringPool;
+    }
+
+    /**
+     * Set the string pool used to de-duplicate the node names/values of the
+     * parsed configurations.
+     *
+     * @param stringPool - String pool.
+     */
+    public void setStringPool(StringPool stringPool) {
+        this.stringPool = stringPool;
+    }
+
     /**
      * Method to be called post loading of the configuration.
      * <p>
@@ -71,8 +141,11 @@ public abstract class AbstractConfigParser implements Closeable {
     protected void doPostLoad() throws ConfigurationException {
         ConfigPathNode node = configuration.getRootConfigNode();
         if (node != null) {
-            Map<String, ConfigValueNode> properties = new HashMap<>();
-            nodePostLoad(node, properties);
+            try {
+                nodePostLoad(node, PropertyScope.EMPTY);
+            } finally {
+                environment = null;
+            }
         }
         // Validate the configuration
         configuration.getRootConfigNode().validate();
@@ -80,33 +153,56 @@ public abstract class AbstractConfigParser implements Closeable {
         configuration.loaded();
     }
 
+    /**
+     * Method to be called post loading the deferred children of a lazily
+     * loaded path node. Variables are replaced using the property scope of
+     * the node path, the loaded sub-tree is then validated and marked as loaded.
+     *
+     * @param node - Path node the children were loaded for.
+     * @throws ConfigurationException
+     */
+    protected void doPostLoad(ConfigPathNode node) throws ConfigurationException {
+        PropertyScope scope = PropertyScope.EMPTY;
+        if (node.getParent() != null) {
+            scope = configuration.propertyScope(node.getParent());
+        }
+        try {
+            nodePostLoad(node, scope);
+        } finally {
+            environment = null;
+        }
+        node.validate();
+        node.loaded();
+    }
+
     /**
      * Replace variable values with the scoped property sets.
+     * <p>
+     * Property scopes are chained, a new scope frame is only created for path
+     * nodes that define properties.
      *
-     * @param node       - Node to preform replacement on.
-     * @param inputProps - Input Property set.
+     * @param node  - Node to preform replacement on.
+     * @param scope - Enclosing property scope.
      * @throws ConfigurationException
      */
-    private void nodePostLoad(AbstractConfigNode node,
-                              Map<String, ConfigValueNode> inputProps)
+    private void nodePostLoad(AbstractConfigNode node, PropertyScope scope)
     throws ConfigurationException {
-        Map<String, ConfigValueNode> properties = new HashMap<>(inputProps);
         if (node instanceof ConfigPathNode) {
             // Get defined properties, if any.
             ConfigPathNode cp = (ConfigPathNode) node;
-            ConfigPropertiesNode props = cp.properties();
-            if (props != null) {
-                Map<String, ConfigValueNode> pp = props.getKeyValues();
-                if (pp != null && !pp.isEmpty()) {
-                    properties.putAll(pp);
-                }
-            }
+            PropertyScope nscope = scope.push(cp);
 
-            // Do property replacement for all child nodes.
+            // Do property replacement for all child nodes, deferred (lazy)
+            // nodes are processed when loaded.
             Map<String, AbstractConfigNode> nodes = cp.getChildren();
             if (nodes != null && !nodes.isEmpty()) {
                 for (String key : nodes.keySet()) {
-                    nodePostLoad(nodes.get(key), properties);
+                    AbstractConfigNode cn = nodes.get(key);
+                    if (cn instanceof ConfigPathNode &&
+                            !((ConfigPathNode) cn).isMaterialized()) {
+                        continue;
+                    }
+                    nodePostLoad(cn, nscope);
                 }
             }
         } else if (node instanceof ConfigKeyValueNode) {
@@ -116,7 +212,7 @@ public abstract class AbstractConfigParser implements Closeable {
             for (String key : pp.keySet()) {
                 String value = pp.get(key).getValue();
                 if (!Strings.isNullOrEmpty(value)) {
-                    String nValue = replaceVariables(value, properties);
+                    String nValue = replaceVariables(value, scope);
                     if (value.compareTo(nValue) != 0) {
                         params.addKeyValue(key, nValue);
                     }
@@ -127,7 +223,7 @@ public abstract class AbstractConfigParser implements Closeable {
             List<ConfigElementNode> nodes = le.getValues();
             if (nodes != null && !nodes.isEmpty()) {
                 for (ConfigElementNode nn : nodes) {
-                    nodePostLoad(nn, properties);
+                    nodePostLoad(nn, scope);
                 }
             }
         } else if (node instanceof ConfigListValueNode) {
@@ -135,14 +231,14 @@ public abstract class AbstractConfigParser implements Closeable {
             List<ConfigValueNode> nodes = le.getValues();
             if (nodes != null && !nodes.isEmpty()) {
                 for (ConfigValueNode nn : nodes) {
-                    nodePostLoad(nn, properties);
+                    nodePostLoad(nn, scope);
                 }
             }
         } else if (node instanceof ConfigValueNode) {
             ConfigValueNode cv = (ConfigValueNode) node;
             String value = cv.getValue();
             if (!Strings.isNullOrEmpty(value)) {
-                String nValue = replaceVariables(value, properties);
+                String nValue = replaceVariables(value, scope);
                 if (value.compareTo(nValue) != 0) {
                     cv.setValue(nValue);
                 }
@@ -152,40 +248,286 @@ public abstract class AbstractConfigParser implements Closeable {
 
     /**
      * Replace all the variables, if any, defined in the value string with the property values specified.
+     * <p>
+     * Variables not defined in the property set are looked up in the system
+     * properties and then in the environment (lookups are memoized per parse).
      *
-     * @param value      - Value String to replace variables in.
-     * @param properties - Property Map to lookup variable values.
+     * @param value - Value String to replace variables in.
+     * @param scope - Property scope to lookup variable values.
      * @return - Replaced String
      */
-    private String replaceVariables(String value,
-                                    Map<String, ConfigValueNode> properties) {
-        if (!Strings.isNullOrEmpty(value)) {
-            if (VariableRegexParser.hasVariable(value)) {
-                List<String> vars = VariableRegexParser.getVariables(value);
-                if (vars != null && !vars.isEmpty()) {
-                    for (String var : vars) {
-                        ConfigValueNode vn = properties.get(var);
-                        if (vn != null) {
-                            String vv = vn.getValue();
-                            if (!Strings.isNullOrEmpty(vv)) {
-                                String rv = String.format("\\$\\{%s\\}", var);
-                                value = value.replaceAll(rv, vv);
-                            }
-                        } else {
-                            String vv = System.getProperty(var);
-                            if (Strings.isNullOrEmpty(vv)) {
-                                vv = System.getenv(var);
-                            }
-                            if (!Strings.isNullOrEmpty(vv)) {
-                                String rv = String.format("\\$\\{%s\\}", var);
-                                value = value.replaceAll(rv, vv);
-                            }
-                        }
-                    }
+    private String replaceVariables(String value, PropertyScope scope) {
+        if (Strings.isNullOrEmpty(value)) {
+            return value;
+        }
+        VariableTemplate template = VariableTemplate.compile(value);
+        if (!template.hasVariables()) {
+            return value;
+        }
+        return template.resolve((var) -> {
+            ConfigValueNode vn = scope.get(var);
+            if (vn != null) {
+                return vn.getValue();
+            }
+            return environment(var);
+        });
+    }
+
+    /**
+     * Get the value of the variable from the system properties/environment.
+     *
+     * @param var - Variable name.
+     * @return - Variable value or NULL if not defined.
+     */
+    private String environment(String var) {
+        if (environment == null) {
+            environment = new HashMap<>();
+        }
+        if (environment.containsKey(var)) {
+            return environment.get(var);
+        }
+        String vv = getEnvironmentValue(var);
+        environment.put(var, vv);
+        references.put(var, (vv != null ? vv : NULL_REFERENCE));
+        return vv;
+    }
+
+    /**
+     * Get the value of the variable from the system properties, or the
+     * environment if not set as a system property.
+     *
+     * @param var - Variable name.
+     * @return - Variable value or NULL if not defined.
+     */
+    public static String getEnvironmentValue(String var) {
+        String vv = System.getProperty(var);
+        if (Strings.isNullOrEmpty(vv)) {
+            vv = System.getenv(var);
+        }
+        return vv;
+    }
+
+    /**
+     * Get the system property/environment values substituted into the
+     * configuration(s) parsed by this parser. Undefined variables are
+     * mapped to NULL_REFERENCE.
+     *
+     * @return - Map of variable name to value.
+     */
+    public Map<String, String> getEnvironmentReferences() {
+        return Collections.unmodifiableMap(references);
+    }
+
+    /**
+     * Check if the configuration(s) parsed by this parser include other
+     * configurations.
+     *
+     * @return - Has includes?
+     */
+    public boolean hasIncludes() {
+        return includes;
+    }
+
+    /**
+     * Mark the parsed configuration as including another configuration.
+     */
+    protected void included() {
+        includes = true;
+    }
+
+    /**
+     * Resolve the specified task (include/remote resource fetch) on the shared
+     * resolver, the handler is invoked on the parsing thread when the pending
+     * resolutions are joined (see awaitResolutions()).
+     * <p>
+     * Tasks submitted from a resolver thread (nested includes) are run inline,
+     * so that nested parses cannot starve the bounded resolver.
+     *
+     * @param task    - Task to fetch/load the resource.
+     * @param handler - Handler to attach the fetched result.
+     * @param <T>     - Result type.
+     * @throws ConfigurationException
+     */
+    protected <T> void resolve(Callable<T> task, ResolutionHandler<T> handler)
+    throws ConfigurationException {
+        if (Thread.currentThread() instanceof ResolverThread) {
+            try {
+                handler.resolved(task.call());
+            } catch (ConfigurationException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ConfigurationException(e);
+            }
+        } else {
+            pending.add(new PendingResolution<>(resolver.submit(task), handler));
+        }
+    }
+
+    /**
+     * Wait for all the pending resolutions to complete, and attach the results
+     * in the order they were defined.
+     * <p>
+     * All the pending tasks are joined (in definition order) before any result
+     * is attached, the results are then attached in definition order up to the
+     * first failure. The error raised is the first failure in definition order
+     * (failed task or failed attach), independent of the order the tasks
+     * complete in, other task failures are added as suppressed exceptions.
+     *
+     * @throws ConfigurationException
+     */
+    protected void awaitResolutions() throws ConfigurationException {
+        ConfigurationException error = null;
+        try {
+            List<ConfigurationException> failures = new ArrayList<>(pending.size());
+            for (PendingResolution<?> pr : pending) {
+                failures.add(pr.join());
+            }
+            for (int ii = 0; ii < pending.size(); ii++) {
+                ConfigurationException ce = failures.get(ii);
+                if (error == null && ce == null) {
+                    ce = pending.get(ii).attach();
+                }
+                if (ce == null) {
+                    continue;
+                }
+                if (error == null) {
+                    error = ce;
+                } else {
+                    error.addSuppressed(ce);
                 }
             }
+        } finally {
+            pending.clear();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Cancel any pending resolutions (parse failed before the resolutions were
+     * joined).
+     */
+    protected void cancelResolutions() {
+        if (!pending.isEmpty()) {
+            for (PendingResolution<?> pr : pending) {
+                pr.future.cancel(true);
+            }
+            LogUtils.debug(getClass(), String.format(
+                    "Cancelled pending resolutions. [count=%d]", pending.size()));
+            pending.clear();
+        }
+    }
+
+    /**
+     * Get the configuration exception for a failed resolution.
+     *
+     * @param e - Exception raised.
+     * @return - Configuration Exception.
+     */
+    private static ConfigurationException unwrap(Exception e) {
+        Throwable t = e;
+        if (t instanceof ExecutionException && t.getCause() != null) {
+            t = t.getCause();
+        }
+        if (t instanceof ConfigurationException) {
+            return (ConfigurationException) t;
+        }
+        if (t instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        return new ConfigurationException(t);
+    }
+
+    /**
+     * Create the shared resolver executor. Threads are daemon threads and are
+     * released when idle.
+     *
+     * @return - Resolver executor.
+     */
+    private static ThreadPoolExecutor createResolver() {
+        final AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor =
+                new ThreadPoolExecutor(MAX_RESOLVER_THREADS, MAX_RESOLVER_THREADS,
+                                       30, TimeUnit.SECONDS,
+                                       new LinkedBlockingQueue<>(),
+                                       (r) -> new ResolverThread(r, String.format(
+                                               "zconfig-resolver-%d",
+                                               count.incrementAndGet())));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Handler invoked on the parsing thread with the resolved result.
+     *
+     * @param <T> - Result type.
+     */
+    @FunctionalInterface
+    protected interface ResolutionHandler<T> {
+        /**
+         * Attach the resolved result.
+         *
+         * @param value - Resolved result.
+         * @throws ConfigurationException
+         */
+        void resolved(T value) throws ConfigurationException;
+    }
+
+    /**
+     * Submitted resolution task and the handler for its result.
+     *
+     * @param <T> - Result type.
+     */
+    private static final class PendingResolution<T> {
+        private final Future<T> future;
+        private final ResolutionHandler<T> handler;
+        private T result;
+
+        private PendingResolution(Future<T> future, ResolutionHandler<T> handler) {
+            this.future = future;
+            this.handler = handler;
+        }
+
+        /**
+         * Wait for the task to complete.
+         *
+         * @return - Task failure or NULL if completed.
+         */
+        private ConfigurationException join() {
+            try {
+                result = future.get();
+                return null;
+            } catch (Exception e) {
+                return unwrap(e);
+            }
+        }
+
+        /**
+         * Attach the task result.
+         *
+         * @return - Attach failure or NULL if attached.
+         */
+        private ConfigurationException attach() {
+            try {
+                handler.resolved(result);
+                return null;
+            } catch (ConfigurationException e) {
+                return e;
+            } catch (RuntimeException e) {
+                return new ConfigurationException(e);
+            }
+        }
+    }
+
+    /**
+     * Thread type used by the resolver executor.
+     */
+    private static final class ResolverThread extends Thread {
+        private ResolverThread(Runnable runnable, String name) {
+            super(runnable, name);
+            setDaemon(true);
         }
-        return value;
     }
 
     /**
@@ -29,13 +29,16 @@ import com.codekutter.zconfig.common.model.*;
 import com.codekutter.zconfig.common.model.nodes.*;
 import com.codekutter.zconfig.common.readers.EReaderType;
 import com.codekutter.zconfig.common.utils.CypherUtils;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeType;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
 import com.codekutter.zconfig.common.readers.AbstractConfigReader;
 import com.codekutter.zconfig.common.utils.IOUtils;
 import com.codekutter.zconfig.common.utils.RemoteFileHelper;
@@ -43,19 +46,36 @@ import com.codekutter.zconfig.common.utils.RemoteFileHelper;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Paths;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Configuration Parser implementation that reads the configuration from a JSON file.
+ * <p>
+ * By default the configuration nodes are built directly from the JSON token stream
+ * (see ConfigurationSettings.EParseMode), only the header, include and resource
+ * definitions are read as (small) JSON trees. In the Lazy mode the top-level
+ * branches are only scanned on load and parsed on first access.
  */
 public class JSONConfigParser extends AbstractConfigParser {
+    /**
+     * Shared object mapper, mapper instances are thread-safe once configured.
+     */
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private Set<JsonNode> processedNodes = null;
 
-    private Map<Integer, JsonNode> processedNodes = null;
+    /**
+     * Source bytes being parsed in the Lazy mode (only set during the parse).
+     */
+    private byte[] lazySource = null;
 
     /**
      * Parse the configuration from the JSON file specified in the properties.
@@ -127,33 +147,57 @@ public class JSONConfigParser extends AbstractConfigParser {
         Preconditions.checkArgument(reader != null);
         Preconditions.checkArgument(version != null);
 
-        if (processedNodes == null) {
-            processedNodes = new HashMap<>();
-        }
-
         try {
             if (!reader.isOpen()) {
                 reader.open();
             }
 
-            try (BufferedReader br = reader.getBufferedStream()) {
-                ObjectMapper mapper = new ObjectMapper();
-                JsonNode rootNode = mapper.readTree(br);
-
-                if (settings != null) {
-                    this.settings = settings;
-                } else {
-                    this.settings = new ConfigurationSettings();
+            if (settings != null) {
+                this.settings = settings;
+            } else {
+                this.settings = new ConfigurationSettings();
+            }
+            if (this.settings.getParseMode() ==
+                    ConfigurationSettings.EParseMode.Lazy) {
+                // The source is retained, deferred branches are parsed from
+                // their byte range on first access.
+                try (InputStream stream = reader.getInputStream()) {
+                    lazySource = ByteStreams.toByteArray(stream);
                 }
-                parse(name, version, rootNode, password);
-
-                if (!Strings.isNullOrEmpty(configuration.getEncryptionHash())) {
-                    ZConfigEnv.getVault().addPasscode(configuration, password);
+                try (JsonParser parser = mapper.getFactory()
+                                               .createParser(lazySource)) {
+                    parse(name, version, parser, password);
+                } finally {
+                    lazySource = null;
+                }
+            } else {
+                try (BufferedReader br = reader.getBufferedStream()) {
+                    if (this.settings.getParseMode() ==
+                            ConfigurationSettings.EParseMode.Streaming) {
+                        try (JsonParser parser = mapper.getFactory()
+                                                       .createParser(br)) {
+                            parse(name, version, parser, password);
+                        }
+                    } else {
+                        if (processedNodes == null) {
+                            processedNodes = Collections.newSetFromMap(
+                                    new IdentityHashMap<>());
+                        }
+                        JsonNode rootNode = mapper.readTree(br);
+                        parse(name, version, rootNode, password);
+                    }
                 }
+            }
+
+            // Wait for included configurations/remote resources.
+            awaitResolutions();
 
-                // Call the load finish handler.
-                doPostLoad();
+            if (!Strings.isNullOrEmpty(configuration.getEncryptionHash())) {
+                ZConfigEnv.getVault().addPasscode(configuration, password);
             }
+
+            // Call the load finish handler.
+            doPostLoad();
         } catch (JsonProcessingException e) {
             if (configuration != null)
                 configuration.getState().setError(e);
@@ -170,6 +214,8 @@ public class JSONConfigParser extends AbstractConfigParser {
             if (configuration != null)
                 configuration.getState().setError(e);
             throw new ConfigurationException(e);
+        } finally {
+            cancelResolutions();
         }
     }
 
@@ -180,12 +226,10 @@ public class JSONConfigParser extends AbstractConfigParser {
      * @return - Is processed?
      */
     private boolean isProcessed(JsonNode node) {
-        int hashCode = System.identityHashCode(node);
-        if (processedNodes.containsKey(hashCode)) {
-            return true;
+        if (processedNodes == null) {
+            return false;
         }
-        processedNodes.put(hashCode, node);
-        return false;
+        return !processedNodes.add(node);
     }
 
     /**
@@ -200,6 +244,7 @@ public class JSONConfigParser extends AbstractConfigParser {
                                     Version version, JsonNode node, String password)
     throws ConfigurationException {
         configuration = new Configuration(settings);
+        configuration.setStringPool(stringPool);
         configuration.getState().setState(ENodeState.Loading);
         configuration.setName(name);
 
@@ -212,6 +257,376 @@ public class JSONConfigParser extends AbstractConfigParser {
         configuration.getRootConfigNode().updateState(ENodeState.Synced);
     }
 
+    /**
+     * Parse the configuration from the specified JSON token stream. Configuration
+     * nodes are created as the tokens are read, the JSON document is not
+     * materialized.
+     *
+     * @param name    - Expected Configuration name.
+     * @param version - Expected Compatible version.
+     * @param parser  - JSON token stream.
+     * @throws ConfigurationException
+     */
+    private synchronized void parse(String name,
+                                    Version version, JsonParser parser,
+                                    String password)
+    throws ConfigurationException {
+        configuration = new Configuration(settings);
+        configuration.setStringPool(stringPool);
+        configuration.getState().setState(ENodeState.Loading);
+        configuration.setName(name);
+
+        try {
+            JsonToken token = parser.nextToken();
+            if (token != JsonToken.START_OBJECT) {
+                throw new ConfigurationException(String.format(
+                        "Invalid Configuration : [expected=%s][actual=%s]",
+                        JsonNodeType.OBJECT.name(), nodeType(token).name()));
+            }
+            boolean hasHeader = false;
+            boolean hasBody = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String nname = parser.getCurrentName();
+                token = parser.nextToken();
+                if (nname.compareTo(JSONConfigConstants.CONFIG_HEADER_NODE) == 0) {
+                    readHeader(mapper.readTree(parser), version, password);
+                    hasHeader = true;
+                } else if (!hasBody) {
+                    streamConfiguration(nname, token, parser, password);
+                    hasBody = true;
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (!hasHeader) {
+                throw ConfigurationException
+                        .propertyNotFoundException(
+                                JSONConfigConstants.CONFIG_HEADER_NODE);
+            }
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+
+        configuration.getRootConfigNode().updateState(ENodeState.Synced);
+    }
+
+    /**
+     * Read the root configuration node and then the child nodes from the
+     * token stream.
+     *
+     * @param name   - Name of the root node.
+     * @param token  - Current token.
+     * @param parser - JSON token stream.
+     * @throws ConfigurationException
+     */
+    private void streamConfiguration(String name, JsonToken token,
+                                     JsonParser parser, String password)
+    throws ConfigurationException, IOException {
+        if (token != JsonToken.START_OBJECT) {
+            throw new ConfigurationException(String.format(
+                    "Invalid Configuration Node : [expected=%s][actual=%s]",
+                    JsonNodeType.OBJECT.name(), nodeType(token).name()));
+        }
+        // Read the root configuration node.
+        ConfigPathNode rootConfigNode = new ConfigPathNode(configuration, null);
+        rootConfigNode.setName(name);
+        rootConfigNode.loading();
+
+        configuration.setRootConfigNode(rootConfigNode);
+
+        // Read the child nodes.
+        streamChildNodes(rootConfigNode, parser, password);
+    }
+
+    /**
+     * Read the fields of the current JSON object and add them as child config
+     * nodes.
+     *
+     * @param parent - Config node to add children to.
+     * @param parser - JSON token stream (positioned at the object start).
+     * @throws ConfigurationException
+     */
+    private void streamChildNodes(AbstractConfigNode parent, JsonParser parser,
+                                  String password)
+    throws ConfigurationException, IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            streamNode(name, token, parent, parser, password);
+        }
+    }
+
+    /**
+     * Create a configuration element for the current token.
+     *
+     * @param name   - Element name
+     * @param token  - Current token.
+     * @param parent - Parent configuration node.
+     * @param parser - JSON token stream.
+     * @throws ConfigurationException
+     */
+    private void streamNode(String name, JsonToken token,
+                            AbstractConfigNode parent, JsonParser parser,
+                            String password)
+    throws ConfigurationException, IOException {
+        if (token == JsonToken.START_OBJECT) {
+            streamObjectNode(name, parent, parser, password);
+        } else if (token == JsonToken.VALUE_STRING) {
+            addStringValue(name, parser.getText(), parent);
+        } else if (token == JsonToken.START_ARRAY) {
+            streamArrayNode(name, parent, parser, password);
+        }
+    }
+
+    /**
+     * Read the elements of the current JSON array.
+     *
+     * @param name   - Name of the node.
+     * @param parent - Parent Config Node.
+     * @param parser - JSON token stream (positioned at the array start).
+     * @throws ConfigurationException
+     */
+    private void streamArrayNode(String name, AbstractConfigNode parent,
+                                 JsonParser parser, String password)
+    throws ConfigurationException, IOException {
+        JsonNodeType type = null;
+        AbstractConfigNode listNode = null;
+        int index = 0;
+
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            JsonNodeType ct = nodeType(token);
+            if (type == null) {
+                type = ct;
+                // Array element types must be consistent, the list type is
+                // determined by the first element.
+                if (type == JsonNodeType.STRING) {
+                    listNode = new ConfigListValueNode(configuration, parent);
+                } else if (type == JsonNodeType.OBJECT) {
+                    listNode = new ConfigListElementNode(configuration, parent);
+                } else {
+                    throw new ConfigurationException(String.format(
+                            "Unsupported Array element type. [type=%s]",
+                            type.name()));
+                }
+                setupNode(name, listNode, parent);
+            } else if (ct != type) {
+                throw new ConfigurationException(String.format(
+                        "Invalid Array Element : [expected type=%s][actual type=%s]",
+                        type.name(), ct.name()));
+            }
+            streamNode(String.valueOf(index), token, listNode, parser, password);
+            index++;
+        }
+    }
+
+    /**
+     * Read the current JSON object and create the config node.
+     * <p>
+     * Include and resource definitions are read as JSON trees. Other objects are
+     * read as path nodes, which are only attached to the parent once the object
+     * has been read, as the object might turn out to be an encrypted value.
+     * In the Lazy mode, top-level path nodes are deferred.
+     *
+     * @param name   - Config Node name.
+     * @param parent - Parent config node.
+     * @param parser - JSON token stream (positioned at the object start).
+     * @throws ConfigurationException
+     */
+    private void streamObjectNode(String name, AbstractConfigNode parent,
+                                  JsonParser parser, String password)
+    throws ConfigurationException, IOException {
+        if (name.compareTo(
+                configuration.getSettings().getPropertiesNodeName()) == 0) {
+            ConfigPropertiesNode pn =
+                    new ConfigPropertiesNode(configuration, parent);
+            setupNode(name, pn, parent);
+            streamChildNodes(pn, parser, password);
+        } else if (name.compareTo(
+                configuration.getSettings().getParametersNodeName()) == 0) {
+            ConfigParametersNode pn =
+                    new ConfigParametersNode(configuration, parent);
+            setupNode(name, pn, parent);
+            streamChildNodes(pn, parser, password);
+        } else if (name.compareTo(
+                configuration.getSettings().getAttributesNodeName()) == 0) {
+            ConfigAttributesNode pn =
+                    new ConfigAttributesNode(configuration, parent);
+            setupNode(name, pn, parent);
+            streamChildNodes(pn, parser, password);
+        } else if (name.compareTo(ConfigIncludeNode.NODE_NAME) == 0) {
+            ConfigIncludeNode pn = new ConfigIncludeNode(configuration, parent);
+            setupIncludeNode(name, pn, parent, mapper.readTree(parser), password);
+        } else if (name.compareTo(ConfigResourceNode.NODE_NAME) == 0) {
+            readResourceNode(name, mapper.readTree(parser), parent);
+        } else if (lazySource != null &&
+                parent == configuration.getRootConfigNode()) {
+            streamLazyNode(name, parent, parser, password);
+        } else {
+            streamPathNode(name, parent, parser, password);
+        }
+    }
+
+    /**
+     * Read the top-level branch (path node) in the Lazy mode. The branch is only
+     * scanned and the node is created with the byte range of the branch, the
+     * child nodes are parsed on first access.
+     * <p>
+     * Branches that define includes, resources to be downloaded on startup or
+     * are encrypted values are loaded eagerly, so that the resolution (and
+     * errors) remain part of the parse.
+     *
+     * @param name   - Config Node name.
+     * @param parent - Parent config node.
+     * @param parser - JSON token stream (positioned at the object start).
+     * @throws ConfigurationException
+     */
+    private void streamLazyNode(String name, AbstractConfigNode parent,
+                                JsonParser parser, String password)
+    throws ConfigurationException, IOException {
+        long start = parser.getTokenLocation().getByteOffset();
+        if (start < 0) {
+            // Not a byte source (encoding), can't be deferred.
+            streamPathNode(name, parent, parser, password);
+            return;
+        }
+        boolean deferResources = (settings.getDownloadRemoteFiles() !=
+                ConfigurationSettings.EStartupOptions.OnStartUp);
+        boolean deferred = true;
+        int depth = 1;
+        while (depth > 0) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                throw new ConfigurationException(String.format(
+                        "Invalid Configuration : Unexpected end of input. [node=%s]",
+                        name));
+            }
+            switch (token) {
+                case START_OBJECT:
+                case START_ARRAY:
+                    depth++;
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    depth--;
+                    break;
+                case FIELD_NAME:
+                    String fname = parser.getCurrentName();
+                    if (fname.compareTo(ConfigIncludeNode.NODE_NAME) == 0 ||
+                            (!deferResources && fname.compareTo(
+                                    ConfigResourceNode.NODE_NAME) == 0) ||
+                            (depth == 1 && fname.compareTo(
+                                    JSONConfigConstants.CONFIG_NODE_ENCRYPTED) ==
+                                    0)) {
+                        deferred = false;
+                    }
+                    break;
+            }
+        }
+        int offset = (int) start;
+        int length = (int) (parser.getCurrentLocation().getByteOffset() - start);
+        if (!deferred) {
+            try (JsonParser np = mapper.getFactory()
+                                       .createParser(lazySource, offset, length)) {
+                np.nextToken();
+                streamPathNode(name, parent, np, password);
+            }
+            return;
+        }
+        ConfigPathNode pn = new ConfigPathNode(configuration, parent);
+        pn.setName(name);
+        pn.setParent(parent);
+        pn.setConfiguration(configuration);
+        pn.loading();
+        pn.setLoader(new LazyNodeLoader(lazySource, offset, length, settings));
+
+        addToParentNode(parent, pn);
+    }
+
+    /**
+     * Read the current JSON object as a path node (or an encrypted value).
+     *
+     * @param name   - Config Node name.
+     * @param parent - Parent config node.
+     * @param parser - JSON token stream (positioned at the object start).
+     * @throws ConfigurationException
+     */
+    private void streamPathNode(String name, AbstractConfigNode parent,
+                                JsonParser parser, String password)
+    throws ConfigurationException, IOException {
+        ConfigPathNode pn = new ConfigPathNode(configuration, parent);
+        pn.setName(name);
+        pn.setParent(parent);
+        pn.setConfiguration(configuration);
+        pn.loading();
+
+        boolean encrypted = false;
+        boolean hasValue = false;
+        String value = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String cname = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (cname.compareTo(
+                    JSONConfigConstants.CONFIG_NODE_ENCRYPTED_VALUE) == 0) {
+                hasValue = true;
+                value = (token == JsonToken.VALUE_STRING ? parser.getText() :
+                        null);
+            }
+            if (cname.compareTo(JSONConfigConstants.CONFIG_NODE_ENCRYPTED) == 0) {
+                encrypted = true;
+            }
+            if (encrypted) {
+                parser.skipChildren();
+            } else {
+                streamNode(cname, token, pn, parser, password);
+            }
+        }
+        if (encrypted) {
+            if (!hasValue) {
+                throw new ConfigurationException(
+                        "Invalid Encrypted node: Value is NULL.");
+            }
+            ConfigValueNode valueNode = new ConfigValueNode(configuration, parent);
+            valueNode.setName(name);
+            valueNode.setEncrypted(true);
+            valueNode.setValue(value);
+
+            addValueNode(valueNode, parent);
+        } else {
+            addToParentNode(parent, pn);
+        }
+    }
+
+    /**
+     * Get the JSON node type corresponding to the token.
+     *
+     * @param token - JSON token.
+     * @return - JSON node type.
+     */
+    private static JsonNodeType nodeType(JsonToken token) {
+        if (token != null) {
+            switch (token) {
+                case START_OBJECT:
+                    return JsonNodeType.OBJECT;
+                case START_ARRAY:
+                    return JsonNodeType.ARRAY;
+                case VALUE_STRING:
+                    return JsonNodeType.STRING;
+                case VALUE_NUMBER_INT:
+                case VALUE_NUMBER_FLOAT:
+                    return JsonNodeType.NUMBER;
+                case VALUE_TRUE:
+                case VALUE_FALSE:
+                    return JsonNodeType.BOOLEAN;
+                case VALUE_NULL:
+                    return JsonNodeType.NULL;
+                case VALUE_EMBEDDED_OBJECT:
+                    return JsonNodeType.POJO;
+            }
+        }
+        return JsonNodeType.MISSING;
+    }
+
     /**
      * Parse the JSON body to load the configuration.
      *
@@ -278,31 +693,59 @@ public class JSONConfigParser extends AbstractConfigParser {
                 throw new ConfigurationException("Error reading object node.");
             }
         } else if (node.getNodeType() == JsonNodeType.STRING) {
-            if (parent instanceof ConfigKeyValueNode) {
-                ((ConfigKeyValueNode) parent).addKeyValue(name, node.textValue());
-            } else {
-                ConfigValueNode cv = new ConfigValueNode(configuration, parent);
-                cv.setName(name);
-                cv.setParent(parent);
-                cv.setConfiguration(configuration);
-                cv.setValue(node.textValue());
-
-                if (parent instanceof ConfigPathNode) {
-                    ((ConfigPathNode) parent).addChildNode(cv);
-                } else if (parent instanceof ConfigListValueNode) {
-                    ((ConfigListValueNode) parent).addValue(cv);
-                } else {
-                    throw new ConfigurationException(String.format(
-                            "Cannot add string value to parent node. [type=%s]",
-                            parent.getClass().getCanonicalName()));
-                }
-            }
+            addStringValue(name, node.textValue(), parent);
             isProcessed(node);
         } else if (node.getNodeType() == JsonNodeType.ARRAY) {
             readArrayNode(name, parent, (ArrayNode) node, password);
         }
     }
 
+    /**
+     * Add a string value to the parent node.
+     *
+     * @param name   - Value name.
+     * @param value  - String value.
+     * @param parent - Parent configuration node.
+     * @throws ConfigurationException
+     */
+    private void addStringValue(String name, String value,
+                                AbstractConfigNode parent)
+    throws ConfigurationException {
+        if (parent instanceof ConfigKeyValueNode) {
+            ((ConfigKeyValueNode) parent).addKeyValue(name, value);
+        } else {
+            ConfigValueNode cv = new ConfigValueNode(configuration, parent);
+            cv.setName(name);
+            cv.setParent(parent);
+            cv.setConfiguration(configuration);
+            cv.setValue(value);
+
+            addValueNode(cv, parent);
+        }
+    }
+
+    /**
+     * Add a value node to the parent node.
+     *
+     * @param node   - Value node to add.
+     * @param parent - Parent configuration node.
+     * @throws ConfigurationException
+     */
+    private void addValueNode(ConfigValueNode node, AbstractConfigNode parent)
+    throws ConfigurationException {
+        if (parent instanceof ConfigKeyValueNode) {
+            ((ConfigKeyValueNode) parent).addKeyValue(node);
+        } else if (parent instanceof ConfigPathNode) {
+            ((ConfigPathNode) parent).addChildNode(node);
+        } else if (parent instanceof ConfigListValueNode) {
+            ((ConfigListValueNode) parent).addValue(node);
+        } else {
+            throw new ConfigurationException(String.format(
+                    "Cannot add string value to parent node. [type=%s]",
+                    parent.getClass().getCanonicalName()));
+        }
+    }
+
     /**
      * Read and process the specified JSON Array node.
      *
@@ -493,40 +936,11 @@ public class JSONConfigParser extends AbstractConfigParser {
             setupIncludeNode(name, pn, parent, node, password);
             nn = pn;
         } else if (name.compareTo(ConfigResourceNode.NODE_NAME) == 0) {
-            EResourceType type = parseResourceType(node);
-            if (type == null) {
-                throw ConfigurationException.propertyNotFoundException(
-                        ConfigResourceNode.NODE_RESOURCE_TYPE);
-            }
-            ConfigResourceFile pn = null;
-            if (type == EResourceType.FILE) {
-                pn = new ConfigResourceFile(configuration, parent);
-                parseFileResourceNode(name, pn, parent, node);
-            } else if (type == EResourceType.BLOB) {
-                pn = new ConfigResourceBlob(configuration, parent);
-                parseFileResourceNode(name, pn, parent, node);
-            } else if (type == EResourceType.DIRECTORY) {
-                pn = new ConfigResourceDirectory(configuration, parent);
-                parseFolderResourceNode(name, (ConfigResourceDirectory) pn, parent,
-                                        node);
-            }
-            nn = pn;
+            nn = readResourceNode(name, node, parent);
         } else {
             ConfigValueNode vn = checkEncryptedValue(name, parent, node);
             if (vn != null) {
-                if (parent instanceof ConfigKeyValueNode) {
-                    ((ConfigKeyValueNode) parent).addKeyValue(vn);
-                } else {
-                    if (parent instanceof ConfigPathNode) {
-                        ((ConfigPathNode) parent).addChildNode(vn);
-                    } else if (parent instanceof ConfigListValueNode) {
-                        ((ConfigListValueNode) parent).addValue(vn);
-                    } else {
-                        throw new ConfigurationException(String.format(
-                                "Cannot add string value to parent node. [type=%s]",
-                                parent.getClass().getCanonicalName()));
-                    }
-                }
+                addValueNode(vn, parent);
                 nn = vn;
             } else {
                 ConfigPathNode pn = new ConfigPathNode(configuration, parent);
@@ -537,6 +951,38 @@ public class JSONConfigParser extends AbstractConfigParser {
         return nn;
     }
 
+    /**
+     * Read a resource definition node.
+     *
+     * @param name   - Config Node name.
+     * @param node   - JSON node to read data from.
+     * @param parent - Parent config node.
+     * @return - Resource config node.
+     * @throws ConfigurationException
+     */
+    private ConfigResourceNode readResourceNode(String name, JsonNode node,
+                                                AbstractConfigNode parent)
+    throws ConfigurationException {
+        EResourceType type = parseResourceType(node);
+        if (type == null) {
+            throw ConfigurationException.propertyNotFoundException(
+                    ConfigResourceNode.NODE_RESOURCE_TYPE);
+        }
+        ConfigResourceFile pn = null;
+        if (type == EResourceType.FILE) {
+            pn = new ConfigResourceFile(configuration, parent);
+            parseFileResourceNode(name, pn, parent, node);
+        } else if (type == EResourceType.BLOB) {
+            pn = new ConfigResourceBlob(configuration, parent);
+            parseFileResourceNode(name, pn, parent, node);
+        } else if (type == EResourceType.DIRECTORY) {
+            pn = new ConfigResourceDirectory(configuration, parent);
+            parseFolderResourceNode(name, (ConfigResourceDirectory) pn, parent,
+                                    node);
+        }
+        return pn;
+    }
+
     /**
      * Check if the current node is an encrypted Text node.
      *
@@ -606,21 +1052,20 @@ public class JSONConfigParser extends AbstractConfigParser {
                     Preconditions.checkNotNull(type);
 
                     if (type == EReaderType.HTTP || type == EReaderType.HTTPS) {
-                        try {
-                            long bread = RemoteFileHelper
-                                    .downloadRemoteFile(node.getLocation(),
-                                                        node.getResourceHandle());
-                            if (bread <= 0) {
-                                throw new ConfigurationException(String.format(
-                                        "No bytes read for remote file. [url=%s]",
-                                        uri.toString()));
-                            }
-                            LogUtils.debug(getClass(), String.format(
-                                    "Downloaded remote file. [path=%s][size=%s]",
-                                    file.getAbsolutePath(), bread));
-                        } catch (IOException e) {
-                            throw new ConfigurationException(e);
-                        }
+                        resolve(() -> RemoteFileHelper
+                                        .downloadRemoteFile(node.getLocation(),
+                                                            node.getResourceHandle()),
+                                (bread) -> {
+                                    if (bread <= 0) {
+                                        throw new ConfigurationException(
+                                                String.format(
+                                                        "No bytes read for remote file. [url=%s]",
+                                                        uri.toString()));
+                                    }
+                                    LogUtils.debug(getClass(), String.format(
+                                            "Downloaded remote file. [path=%s][size=%s]",
+                                            file.getAbsolutePath(), bread));
+                                });
                     }
                 }
             }
@@ -666,18 +1111,17 @@ public class JSONConfigParser extends AbstractConfigParser {
                     Preconditions.checkNotNull(type);
 
                     if (type == EReaderType.HTTP || type == EReaderType.HTTPS) {
-                        try {
-                            long bread = RemoteFileHelper
-                                    .downloadRemoteDirectory(node.getLocation(),
-                                                             node.getResourceHandle());
-                            if (bread <= 0) {
-                                throw new ConfigurationException(String.format(
-                                        "No bytes read for remote file. [url=%s]",
-                                        uri.toString()));
-                            }
-                        } catch (IOException e) {
-                            throw new ConfigurationException(e);
-                        }
+                        resolve(() -> RemoteFileHelper
+                                        .downloadRemoteDirectory(node.getLocation(),
+                                                                 node.getResourceHandle()),
+                                (bread) -> {
+                                    if (bread <= 0) {
+                                        throw new ConfigurationException(
+                                                String.format(
+                                                        "No bytes read for remote file. [url=%s]",
+                                                        uri.toString()));
+                                    }
+                                });
                     }
                 }
             }
@@ -783,6 +1227,7 @@ public class JSONConfigParser extends AbstractConfigParser {
                                   AbstractConfigNode parent,
                                   JsonNode jsonNode, String password)
     throws ConfigurationException {
+        included();
         setupNode(name, node, parent);
         Iterator<Map.Entry<String, JsonNode>> nnodes = jsonNode.fields();
         if (nnodes != null) {
@@ -877,27 +1322,32 @@ public class JSONConfigParser extends AbstractConfigParser {
                         String.format("Error getting reader instance : [URI=%s]",
                                       uri.toString()));
             }
-            JSONConfigParser nparser = new JSONConfigParser();
-            nparser.parse(node.getConfigName(), reader, settings,
-                          node.getVersion(), password);
-            if (nparser.configuration != null) {
-                ConfigPathNode configPathNode =
-                        nparser.configuration.getRootConfigNode();
-                if (parent instanceof ConfigPathNode) {
+            if (!(parent instanceof ConfigPathNode)) {
+                throw new ConfigurationException(String.format(
+                        "Error adding include node : [expected parent=%s][actual parent=%s]",
+                        ConfigPathNode.class.getCanonicalName(),
+                        parent.getClass().getCanonicalName()));
+            }
+            // Included configuration is parsed on the resolver, and attached
+            // once the parse of this configuration completes.
+            resolve(() -> {
+                JSONConfigParser nparser = new JSONConfigParser();
+                nparser.setStringPool(stringPool);
+                nparser.parse(node.getConfigName(), reader, settings,
+                              node.getVersion(), password);
+                return nparser.configuration;
+            }, (config) -> {
+                if (config != null) {
+                    ConfigPathNode configPathNode = config.getRootConfigNode();
                     ((ConfigPathNode) parent).addChildNode(configPathNode);
                     configPathNode.changeConfiguration(configuration);
                     node.setNode(configPathNode);
                 } else {
                     throw new ConfigurationException(String.format(
-                            "Error adding include node : [expected parent=%s][actual parent=%s]",
-                            ConfigPathNode.class.getCanonicalName(),
-                            parent.getClass().getCanonicalName()));
+                            "Error loading included configuration. [URI=%s]",
+                            uri.toString()));
                 }
-            } else {
-                throw new ConfigurationException(String.format(
-                        "Error loading included configuration. [URI=%s]",
-                        uri.toString()));
-            }
+            });
         } else {
             throw new ConfigurationException(
                     "Invalid include definition : No include configuration specified.");
@@ -918,127 +1368,139 @@ public class JSONConfigParser extends AbstractConfigParser {
      * @throws ConfigurationException
      */
     private void parseHeader(JsonNode node, Version version, String password)
+    throws ConfigurationException {
+        JsonNode header = node.get(JSONConfigConstants.CONFIG_HEADER_NODE);
+        if (header == null) {
+            throw ConfigurationException
+                    .propertyNotFoundException(
+                            JSONConfigConstants.CONFIG_HEADER_NODE);
+        }
+        if (!isProcessed(header)) {
+            readHeader(header, version, password);
+        }
+    }
+
+    /**
+     * Read the configuration header information from the header node.
+     *
+     * @param header  - Configuration header node.
+     * @param version - Expected Compatibility Version.
+     * @throws ConfigurationException
+     */
+    private void readHeader(JsonNode header, Version version, String password)
     throws ConfigurationException {
         try {
-            JsonNode header = node.get(JSONConfigConstants.CONFIG_HEADER_NODE);
-            if (header == null) {
+            // Read the configuration ID
+            JsonNode hid = header.get(JSONConfigConstants.CONFIG_HEADER_ID);
+            if (hid == null) {
                 throw ConfigurationException
                         .propertyNotFoundException(
-                                JSONConfigConstants.CONFIG_HEADER_NODE);
+                                JSONConfigConstants.CONFIG_HEADER_ID);
             }
-            if (!isProcessed(header)) {
-                // Read the configuration ID
-                JsonNode hid = header.get(JSONConfigConstants.CONFIG_HEADER_ID);
-                if (hid == null) {
-                    throw ConfigurationException
-                            .propertyNotFoundException(
-                                    JSONConfigConstants.CONFIG_HEADER_ID);
-                }
-                String id = hid.textValue();
-                Preconditions.checkState(!Strings.isNullOrEmpty(id));
-                configuration.setId(id);
-                // Read the Application Group.
-                JsonNode hgrp = header.get(JSONConfigConstants.CONFIG_HEADER_GROUP);
-                if (hgrp == null) {
-                    throw ConfigurationException
-                            .propertyNotFoundException(
-                                    JSONConfigConstants.CONFIG_HEADER_GROUP);
-                }
-                String grp = hgrp.textValue();
-                Preconditions.checkState(!Strings.isNullOrEmpty(grp));
-                configuration.setApplicationGroup(grp);
-                // Read the Application.
-                JsonNode happ = header.get(JSONConfigConstants.CONFIG_HEADER_APP);
-                if (happ == null) {
-                    throw ConfigurationException
-                            .propertyNotFoundException(
-                                    JSONConfigConstants.CONFIG_HEADER_APP);
+            String id = hid.textValue();
+            Preconditions.checkState(!Strings.isNullOrEmpty(id));
+            configuration.setId(id);
+            // Read the Application Group.
+            JsonNode hgrp = header.get(JSONConfigConstants.CONFIG_HEADER_GROUP);
+            if (hgrp == null) {
+                throw ConfigurationException
+                        .propertyNotFoundException(
+                                JSONConfigConstants.CONFIG_HEADER_GROUP);
+            }
+            String grp = hgrp.textValue();
+            Preconditions.checkState(!Strings.isNullOrEmpty(grp));
+            configuration.setApplicationGroup(grp);
+            // Read the Application.
+            JsonNode happ = header.get(JSONConfigConstants.CONFIG_HEADER_APP);
+            if (happ == null) {
+                throw ConfigurationException
+                        .propertyNotFoundException(
+                                JSONConfigConstants.CONFIG_HEADER_APP);
+            }
+            String app = happ.textValue();
+            Preconditions.checkState(!Strings.isNullOrEmpty(app));
+            configuration.setApplication(app);
+
+            // Read the configuration name
+            JsonNode hname = header.get(JSONConfigConstants.CONFIG_HEADER_NAME);
+            if (hname == null) {
+                throw ConfigurationException
+                        .propertyNotFoundException(
+                                JSONConfigConstants.CONFIG_HEADER_NAME);
+            }
+            String sname = hname.textValue();
+            // Configuration name in resource should match the expected configuration name.
+            if (configuration.getName().compareTo(sname) != 0) {
+                throw new ConfigurationException(String.format(
+                        "Invalid configuration : Name does not match. [expected=%s][actual=%s]",
+                        configuration.getName(), sname));
+            }
+            // Read the configuration version.
+            JsonNode vnode =
+                    header.get(JSONConfigConstants.CONFIG_HEADER_VERSION);
+            if (vnode == null) {
+                throw ConfigurationException
+                        .propertyNotFoundException(
+                                JSONConfigConstants.CONFIG_HEADER_VERSION);
+            }
+            String vstring = vnode.textValue();
+            Version cversion = Version.parse(vstring);
+            // Check version compatibility
+            if (!version.isCompatible(cversion)) {
+                throw new ConfigurationException(String.format(
+                        "Incompatible Configuration Version. [expected=%s][actual=%s]",
+                        version.toString(), cversion.toString()));
+            }
+            configuration.setVersion(cversion);
+
+            // Read the configuration creation info.
+            JsonNode cnode = header.get(JSONConfigConstants.CONFIG_CREATED_BY);
+            if (cnode == null) {
+                throw ConfigurationException
+                        .propertyNotFoundException(
+                                JSONConfigConstants.CONFIG_CREATED_BY);
+            }
+            ModifiedBy createdBy = parseUpdateInfo(cnode);
+            configuration.setCreatedBy(createdBy);
+
+            // Read the configuration Last updation info.
+            JsonNode unode = header.get(JSONConfigConstants.CONFIG_UPDATED_BY);
+            if (unode == null) {
+                throw ConfigurationException
+                        .propertyNotFoundException(
+                                JSONConfigConstants.CONFIG_UPDATED_BY);
+            }
+            ModifiedBy updatedBy = parseUpdateInfo(unode);
+            configuration.setUpdatedBy(updatedBy);
+
+            JsonNode dnode = header.get(JSONConfigConstants.CONFIG_HEADER_DESC);
+            if (dnode != null) {
+                String desc = dnode.textValue();
+                if (!Strings.isNullOrEmpty(desc)) {
+                    configuration.setDescription(desc);
                 }
-                String app = happ.textValue();
-                Preconditions.checkState(!Strings.isNullOrEmpty(app));
-                configuration.setApplication(app);
-
-                // Read the configuration name
-                JsonNode hname = header.get(JSONConfigConstants.CONFIG_HEADER_NAME);
-                if (hname == null) {
-                    throw ConfigurationException
-                            .propertyNotFoundException(
-                                    JSONConfigConstants.CONFIG_HEADER_NAME);
+            }
+            // Check if an encryption hash is specified.
+            JsonNode phnode =
+                    header.get(JSONConfigConstants.CONFIG_HEADER_PASSWD_HASH);
+            if (phnode != null) {
+                String hash = phnode.textValue();
+                if (Strings.isNullOrEmpty(hash)) {
+                    throw new ConfigurationException(
+                            "Invalid Password Hash: NULL or Empty.");
                 }
-                String sname = hname.textValue();
-                // Configuration name in resource should match the expected configuration name.
-                if (configuration.getName().compareTo(sname) != 0) {
+                if (Strings.isNullOrEmpty(password)) {
                     throw new ConfigurationException(String.format(
-                            "Invalid configuration : Name does not match. [expected=%s][actual=%s]",
-                            configuration.getName(), sname));
+                            "Configuration has encryption, but no passcode specified. [config=%s]",
+                            configuration.getName()));
                 }
-                // Read the configuration version.
-                JsonNode vnode =
-                        header.get(JSONConfigConstants.CONFIG_HEADER_VERSION);
-                if (vnode == null) {
-                    throw ConfigurationException
-                            .propertyNotFoundException(
-                                    JSONConfigConstants.CONFIG_HEADER_VERSION);
-                }
-                String vstring = vnode.textValue();
-                Version cversion = Version.parse(vstring);
-                // Check version compatibility
-                if (!version.isCompatible(cversion)) {
+                String chash = CypherUtils.getKeyHash(password);
+                if (hash.compareTo(chash) != 0) {
                     throw new ConfigurationException(String.format(
-                            "Incompatible Configuration Version. [expected=%s][actual=%s]",
-                            version.toString(), cversion.toString()));
-                }
-                configuration.setVersion(cversion);
-
-                // Read the configuration creation info.
-                JsonNode cnode = header.get(JSONConfigConstants.CONFIG_CREATED_BY);
-                if (cnode == null) {
-                    throw ConfigurationException
-                            .propertyNotFoundException(
-                                    JSONConfigConstants.CONFIG_CREATED_BY);
-                }
-                ModifiedBy createdBy = parseUpdateInfo(cnode);
-                configuration.setCreatedBy(createdBy);
-
-                // Read the configuration Last updation info.
-                JsonNode unode = header.get(JSONConfigConstants.CONFIG_UPDATED_BY);
-                if (unode == null) {
-                    throw ConfigurationException
-                            .propertyNotFoundException(
-                                    JSONConfigConstants.CONFIG_UPDATED_BY);
-                }
-                ModifiedBy updatedBy = parseUpdateInfo(unode);
-                configuration.setUpdatedBy(updatedBy);
-
-                JsonNode dnode = header.get(JSONConfigConstants.CONFIG_HEADER_DESC);
-                if (dnode != null) {
-                    String desc = dnode.textValue();
-                    if (!Strings.isNullOrEmpty(desc)) {
-                        configuration.setDescription(desc);
-                    }
-                }
-                // Check if an encryption hash is specified.
-                JsonNode phnode =
-                        header.get(JSONConfigConstants.CONFIG_HEADER_PASSWD_HASH);
-                if (phnode != null) {
-                    String hash = phnode.textValue();
-                    if (Strings.isNullOrEmpty(hash)) {
-                        throw new ConfigurationException(
-                                "Invalid Password Hash: NULL or Empty.");
-                    }
-                    if (Strings.isNullOrEmpty(password)) {
-                        throw new ConfigurationException(String.format(
-                                "Configuration has encryption, but no passcode specified. [config=%s]",
-                                configuration.getName()));
-                    }
-                    String chash = CypherUtils.getKeyHash(password);
-                    if (hash.compareTo(chash) != 0) {
-                        throw new ConfigurationException(String.format(
-                                "Invalid Passcode: Doesn't match with passcode set in configuration. [config=%s]",
-                                configuration.getName()));
-                    }
-                    configuration.setEncryptionHash(hash);
+                            "Invalid Passcode: Doesn't match with passcode set in configuration. [config=%s]",
+                            configuration.getName()));
                 }
+                configuration.setEncryptionHash(hash);
             }
         } catch (ConfigurationException e) {
             throw e;
@@ -1095,4 +1557,53 @@ public class JSONConfigParser extends AbstractConfigParser {
     public void close() throws IOException {
 
     }
+
+    /**
+     * Loader for a deferred configuration branch, parses the child nodes from
+     * the byte range of the branch in the source.
+     */
+    private static final class LazyNodeLoader implements ILazyNodeLoader {
+        private final byte[] source;
+        private final int offset;
+        private final int length;
+        private final ConfigurationSettings settings;
+
+        private LazyNodeLoader(byte[] source, int offset, int length,
+                               ConfigurationSettings settings) {
+            this.source = source;
+            this.offset = offset;
+            this.length = length;
+            this.settings = settings;
+        }
+
+        /**
+         * Parse and add the child nodes of the branch, and run the post-load
+         * for the loaded sub-tree.
+         *
+         * @param node - Path node to load the children of.
+         * @throws ConfigurationException
+         */
+        @Override
+        public void load(ConfigPathNode node) throws ConfigurationException {
+            JSONConfigParser parser = new JSONConfigParser();
+            parser.settings = settings;
+            parser.configuration = node.getConfiguration();
+            try (JsonParser jp = mapper.getFactory()
+                                       .createParser(source, offset, length)) {
+                jp.nextToken();
+                // Deferred branches don't define includes, no password is
+                // required.
+                parser.streamChildNodes(node, jp, null);
+                parser.awaitResolutions();
+                parser.doPostLoad(node);
+            } catch (IOException e) {
+                throw new ConfigurationException(e);
+            } finally {
+                parser.cancelResolutions();
+            }
+            LogUtils.debug(JSONConfigParser.class, String.format(
+                    "Loaded deferred node : [path=%s][bytes=%d]",
+                    node.getAbsolutePath(), length));
+        }
+    }
 }
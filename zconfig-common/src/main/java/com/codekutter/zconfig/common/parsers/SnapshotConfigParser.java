@@ -0,0 +1,571 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 17/10/20 2:05 PM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common.parsers;
+
+import com.codekutter.zconfig.common.ConfigurationException;
+import com.codekutter.zconfig.common.JSONConfigConstants;
+import com.codekutter.zconfig.common.SnapshotConfigConstants;
+import com.codekutter.zconfig.common.ZConfigEnv;
+import com.codekutter.zconfig.common.model.*;
+import com.codekutter.zconfig.common.model.nodes.*;
+import com.codekutter.zconfig.common.readers.AbstractConfigReader;
+import com.codekutter.zconfig.common.readers.EReaderType;
+import com.codekutter.zconfig.common.utils.CypherUtils;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Configuration Parser implementation that reads a binary configuration
+ * snapshot (see SnapshotConfigConstants), as written by the
+ * SnapshotFileConfigWriter.
+ * <p>
+ * Snapshots contain the resolved configuration, hence includes are not
+ * re-loaded and variables are not re-substituted. Snapshot files are memory
+ * mapped when read from a local file.
+ */
+public class SnapshotConfigParser extends AbstractConfigParser {
+    /**
+     * String table read from the snapshot (index 0 = NULL).
+     */
+    private String[] strings = null;
+    /**
+     * Include nodes pending the link to the included configuration node.
+     */
+    private final Map<ConfigIncludeNode, String> includes =
+            new IdentityHashMap<>();
+
+    /**
+     * Parse and load the configuration from the snapshot.
+     *
+     * @param name     - Configuration name being loaded.
+     * @param reader   - Configuration reader handle to read input from.
+     * @param settings - Configuration Settings to use for parsing.
+     * @param version  - Configuration version to load.
+     * @param password - Password in case the Configuration has encrypted elements.
+     * @throws ConfigurationException
+     */
+    @Override
+    public void parse(String name, AbstractConfigReader reader,
+                      ConfigurationSettings settings, Version version,
+                      String password)
+    throws ConfigurationException {
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(name));
+        Preconditions.checkArgument(reader != null);
+        Preconditions.checkArgument(version != null);
+
+        try {
+            if (!reader.isOpen()) {
+                reader.open();
+            }
+            if (settings != null) {
+                this.settings = settings;
+            } else {
+                this.settings = new ConfigurationSettings();
+            }
+
+            try (InputStream stream = reader.getInputStream()) {
+                ByteBuffer buffer = read(stream);
+                readSnapshot(name, buffer, version, password);
+            }
+
+            if (!Strings.isNullOrEmpty(configuration.getEncryptionHash())) {
+                ZConfigEnv.getVault().addPasscode(configuration, password);
+            }
+            configuration.loaded();
+        } catch (IOException | BufferUnderflowException e) {
+            if (configuration != null)
+                configuration.getState().setError(e);
+            throw new ConfigurationException(e);
+        } catch (ConfigurationException e) {
+            if (configuration != null)
+                configuration.getState().setError(e);
+            throw e;
+        } catch (Exception e) {
+            if (configuration != null)
+                configuration.getState().setError(e);
+            throw new ConfigurationException(e);
+        } finally {
+            strings = null;
+            includes.clear();
+        }
+    }
+
+    /**
+     * Get the snapshot data, local files are memory mapped.
+     *
+     * @param stream - Input stream.
+     * @return - Snapshot data.
+     * @throws IOException
+     */
+    private ByteBuffer read(InputStream stream) throws IOException {
+        if (stream instanceof FileInputStream) {
+            FileChannel channel = ((FileInputStream) stream).getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return ByteBuffer.wrap(ByteStreams.toByteArray(stream));
+    }
+
+    /**
+     * Read the configuration from the snapshot data.
+     *
+     * @param name     - Expected Configuration name.
+     * @param buffer   - Snapshot data.
+     * @param version  - Expected Compatible version.
+     * @param password - Password in case the Configuration has encrypted elements.
+     * @throws Exception
+     */
+    private void readSnapshot(String name, ByteBuffer buffer, Version version,
+                              String password) throws Exception {
+        byte[] magic = new byte[SnapshotConfigConstants.MAGIC.length];
+        buffer.get(magic);
+        for (int ii = 0; ii < magic.length; ii++) {
+            if (magic[ii] != SnapshotConfigConstants.MAGIC[ii]) {
+                throw new ConfigurationException(
+                        "Invalid Configuration Snapshot : Header not found.");
+            }
+        }
+        int format = readVarInt(buffer);
+        if (format != SnapshotConfigConstants.FORMAT_VERSION) {
+            throw new ConfigurationException(String.format(
+                    "Unsupported Snapshot Format : [expected=%d][actual=%d]",
+                    SnapshotConfigConstants.FORMAT_VERSION, format));
+        }
+        readStrings(buffer);
+
+        configuration = new Configuration(settings);
+
+        configuration.setStringPool(stringPool);
+        configuration.getState().setState(ENodeState.Loading);
+        configuration.setName(name);
+
+        readHeader(buffer, version, password);
+
+        AbstractConfigNode node = readNode(buffer, null);
+        if (!(node instanceof ConfigPathNode)) {
+            throw new ConfigurationException(String.format(
+                    "Invalid Configuration Node : [expected=%s][actual=%s]",
+                    ConfigPathNode.class.getCanonicalName(),
+                    node.getClass().getCanonicalName()));
+        }
+        configuration.setRootConfigNode((ConfigPathNode) node);
+
+        // Link the include nodes to the included configuration nodes.
+        for (Map.Entry<ConfigIncludeNode, String> entry : includes.entrySet()) {
+            AbstractConfigNode parent = entry.getKey().getParent();
+            if (parent instanceof ConfigPathNode) {
+                AbstractConfigNode included =
+                        ((ConfigPathNode) parent).getChildNode(entry.getValue());
+                if (included instanceof ConfigPathNode) {
+                    entry.getKey().setNode((ConfigPathNode) included);
+                }
+            }
+        }
+        configuration.getRootConfigNode().updateState(ENodeState.Synced);
+    }
+
+    /**
+     * Read the string table.
+     *
+     * @param buffer - Snapshot data.
+     * @throws ConfigurationException
+     */
+    private void readStrings(ByteBuffer buffer) throws ConfigurationException {
+        int count = readVarInt(buffer);
+        strings = new String[count + 1];
+        for (int ii = 1; ii <= count; ii++) {
+            byte[] bytes = new byte[readVarInt(buffer)];
+            buffer.get(bytes);
+            strings[ii] = new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Read the Configuration header information.
+     *
+     * @param buffer   - Snapshot data.
+     * @param version  - Expected Compatible version.
+     * @param password - Password in case the Configuration has encrypted elements.
+     * @throws Exception
+     */
+    private void readHeader(ByteBuffer buffer, Version version, String password)
+    throws Exception {
+        configuration.setId(readString(buffer));
+        configuration.setApplicationGroup(readString(buffer));
+        configuration.setApplication(readString(buffer));
+
+        String sname = readString(buffer);
+        // Configuration name in resource should match the expected configuration name.
+        if (configuration.getName().compareTo(sname) != 0) {
+            throw new ConfigurationException(String.format(
+                    "Invalid configuration : Name does not match. [expected=%s][actual=%s]",
+                    configuration.getName(), sname));
+        }
+        String desc = readString(buffer);
+        if (!Strings.isNullOrEmpty(desc)) {
+            configuration.setDescription(desc);
+        }
+        String vstring = readString(buffer);
+        if (Strings.isNullOrEmpty(vstring)) {
+            throw ConfigurationException.propertyNotFoundException(
+                    JSONConfigConstants.CONFIG_HEADER_VERSION);
+        }
+        Version cversion = Version.parse(vstring);
+        // Check version compatibility
+        if (!version.isCompatible(cversion)) {
+            throw new ConfigurationException(String.format(
+                    "Incompatible Configuration Version. [expected=%s][actual=%s]",
+                    version.toString(), cversion.toString()));
+        }
+        configuration.setVersion(cversion);
+        configuration.setCreatedBy(readUpdateInfo(buffer));
+        configuration.setUpdatedBy(readUpdateInfo(buffer));
+
+        String syncMode = readString(buffer);
+        if (!Strings.isNullOrEmpty(syncMode)) {
+            configuration.setSyncMode(ESyncMode.valueOf(syncMode));
+        }
+        String hash = readString(buffer);
+        if (!Strings.isNullOrEmpty(hash)) {
+            if (Strings.isNullOrEmpty(password)) {
+                throw new ConfigurationException(String.format(
+                        "Configuration has encryption, but no passcode specified. [config=%s]",
+                        configuration.getName()));
+            }
+            String chash = CypherUtils.getKeyHash(password);
+            if (hash.compareTo(chash) != 0) {
+                throw new ConfigurationException(String.format(
+                        "Invalid Passcode: Doesn't match with passcode set in configuration. [config=%s]",
+                        configuration.getName()));
+            }
+            configuration.setEncryptionHash(hash);
+        }
+        configuration.getHeader().setTimestamp(readVarLong(buffer));
+    }
+
+    /**
+     * Read the modification information.
+     *
+     * @param buffer - Snapshot data.
+     * @return - Modification info object.
+     * @throws ConfigurationException
+     */
+    private ModifiedBy readUpdateInfo(ByteBuffer buffer)
+    throws ConfigurationException {
+        ModifiedBy modifiedBy = new ModifiedBy();
+        modifiedBy.setModifiedBy(readString(buffer));
+        modifiedBy.setTimestamp(readVarLong(buffer));
+
+        return modifiedBy;
+    }
+
+    /**
+     * Read a configuration node (and its children) and add it to the parent.
+     *
+     * @param buffer - Snapshot data.
+     * @param parent - Parent config node (NULL for the root node).
+     * @return - Config node read.
+     * @throws Exception
+     */
+    private AbstractConfigNode readNode(ByteBuffer buffer,
+                                        AbstractConfigNode parent)
+    throws Exception {
+        byte tag = buffer.get();
+        String name = readString(buffer);
+        AbstractConfigNode node = null;
+        switch (tag) {
+            case SnapshotConfigConstants.NODE_PATH:
+                ConfigPathNode pnode = new ConfigPathNode(configuration, parent);
+                setupNode(name, pnode, parent);
+                int count = readVarInt(buffer);
+                for (int ii = 0; ii < count; ii++) {
+                    readNode(buffer, pnode);
+                }
+                return pnode;
+            case SnapshotConfigConstants.NODE_VALUE:
+                ConfigValueNode vnode = new ConfigValueNode(configuration, parent);
+                readValue(buffer, vnode);
+                node = vnode;
+                break;
+            case SnapshotConfigConstants.NODE_PROPERTIES:
+                node = readKeyValues(buffer,
+                                     new ConfigPropertiesNode(configuration, parent));
+                break;
+            case SnapshotConfigConstants.NODE_PARAMETERS:
+                node = readKeyValues(buffer,
+                                     new ConfigParametersNode(configuration, parent));
+                break;
+            case SnapshotConfigConstants.NODE_ATTRIBUTES:
+                node = readKeyValues(buffer,
+                                     new ConfigAttributesNode(configuration, parent));
+                break;
+            case SnapshotConfigConstants.NODE_LIST_VALUE:
+                ConfigListValueNode lvnode =
+                        new ConfigListValueNode(configuration, parent);
+                setupNode(name, lvnode, parent);
+                int vcount = readVarInt(buffer);
+                for (int ii = 0; ii < vcount; ii++) {
+                    ConfigValueNode cv = new ConfigValueNode(configuration, lvnode);
+                    cv.setName(readString(buffer));
+                    readValue(buffer, cv);
+                    lvnode.addValue(cv);
+                }
+                return lvnode;
+            case SnapshotConfigConstants.NODE_LIST_ELEMENT:
+                ConfigListElementNode lenode =
+                        new ConfigListElementNode(configuration, parent);
+                setupNode(name, lenode, parent);
+                int ecount = readVarInt(buffer);
+                for (int ii = 0; ii < ecount; ii++) {
+                    readNode(buffer, lenode);
+                }
+                return lenode;
+            case SnapshotConfigConstants.NODE_INCLUDE:
+                node = readInclude(buffer,
+                                   new ConfigIncludeNode(configuration, parent));
+                break;
+            case SnapshotConfigConstants.NODE_RESOURCE_FILE:
+                node = readResource(buffer,
+                                    new ConfigResourceFile(configuration, parent));
+                break;
+            case SnapshotConfigConstants.NODE_RESOURCE_DIRECTORY:
+                node = readResource(buffer,
+                                    new ConfigResourceDirectory(configuration,
+                                                                parent));
+                break;
+            case SnapshotConfigConstants.NODE_RESOURCE_BLOB:
+                node = readResource(buffer,
+                                    new ConfigResourceBlob(configuration, parent));
+                break;
+            default:
+                throw new ConfigurationException(String.format(
+                        "Invalid Configuration Snapshot : Unknown node type. [tag=%d]",
+                        tag));
+        }
+        setupNode(name, node, parent);
+        return node;
+    }
+
+    /**
+     * Setup the common node elements and add the node to the parent.
+     *
+     * @param name       - Node name.
+     * @param configNode - Config node handle.
+     * @param parent     - Parent config node.
+     * @throws ConfigurationException
+     */
+    private void setupNode(String name, AbstractConfigNode configNode,
+                           AbstractConfigNode parent)
+    throws ConfigurationException {
+        configNode.setName(name);
+        configNode.setParent(parent);
+        configNode.setConfiguration(configuration);
+        configNode.loading();
+        if (parent == null) {
+            return;
+        }
+        if (parent instanceof ConfigPathNode) {
+            ((ConfigPathNode) parent).addChildNode(configNode);
+        } else if (parent instanceof ConfigListElementNode &&
+                configNode instanceof ConfigElementNode) {
+            ((ConfigListElementNode) parent).addValue((ConfigElementNode) configNode);
+        } else {
+            throw new ConfigurationException(String.format(
+                    "Cannot add child node to parent node. [type=%s]",
+                    parent.getClass().getCanonicalName()));
+        }
+    }
+
+    /**
+     * Read the value and flags of a value node.
+     *
+     * @param buffer - Snapshot data.
+     * @param node   - Value node.
+     * @throws ConfigurationException
+     */
+    private void readValue(ByteBuffer buffer, ConfigValueNode node)
+    throws ConfigurationException {
+        String value = readString(buffer);
+        if (!Strings.isNullOrEmpty(value)) {
+            node.setValue(value);
+        }
+        int flags = readVarInt(buffer);
+        node.setEncrypted((flags & SnapshotConfigConstants.FLAG_ENCRYPTED) != 0);
+    }
+
+    /**
+     * Read the key/values of a Key/Value node (Parameters/Properties/Attributes).
+     *
+     * @param buffer - Snapshot data.
+     * @param node   - Key/Value node.
+     * @return - Key/Value node.
+     * @throws ConfigurationException
+     */
+    private ConfigKeyValueNode readKeyValues(ByteBuffer buffer,
+                                             ConfigKeyValueNode node)
+    throws ConfigurationException {
+        node.setConfiguration(configuration);
+        int count = readVarInt(buffer);
+        for (int ii = 0; ii < count; ii++) {
+            ConfigValueNode vn = new ConfigValueNode(configuration, node);
+            vn.setName(readString(buffer));
+            vn.setParent(node);
+            readValue(buffer, vn);
+            node.addKeyValue(vn);
+        }
+        return node;
+    }
+
+    /**
+     * Read the include definition, the included node is linked once the
+     * parent node has been read.
+     *
+     * @param buffer - Snapshot data.
+     * @param node   - Include node.
+     * @return - Include node.
+     * @throws Exception
+     */
+    private ConfigIncludeNode readInclude(ByteBuffer buffer, ConfigIncludeNode node)
+    throws Exception {
+        node.setConfigName(readString(buffer));
+        node.setPath(readString(buffer));
+        String type = readString(buffer);
+        if (!Strings.isNullOrEmpty(type)) {
+            node.setReaderType(EReaderType.parse(type));
+        }
+        String version = readString(buffer);
+        if (!Strings.isNullOrEmpty(version)) {
+            node.setVersion(Version.parse(version));
+        }
+        String included = readString(buffer);
+        if (!Strings.isNullOrEmpty(included)) {
+            includes.put(node, included);
+        }
+        return node;
+    }
+
+    /**
+     * Read the resource definition and the local resource handle.
+     *
+     * @param buffer - Snapshot data.
+     * @param node   - Resource node.
+     * @return - Resource node.
+     * @throws Exception
+     */
+    private ConfigResourceFile readResource(ByteBuffer buffer,
+                                            ConfigResourceFile node)
+    throws Exception {
+        String type = readString(buffer);
+        if (!Strings.isNullOrEmpty(type)) {
+            node.setType(EResourceType.valueOf(type));
+        }
+        String location = readString(buffer);
+        if (!Strings.isNullOrEmpty(location)) {
+            node.setLocation(new URI(location));
+        }
+        node.setResourceName(readString(buffer));
+        String handle = readString(buffer);
+        if (!Strings.isNullOrEmpty(handle)) {
+            File file = new File(handle);
+            // Directory handles are only valid if the directory exists.
+            if (!(node instanceof ConfigResourceDirectory) || file.isDirectory()) {
+                node.setResourceHandle(file);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Read a string reference.
+     *
+     * @param buffer - Snapshot data.
+     * @return - String value (can be NULL).
+     * @throws ConfigurationException
+     */
+    private String readString(ByteBuffer buffer) throws ConfigurationException {
+        int index = readVarInt(buffer);
+        if (index < 0 || index >= strings.length) {
+            throw new ConfigurationException(String.format(
+                    "Invalid Configuration Snapshot : String index out of bounds. [index=%d]",
+                    index));
+        }
+        return strings[index];
+    }
+
+    /**
+     * Read an unsigned variable length integer.
+     *
+     * @param buffer - Snapshot data.
+     * @return - Value read.
+     * @throws ConfigurationException
+     */
+    private static int readVarInt(ByteBuffer buffer) throws ConfigurationException {
+        long value = readVarLong(buffer);
+        if (value > Integer.MAX_VALUE) {
+            throw new ConfigurationException(String.format(
+                    "Invalid Configuration Snapshot : Integer value out of range. [value=%d]",
+                    value));
+        }
+        return (int) value;
+    }
+
+    /**
+     * Read an unsigned variable length long.
+     *
+     * @param buffer - Snapshot data.
+     * @return - Value read.
+     * @throws ConfigurationException
+     */
+    private static long readVarLong(ByteBuffer buffer)
+    throws ConfigurationException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new ConfigurationException(
+                "Invalid Configuration Snapshot : Malformed variable length value.");
+    }
+
+    @Override
+    public void close() throws IOException {
+
+    }
+}
@@ -40,17 +40,37 @@ import org.xml.sax.SAXException;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Configuration Parser implementation that reads the configuration from a XML file.
+ * <p>
+ * By default the configuration is read in a single pass using a StAX stream reader
+ * (see ConfigurationSettings.EParseMode), the DOM parser is used in the Tree mode.
+ * Deferred (Lazy) loading is not supported, the configuration is streamed.
  */
 public class XMLConfigParser extends AbstractConfigParser {
+    /**
+     * Shared StAX input factory, the factory is thread-safe once configured.
+     */
+    private static final XMLInputFactory factory = createInputFactory();
+
     /**
      * Parse and load the configuration instance using the specified properties.
      *
@@ -81,45 +101,56 @@ public class XMLConfigParser extends AbstractConfigParser {
             }
 
             try (InputStream stream = reader.getInputStream()) {
-                DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-                dbf.setValidating(true);
-                DocumentBuilder db = dbf.newDocumentBuilder();
-                Document doc = db.parse(stream);
+                if (this.settings.getParseMode() !=
+                        ConfigurationSettings.EParseMode.Tree) {
+                    readDocument(name, stream, version, password);
+                } else {
+                    DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+                    dbf.setValidating(true);
+                    DocumentBuilder db = dbf.newDocumentBuilder();
+                    Document doc = db.parse(stream);
 
-                // optional, but recommended
-                // read this -
-                // http://stackoverflow.com/questions/13786607/normalization-in-dom-parsing-with-java-how-does-it-work
-                doc.getDocumentElement().normalize();
+                    // optional, but recommended
+                    // read this -
+                    // http://stackoverflow.com/questions/13786607/normalization-in-dom-parsing-with-java-how-does-it-work
+                    doc.getDocumentElement().normalize();
 
-                Element rootNode = doc.getDocumentElement();
+                    Element rootNode = doc.getDocumentElement();
 
-                configuration = new Configuration(this.settings);
-                configuration.getState().setState(ENodeState.Loading);
-                configuration.setName(name);
+                    configuration = new Configuration(this.settings);
 
-                parseHeader(rootNode, version, password);
+                    configuration.setStringPool(stringPool);
+                    configuration.getState().setState(ENodeState.Loading);
+                    configuration.setName(name);
 
-                NodeList children = rootNode.getChildNodes();
-                for (int ii = 0; ii < children.getLength(); ii++) {
-                    Node nn = children.item(ii);
-                    if (nn.getNodeName()
-                          .compareTo(XMLConfigConstants.CONFIG_HEADER_NODE) == 0) {
-                        continue;
-                    }
-                    if (!(nn instanceof Element)) {
-                        continue;
+                    parseHeader(rootNode, version, password);
+
+                    NodeList children = rootNode.getChildNodes();
+                    for (int ii = 0; ii < children.getLength(); ii++) {
+                        Node nn = children.item(ii);
+                        if (nn.getNodeName()
+                              .compareTo(XMLConfigConstants.CONFIG_HEADER_NODE) == 0) {
+                            continue;
+                        }
+                        if (!(nn instanceof Element)) {
+                            continue;
+                        }
+                        parseBody((Element) nn, password);
+                        break;
                     }
-                    parseBody((Element) nn, password);
-                    break;
                 }
 
+                // Wait for included configurations/remote resources.
+                awaitResolutions();
+
                 doPostLoad();
 
                 if (!Strings.isNullOrEmpty(configuration.getEncryptionHash())) {
                     ZConfigEnv.getVault().addPasscode(configuration, password);
                 }
             }
-        } catch (IOException | ParserConfigurationException | SAXException e) {
+        } catch (IOException | ParserConfigurationException | SAXException |
+                XMLStreamException e) {
             if (configuration != null)
                 configuration.getState().setError(e);
             throw new ConfigurationException(e);
@@ -131,6 +162,701 @@ public class XMLConfigParser extends AbstractConfigParser {
             if (configuration != null)
                 configuration.getState().setError(e);
             throw new ConfigurationException(e);
+        } finally {
+            cancelResolutions();
+        }
+    }
+
+    /**
+     * Read the configuration from the XML stream in a single pass.
+     * <p>
+     * The node type for an element (list/value/path) depends on its children,
+     * hence configuration nodes are created when the element end is read and
+     * attached to the parent node once the parent element has been read.
+     *
+     * @param name    - Configuration name being loaded.
+     * @param stream  - XML input stream.
+     * @param version - Expected Version.
+     * @throws ConfigurationException
+     */
+    private void readDocument(String name, InputStream stream, Version version,
+                              String password)
+    throws ConfigurationException, XMLStreamException {
+        configuration = new Configuration(this.settings);
+        configuration.setStringPool(stringPool);
+        configuration.getState().setState(ENodeState.Loading);
+        configuration.setName(name);
+
+        XMLStreamReader reader = factory.createXMLStreamReader(stream);
+        try {
+            // Move to the document element.
+            while (reader.hasNext() &&
+                    reader.next() != XMLStreamConstants.START_ELEMENT) {
+            }
+            boolean hasHeader = false;
+            boolean hasBody = false;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String nodeName = nodeName(reader);
+                    if (nodeName.compareTo(XMLConfigConstants.CONFIG_HEADER_NODE) ==
+                            0) {
+                        readHeader(reader, version, password);
+                        hasHeader = true;
+                    } else if (!hasBody) {
+                        readBody(reader, nodeName, password);
+                        hasBody = true;
+                    } else {
+                        skipElement(reader);
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    break;
+                }
+            }
+            if (!hasHeader) {
+                throw ConfigurationException
+                        .propertyNotFoundException(
+                                XMLConfigConstants.CONFIG_HEADER_NODE);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Read the Configuration header information from the XML stream.
+     *
+     * @param reader  - XML stream (positioned at the header start).
+     * @param version - Expected Version.
+     * @throws ConfigurationException
+     */
+    private void readHeader(XMLStreamReader reader, Version version,
+                            String password)
+    throws ConfigurationException {
+        try {
+            readHeader(readAttributes(reader), version, password);
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    break;
+                } else if (event != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String nodeName = nodeName(reader);
+                if (nodeName.compareTo(XMLConfigConstants.CONFIG_CREATED_BY) == 0) {
+                    ModifiedBy modifiedBy = parseUpdateInfo(readAttributes(reader));
+                    if (modifiedBy == null) {
+                        throw ConfigurationException
+                                .propertyNotFoundException(
+                                        XMLConfigConstants.CONFIG_CREATED_BY);
+                    }
+                    configuration.setCreatedBy(modifiedBy);
+                    skipElement(reader);
+                } else if (nodeName.compareTo(XMLConfigConstants.CONFIG_UPDATED_BY) ==
+                        0) {
+                    ModifiedBy modifiedBy = parseUpdateInfo(readAttributes(reader));
+                    if (modifiedBy == null) {
+                        throw ConfigurationException
+                                .propertyNotFoundException(
+                                        XMLConfigConstants.CONFIG_UPDATED_BY);
+                    }
+                    configuration.setUpdatedBy(modifiedBy);
+                    skipElement(reader);
+                } else if (nodeName.compareTo(XMLConfigConstants.CONFIG_HEADER_DESC) ==
+                        0) {
+                    String desc = readText(reader);
+                    Preconditions.checkState(!Strings.isNullOrEmpty(desc));
+                    configuration.setDescription(desc);
+                } else {
+                    skipElement(reader);
+                }
+            }
+        } catch (ConfigurationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
+    /**
+     * Read the XML body from the stream and create the configuration nodes.
+     *
+     * @param reader - XML stream (positioned at the body start).
+     * @param name   - Body element name.
+     * @throws ConfigurationException
+     */
+    private void readBody(XMLStreamReader reader, String name, String password)
+    throws ConfigurationException, XMLStreamException {
+        ConfigPathNode rootNode = new ConfigPathNode(configuration, null);
+        rootNode.setName(name);
+        configuration.setRootConfigNode(rootNode);
+
+        Deque<ElementFrame> frames = new ArrayDeque<>();
+        frames.push(new ElementFrame(name, Collections.emptyMap(), false));
+        while (!frames.isEmpty()) {
+            int event = reader.next();
+            ElementFrame frame = frames.peek();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    frames.push(new ElementFrame(nodeName(reader),
+                                                 readAttributes(reader),
+                                                 frame.collectText));
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    frame.addText(reader.getText());
+                    break;
+                case XMLStreamConstants.COMMENT:
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    frame.addNode(event == XMLStreamConstants.COMMENT ?
+                                          reader.getText() : reader.getPIData());
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    frames.pop();
+                    if (frames.isEmpty()) {
+                        for (ElementFrame child : frame.children) {
+                            attachNode(child, rootNode);
+                        }
+                    } else {
+                        frames.peek().addChild(frame);
+                        createNode(frame);
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Create the configuration node for an element that has been read.
+     * Nodes are not created for path elements with reserved names (properties,
+     * parameters, include, resource), as the node type depends on the parent
+     * node, these are created when attached to the parent.
+     *
+     * @param frame - Element that has been read.
+     * @throws ConfigurationException
+     */
+    private void createNode(ElementFrame frame) throws ConfigurationException {
+        short nodeListType = frame.getListType(settings);
+        if (nodeListType == Node.ELEMENT_NODE) {
+            ConfigListElementNode nodeList =
+                    new ConfigListElementNode(configuration, null);
+            nodeList.setName(frame.name);
+            attachChildren(frame, nodeList);
+            frame.node = nodeList;
+        } else if (nodeListType == Node.TEXT_NODE) {
+            ConfigListValueNode nodeList =
+                    new ConfigListValueNode(configuration, null);
+            nodeList.setName(frame.name);
+            attachChildren(frame, nodeList);
+            frame.node = nodeList;
+        } else if (!frame.isText()) {
+            if (isReservedNode(frame.name)) {
+                return;
+            }
+            ConfigPathNode pnode = new ConfigPathNode(configuration, null);
+            pnode.setName(frame.name);
+            attachChildren(frame, pnode);
+            frame.node = pnode;
+        } else {
+            ConfigValueNode vn = new ConfigValueNode(configuration, null);
+            vn.setName(frame.name);
+            String value = frame.text.toString().trim();
+            if (!Strings.isNullOrEmpty(value)) {
+                vn.setValue(value);
+            }
+            String en = frame.attributes.get(XMLConfigConstants.CONFIG_NODE_ENCRYPTED);
+            if (en != null && en.compareToIgnoreCase("true") == 0) {
+                vn.setEncrypted(true);
+            }
+            frame.node = vn;
+        }
+        frame.release();
+    }
+
+    /**
+     * Add the element attributes and child nodes to the configuration node.
+     *
+     * @param frame  - Element that has been read.
+     * @param parent - Configuration node created for the element.
+     * @throws ConfigurationException
+     */
+    private void attachChildren(ElementFrame frame, AbstractConfigNode parent)
+    throws ConfigurationException {
+        if (!frame.attributes.isEmpty() && (parent instanceof ConfigPathNode)) {
+            ConfigAttributesNode attrs = ((ConfigPathNode) parent).attributes();
+            if (attrs == null) {
+                attrs = new ConfigAttributesNode(configuration, parent);
+                setupNode(configuration.getSettings().getAttributesNodeName(),
+                          attrs, parent);
+            }
+            for (Map.Entry<String, String> attr : frame.attributes.entrySet()) {
+                attrs.addKeyValue(attr.getKey(), attr.getValue());
+            }
+        }
+        for (ElementFrame child : frame.children) {
+            attachNode(child, parent);
+        }
+    }
+
+    /**
+     * Add the configuration node created for the element to the parent node.
+     *
+     * @param frame  - Element that has been read.
+     * @param parent - Parent Config Node.
+     * @throws ConfigurationException
+     */
+    private void attachNode(ElementFrame frame, AbstractConfigNode parent)
+    throws ConfigurationException {
+        AbstractConfigNode node = frame.node;
+        if (node == null) {
+            attachReservedNode(frame, parent);
+        } else if (node instanceof ConfigListNode) {
+            if (!(parent instanceof ConfigPathNode)) {
+                throw new ConfigurationException(String.format(
+                        "Cannot add Config %s List to parent : [parent=%s][path=%s]",
+                        (node instanceof ConfigListElementNode ? "Node" : "Value"),
+                        parent.getClass().getCanonicalName(),
+                        parent.getAbsolutePath()));
+            }
+            ((ConfigPathNode) parent).addChildNode(node);
+        } else if (node instanceof ConfigValueNode) {
+            ConfigValueNode vn = (ConfigValueNode) node;
+            vn.setParent(parent);
+            if (parent instanceof ConfigPathNode) {
+                ((ConfigPathNode) parent).addChildNode(vn);
+            } else if (parent instanceof ConfigListValueNode) {
+                ((ConfigListValueNode) parent).addValue(vn);
+            } else if (parent instanceof ConfigKeyValueNode) {
+                ((ConfigKeyValueNode) parent).addKeyValue(vn);
+            } else {
+                throw new ConfigurationException(String.format(
+                        "Cannot add ConfigValue to parent : [parent=%s][path=%s]",
+                        parent.getClass().getCanonicalName(),
+                        parent.getAbsolutePath()));
+            }
+        } else if (parent instanceof ConfigListElementNode) {
+            ((ConfigListElementNode) parent).addValue((ConfigPathNode) node);
+        } else {
+            if (!(parent instanceof ConfigPathNode)) {
+                throw new ConfigurationException(String.format(
+                        "Cannot add Config Node to parent : [parent=%s][path=%s]",
+                        parent.getClass().getCanonicalName(),
+                        parent.getAbsolutePath()));
+            }
+            setupNode(frame.name, node, parent);
+        }
+    }
+
+    /**
+     * Create and add the configuration node for a path element with a reserved
+     * name to the parent node.
+     *
+     * @param frame  - Element that has been read.
+     * @param parent - Parent Config Node.
+     * @throws ConfigurationException
+     */
+    private void attachReservedNode(ElementFrame frame, AbstractConfigNode parent)
+    throws ConfigurationException {
+        if (parent instanceof ConfigListElementNode) {
+            ConfigPathNode pnode = new ConfigPathNode(configuration, parent);
+            pnode.setName(frame.name);
+            ((ConfigListElementNode) parent).addValue(pnode);
+            attachChildren(frame, pnode);
+            return;
+        }
+        if (!(parent instanceof ConfigPathNode)) {
+            throw new ConfigurationException(String.format(
+                    "Cannot add Config Node to parent : [parent=%s][path=%s]",
+                    parent.getClass().getCanonicalName(),
+                    parent.getAbsolutePath()));
+        }
+        String nodeName = frame.name;
+        if (nodeName.compareTo(settings.getPropertiesNodeName()) == 0) {
+            ConfigPropertiesNode pnode =
+                    new ConfigPropertiesNode(configuration, parent);
+            setupNode(settings.getPropertiesNodeName(), pnode, parent);
+            attachChildren(frame, pnode);
+        } else if (nodeName.compareTo(settings.getParametersNodeName()) == 0) {
+            ConfigParametersNode pnode =
+                    new ConfigParametersNode(configuration, parent);
+            setupNode(settings.getParametersNodeName(), pnode, parent);
+            attachChildren(frame, pnode);
+        } else if (nodeName.compareTo(ConfigIncludeNode.NODE_NAME) == 0) {
+            ConfigIncludeNode pnode =
+                    new ConfigIncludeNode(configuration, parent);
+            included();
+            setupNode(ConfigIncludeNode.NODE_NAME, pnode, parent);
+        } else if (nodeName.compareTo(ConfigResourceNode.NODE_NAME) == 0) {
+            String type = frame.attributes.get(ConfigResourceNode.NODE_RESOURCE_TYPE);
+            if (Strings.isNullOrEmpty(type)) {
+                throw ConfigurationException.propertyNotFoundException(
+                        ConfigResourceNode.NODE_RESOURCE_TYPE);
+            }
+            EResourceType rtype = EResourceType.valueOf(type);
+            ConfigResourceFile pnode = null;
+            if (rtype == EResourceType.FILE) {
+                pnode = new ConfigResourceFile(configuration, parent);
+                setupNode(ConfigResourceNode.NODE_NAME, pnode, parent);
+                setupResourceNode(frame, pnode);
+                loadResourceFile(pnode);
+            } else if (rtype == EResourceType.BLOB) {
+                pnode = new ConfigResourceBlob(configuration, parent);
+                setupNode(ConfigResourceNode.NODE_NAME, pnode, parent);
+                setupResourceNode(frame, pnode);
+                loadResourceFile(pnode);
+            } else if (rtype == EResourceType.DIRECTORY) {
+                pnode = new ConfigResourceDirectory(configuration, parent);
+                setupNode(ConfigResourceNode.NODE_NAME, pnode, parent);
+                setupResourceNode(frame, pnode);
+                loadResourceDirectory((ConfigResourceDirectory) pnode);
+            }
+            pnode.setName(nodeName);
+        }
+        frame.release();
+    }
+
+    /**
+     * Setup the common resource information from the element that has been read.
+     *
+     * @param frame    - Resource element.
+     * @param resource - Config resource handle.
+     * @throws ConfigurationException
+     */
+    private void setupResourceNode(ElementFrame frame, ConfigResourceNode resource)
+    throws ConfigurationException {
+        if (frame.attributes.isEmpty()) {
+            throw new ConfigurationException(
+                    String.format("No attributes found : [path=%s]", frame.name));
+        }
+        setupResource(frame.attributes.get(ConfigResourceNode.NODE_RESOURCE_TYPE),
+                      frame.attributes.get(ConfigResourceNode.NODE_RESOURCE_NAME),
+                      resource);
+        if (frame.nodeCount == 0) {
+            throw new ConfigurationException(
+                    String.format("No child nodes found : [path=%s]", frame.name));
+        }
+        for (ElementFrame child : frame.children) {
+            if (child.node instanceof ConfigValueNode &&
+                    child.name.compareTo(ConfigResourceNode.NODE_RESOURCE_URL) == 0) {
+                setupResourceLocation(((ConfigValueNode) child.node).getValue(),
+                                      resource);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Check if the element name is reserved for a specific node type.
+     *
+     * @param name - Element name.
+     * @return - Is reserved?
+     */
+    private boolean isReservedNode(String name) {
+        return (name.compareTo(settings.getPropertiesNodeName()) == 0 ||
+                name.compareTo(settings.getParametersNodeName()) == 0 ||
+                name.compareTo(ConfigIncludeNode.NODE_NAME) == 0 ||
+                name.compareTo(ConfigResourceNode.NODE_NAME) == 0);
+    }
+
+    /**
+     * Get the name of the current element.
+     *
+     * @param reader - XML stream.
+     * @return - Element name.
+     */
+    private static String nodeName(XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        if (Strings.isNullOrEmpty(prefix)) {
+            return reader.getLocalName();
+        }
+        return String.format("%s:%s", prefix, reader.getLocalName());
+    }
+
+    /**
+     * Get the attributes of the current element.
+     *
+     * @param reader - XML stream.
+     * @return - Map of attribute name/values.
+     */
+    private static Map<String, String> readAttributes(XMLStreamReader reader) {
+        int count = reader.getAttributeCount();
+        if (count == 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> attributes = new LinkedHashMap<>(count * 2);
+        for (int ii = 0; ii < count; ii++) {
+            String prefix = reader.getAttributePrefix(ii);
+            String name = reader.getAttributeLocalName(ii);
+            if (!Strings.isNullOrEmpty(prefix)) {
+                name = String.format("%s:%s", prefix, name);
+            }
+            attributes.put(name, reader.getAttributeValue(ii));
+        }
+        return attributes;
+    }
+
+    /**
+     * Read the text content of the current element, the stream is positioned at
+     * the element end once read.
+     *
+     * @param reader - XML stream.
+     * @return - Text content.
+     * @throws XMLStreamException
+     */
+    private static String readText(XMLStreamReader reader)
+    throws XMLStreamException {
+        StringBuilder buffer = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (event == XMLStreamConstants.CHARACTERS ||
+                    event == XMLStreamConstants.CDATA ||
+                    event == XMLStreamConstants.SPACE) {
+                buffer.append(reader.getText());
+            }
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Skip the current element, the stream is positioned at the element end.
+     *
+     * @param reader - XML stream.
+     * @throws XMLStreamException
+     */
+    private static void skipElement(XMLStreamReader reader)
+    throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Create the shared StAX input factory.
+     *
+     * @return - XML Input Factory.
+     */
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // Element/attribute names are read as qualified names (as the DOM parser).
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        // Configurations can be remote/included, don't resolve DTDs or external entities (XXE).
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * State of an XML element being read from the stream. Tracks the child nodes
+     * as required to determine the configuration node type (list/value/path) for
+     * the element.
+     */
+    private static final class ElementFrame {
+        /**
+         * Element name.
+         */
+        private final String name;
+        /**
+         * Element attributes.
+         */
+        private Map<String, String> attributes;
+        /**
+         * Does the element have the encrypted attribute?
+         */
+        private final boolean encrypted;
+        /**
+         * Collect the text of all the descendant nodes (for encrypted values).
+         */
+        private final boolean collectText;
+        /**
+         * Text content of the element, NULL once the element cannot be a text
+         * element.
+         */
+        private StringBuilder text = new StringBuilder();
+        /**
+         * Read child elements.
+         */
+        private List<ElementFrame> children = new ArrayList<>();
+        /**
+         * Number of child nodes (adjacent text is counted as one node).
+         */
+        private int nodeCount = 0;
+        /**
+         * Is the last child node a text node?
+         */
+        private boolean lastText = false;
+        /**
+         * Is the first child node a text node?
+         */
+        private boolean firstText = false;
+        /**
+         * Text content of the second child node.
+         */
+        private String secondText = null;
+        /**
+         * Name of the first child element, elements are a list if all the
+         * child elements have the same name/type.
+         */
+        private String listName = null;
+        /**
+         * Are the child elements text elements?
+         */
+        private boolean listText = false;
+        /**
+         * Number of matching child elements after the first.
+         */
+        private int listCount = 0;
+        /**
+         * Can the child elements be a list?
+         */
+        private boolean listElements = true;
+        /**
+         * Configuration node created for this element.
+         */
+        private AbstractConfigNode node = null;
+
+        /**
+         * Constructor with the element name and attributes.
+         *
+         * @param name        - Element name.
+         * @param attributes  - Element attributes.
+         * @param collectText - Collect the descendant text?
+         */
+        private ElementFrame(String name, Map<String, String> attributes,
+                             boolean collectText) {
+            this.name = name;
+            this.attributes = attributes;
+            this.encrypted =
+                    attributes.containsKey(XMLConfigConstants.CONFIG_NODE_ENCRYPTED);
+            this.collectText = (collectText || encrypted);
+        }
+
+        /**
+         * Add a text node.
+         *
+         * @param value - Text value.
+         */
+        private void addText(String value) {
+            if (!lastText) {
+                nodeAdded(value);
+                if (nodeCount == 1) {
+                    firstText = true;
+                }
+                lastText = true;
+            } else if (nodeCount == 2 && encrypted) {
+                secondText = secondText + value;
+            }
+            if (text != null) {
+                text.append(value);
+            }
+        }
+
+        /**
+         * Add a (non-text) child node.
+         *
+         * @param value - Text content of the node.
+         */
+        private void addNode(String value) {
+            nodeAdded(value);
+            lastText = false;
+        }
+
+        /**
+         * Add a child element which has been read.
+         *
+         * @param child - Child element.
+         */
+        private void addChild(ElementFrame child) {
+            String value = null;
+            if (collectText && child.text != null) {
+                value = child.text.toString();
+                text.append(value);
+            }
+            addNode(value);
+            if (child.nodeCount == 0) {
+                listElements = false;
+            } else if (listName == null) {
+                listName = child.name;
+                listText = child.isText();
+            } else if (listName.compareTo(child.name) != 0 ||
+                    listText != child.isText()) {
+                listElements = false;
+            } else {
+                listCount++;
+            }
+            children.add(child);
+        }
+
+        /**
+         * Update the child node count.
+         *
+         * @param value - Text content of the node.
+         */
+        private void nodeAdded(String value) {
+            nodeCount++;
+            if (nodeCount == 2 && encrypted) {
+                secondText = value;
+            }
+            if (nodeCount > 1 && !collectText) {
+                text = null;
+            }
+        }
+
+        /**
+         * Check if the element is basically a Text Node wrapper.
+         *
+         * @return - Is Text Node?
+         */
+        private boolean isText() {
+            if (nodeCount == 1) {
+                return (firstText &&
+                        !Strings.isNullOrEmpty(text.toString().trim()));
+            } else if (nodeCount > 1 && encrypted) {
+                return (secondText != null &&
+                        !Strings.isNullOrEmpty(secondText.trim()));
+            }
+            return false;
+        }
+
+        /**
+         * Get the list type for the child elements.
+         *
+         * @param settings - Configuration Settings.
+         * @return - Node Type if List else -1
+         */
+        private short getListType(ConfigurationSettings settings) {
+            if (name.compareTo(settings.getAttributesNodeName()) == 0 ||
+                    name.compareTo(settings.getParametersNodeName()) == 0 ||
+                    name.compareTo(settings.getPropertiesNodeName()) == 0) {
+                return -1;
+            }
+            if (listElements && listCount > 0) {
+                return (listText ? Node.TEXT_NODE : Node.ELEMENT_NODE);
+            }
+            return -1;
+        }
+
+        /**
+         * Release the element state once the configuration node has been created.
+         */
+        private void release() {
+            attributes = Collections.emptyMap();
+            children = Collections.emptyList();
+            if (!collectText) {
+                text = null;
+            }
         }
     }
 
@@ -239,6 +965,7 @@ public class XMLConfigParser extends AbstractConfigParser {
                 } else if (nodeName.compareTo(ConfigIncludeNode.NODE_NAME) == 0) {
                     ConfigIncludeNode pnode =
                             new ConfigIncludeNode(configuration, parent);
+                    included();
                     setupNode(ConfigIncludeNode.NODE_NAME, pnode, parent);
                     //((ConfigPathNode) parent).addChildNode(pnode);
                     //parseIncludeNode(node, pnode, password);
@@ -334,6 +1061,18 @@ public class XMLConfigParser extends AbstractConfigParser {
                                       ConfigResourceDirectory resource)
     throws ConfigurationException {
         setupResourceNode(node, resource);
+        loadResourceDirectory(resource);
+    }
+
+    /**
+     * Setup the local handle for a Resource Directory, downloading the remote
+     * directory if required.
+     *
+     * @param resource - Config Directory resource handle.
+     * @throws ConfigurationException
+     */
+    private void loadResourceDirectory(ConfigResourceDirectory resource)
+    throws ConfigurationException {
         URI uri = resource.getLocation();
         if (uri == null) {
             throw ConfigurationException.propertyNotFoundException("location");
@@ -360,18 +1099,17 @@ public class XMLConfigParser extends AbstractConfigParser {
                     Preconditions.checkNotNull(type);
 
                     if (type == EReaderType.HTTP || type == EReaderType.HTTPS) {
-                        try {
-                            long bread = RemoteFileHelper
-                                    .downloadRemoteDirectory(resource.getLocation(),
-                                                             resource.getResourceHandle());
-                            if (bread <= 0) {
-                                throw new ConfigurationException(String.format(
-                                        "No bytes read for remote file. [url=%s]",
-                                        uri.toString()));
-                            }
-                        } catch (IOException e) {
-                            throw new ConfigurationException(e);
-                        }
+                        resolve(() -> RemoteFileHelper
+                                        .downloadRemoteDirectory(resource.getLocation(),
+                                                                 resource.getResourceHandle()),
+                                (bread) -> {
+                                    if (bread <= 0) {
+                                        throw new ConfigurationException(
+                                                String.format(
+                                                        "No bytes read for remote file. [url=%s]",
+                                                        uri.toString()));
+                                    }
+                                });
                     }
                 }
             }
@@ -388,6 +1126,18 @@ public class XMLConfigParser extends AbstractConfigParser {
     private void parseResourceFileNode(Element node, ConfigResourceFile resource)
     throws ConfigurationException {
         setupResourceNode(node, resource);
+        loadResourceFile(resource);
+    }
+
+    /**
+     * Setup the local handle for a Resource File/Blob, downloading the remote
+     * file if required.
+     *
+     * @param resource - Config File/Blob resource handle.
+     * @throws ConfigurationException
+     */
+    private void loadResourceFile(ConfigResourceFile resource)
+    throws ConfigurationException {
         URI uri = resource.getLocation();
         if (uri == null) {
             throw ConfigurationException.propertyNotFoundException("location");
@@ -414,21 +1164,20 @@ public class XMLConfigParser extends AbstractConfigParser {
                     Preconditions.checkNotNull(type);
 
                     if (type == EReaderType.HTTP || type == EReaderType.HTTPS) {
-                        try {
-                            long bread = RemoteFileHelper
-                                    .downloadRemoteFile(resource.getLocation(),
-                                                        resource.getResourceHandle());
-                            if (bread <= 0) {
-                                throw new ConfigurationException(String.format(
-                                        "No bytes read for remote file. [url=%s]",
-                                        uri.toString()));
-                            }
-                            LogUtils.debug(getClass(), String.format(
-                                    "Downloaded remote file. [path=%s][size=%s]",
-                                    file.getAbsolutePath(), bread));
-                        } catch (IOException e) {
-                            throw new ConfigurationException(e);
-                        }
+                        resolve(() -> RemoteFileHelper
+                                        .downloadRemoteFile(resource.getLocation(),
+                                                            resource.getResourceHandle()),
+                                (bread) -> {
+                                    if (bread <= 0) {
+                                        throw new ConfigurationException(
+                                                String.format(
+                                                        "No bytes read for remote file. [url=%s]",
+                                                        uri.toString()));
+                                    }
+                                    LogUtils.debug(getClass(), String.format(
+                                            "Downloaded remote file. [path=%s][size=%s]",
+                                            file.getAbsolutePath(), bread));
+                                });
                     }
                 }
             }
@@ -449,24 +1198,9 @@ public class XMLConfigParser extends AbstractConfigParser {
                     String.format("No attributes found : [path=%s]",
                                   node.toString()));
         }
-        String attr = node.getAttribute(ConfigResourceNode.NODE_RESOURCE_TYPE);
-        if (Strings.isNullOrEmpty(attr)) {
-            throw ConfigurationException.propertyNotFoundException(
-                    ConfigResourceNode.NODE_RESOURCE_TYPE);
-        }
-        EResourceType type = EResourceType.valueOf(attr);
-        if (type == null) {
-            throw new ConfigurationException(String.format(
-                    "Invalid Resource Type : [type=%s]", attr));
-        }
-        resource.setType(type);
-
-        attr = node.getAttribute(ConfigResourceNode.NODE_RESOURCE_NAME);
-        if (Strings.isNullOrEmpty(attr)) {
-            throw ConfigurationException.propertyNotFoundException(
-                    ConfigResourceNode.NODE_RESOURCE_NAME);
-        }
-        resource.setResourceName(attr);
+        setupResource(node.getAttribute(ConfigResourceNode.NODE_RESOURCE_TYPE),
+                      node.getAttribute(ConfigResourceNode.NODE_RESOURCE_NAME),
+                      resource);
         if (!node.hasChildNodes()) {
             throw new ConfigurationException(
                     String.format("No child nodes found : [path=%s]",
@@ -481,22 +1215,62 @@ public class XMLConfigParser extends AbstractConfigParser {
             if (node instanceof Element) {
                 String name = cnode.getNodeName();
                 if (name.compareTo(ConfigResourceNode.NODE_RESOURCE_URL) == 0) {
-                    String url = cnode.getTextContent().trim();
-                    if (Strings.isNullOrEmpty(url)) {
-                        throw ConfigurationException.propertyNotFoundException(
-                                ConfigResourceNode.NODE_RESOURCE_URL);
-                    }
-                    try {
-                        resource.setLocation(new URI(url));
-                    } catch (URISyntaxException e) {
-                        throw new ConfigurationException(e);
-                    }
+                    setupResourceLocation(cnode.getTextContent().trim(), resource);
                     break;
                 }
             }
         }
     }
 
+    /**
+     * Set the resource type and name.
+     *
+     * @param type     - Resource type attribute value.
+     * @param name     - Resource name attribute value.
+     * @param resource - Config resource handle.
+     * @throws ConfigurationException
+     */
+    private void setupResource(String type, String name,
+                               ConfigResourceNode resource)
+    throws ConfigurationException {
+        if (Strings.isNullOrEmpty(type)) {
+            throw ConfigurationException.propertyNotFoundException(
+                    ConfigResourceNode.NODE_RESOURCE_TYPE);
+        }
+        EResourceType rtype = EResourceType.valueOf(type);
+        if (rtype == null) {
+            throw new ConfigurationException(String.format(
+                    "Invalid Resource Type : [type=%s]", type));
+        }
+        resource.setType(rtype);
+
+        if (Strings.isNullOrEmpty(name)) {
+            throw ConfigurationException.propertyNotFoundException(
+                    ConfigResourceNode.NODE_RESOURCE_NAME);
+        }
+        resource.setResourceName(name);
+    }
+
+    /**
+     * Set the resource location.
+     *
+     * @param url      - Resource URL.
+     * @param resource - Config resource handle.
+     * @throws ConfigurationException
+     */
+    private void setupResourceLocation(String url, ConfigResourceNode resource)
+    throws ConfigurationException {
+        if (Strings.isNullOrEmpty(url)) {
+            throw ConfigurationException.propertyNotFoundException(
+                    ConfigResourceNode.NODE_RESOURCE_URL);
+        }
+        try {
+            resource.setLocation(new URI(url));
+        } catch (URISyntaxException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+
     /**
      * Parse a included configuration node.
      *
@@ -555,19 +1329,23 @@ public class XMLConfigParser extends AbstractConfigParser {
                     String.format("Error getting reader instance : [URI=%s]",
                                   uri.toString()));
         }
-        XMLConfigParser nparser = new XMLConfigParser();
-        nparser.parse(parent.getConfigName(), reader, settings,
-                      parent.getVersion(), password);
-        if (nparser.configuration != null) {
-            ConfigPathNode configPathNode =
-                    nparser.configuration.getRootConfigNode();
-            parent.setNode(configPathNode);
-            configPathNode.changeConfiguration(configuration);
-        } else {
-            throw new ConfigurationException(String.format(
-                    "Error loading included configuration. [URI=%s]",
-                    uri.toString()));
-        }
+        resolve(() -> {
+            XMLConfigParser nparser = new XMLConfigParser();
+            nparser.setStringPool(stringPool);
+            nparser.parse(parent.getConfigName(), reader, settings,
+                          parent.getVersion(), password);
+            return nparser.configuration;
+        }, (config) -> {
+            if (config != null) {
+                ConfigPathNode configPathNode = config.getRootConfigNode();
+                parent.setNode(configPathNode);
+                configPathNode.changeConfiguration(configuration);
+            } else {
+                throw new ConfigurationException(String.format(
+                        "Error loading included configuration. [URI=%s]",
+                        uri.toString()));
+            }
+        });
     }
 
 
@@ -752,66 +1530,7 @@ public class XMLConfigParser extends AbstractConfigParser {
         }
         try {
             Element header = (Element) hnode.item(0);
-            if (header.hasAttribute(XMLConfigConstants.CONFIG_HEADER_ID)) {
-                String id =
-                        header.getAttribute(XMLConfigConstants.CONFIG_HEADER_ID);
-                Preconditions.checkState(!Strings.isNullOrEmpty(id));
-                configuration.setId(id);
-            }
-            if (header.hasAttribute(
-                    XMLConfigConstants.CONFIG_HEADER_NAME)) {
-                String name =
-                        header.getAttribute(XMLConfigConstants.CONFIG_HEADER_NAME);
-                Preconditions.checkState(!Strings.isNullOrEmpty(name));
-                configuration.setName(name);
-            }
-            if (header.hasAttribute(
-                    XMLConfigConstants.CONFIG_HEADER_GROUP)) {
-                String name = header.getAttribute(
-                        XMLConfigConstants.CONFIG_HEADER_GROUP);
-                Preconditions.checkState(!Strings.isNullOrEmpty(name));
-                configuration.setApplicationGroup(name);
-            }
-            if (header.hasAttribute(XMLConfigConstants.CONFIG_HEADER_APP)) {
-                String name =
-                        header.getAttribute(XMLConfigConstants.CONFIG_HEADER_APP);
-                Preconditions.checkState(!Strings.isNullOrEmpty(name));
-                configuration.setApplication(name);
-            }
-            if (header.hasAttribute(
-                    XMLConfigConstants.CONFIG_HEADER_VERSION)) {
-                String vstring = header.getAttribute(
-                        XMLConfigConstants.CONFIG_HEADER_VERSION);
-                Preconditions.checkState(!Strings.isNullOrEmpty(vstring));
-                Version cversion = Version.parse(vstring);
-                // Check version compatibility
-                if (!version.isCompatible(cversion)) {
-                    throw new ConfigurationException(String.format(
-                            "Incompatible Configuration Version. [expected=%s][actual=%s]",
-                            version.toString(), cversion.toString()));
-                }
-                configuration.setVersion(cversion);
-            }
-            if (header.hasAttribute(XMLConfigConstants.CONFIG_HEADER_PASSWD_HASH)) {
-                String hash = header.getAttribute(
-                        XMLConfigConstants.CONFIG_HEADER_PASSWD_HASH);
-                if (Strings.isNullOrEmpty(hash)) {
-                    throw new ConfigurationException(
-                            "Invalid Password Hash: NULL or Empty.");
-                }
-                if (Strings.isNullOrEmpty(password)) {
-                    throw new ConfigurationException(String.format(
-                            "Configuration has encryption, but no passcode specified. [config=%s]",
-                            configuration.getName()));
-                }
-                String chash = CypherUtils.getKeyHash(password);
-                if (hash.compareTo(chash) != 0) {
-                    throw new ConfigurationException(String.format(
-                            "Invalid Passcode: Doesn't match with passcode set in configuration. [config=%s]",
-                            configuration.getName()));
-                }
-                configuration.setEncryptionHash(hash);
-            }
+            readHeader(attributes(header), version, password);
             NodeList children = header.getChildNodes();
             if (children != null && children.getLength() > 0) {
                 for (int ii = 0; ii < children.getLength(); ii++) {
@@ -819,7 +1538,8 @@ public class XMLConfigParser extends AbstractConfigParser {
                     if (nn.getNodeName()
                           .compareTo(XMLConfigConstants.CONFIG_CREATED_BY) ==
                             0) {
-                        ModifiedBy modifiedBy = parseUpdateInfo((Element) nn);
+                        ModifiedBy modifiedBy =
+                                parseUpdateInfo(attributes((Element) nn));
                         if (modifiedBy == null) {
                             throw ConfigurationException
                                     .propertyNotFoundException(
@@ -829,7 +1549,8 @@ public class XMLConfigParser extends AbstractConfigParser {
                     } else if (nn.getNodeName()
                                  .compareTo(XMLConfigConstants.CONFIG_UPDATED_BY) ==
                             0) {
-                        ModifiedBy modifiedBy = parseUpdateInfo((Element) nn);
+                        ModifiedBy modifiedBy =
+                                parseUpdateInfo(attributes((Element) nn));
                         if (modifiedBy == null) {
                             throw ConfigurationException
                                     .propertyNotFoundException(
@@ -854,25 +1575,87 @@ public class XMLConfigParser extends AbstractConfigParser {
     }
 
     /**
-     * Parse an Update Info node from the XML Element.
+     * Read the Configuration header attributes. Will also do a version
+     * compatibility check.
      *
-     * @param node - XML Node Element.
+     * @param header  - Header attributes.
+     * @param version - Expected Version.
+     * @throws ConfigurationException
+     */
+    private void readHeader(Map<String, String> header, Version version,
+                            String password)
+    throws Exception {
+        if (header.containsKey(XMLConfigConstants.CONFIG_HEADER_ID)) {
+            String id = header.get(XMLConfigConstants.CONFIG_HEADER_ID);
+            Preconditions.checkState(!Strings.isNullOrEmpty(id));
+            configuration.setId(id);
+        }
+        if (header.containsKey(XMLConfigConstants.CONFIG_HEADER_NAME)) {
+            String name = header.get(XMLConfigConstants.CONFIG_HEADER_NAME);
+            Preconditions.checkState(!Strings.isNullOrEmpty(name));
+            configuration.setName(name);
+        }
+        if (header.containsKey(XMLConfigConstants.CONFIG_HEADER_GROUP)) {
+            String name = header.get(XMLConfigConstants.CONFIG_HEADER_GROUP);
+            Preconditions.checkState(!Strings.isNullOrEmpty(name));
+            configuration.setApplicationGroup(name);
+        }
+        if (header.containsKey(XMLConfigConstants.CONFIG_HEADER_APP)) {
+            String name = header.get(XMLConfigConstants.CONFIG_HEADER_APP);
+            Preconditions.checkState(!Strings.isNullOrEmpty(name));
+            configuration.setApplication(name);
+        }
+        if (header.containsKey(XMLConfigConstants.CONFIG_HEADER_VERSION)) {
+            String vstring = header.get(XMLConfigConstants.CONFIG_HEADER_VERSION);
+            Preconditions.checkState(!Strings.isNullOrEmpty(vstring));
+            Version cversion = Version.parse(vstring);
+            // Check version compatibility
+            if (!version.isCompatible(cversion)) {
+                throw new ConfigurationException(String.format(
+                        "Incompatible Configuration Version. [expected=%s][actual=%s]",
+                        version.toString(), cversion.toString()));
+            }
+            configuration.setVersion(cversion);
+        }
+        if (header.containsKey(XMLConfigConstants.CONFIG_HEADER_PASSWD_HASH)) {
+            String hash = header.get(XMLConfigConstants.CONFIG_HEADER_PASSWD_HASH);
+            if (Strings.isNullOrEmpty(hash)) {
+                throw new ConfigurationException(
+                        "Invalid Password Hash: NULL or Empty.");
+            }
+            if (Strings.isNullOrEmpty(password)) {
+                throw new ConfigurationException(String.format(
+                        "Configuration has encryption, but no passcode specified. [config=%s]",
+                        configuration.getName()));
+            }
+            String chash = CypherUtils.getKeyHash(password);
+            if (hash.compareTo(chash) != 0) {
+                throw new ConfigurationException(String.format(
+                        "Invalid Passcode: Doesn't match with passcode set in configuration. [config=%s]",
+                        configuration.getName()));
+            }
+            configuration.setEncryptionHash(hash);
+        }
+    }
+
+    /**
+     * Parse an Update Info node from the element attributes.
+     *
+     * @param node - Element attributes.
      * @return - Update Info.
      * @throws ConfigurationException
      */
-    private ModifiedBy parseUpdateInfo(Element node)
+    private ModifiedBy parseUpdateInfo(Map<String, String> node)
     throws ConfigurationException {
-        if (node.hasAttributes()) {
+        if (!node.isEmpty()) {
             ModifiedBy mb = new ModifiedBy();
-            if (node.hasAttribute(XMLConfigConstants.CONFIG_CREATED_BY)) {
-                String user =
-                        node.getAttribute(XMLConfigConstants.CONFIG_CREATED_BY);
+            if (node.containsKey(XMLConfigConstants.CONFIG_CREATED_BY)) {
+                String user = node.get(XMLConfigConstants.CONFIG_CREATED_BY);
                 Preconditions.checkState(!Strings.isNullOrEmpty(user));
                 mb.setModifiedBy(user);
             }
-            if (node.hasAttribute(XMLConfigConstants.CONFIG_UPDATE_TIMESTAMP)) {
-                String ts = node.getAttribute(
-                        XMLConfigConstants.CONFIG_UPDATE_TIMESTAMP);
+            if (node.containsKey(XMLConfigConstants.CONFIG_UPDATE_TIMESTAMP)) {
+                String ts = node.get(XMLConfigConstants.CONFIG_UPDATE_TIMESTAMP);
                 Preconditions.checkState(!Strings.isNullOrEmpty(ts));
                 long dt = Long.parseLong(ts);
                 mb.setTimestamp(dt);
@@ -882,6 +1665,24 @@ public class XMLConfigParser extends AbstractConfigParser {
         return null;
     }
 
+    /**
+     * Get the attributes of the XML Element.
+     *
+     * @param node - XML Node Element.
+     * @return - Map of attribute name/values.
+     */
+    private Map<String, String> attributes(Element node) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        NamedNodeMap nattrs = node.getAttributes();
+        if (nattrs != null) {
+            for (int ii = 0; ii < nattrs.getLength(); ii++) {
+                Node attr = nattrs.item(ii);
+                attributes.put(attr.getNodeName(), attr.getNodeValue());
+            }
+        }
+        return attributes;
+    }
+
     @Override
     public void close() throws IOException {
 
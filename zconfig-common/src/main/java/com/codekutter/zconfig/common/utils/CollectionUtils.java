@@ -65,6 +65,24 @@ public class CollectionUtils {
                                            @Nonnull List<String> values)
             throws Exception {
         Preconditions.checkArgument(source != null);
+        Object value = createListValues(field, values);
+        if (value != null) {
+            ReflectionUtils.setObjectValue(source, field, value);
+        }
+    }
+
+    /**
+     * Create a List of elements converted from the List of input strings, for
+     * the element type of the specified field (see setListValues()).
+     *
+     * @param field  - List field the values are created for.
+     * @param values - List of string values to convert from.
+     * @return - Converted List or NULL if the element type is not supported.
+     * @throws Exception
+     */
+    public static final Object createListValues(@Nonnull Field field,
+                                                @Nonnull List<String> values)
+            throws Exception {
         Preconditions.checkArgument(field != null);
         Preconditions.checkArgument(values != null);
 
@@ -78,38 +96,29 @@ public class CollectionUtils {
         Class<?> ptype = ReflectionUtils.getGenericListType(field);
         Preconditions.checkNotNull(ptype);
         if (ptype.equals(String.class)) {
-            ReflectionUtils.setObjectValue(source, field, values);
+            return values;
         } else if (ptype.equals(Boolean.class)) {
-            List<Boolean> bl = createBoolList(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createBoolList(values);
         } else if (ptype.equals(Character.class)) {
-            List<Character> bl = createCharList(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createCharList(values);
         } else if (ptype.equals(Short.class)) {
-            List<Short> bl = createShortList(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createShortList(values);
         } else if (ptype.equals(Integer.class)) {
-            List<Integer> bl = createIntList(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createIntList(values);
         } else if (ptype.equals(Long.class)) {
-            List<Long> bl = createLongList(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createLongList(values);
         } else if (ptype.equals(Float.class)) {
-            List<Float> bl = createFloatList(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createFloatList(values);
         } else if (ptype.equals(Double.class)) {
-            List<Double> bl = createDoubleList(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createDoubleList(values);
         } else if (ptype.equals(BigInteger.class)) {
-            List<BigInteger> bl = createBigIntegerList(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createBigIntegerList(values);
         } else if (ptype.equals(BigDecimal.class)) {
-            List<BigDecimal> bl = createBigDecimalList(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createBigDecimalList(values);
         } else if (ptype.equals(Date.class)) {
-            List<Date> bl = createDateList(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createDateList(values);
         }
+        return null;
     }
 
     private static List<Boolean> createBoolList(List<String> values) {
@@ -225,6 +234,24 @@ public class CollectionUtils {
                                           @Nonnull List<String> values)
             throws Exception {
         Preconditions.checkArgument(source != null);
+        Object value = createSetValues(field, values);
+        if (value != null) {
+            ReflectionUtils.setObjectValue(source, field, value);
+        }
+    }
+
+    /**
+     * Create a Set of elements converted from the List of input strings, for
+     * the element type of the specified field (see setSetValues()).
+     *
+     * @param field  - Set field the values are created for.
+     * @param values - List of string values to convert from.
+     * @return - Converted Set or NULL if the element type is not supported.
+     * @throws Exception
+     */
+    public static final Object createSetValues(@Nonnull Field field,
+                                               @Nonnull List<String> values)
+            throws Exception {
         Preconditions.checkArgument(field != null);
         Preconditions.checkArgument(values != null);
 
@@ -240,38 +267,29 @@ public class CollectionUtils {
         if (ptype.equals(String.class)) {
             Set<String> nvalues = new HashSet<>(values.size());
             nvalues.addAll(values);
-            ReflectionUtils.setObjectValue(source, field, nvalues);
+            return nvalues;
         } else if (ptype.equals(Boolean.class)) {
-            Set<Boolean> bl = createBoolSet(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createBoolSet(values);
         } else if (ptype.equals(Character.class)) {
-            Set<Character> bl = createCharSet(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createCharSet(values);
         } else if (ptype.equals(Short.class)) {
-            Set<Short> bl = createShortSet(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createShortSet(values);
         } else if (ptype.equals(Integer.class)) {
-            Set<Integer> bl = createIntSet(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createIntSet(values);
         } else if (ptype.equals(Long.class)) {
-            Set<Long> bl = createLongSet(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createLongSet(values);
         } else if (ptype.equals(Float.class)) {
-            Set<Float> bl = createFloatSet(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createFloatSet(values);
         } else if (ptype.equals(Double.class)) {
-            Set<Double> bl = createDoubleSet(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createDoubleSet(values);
         } else if (ptype.equals(BigInteger.class)) {
-            Set<BigInteger> bl = createBigIntegerSet(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createBigIntegerSet(values);
         } else if (ptype.equals(BigDecimal.class)) {
-            Set<BigDecimal> bl = createBigDecimalSet(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createBigDecimalSet(values);
         } else if (ptype.equals(Date.class)) {
-            Set<Date> bl = createDateSet(values);
-            ReflectionUtils.setObjectValue(source, field, bl);
+            return createDateSet(values);
         }
+        return null;
     }
 
     private static Set<Boolean> createBoolSet(List<String> values) {
@@ -32,6 +32,8 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 
 import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -295,4 +297,50 @@ public class ConfigUtils {
         }
         return null;
     }
+
+    /**
+     * Parse a duration string. Supported formats are ISO-8601 (PT10S), a
+     * number with a unit suffix (ns, us, ms, s, m, h, d) or a plain number
+     * (milliseconds).
+     *
+     * @param value - Duration string.
+     * @return - Parsed duration.
+     */
+    public static Duration parseDuration(@Nonnull String value) {
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(value));
+        value = value.trim();
+        char first = value.charAt(0);
+        if (first == 'P' || first == 'p' ||
+                ((first == '-' || first == '+') && value.length() > 1 &&
+                        Character.toUpperCase(value.charAt(1)) == 'P')) {
+            return Duration.parse(value);
+        }
+        int index = value.length();
+        while (index > 0 && Character.isLetter(value.charAt(index - 1))) {
+            index--;
+        }
+        long amount = Long.parseLong(value.substring(0, index).trim());
+        String unit = value.substring(index).toLowerCase();
+        switch (unit) {
+            case "":
+            case "ms":
+                return Duration.ofMillis(amount);
+            case "ns":
+                return Duration.ofNanos(amount);
+            case "us":
+                return Duration.of(amount, ChronoUnit.MICROS);
+            case "s":
+                return Duration.ofSeconds(amount);
+            case "m":
+                return Duration.ofMinutes(amount);
+            case "h":
+                return Duration.ofHours(amount);
+            case "d":
+                return Duration.ofDays(amount);
+            default:
+                throw new IllegalArgumentException(String.format(
+                        "Invalid duration unit : [value=%s][unit=%s]", value,
+                        unit));
+        }
+    }
 }
@@ -0,0 +1,388 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 17/10/20 1:25 PM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common.writers;
+
+import com.codekutter.zconfig.common.ConfigurationException;
+import com.codekutter.zconfig.common.JSONConfigConstants;
+import com.codekutter.zconfig.common.SnapshotConfigConstants;
+import com.codekutter.zconfig.common.model.Configuration;
+import com.codekutter.zconfig.common.model.ModifiedBy;
+import com.codekutter.zconfig.common.model.nodes.*;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration writer implementation that writes a loaded configuration as a
+ * binary snapshot (see SnapshotConfigConstants).
+ * <p>
+ * Snapshots contain the resolved configuration (includes and variables already
+ * applied), and can be read back using the SnapshotConfigParser without
+ * re-parsing the source configuration.
+ */
+public class SnapshotFileConfigWriter extends AbstractConfigWriter {
+    /**
+     * String table, strings are written once and referenced by index.
+     */
+    private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+    /**
+     * Write the configuration snapshot to the specified output location.
+     * The name of the generated output file will be of the following format [config_name]_[instance_id].snapshot.
+     *
+     * @param configuration - Configuration handle to serialize.
+     * @param path          - Output location to write to.
+     * @return - Return the path of the output file created.
+     * @throws ConfigurationException
+     */
+    @Override
+    public String write(Configuration configuration, String path)
+    throws ConfigurationException {
+        Preconditions.checkArgument(configuration != null);
+        Preconditions.checkArgument(!Strings.isNullOrEmpty(path));
+
+        File outdir = new File(path);
+        if (!outdir.exists() || !outdir.isDirectory()) {
+            throw new ConfigurationException("Invalid output directory specified : Directory does not exist or path isn't a directory.");
+        }
+        File outfile = new File(
+                String.format("%s/%s_%s.%s", outdir.getAbsolutePath(),
+                              configuration.getName(),
+                              configuration.getInstanceId(),
+                              SnapshotConfigConstants.FILE_EXTENSION));
+        if (outfile.exists()) {
+            if (!outfile.delete()) {
+                throw new ConfigurationException(
+                        String.format("Error removing existing file. [file=%s]",
+                                      outfile.getAbsolutePath()));
+            }
+        }
+        try (OutputStream fos = new BufferedOutputStream(
+                new FileOutputStream(outfile))) {
+            write(configuration, fos);
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+        return outfile.getAbsolutePath();
+    }
+
+    /**
+     * Write the configuration snapshot to the specified output stream.
+     *
+     * @param configuration - Configuration handle to serialize.
+     * @param output        - Output stream to write to.
+     * @throws ConfigurationException
+     */
+    public void write(Configuration configuration, OutputStream output)
+    throws ConfigurationException {
+        Preconditions.checkArgument(configuration != null);
+        Preconditions.checkArgument(output != null);
+
+        strings.clear();
+        try {
+            // Nodes are written first to build the string table.
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            writeHeader(configuration, body);
+            if (configuration.getRootConfigNode() == null) {
+                throw ConfigurationException.propertyNotFoundException(
+                        "rootConfigNode");
+            }
+            writeNode(configuration.getRootConfigNode(), body);
+
+            output.write(SnapshotConfigConstants.MAGIC);
+            writeVarInt(SnapshotConfigConstants.FORMAT_VERSION, output);
+            writeVarInt(strings.size(), output);
+            for (String value : strings.keySet()) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(bytes.length, output);
+                output.write(bytes);
+            }
+            body.writeTo(output);
+            output.flush();
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        } finally {
+            strings.clear();
+        }
+    }
+
+    /**
+     * Write the configuration header.
+     *
+     * @param configuration - Configuration instance.
+     * @param output        - Output buffer.
+     * @throws ConfigurationException
+     */
+    private void writeHeader(Configuration configuration, OutputStream output)
+    throws ConfigurationException {
+        if (Strings.isNullOrEmpty(configuration.getName())) {
+            throw ConfigurationException.propertyNotFoundException(
+                    JSONConfigConstants.CONFIG_HEADER_NAME);
+        }
+        if (configuration.getVersion() == null) {
+            throw ConfigurationException.propertyNotFoundException(
+                    JSONConfigConstants.CONFIG_HEADER_VERSION);
+        }
+        writeString(configuration.getId(), output);
+        writeString(configuration.getApplicationGroup(), output);
+        writeString(configuration.getApplication(), output);
+        writeString(configuration.getName(), output);
+        writeString(configuration.getDescription(), output);
+        writeString(configuration.getVersion().toString(), output);
+        writeUpdateInfo(configuration.getCreatedBy(),
+                        JSONConfigConstants.CONFIG_CREATED_BY, output);
+        writeUpdateInfo(configuration.getUpdatedBy(),
+                        JSONConfigConstants.CONFIG_UPDATED_BY, output);
+        writeString(configuration.getSyncMode() != null ?
+                            configuration.getSyncMode().name() : null, output);
+        writeString(configuration.getEncryptionHash(), output);
+        writeVarLong(configuration.getHeader().getTimestamp(), output);
+    }
+
+    /**
+     * Write the Updation Info.
+     *
+     * @param updateInfo - Updation Information
+     * @param name       - Header element name.
+     * @param output     - Output buffer.
+     * @throws ConfigurationException
+     */
+    private void writeUpdateInfo(ModifiedBy updateInfo, String name,
+                                 OutputStream output)
+    throws ConfigurationException {
+        if (updateInfo == null) {
+            throw ConfigurationException.propertyNotFoundException(name);
+        }
+        writeString(updateInfo.getModifiedBy(), output);
+        writeVarLong(updateInfo.getTimestamp(), output);
+    }
+
+    /**
+     * Write the configuration node, based on the node type.
+     *
+     * @param node   - Configuration node to write.
+     * @param output - Output buffer.
+     * @throws ConfigurationException
+     */
+    private void writeNode(AbstractConfigNode node, OutputStream output)
+    throws ConfigurationException {
+        if (node instanceof ConfigPathNode) {
+            writeTag(SnapshotConfigConstants.NODE_PATH, node, output);
+            Map<String, AbstractConfigNode> children =
+                    ((ConfigPathNode) node).getChildren();
+            if (children != null) {
+                writeVarInt(children.size(), output);
+                for (AbstractConfigNode child : children.values()) {
+                    writeNode(child, output);
+                }
+            } else {
+                writeVarInt(0, output);
+            }
+        } else if (node instanceof ConfigValueNode) {
+            writeTag(SnapshotConfigConstants.NODE_VALUE, node, output);
+            writeValue((ConfigValueNode) node, output);
+        } else if (node instanceof ConfigPropertiesNode) {
+            writeTag(SnapshotConfigConstants.NODE_PROPERTIES, node, output);
+            writeKeyValues((ConfigKeyValueNode) node, output);
+        } else if (node instanceof ConfigParametersNode) {
+            writeTag(SnapshotConfigConstants.NODE_PARAMETERS, node, output);
+            writeKeyValues((ConfigKeyValueNode) node, output);
+        } else if (node instanceof ConfigAttributesNode) {
+            writeTag(SnapshotConfigConstants.NODE_ATTRIBUTES, node, output);
+            writeKeyValues((ConfigKeyValueNode) node, output);
+        } else if (node instanceof ConfigListValueNode) {
+            writeTag(SnapshotConfigConstants.NODE_LIST_VALUE, node, output);
+            List<ConfigValueNode> values = ((ConfigListValueNode) node).getValues();
+            writeVarInt(values != null ? values.size() : 0, output);
+            if (values != null) {
+                for (ConfigValueNode value : values) {
+                    writeString(value.getName(), output);
+                    writeValue(value, output);
+                }
+            }
+        } else if (node instanceof ConfigListElementNode) {
+            writeTag(SnapshotConfigConstants.NODE_LIST_ELEMENT, node, output);
+            List<ConfigElementNode> values =
+                    ((ConfigListElementNode) node).getValues();
+            writeVarInt(values != null ? values.size() : 0, output);
+            if (values != null) {
+                for (ConfigElementNode value : values) {
+                    writeNode(value, output);
+                }
+            }
+        } else if (node instanceof ConfigIncludeNode) {
+            ConfigIncludeNode include = (ConfigIncludeNode) node;
+            writeTag(SnapshotConfigConstants.NODE_INCLUDE, node, output);
+            writeString(include.getConfigName(), output);
+            writeString(include.getPath(), output);
+            writeString(include.getReaderType() != null ?
+                                include.getReaderType().name() : null, output);
+            writeString(include.getVersion() != null ?
+                                include.getVersion().toString() : null, output);
+            writeString(include.getNode() != null ?
+                                include.getNode().getName() : null, output);
+        } else if (node instanceof ConfigResourceDirectory) {
+            writeTag(SnapshotConfigConstants.NODE_RESOURCE_DIRECTORY, node, output);
+            writeResource((ConfigResourceFile) node, output);
+        } else if (node instanceof ConfigResourceBlob) {
+            writeTag(SnapshotConfigConstants.NODE_RESOURCE_BLOB, node, output);
+            writeResource((ConfigResourceFile) node, output);
+        } else if (node instanceof ConfigResourceFile) {
+            writeTag(SnapshotConfigConstants.NODE_RESOURCE_FILE, node, output);
+            writeResource((ConfigResourceFile) node, output);
+        } else {
+            throw new ConfigurationException(String.format(
+                    "Node type not supported in snapshots. [type=%s]",
+                    node.getClass().getCanonicalName()));
+        }
+    }
+
+    /**
+     * Write the node type tag and the node name.
+     *
+     * @param tag    - Node type tag.
+     * @param node   - Configuration node.
+     * @param output - Output buffer.
+     * @throws ConfigurationException
+     */
+    private void writeTag(byte tag, AbstractConfigNode node, OutputStream output)
+    throws ConfigurationException {
+        try {
+            output.write(tag);
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+        writeString(node.getName(), output);
+    }
+
+    /**
+     * Write the value and flags of a value node.
+     *
+     * @param node   - Value node.
+     * @param output - Output buffer.
+     * @throws ConfigurationException
+     */
+    private void writeValue(ConfigValueNode node, OutputStream output)
+    throws ConfigurationException {
+        writeString(node.getValue(), output);
+        writeVarInt(node.isEncrypted() ? SnapshotConfigConstants.FLAG_ENCRYPTED : 0,
+                    output);
+    }
+
+    /**
+     * Write the key/values of a Key/Value node (Parameters/Properties/Attributes).
+     *
+     * @param node   - Key/Value node.
+     * @param output - Output buffer.
+     * @throws ConfigurationException
+     */
+    private void writeKeyValues(ConfigKeyValueNode node, OutputStream output)
+    throws ConfigurationException {
+        Map<String, ConfigValueNode> values = node.getKeyValues();
+        writeVarInt(values != null ? values.size() : 0, output);
+        if (values != null) {
+            for (ConfigValueNode value : values.values()) {
+                writeString(value.getName(), output);
+                writeValue(value, output);
+            }
+        }
+    }
+
+    /**
+     * Write the resource definition and the local resource handle.
+     *
+     * @param node   - Resource node.
+     * @param output - Output buffer.
+     * @throws ConfigurationException
+     */
+    private void writeResource(ConfigResourceFile node, OutputStream output)
+    throws ConfigurationException {
+        writeString(node.getType() != null ? node.getType().name() : null, output);
+        writeString(node.getLocation() != null ? node.getLocation().toString() :
+                            null, output);
+        writeString(node.getResourceName(), output);
+        writeString(node.getResourceHandle() != null ?
+                            node.getResourceHandle().getAbsolutePath() : null,
+                    output);
+    }
+
+    /**
+     * Write a string reference, adding the string to the string table if required.
+     *
+     * @param value  - String value (can be NULL).
+     * @param output - Output buffer.
+     * @throws ConfigurationException
+     */
+    private void writeString(String value, OutputStream output)
+    throws ConfigurationException {
+        if (value == null) {
+            writeVarInt(0, output);
+        } else {
+            Integer index = strings.get(value);
+            if (index == null) {
+                index = strings.size() + 1;
+                strings.put(value, index);
+            }
+            writeVarInt(index, output);
+        }
+    }
+
+    /**
+     * Write an unsigned variable length integer.
+     *
+     * @param value  - Value to write.
+     * @param output - Output stream.
+     * @throws ConfigurationException
+     */
+    private static void writeVarInt(int value, OutputStream output)
+    throws ConfigurationException {
+        writeVarLong(value & 0xFFFFFFFFL, output);
+    }
+
+    /**
+     * Write an unsigned variable length long.
+     *
+     * @param value  - Value to write.
+     * @param output - Output stream.
+     * @throws ConfigurationException
+     */
+    private static void writeVarLong(long value, OutputStream output)
+    throws ConfigurationException {
+        try {
+            while ((value & ~0x7FL) != 0) {
+                output.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            output.write((int) value);
+        } catch (IOException e) {
+            throw new ConfigurationException(e);
+        }
+    }
+}
@@ -173,4 +173,50 @@ class Test_ConfigurationJsonAnnotationProcessor {
             fail(t.getLocalizedMessage());
         }
     }
+
+    @Test
+    void bindingPlan() {
+        ConfigBindingPlan plan =
+                ConfigBindingPlan.get(ConfigAnnotationsTest.class);
+        assertNotNull(plan);
+        assertSame(plan, ConfigBindingPlan.get(ConfigAnnotationsTest.class));
+        assertNotNull(plan.getConfigPath());
+        assertEquals(8, plan.getFields().size());
+        assertEquals(3, plan.getMethods().size());
+        assertNotNull(plan.getConstructor());
+        assertFalse(plan.hasDefaultConstructor());
+    }
+
+    @Test
+    void bindingSetValue() {
+        try {
+            ConfigBindingPlan plan =
+                    ConfigBindingPlan.get(ConfigAnnotationsTest.class);
+            ConfigBindingPlan.FieldBinding binding = null;
+            for (ConfigBindingPlan.FieldBinding fb : plan.getFields()) {
+                if (fb.getField().getName().equals("longValue")) {
+                    binding = fb;
+                    break;
+                }
+            }
+            assertNotNull(binding);
+            ConfigAnnotationsTest value = new ConfigAnnotationsTest("test");
+            binding.setValueFromString("1024", value);
+            assertEquals(1024, value.getLongValue());
+            assertEquals(1024L, binding.getValue(value));
+        } catch (Throwable t) {
+            LogUtils.error(getClass(), t);
+            fail(t.getLocalizedMessage());
+        }
+    }
+
+    @Test
+    void generatedBinder() {
+        IConfigBinder<ConfigAnnotationsTest> binder =
+                ConfigBinders.get(ConfigAnnotationsTest.class);
+        assertNotNull(binder);
+        assertEquals(ConfigBinders.getBinderName(ConfigAnnotationsTest.class),
+                     binder.getClass().getName());
+        assertNull(ConfigBinders.get(Test_ConfigurationJsonAnnotationProcessor.class));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 17/10/20 10:05 AM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static com.codekutter.zconfig.common.LogUtils.*;
+
+class Test_VariableTemplate {
+    private static final Map<String, String> values = new HashMap<>();
+
+    static {
+        values.put("test", "TEST");
+        values.put("value", "VALUE");
+        values.put("env", "prod");
+        values.put("host.prod", "prod.example.com");
+        values.put("empty", "");
+    }
+
+    @Test
+    void getVariables() {
+        try {
+            VariableTemplate template = VariableTemplate.compile(
+                    "This is a ${test} ${value} which has ${three} variables.");
+            assertTrue(template.hasVariables());
+            List<String> vars = template.getVariables();
+            assertEquals(3, vars.size());
+            assertEquals("three", vars.get(2));
+
+            assertFalse(VariableTemplate.compile("No variables $ {here}")
+                                        .hasVariables());
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void resolve() {
+        try {
+            assertEquals("This is a TEST VALUE",
+                         resolve("This is a ${test} ${value}"));
+            // Undefined variables are left as-is.
+            assertEquals("TEST ${undefined} ${empty}",
+                         resolve("${test} ${undefined} ${empty}"));
+            // Defaults.
+            assertEquals("host=localhost:8080",
+                         resolve("host=${host:-localhost}:${port:-8080}"));
+            assertEquals("TEST", resolve("${test:-default}"));
+            assertEquals("default", resolve("${empty:-default}"));
+            // Nested references.
+            assertEquals("prod.example.com", resolve("${host.${env}}"));
+            assertEquals("VALUE", resolve("${undefined:-${value}}"));
+            assertEquals("x-TEST", resolve("${a:-${b:-x}}-${test}"));
+            // Unterminated reference.
+            assertEquals("TEST ${value", resolve("${test} ${value"));
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    private String resolve(String value) {
+        return VariableTemplate.compile(value).resolve(values::get);
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 20/10/20 11:50 AM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common.model;
+
+import com.codekutter.zconfig.common.ConfigProviderFactory;
+import com.codekutter.zconfig.common.ConfigTestConstants;
+import com.codekutter.zconfig.common.ConfigurationException;
+import com.codekutter.zconfig.common.model.nodes.AbstractConfigNode;
+import com.codekutter.zconfig.common.model.nodes.ConfigParametersNode;
+import com.codekutter.zconfig.common.model.nodes.ConfigPathNode;
+import com.codekutter.zconfig.common.model.nodes.ConfigValueNode;
+import com.codekutter.zconfig.common.parsers.JSONConfigParser;
+import com.codekutter.zconfig.common.readers.ConfigFileReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileInputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Properties;
+
+import static com.codekutter.zconfig.common.LogUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class Test_ConfigValueHandle {
+    private static final String BASE_PROPS_FILE =
+            "src/test/resources/json/test-config.properties";
+    private static final String PARAM_PATH = "configuration/node_1/node_2/#PARAM_5";
+    private static final String LONG_PATH =
+            "configuration/node_1/node_2/values/longValue";
+    private static final int READ_COUNT = 100000;
+
+    private static Configuration load(boolean compact) throws Exception {
+        JSONConfigParser parser =
+                (JSONConfigParser) ConfigProviderFactory.parser(
+                        ConfigProviderFactory.EConfigType.JSON);
+        Properties properties = new Properties();
+        properties.load(new FileInputStream(BASE_PROPS_FILE));
+
+        String filename = properties.getProperty(
+                ConfigTestConstants.PROP_CONFIG_FILE);
+        Version version = Version.parse(properties.getProperty(
+                ConfigTestConstants.PROP_CONFIG_VERSION));
+        try (ConfigFileReader reader = new ConfigFileReader(filename)) {
+            ConfigurationSettings settings = new ConfigurationSettings();
+            settings.setDownloadRemoteFiles(
+                    ConfigurationSettings.EStartupOptions.OnDemand);
+            settings.setCompactValues(compact);
+            parser.parse("test-config", reader, settings, version, null);
+            return parser.getConfiguration();
+        }
+    }
+
+    @Test
+    void bind() {
+        try {
+            for (boolean compact : new boolean[]{false, true}) {
+                Configuration configuration = load(compact);
+                ConfigValueHandle.IntHandle param =
+                        configuration.bindInt(PARAM_PATH, -1);
+                assertTrue(param.isDefined());
+                assertEquals(18473498, param.get());
+                assertEquals(998739L,
+                             configuration.bindLong(LONG_PATH, -1).get());
+                ConfigValueHandle.IntHandle missing = configuration
+                        .bindInt("configuration/node_1/node_2/#PARAM_X", 7);
+                assertFalse(missing.isDefined());
+                assertEquals(7, missing.get());
+                assertThrows(ConfigurationException.class,
+                             () -> configuration.bindInt(
+                                     "configuration/node_1/node_2/#PARAM_6", -1));
+
+                // Value and structure changes are visible through the handle.
+                ((ConfigValueNode) configuration.find(PARAM_PATH))
+                        .setValue("1024");
+                assertEquals(1024, param.get());
+                ConfigParametersNode params = ((ConfigPathNode) configuration
+                        .find("configuration/node_1/node_2")).parmeters();
+                assertTrue(params.removeKeyValue("PARAM_5"));
+                assertEquals(-1, param.get());
+                params.addKeyValue("PARAM_5", "2048");
+                assertEquals(2048, param.get());
+                params.addKeyValue("PARAM_X", "42");
+                assertEquals(42, missing.get());
+            }
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void replaced() {
+        try {
+            for (boolean compact : new boolean[]{false, true}) {
+                Configuration configuration = load(compact);
+                ConfigValueHandle.IntHandle param =
+                        configuration.bindInt(PARAM_PATH, -1);
+                assertEquals(18473498, param.get());
+
+                // Handles follow the published snapshots.
+                Configuration snapshot = configuration.copy();
+                ((ConfigValueNode) snapshot.find(PARAM_PATH)).setValue("1024");
+                snapshot.loaded();
+                snapshot.freeze();
+                assertEquals(18473498, param.get());
+                configuration.replacedBy(snapshot);
+                assertEquals(1024, param.get());
+                assertSame(snapshot, param.getConfiguration());
+
+                Configuration next = snapshot.copy();
+                ((ConfigPathNode) next.find("configuration/node_1/node_2"))
+                        .parmeters().removeKeyValue("PARAM_5");
+                next.loaded();
+                snapshot.replacedBy(next);
+                assertEquals(-1, param.get());
+                assertSame(next, configuration.getCurrent());
+            }
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void sharedCopy() {
+        try {
+            for (boolean compact : new boolean[]{false, true}) {
+                Configuration configuration = load(compact);
+                ConfigValueHandle.IntHandle param =
+                        configuration.bindInt(PARAM_PATH, -1);
+                String listPath = "configuration/node_1/TEST_ELEMENT_LIST";
+                String node2Path = "configuration/node_1/node_2";
+                configuration.freeze();
+
+                // Only the nodes on the path to the parameters are copied.
+                Configuration snapshot = configuration.copy(
+                        Collections.singletonList(node2Path + "/#"));
+                assertNotSame(configuration.getRootConfigNode(),
+                              snapshot.getRootConfigNode());
+                assertNotSame(configuration.find(node2Path),
+                              snapshot.find(node2Path));
+                assertNotNull(configuration.find(listPath));
+                assertSame(configuration.find(listPath), snapshot.find(listPath));
+                assertSame(configuration.find(LONG_PATH), snapshot.find(LONG_PATH));
+
+                ConfigParametersNode params =
+                        ((ConfigPathNode) snapshot.find(node2Path)).parmeters();
+                params.addKeyValue("PARAM_5", "1024");
+                params.addKeyValue("PARAM_X", "42");
+                snapshot.loaded();
+                assertEquals(18473498, param.get());
+                assertNull(configuration.find("configuration/node_1/node_2/#PARAM_X"));
+                configuration.replacedBy(snapshot);
+                assertEquals(1024, param.get());
+                assertEquals(42, snapshot
+                        .bindInt("configuration/node_1/node_2/#PARAM_X", -1).get());
+                assertSame(snapshot.getRootConfigNode(),
+                           snapshot.find(node2Path).getParent().getParent());
+
+                // Shared nodes resolve the parent/configuration through the
+                // published snapshot.
+                AbstractConfigNode list = snapshot.find(listPath);
+                assertSame(snapshot, list.getConfiguration());
+                assertSame(snapshot.find("configuration/node_1"), list.getParent());
+                assertSame(snapshot.find(node2Path), list.getParent().find("node_2"));
+                assertEquals("/configuration/node_1/TEST_ELEMENT_LIST",
+                             list.getAbsolutePath());
+
+                Configuration next = snapshot.copy(
+                        Collections.singletonList("configuration/node_1"));
+                next.loaded();
+                snapshot.freeze();
+                snapshot.replacedBy(next);
+                assertSame(list, next.find(listPath));
+                assertSame(next, list.getConfiguration());
+                assertSame(next.find("configuration/node_1"), list.getParent());
+                assertSame(next.getRootConfigNode(),
+                           list.getParent().getParent());
+                assertEquals(1024, param.get());
+            }
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void readWithoutAllocation() {
+        try {
+            java.lang.management.ThreadMXBean bean =
+                    ManagementFactory.getThreadMXBean();
+            assumeAllocationCounter(bean);
+            com.sun.management.ThreadMXBean tbean =
+                    (com.sun.management.ThreadMXBean) bean;
+            long tid = Thread.currentThread().getId();
+
+            for (boolean compact : new boolean[]{false, true}) {
+                Configuration configuration = load(compact);
+                ConfigValueHandle.IntHandle param =
+                        configuration.bindInt(PARAM_PATH, -1);
+                ConfigValueHandle.LongHandle value =
+                        configuration.bindLong(LONG_PATH, -1);
+
+                long sum = 0;
+                // Warm up (parse and cache values, JIT).
+                for (int ii = 0; ii < READ_COUNT; ii++) {
+                    sum += param.get() + value.get();
+                }
+                long start = tbean.getThreadAllocatedBytes(tid);
+                for (int ii = 0; ii < READ_COUNT; ii++) {
+                    sum += param.get() + value.get();
+                }
+                long allocated = tbean.getThreadAllocatedBytes(tid) - start;
+                debug(getClass(), String.format(
+                        "[compact=%s][reads=%d][allocated=%d][sum=%d]", compact,
+                        READ_COUNT * 2, allocated, sum));
+                // Allow for the allocation of the counter call itself.
+                assertTrue(allocated < 1024,
+                           String.format("Allocated %d bytes", allocated));
+            }
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    private static void assumeAllocationCounter(
+            java.lang.management.ThreadMXBean bean) {
+        org.junit.jupiter.api.Assumptions.assumeTrue(
+                bean instanceof com.sun.management.ThreadMXBean &&
+                        ((com.sun.management.ThreadMXBean) bean)
+                                .isThreadAllocatedMemoryEnabled());
+    }
+}
@@ -92,6 +92,92 @@ class Test_JSONConfiguration {
         }
     }
 
+    @Test
+    void findCompiled() {
+        try {
+            String path = "configuration/node_1";
+            CompiledConfigPath cp = configuration.compile(path);
+            assertNotNull(cp);
+            assertSame(cp, configuration.compile(path));
+            AbstractConfigNode node = configuration.find(cp);
+            assertNotNull(node);
+            assertEquals(path, node.getSearchPath());
+
+            cp = configuration.compile("TEST_ELEMENT_LIST");
+            node = node.find(cp);
+            assertTrue(node instanceof ConfigListElementNode);
+            assertEquals(4, ((ConfigListElementNode) node).size());
+        } catch (Throwable e) {
+            error(getClass(), e);
+            fail(e);
+        }
+    }
+
+    @Test
+    void findIndexed() {
+        try {
+            String path = "configuration/node_1";
+            AbstractConfigNode node = configuration.find(path);
+            assertTrue(node instanceof ConfigPathNode);
+            ConfigPathNode pnode = (ConfigPathNode) node;
+
+            ConfigPathNode cnode = new ConfigPathNode(configuration, pnode);
+            cnode.setName("TEST_INDEXED_NODE");
+            pnode.addChildNode(cnode);
+            node = configuration.find("configuration/node_1/TEST_INDEXED_NODE");
+            assertSame(cnode, node);
+
+            ConfigParametersNode params = pnode.parmeters();
+            assertNotNull(params);
+            params.addKeyValue("TEST_INDEXED_PARAM", "TEST");
+            node = configuration.find("configuration/node_1#TEST_INDEXED_PARAM");
+            assertTrue(node instanceof ConfigValueNode);
+            assertEquals("TEST", ((ConfigValueNode) node).getValue());
+
+            assertTrue(params.removeKeyValue("TEST_INDEXED_PARAM"));
+            assertNull(configuration.find("configuration/node_1#TEST_INDEXED_PARAM"));
+            assertTrue(pnode.removeChildNode("TEST_INDEXED_NODE"));
+            assertNull(configuration.find("configuration/node_1/TEST_INDEXED_NODE"));
+        } catch (Throwable e) {
+            error(getClass(), e);
+            fail(e);
+        }
+    }
+
+    @Test
+    void copy() {
+        try {
+            Configuration copy = configuration.copy();
+            copy.loaded();
+            String path = "configuration/node_1#PARAM_1";
+            AbstractConfigNode node = configuration.find(path);
+            assertTrue(node instanceof ConfigValueNode);
+            AbstractConfigNode cnode = copy.find(path);
+            assertTrue(cnode instanceof ConfigValueNode);
+            assertNotSame(node, cnode);
+            assertSame(copy, cnode.getConfiguration());
+            assertEquals(((ConfigValueNode) node).getValue(),
+                         ((ConfigValueNode) cnode).getValue());
+
+            ((ConfigValueNode) cnode).setValue("COPY_UPDATED");
+            assertNotEquals("COPY_UPDATED", ((ConfigValueNode) node).getValue());
+
+            // Frozen (published) copies reject changes.
+            copy.freeze();
+            assertThrows(IllegalStateException.class,
+                         () -> ((ConfigValueNode) cnode).setValue("FROZEN"));
+            assertThrows(IllegalStateException.class,
+                         () -> ((ConfigPathNode) copy.find("configuration/node_1"))
+                                 .removeChildNode("node_2"));
+            assertEquals("COPY_UPDATED", ((ConfigValueNode) cnode).getValue());
+            Configuration next = copy.copy();
+            ((ConfigValueNode) next.find(path)).setValue("NEXT_UPDATED");
+        } catch (Throwable e) {
+            error(getClass(), e);
+            fail(e);
+        }
+    }
+
     @Test
     void update() {
         try {
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 17/10/20 11:05 AM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.codekutter.zconfig.common.LogUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class Test_PathIndex {
+    private static final int KEY_COUNT = 10000;
+
+    @Test
+    void putAndRemove() {
+        try {
+            PathIndex<String> index = PathIndex.empty();
+            Map<String, String> expected = new HashMap<>();
+            for (int ii = 0; ii < KEY_COUNT; ii++) {
+                String key = String.format("/configuration/node_%d/value", ii);
+                index = index.put(key, key);
+                expected.put(key, key);
+            }
+            // "Aa" and "BB" have the same hash code.
+            index = index.put("/Aa", "Aa").put("/BB", "BB");
+            expected.put("/Aa", "Aa");
+            expected.put("/BB", "BB");
+            assertEquals(expected.size(), index.size());
+            for (Map.Entry<String, String> entry : expected.entrySet()) {
+                assertSame(entry.getValue(), index.get(entry.getKey()));
+            }
+
+            PathIndex<String> prev = index;
+            for (int ii = 0; ii < KEY_COUNT; ii += 2) {
+                String key = String.format("/configuration/node_%d/value", ii);
+                index = index.remove(key);
+                expected.remove(key);
+            }
+            index = index.remove("/Aa");
+            expected.remove("/Aa");
+            assertSame(index, index.remove("/BB", "XX"));
+            assertSame(index, index.remove("/configuration/missing"));
+            assertEquals(expected.size(), index.size());
+            for (int ii = 0; ii < KEY_COUNT; ii++) {
+                String key = String.format("/configuration/node_%d/value", ii);
+                assertEquals(expected.get(key), index.get(key));
+                // The previous version is not changed.
+                assertEquals(key, prev.get(key));
+            }
+            assertEquals("BB", index.get("/BB"));
+            assertNull(index.get("/Aa"));
+            assertEquals("Aa", prev.get("/Aa"));
+            assertEquals(KEY_COUNT + 2, prev.size());
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 23/10/20 10:15 AM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common.model.nodes;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Test_ConfigValueNode {
+    @Test
+    void staleParsedValue() {
+        ConfigValueNode node = new ConfigValueNode();
+        node.setName("value");
+        node.setValue("10");
+        assertEquals(10, node.getIntValue());
+
+        // Reader parsed the old value, the update lands before it stores
+        // the result.
+        String old = node.getValue();
+        node.setValue("20");
+        node.setParsedValue(new ConfigValueNode.ParsedValue(old, 10));
+        assertEquals(20, node.getIntValue());
+        assertEquals(20, node.getIntValue());
+    }
+
+    @Test
+    void staleParsedStoreValue() {
+        ConfigPathNode owner = new ConfigPathNode();
+        owner.setName("owner");
+        ConfigValueStore store = new ConfigValueStore(owner);
+        int index = store.put("value", "10", false);
+        ConfigValueNode view = store.view(index);
+        assertEquals(10, view.getIntValue());
+
+        String old = view.getValue();
+        view.setValue("20");
+        store.setParsed(index, new ConfigValueNode.ParsedValue(old, 10));
+        assertEquals(20, view.getIntValue());
+    }
+
+    @Test
+    void copyStoreIndex() {
+        ConfigPathNode owner = new ConfigPathNode();
+        owner.setName("owner");
+        ConfigValueStore store = new ConfigValueStore(owner);
+        for (int ii = 0; ii < 10; ii++) {
+            store.put("name_" + ii, "value_" + ii, false);
+        }
+        assertEquals(5, store.indexOf("name_5"));
+
+        // Copy carries the built index, changes to either are independent.
+        ConfigValueStore copy = store.copy(owner);
+        copy.remove(0);
+        copy.put("name_10", "value_10", false);
+        assertEquals(4, copy.indexOf("name_5"));
+        assertEquals(9, copy.indexOf("name_10"));
+        assertEquals(-1, copy.indexOf("name_0"));
+        assertEquals(5, store.indexOf("name_5"));
+        assertEquals(0, store.indexOf("name_0"));
+        assertEquals(-1, store.indexOf("name_10"));
+    }
+}
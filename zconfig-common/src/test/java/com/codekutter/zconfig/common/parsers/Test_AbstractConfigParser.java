@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 17/10/20 2:20 PM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common.parsers;
+
+import com.codekutter.zconfig.common.ConfigurationException;
+import com.codekutter.zconfig.common.model.ConfigurationSettings;
+import com.codekutter.zconfig.common.model.Version;
+import com.codekutter.zconfig.common.readers.AbstractConfigReader;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.codekutter.zconfig.common.LogUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class Test_AbstractConfigParser {
+    private static final class TestParser extends AbstractConfigParser {
+        @Override
+        public void parse(String name, AbstractConfigReader reader,
+                          ConfigurationSettings settings, Version version,
+                          String password) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    void awaitResolutions() {
+        try {
+            TestParser parser = new TestParser();
+            List<String> attached = new ArrayList<>();
+            parser.resolve(() -> "first", attached::add);
+            // Completes last, but is defined before the other failure.
+            parser.<String>resolve(() -> {
+                Thread.sleep(200);
+                throw new ConfigurationException("second");
+            }, attached::add);
+            parser.<String>resolve(() -> {
+                throw new ConfigurationException("third");
+            }, attached::add);
+            parser.resolve(() -> "fourth", attached::add);
+
+            ConfigurationException e =
+                    assertThrows(ConfigurationException.class,
+                                 parser::awaitResolutions);
+            assertTrue(e.getMessage().contains("second"));
+            assertEquals(1, e.getSuppressed().length);
+            assertTrue(e.getSuppressed()[0].getMessage().contains("third"));
+            // Results are attached up to the first failure.
+            assertEquals(1, attached.size());
+            assertEquals("first", attached.get(0));
+
+            // Failed attach is reported in definition order.
+            parser.resolve(() -> "first", (value) -> {
+                throw new ConfigurationException(value);
+            });
+            parser.<String>resolve(() -> {
+                throw new ConfigurationException("second");
+            }, attached::add);
+            e = assertThrows(ConfigurationException.class,
+                             parser::awaitResolutions);
+            assertTrue(e.getMessage().contains("first"));
+            assertTrue(e.getSuppressed()[0].getMessage().contains("second"));
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+}
@@ -27,14 +27,25 @@ package com.codekutter.zconfig.common.parsers;
 import com.google.common.base.Strings;
 import com.codekutter.zconfig.common.ConfigProviderFactory;
 import com.codekutter.zconfig.common.ConfigTestConstants;
+import com.codekutter.zconfig.common.ConfigurationException;
+import com.codekutter.zconfig.common.StringPool;
+import com.codekutter.zconfig.common.StringUsageReport;
 import com.codekutter.zconfig.common.model.Configuration;
+import com.codekutter.zconfig.common.model.ConfigurationSettings;
+import com.codekutter.zconfig.common.model.ENodeState;
 import com.codekutter.zconfig.common.model.Version;
+import com.codekutter.zconfig.common.model.nodes.*;
 import com.codekutter.zconfig.common.readers.ConfigFileReader;
 import com.codekutter.zconfig.common.readers.ConfigURLReader;
 import org.junit.jupiter.api.Test;
 
 import java.io.FileInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static com.codekutter.zconfig.common.LogUtils.*;
@@ -44,6 +55,8 @@ class Test_JSONConfigParser {
             "src/test/resources/json/test-config.properties";
     private static final String INCLUDED_PROPS_FILE =
             "src/test/resources/json/test-config-include.properties";
+    private static final String MISSING_INCLUDE_FILE =
+            "src/test/resources/json/test-config-include-missing.json";
 
     @Test
     void parseFromFile() {
@@ -146,4 +159,522 @@ class Test_JSONConfigParser {
             fail(t);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void parseIncludeErrors() {
+        try {
+            for (ConfigurationSettings.EParseMode mode :
+                    ConfigurationSettings.EParseMode.values()) {
+                ConfigurationSettings settings = new ConfigurationSettings();
+                settings.setParseMode(mode);
+                JSONConfigParser parser = new JSONConfigParser();
+                try (ConfigFileReader reader = new ConfigFileReader(
+                        MISSING_INCLUDE_FILE)) {
+                    ConfigurationException ce =
+                            assertThrows(ConfigurationException.class,
+                                         () -> parser.parse(
+                                                 "test-config-include-missing",
+                                                 reader, settings,
+                                                 Version.parse("0.0"), null));
+                    debug(getClass(), ce.getLocalizedMessage());
+                    // Failures are reported in definition order.
+                    assertTrue(ce.getLocalizedMessage()
+                                 .contains("missing-include-1"));
+                    assertEquals(1, ce.getSuppressed().length);
+                    assertTrue(ce.getSuppressed()[0].getLocalizedMessage()
+                                                    .contains("missing-include-2"));
+                }
+            }
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void scopedProperties() {
+        try {
+            Properties properties = new Properties();
+            properties.load(new FileInputStream(BASIC_PROPS_FILE));
+
+            String filename =
+                    properties.getProperty(ConfigTestConstants.PROP_CONFIG_FILE);
+            Version version = Version.parse(properties.getProperty(
+                    ConfigTestConstants.PROP_CONFIG_VERSION));
+            Configuration configuration =
+                    load(filename, version, ConfigurationSettings.EParseMode.Tree);
+
+            AbstractConfigNode node = configuration.find(
+                    "configuration/node_1/node_2/node_3/node_4");
+            assertTrue(node instanceof ConfigPathNode);
+            ConfigListValueNode values =
+                    (ConfigListValueNode) node.find("TEST_VALUE_LIST");
+            assertNotNull(values);
+            assertEquals("Test override property. OVERRIDE_PROP_1",
+                         values.getValues().get(4).getValue());
+
+            ConfigPropertiesNode props = configuration.resolvedProperties(node);
+            assertNotNull(props);
+            assertEquals("OVERRIDE_PROP_1", props.getValue("PROP_1").getValue());
+            assertEquals("TEST_PROP_2", props.getValue("PROP_2").getValue());
+
+            props = configuration.resolvedProperties(
+                    configuration.find("configuration/node_1"));
+            assertNotNull(props);
+            assertEquals("TEST_PROP_1", props.getValue("PROP_1").getValue());
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void parseStreaming() {
+        try {
+            Properties properties = new Properties();
+            properties.load(new FileInputStream(BASIC_PROPS_FILE));
+
+            String filename =
+                    properties.getProperty(ConfigTestConstants.PROP_CONFIG_FILE);
+            assertFalse(Strings.isNullOrEmpty(filename));
+            Version version = Version.parse(properties.getProperty(
+                    ConfigTestConstants.PROP_CONFIG_VERSION));
+
+            Map<String, String> tree =
+                    readNodes(filename, version,
+                              ConfigurationSettings.EParseMode.Tree);
+            Map<String, String> stream =
+                    readNodes(filename, version,
+                              ConfigurationSettings.EParseMode.Streaming);
+            assertFalse(stream.isEmpty());
+            assertEquals(tree, stream);
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void parseLazy() {
+        try {
+            Properties properties = new Properties();
+            properties.load(new FileInputStream(BASIC_PROPS_FILE));
+
+            String filename =
+                    properties.getProperty(ConfigTestConstants.PROP_CONFIG_FILE);
+            Version version = Version.parse(properties.getProperty(
+                    ConfigTestConstants.PROP_CONFIG_VERSION));
+
+            Configuration configuration =
+                    load(filename, version, ConfigurationSettings.EParseMode.Lazy);
+            AbstractConfigNode node = configuration.getRootConfigNode()
+                                                   .getChildren().get("node_1");
+            assertTrue(node instanceof ConfigPathNode);
+            assertFalse(((ConfigPathNode) node).isMaterialized());
+
+            node = configuration.find("configuration/node_1/node_2/node_3/node_4");
+            assertTrue(node instanceof ConfigPathNode);
+            assertTrue(((ConfigPathNode) configuration
+                    .find("configuration/node_1")).isMaterialized());
+            assertEquals(ENodeState.Synced, node.getState().getState());
+            ConfigListValueNode values =
+                    (ConfigListValueNode) node.find("TEST_VALUE_LIST");
+            assertNotNull(values);
+            assertEquals("Test override property. OVERRIDE_PROP_1",
+                         values.getValues().get(4).getValue());
+
+            Map<String, String> tree =
+                    readNodes(filename, version,
+                              ConfigurationSettings.EParseMode.Tree);
+            Map<String, String> lazy =
+                    readNodes(filename, version,
+                              ConfigurationSettings.EParseMode.Lazy);
+            assertFalse(lazy.isEmpty());
+            assertEquals(tree, lazy);
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void copyLazy() {
+        try {
+            Properties properties = new Properties();
+            properties.load(new FileInputStream(BASIC_PROPS_FILE));
+
+            String filename =
+                    properties.getProperty(ConfigTestConstants.PROP_CONFIG_FILE);
+            Version version = Version.parse(properties.getProperty(
+                    ConfigTestConstants.PROP_CONFIG_VERSION));
+
+            Configuration configuration =
+                    load(filename, version, ConfigurationSettings.EParseMode.Lazy);
+            configuration.freeze();
+            Configuration copy = configuration.copy();
+            copy.loaded();
+            // Deferred branches are not loaded by the copy.
+            assertFalse(((ConfigPathNode) configuration.getRootConfigNode()
+                                                       .getChildren().get("node_1"))
+                                .isMaterialized());
+            ConfigPathNode node = (ConfigPathNode) copy.getRootConfigNode()
+                                                       .getChildren().get("node_1");
+            assertFalse(node.isMaterialized());
+
+            String path = "configuration/node_1/node_2/node_3/node_4";
+            AbstractConfigNode cnode = copy.find(path);
+            assertNotNull(cnode);
+            assertSame(copy, cnode.getConfiguration());
+            assertFalse(((ConfigPathNode) configuration.getRootConfigNode()
+                                                       .getChildren().get("node_1"))
+                                .isMaterialized());
+            // Deferred branches of a frozen configuration are loaded on access.
+            AbstractConfigNode onode = configuration.find(path);
+            assertNotNull(onode);
+            assertNotSame(onode, cnode);
+            assertSame(configuration, onode.getConfiguration());
+            assertThrows(IllegalStateException.class,
+                         () -> ((ConfigPathNode) onode).removeChildNode(
+                                 "TEST_VALUE_LIST"));
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void parsePooled() {
+        try {
+            Properties properties = new Properties();
+            properties.load(new FileInputStream(BASIC_PROPS_FILE));
+
+            String filename =
+                    properties.getProperty(ConfigTestConstants.PROP_CONFIG_FILE);
+            Version version = Version.parse(properties.getProperty(
+                    ConfigTestConstants.PROP_CONFIG_VERSION));
+
+            List<Configuration> unpooled = new ArrayList<>();
+            unpooled.add(load(filename, version,
+                              ConfigurationSettings.EParseMode.Tree, null));
+            unpooled.add(load(filename, version,
+                              ConfigurationSettings.EParseMode.Tree, null));
+            StringUsageReport before = StringUsageReport.build(unpooled);
+
+            StringPool pool = new StringPool();
+            List<Configuration> pooled = new ArrayList<>();
+            pooled.add(load(filename, version,
+                            ConfigurationSettings.EParseMode.Tree, pool));
+            pooled.add(load(filename, version,
+                            ConfigurationSettings.EParseMode.Tree, pool));
+            StringUsageReport after = StringUsageReport.build(pooled);
+            debug(getClass(), String.format("[unpooled=%s][pooled=%s][pool=%s]",
+                                            before, after, pool));
+
+            assertTrue(pool.getHitCount() > 0);
+            assertEquals(before.getReferences(), after.getReferences());
+            assertEquals(before.getValues(), after.getValues());
+            assertTrue(after.getRetainedBytes() < before.getRetainedBytes());
+            assertEquals(after.getValues(), after.getInstances());
+            assertEquals(0, after.getDuplicateBytes());
+
+            AbstractConfigNode n1 = pooled.get(0).find(
+                    "configuration/node_1/node_2/node_3/node_4");
+            AbstractConfigNode n2 = pooled.get(1).find(
+                    "configuration/node_1/node_2/node_3/node_4");
+            assertNotNull(n1);
+            assertNotSame(n1, n2);
+            assertSame(n1.getName(), n2.getName());
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void parseCompact() {
+        try {
+            Properties properties = new Properties();
+            properties.load(new FileInputStream(BASIC_PROPS_FILE));
+
+            String filename =
+                    properties.getProperty(ConfigTestConstants.PROP_CONFIG_FILE);
+            Version version = Version.parse(properties.getProperty(
+                    ConfigTestConstants.PROP_CONFIG_VERSION));
+
+            ConfigurationSettings settings =
+                    settings(ConfigurationSettings.EParseMode.Streaming);
+            settings.setCompactValues(true);
+            Configuration configuration =
+                    load(filename, version, settings, null);
+
+            Map<String, String> tree =
+                    readNodes(filename, version,
+                              ConfigurationSettings.EParseMode.Tree);
+            assertEquals(tree, readNodes(configuration));
+
+            ConfigParametersNode params = ((ConfigPathNode) configuration
+                    .find("configuration/node_1")).parmeters();
+            assertNotNull(params);
+            assertTrue(params.isCompact());
+            assertEquals("This is a replacement test. TEST_PROP_1",
+                         params.getValue("PARAM_1").getValue());
+            AbstractConfigNode node =
+                    configuration.find("configuration/node_1/#PARAM_2");
+            assertTrue(node instanceof ConfigValueNode);
+            assertEquals("TEST_PARAM_2", ((ConfigValueNode) node).getValue());
+            assertSame(params, node.getParent());
+
+            // Updates through the value view are written to the owner node.
+            ((ConfigValueNode) node).setValue("UPDATED_PARAM_2");
+            assertEquals("UPDATED_PARAM_2",
+                         params.getKeyValues().get("PARAM_2").getValue());
+            params.addKeyValue("PARAM_5", "TEST_PARAM_5");
+            assertTrue(params.removeKeyValue("PARAM_3"));
+            assertFalse(params.hasKey("PARAM_3"));
+            assertEquals("TEST_PARAM_5", params.getValue("PARAM_5").getValue());
+            assertEquals("UPDATED_PARAM_2", ((ConfigValueNode) node).getValue());
+
+            ConfigListValueNode values = (ConfigListValueNode) configuration
+                    .find("configuration/node_1/node_2/node_3/node_4/TEST_VALUE_LIST");
+            assertNotNull(values);
+            assertTrue(values.isCompact());
+            assertEquals("TEST_STRING_2", values.getValue(1).getValue());
+            values.removeValue(values.getValue(0));
+            assertEquals("TEST_STRING_2", values.getValue(0).getValue());
+
+            Configuration copy = configuration.copy();
+            assertEquals(readNodes(configuration), readNodes(copy));
+            ConfigParametersNode cparams = ((ConfigPathNode) copy
+                    .find("configuration/node_1")).parmeters();
+            assertTrue(cparams.isCompact());
+            cparams.addKeyValue("PARAM_1", "COPY_PARAM_1");
+            assertEquals("This is a replacement test. TEST_PROP_1",
+                         params.getValue("PARAM_1").getValue());
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    private enum ETestValue {
+        EValue1, EValue2, EValue3
+    }
+
+    @Test
+    void typedValues() {
+        try {
+            Properties properties = new Properties();
+            properties.load(new FileInputStream(BASIC_PROPS_FILE));
+
+            String filename =
+                    properties.getProperty(ConfigTestConstants.PROP_CONFIG_FILE);
+            Version version = Version.parse(properties.getProperty(
+                    ConfigTestConstants.PROP_CONFIG_VERSION));
+
+            for (boolean compact : new boolean[]{false, true}) {
+                ConfigurationSettings settings =
+                        settings(ConfigurationSettings.EParseMode.Streaming);
+                settings.setCompactValues(compact);
+                Configuration configuration =
+                        load(filename, version, settings, null);
+
+                String path = "configuration/node_1/node_2/#PARAM_5";
+                assertEquals(18473498, configuration.getInt(path, -1));
+                assertEquals(18473498L, configuration.getLong(path, -1));
+                assertEquals(-1, configuration.getInt(
+                        "configuration/node_1/node_2/#PARAM_X", -1));
+                assertEquals(998739L, configuration.getLong(
+                        "configuration/node_1/node_2/values/longValue", -1));
+                assertEquals(99834.93948, configuration.getDouble(
+                        "configuration/node_1/node_2/values/doubleValue", -1),
+                             0.00001);
+                assertEquals(ETestValue.EValue3, configuration.getEnum(
+                        "configuration/node_1/node_2/#PARAM_6",
+                        ETestValue.class, ETestValue.EValue1));
+                assertThrows(ConfigurationException.class,
+                             () -> configuration.getInt(
+                                     "configuration/node_1/node_2/#PARAM_6", -1));
+                assertThrows(ConfigurationException.class,
+                             () -> configuration.getInt("configuration/node_1", -1));
+
+                // Cached parsed value is reset when the value is updated.
+                ConfigValueNode node = (ConfigValueNode) configuration.find(path);
+                node.setValue("15s");
+                assertEquals(Duration.ofSeconds(15),
+                             configuration.getDuration(path, null));
+                assertSame(configuration.getDuration(path, null),
+                           configuration.getDuration(path, null));
+                node.setValue("PT2M");
+                assertEquals(Duration.ofMinutes(2),
+                             configuration.getDuration(path, null));
+                node.setValue("250");
+                assertEquals(250, configuration.getInt(path, -1));
+                assertEquals(Duration.ofMillis(250),
+                             configuration.getDuration(path, null));
+            }
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void listIndex() {
+        try {
+            Properties properties = new Properties();
+            properties.load(new FileInputStream(BASIC_PROPS_FILE));
+
+            String filename =
+                    properties.getProperty(ConfigTestConstants.PROP_CONFIG_FILE);
+            Version version = Version.parse(properties.getProperty(
+                    ConfigTestConstants.PROP_CONFIG_VERSION));
+            Configuration configuration = load(filename, version,
+                                               ConfigurationSettings.EParseMode.Streaming);
+
+            int count = ConfigListNode.NAME_INDEX_THRESHOLD * 4;
+            ConfigListValueNode list = new ConfigListValueNode(configuration,
+                                                               configuration.getRootConfigNode());
+            list.setName("indexed");
+            for (int ii = 0; ii < count; ii++) {
+                list.addValue(value(configuration, list, "value_" + ii,
+                                    String.valueOf(ii)));
+            }
+            assertEquals("25", list.getValue("value_25").getValue());
+            assertNull(list.getValue("value_X"));
+
+            list.removeValue(list.getValue("value_10"));
+            assertNull(list.getValue("value_10"));
+            assertEquals(count - 1, list.size());
+            assertEquals("25", list.getValue("value_25").getValue());
+            assertEquals("9", list.getValue("value_9").getValue());
+            for (int ii = 0; ii < list.size(); ii++) {
+                ConfigValueNode node = list.getValues().get(ii);
+                assertSame(node, list.getValue(node.getName()));
+            }
+
+            // Lookup returns the first element with the name.
+            list.addValue(value(configuration, list, "value_5", "dup"));
+            assertEquals("5", list.getValue("value_5").getValue());
+            list.removeValue(list.getValue("value_5"));
+            assertEquals("dup", list.getValue("value_5").getValue());
+            assertEquals(count - 1, list.size());
+
+            // Direct modifications of the list are picked up.
+            list.getValues().add(0, value(configuration, list, "value_X", "X"));
+            assertEquals("X", list.getValue("value_X").getValue());
+            assertEquals("25", list.getValue("value_25").getValue());
+            assertSame(list.getValues().get(24), list.getValue("value_25"));
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    private ConfigValueNode value(Configuration configuration,
+                                  AbstractConfigNode parent, String name,
+                                  String value) {
+        ConfigValueNode node = new ConfigValueNode(configuration, parent);
+        node.setName(name);
+        node.setValue(value);
+        return node;
+    }
+
+    private Map<String, String> readNodes(String filename, Version version,
+                                          ConfigurationSettings.EParseMode mode)
+    throws Exception {
+        return readNodes(load(filename, version, mode));
+    }
+
+    private Map<String, String> readNodes(Configuration configuration) {
+
+        Map<String, String> nodes = new TreeMap<>();
+        readNodes(configuration.getRootConfigNode(), nodes);
+        return nodes;
+    }
+
+    private Configuration load(String filename, Version version,
+                               ConfigurationSettings.EParseMode mode)
+    throws Exception {
+        return load(filename, version, mode, null);
+    }
+
+    private Configuration load(String filename, Version version,
+                               ConfigurationSettings.EParseMode mode,
+                               StringPool pool)
+    throws Exception {
+        return load(filename, version, settings(mode), pool);
+    }
+
+    private ConfigurationSettings settings(ConfigurationSettings.EParseMode mode) {
+        ConfigurationSettings settings = new ConfigurationSettings();
+        settings.setDownloadRemoteFiles(
+                ConfigurationSettings.EStartupOptions.OnDemand);
+        settings.setParseMode(mode);
+        return settings;
+    }
+
+    private Configuration load(String filename, Version version,
+                               ConfigurationSettings settings,
+                               StringPool pool)
+    throws Exception {
+        JSONConfigParser parser =
+                (JSONConfigParser) ConfigProviderFactory.parser(
+                        ConfigProviderFactory.EConfigType.JSON);
+        parser.setStringPool(pool);
+        try (ConfigFileReader reader = new ConfigFileReader(filename)) {
+            parser.parse("test-config", reader, settings, version, null);
+        }
+        Configuration configuration = parser.getConfiguration();
+        assertNotNull(configuration);
+        assertEquals("test-config", configuration.getName());
+        return configuration;
+    }
+
+    private void readNodes(AbstractConfigNode node, Map<String, String> nodes) {
+        String value = typeName(node);
+        if (node instanceof ConfigValueNode) {
+            value = String.format("%s:%s:%s", value,
+                                  ((ConfigValueNode) node).isEncrypted(),
+                                  ((ConfigValueNode) node).getValue());
+        } else if (node instanceof ConfigResourceNode) {
+            value = String.format("%s:%s", value,
+                                  ((ConfigResourceNode) node).getLocation());
+        }
+        nodes.put(node.getAbsolutePath(), value);
+        if (node instanceof ConfigPathNode) {
+            Map<String, AbstractConfigNode> children =
+                    ((ConfigPathNode) node).getChildren();
+            if (children != null) {
+                for (AbstractConfigNode child : children.values()) {
+                    readNodes(child, nodes);
+                }
+            }
+        } else if (node instanceof ConfigKeyValueNode) {
+            Map<String, ConfigValueNode> values =
+                    ((ConfigKeyValueNode) node).getKeyValues();
+            if (values != null) {
+                for (ConfigValueNode child : values.values()) {
+                    readNodes(child, nodes);
+                }
+            }
+        } else if (node instanceof ConfigListNode) {
+            List<?> values = ((ConfigListNode<?>) node).getValues();
+            if (values != null) {
+                for (int ii = 0; ii < values.size(); ii++) {
+                    AbstractConfigNode child = (AbstractConfigNode) values.get(ii);
+                    nodes.put(String.format("%s[%d]", node.getAbsolutePath(), ii),
+                              typeName(child));
+                    readNodes(child, nodes);
+                }
+            }
+        }
+    }
+
+    private String typeName(AbstractConfigNode node) {
+        // Compact values are returned as views (sub-class of the value node).
+        if (node instanceof ConfigValueNode) {
+            return ConfigValueNode.class.getSimpleName();
+        }
+        return node.getClass().getSimpleName();
+    }
+}
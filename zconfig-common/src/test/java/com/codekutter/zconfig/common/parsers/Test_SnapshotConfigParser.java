@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 17/10/20 3:10 PM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.common.parsers;
+
+import com.codekutter.zconfig.common.ConfigProviderFactory;
+import com.codekutter.zconfig.common.ConfigTestConstants;
+import com.codekutter.zconfig.common.ConfigurationException;
+import com.codekutter.zconfig.common.model.Configuration;
+import com.codekutter.zconfig.common.model.ConfigurationSettings;
+import com.codekutter.zconfig.common.model.ENodeState;
+import com.codekutter.zconfig.common.model.Version;
+import com.codekutter.zconfig.common.model.nodes.*;
+import com.codekutter.zconfig.common.readers.ConfigFileReader;
+import com.codekutter.zconfig.common.writers.AbstractConfigWriter;
+import com.google.common.base.Strings;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import static com.codekutter.zconfig.common.LogUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class Test_SnapshotConfigParser {
+    private static final String BASIC_PROPS_FILE =
+            "src/test/resources/json/test-config.properties";
+    private static final String INCLUDED_PROPS_FILE =
+            "src/test/resources/json/test-config-include.properties";
+    private static final String ENCRYPTED_PROPS_FILE =
+            "src/test/resources/json/test-config-encrypted.properties";
+    private static final String ENCRYPTION_KEY = "21947a50-6755-47";
+
+    @Test
+    void parseSnapshot() {
+        try {
+            checkSnapshot(BASIC_PROPS_FILE, "test-config", null);
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void parseSnapshotWithInclude() {
+        try {
+            Configuration configuration =
+                    checkSnapshot(INCLUDED_PROPS_FILE, "test-config-include", null);
+            AbstractConfigNode node = configuration.find("configuration/node_1");
+            assertTrue(node instanceof ConfigPathNode);
+            AbstractConfigNode include =
+                    ((ConfigPathNode) node).getChildNode(ConfigIncludeNode.NODE_NAME);
+            assertTrue(include instanceof ConfigIncludeNode);
+            assertNotNull(((ConfigIncludeNode) include).getNode());
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void parseEncryptedSnapshot() {
+        try {
+            checkSnapshot(ENCRYPTED_PROPS_FILE, "test-config", ENCRYPTION_KEY);
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    @Test
+    void parseInvalidSnapshot() {
+        try {
+            File file = File.createTempFile("invalid", ".snapshot");
+            file.deleteOnExit();
+            Files.write(file.toPath(), "{ \"header\" : {} }".getBytes());
+            SnapshotConfigParser parser = new SnapshotConfigParser();
+            try (ConfigFileReader reader = new ConfigFileReader(file)) {
+                assertThrows(ConfigurationException.class,
+                             () -> parser.parse("test-config", reader, null,
+                                                Version.parse("0.0"), null));
+            }
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    private Configuration checkSnapshot(String propsFile, String name,
+                                        String password) throws Exception {
+        Properties properties = new Properties();
+        properties.load(new FileInputStream(propsFile));
+
+        String filename =
+                properties.getProperty(ConfigTestConstants.PROP_CONFIG_FILE);
+        assertFalse(Strings.isNullOrEmpty(filename));
+        Version version = Version.parse(properties.getProperty(
+                ConfigTestConstants.PROP_CONFIG_VERSION));
+
+        ConfigurationSettings settings = new ConfigurationSettings();
+        settings.setDownloadRemoteFiles(
+                ConfigurationSettings.EStartupOptions.OnDemand);
+
+        AbstractConfigParser parser = ConfigProviderFactory.parser(filename);
+        assertNotNull(parser);
+        try (ConfigFileReader reader = new ConfigFileReader(filename)) {
+            parser.parse(name, reader, settings, version, password);
+        }
+        Configuration source = parser.getConfiguration();
+        assertNotNull(source);
+
+        File outdir = Files.createTempDirectory("snapshot").toFile();
+        AbstractConfigWriter writer = ConfigProviderFactory.writer(
+                ConfigProviderFactory.EConfigType.SNAPSHOT);
+        assertNotNull(writer);
+        String path = writer.write(source, outdir.getAbsolutePath());
+        File snapshot = new File(path);
+        snapshot.deleteOnExit();
+        outdir.deleteOnExit();
+        debug(getClass(), String.format("Snapshot : [path=%s][size=%d]", path,
+                                        snapshot.length()));
+
+        parser = ConfigProviderFactory.parser(path);
+        assertTrue(parser instanceof SnapshotConfigParser);
+        try (ConfigFileReader reader = new ConfigFileReader(snapshot)) {
+            parser.parse(name, reader, settings, version, password);
+        }
+        Configuration configuration = parser.getConfiguration();
+        assertNotNull(configuration);
+        assertEquals(ENodeState.Synced, configuration.getState().getState());
+        assertEquals(source.getId(), configuration.getId());
+        assertEquals(source.getVersion().toString(),
+                     configuration.getVersion().toString());
+        assertEquals(source.getCreatedBy().getTimestamp(),
+                     configuration.getCreatedBy().getTimestamp());
+        assertEquals(source.getEncryptionHash(), configuration.getEncryptionHash());
+
+        Map<String, String> expected = new TreeMap<>();
+        readNodes(source.getRootConfigNode(), expected);
+        Map<String, String> actual = new TreeMap<>();
+        readNodes(configuration.getRootConfigNode(), actual);
+        assertFalse(actual.isEmpty());
+        assertEquals(expected, actual);
+
+        return configuration;
+    }
+
+    private void readNodes(AbstractConfigNode node, Map<String, String> nodes) {
+        String value = node.getClass().getSimpleName();
+        if (node instanceof ConfigValueNode) {
+            value = String.format("%s:%s:%s", value,
+                                  ((ConfigValueNode) node).isEncrypted(),
+                                  ((ConfigValueNode) node).getValue());
+        } else if (node instanceof ConfigResourceNode) {
+            value = String.format("%s:%s", value,
+                                  ((ConfigResourceNode) node).getLocation());
+        }
+        nodes.put(node.getAbsolutePath(), value);
+        if (node instanceof ConfigPathNode) {
+            Map<String, AbstractConfigNode> children =
+                    ((ConfigPathNode) node).getChildren();
+            if (children != null) {
+                for (AbstractConfigNode child : children.values()) {
+                    readNodes(child, nodes);
+                }
+            }
+        } else if (node instanceof ConfigKeyValueNode) {
+            Map<String, ConfigValueNode> values =
+                    ((ConfigKeyValueNode) node).getKeyValues();
+            if (values != null) {
+                for (ConfigValueNode child : values.values()) {
+                    readNodes(child, nodes);
+                }
+            }
+        } else if (node instanceof ConfigListNode) {
+            List<?> values = ((ConfigListNode<?>) node).getValues();
+            if (values != null) {
+                for (int ii = 0; ii < values.size(); ii++) {
+                    Object child = values.get(ii);
+                    nodes.put(String.format("%s[%d]", node.getAbsolutePath(), ii),
+                              child.getClass().getSimpleName());
+                    readNodes((AbstractConfigNode) child, nodes);
+                }
+            }
+        } else if (node instanceof ConfigIncludeNode) {
+            ConfigPathNode included = ((ConfigIncludeNode) node).getNode();
+            if (included != null) {
+                readNodes(included, nodes);
+            }
+        }
+    }
+}
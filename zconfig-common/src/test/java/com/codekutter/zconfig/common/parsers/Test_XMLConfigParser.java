@@ -28,12 +28,17 @@ import com.google.common.base.Strings;
 import com.codekutter.zconfig.common.ConfigProviderFactory;
 import com.codekutter.zconfig.common.ConfigTestConstants;
 import com.codekutter.zconfig.common.model.Configuration;
+import com.codekutter.zconfig.common.model.ConfigurationSettings;
 import com.codekutter.zconfig.common.model.Version;
+import com.codekutter.zconfig.common.model.nodes.*;
 import com.codekutter.zconfig.common.readers.ConfigFileReader;
 import org.junit.jupiter.api.Test;
 
 import java.io.FileInputStream;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
 
 import static com.codekutter.zconfig.common.LogUtils.debug;
 import static com.codekutter.zconfig.common.LogUtils.error;
@@ -44,6 +49,8 @@ class Test_XMLConfigParser {
             "src/test/resources/XML/test-config.properties";
     private static final String INCLUDED_PROPS_FILE =
             "src/test/resources/XML/test-config-include.properties";
+    private static final String ENCRYPTED_PROPS_FILE =
+            "src/test/resources/XML/test-config-encrypted.properties";
 
     @Test
     void parseFromFile() {
@@ -113,4 +120,106 @@ class Test_XMLConfigParser {
             fail(t);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void parseStreaming() {
+        try {
+            assertStreamingParse(BASIC_PROPS_FILE, "test-config", null);
+            assertStreamingParse(ENCRYPTED_PROPS_FILE, "test-config",
+                                 "21947a50-6755-47");
+        } catch (Throwable t) {
+            error(getClass(), t);
+            fail(t);
+        }
+    }
+
+    private void assertStreamingParse(String propsFile, String name,
+                                      String password) throws Exception {
+        Properties properties = new Properties();
+        properties.load(new FileInputStream(propsFile));
+
+        String filename =
+                properties.getProperty(ConfigTestConstants.PROP_CONFIG_FILE);
+        assertFalse(Strings.isNullOrEmpty(filename));
+        Version version = Version.parse(properties.getProperty(
+                ConfigTestConstants.PROP_CONFIG_VERSION));
+
+        Configuration tree = readConfiguration(filename, name, version, password,
+                                               ConfigurationSettings.EParseMode.Tree);
+        Configuration stream =
+                readConfiguration(filename, name, version, password,
+                                  ConfigurationSettings.EParseMode.Streaming);
+        assertEquals(tree.getId(), stream.getId());
+        assertEquals(tree.getName(), stream.getName());
+        assertEquals(tree.getVersion().toString(), stream.getVersion().toString());
+        assertEquals(tree.getDescription(), stream.getDescription());
+
+        Map<String, String> treeNodes = new TreeMap<>();
+        readNodes(tree.getRootConfigNode(), treeNodes);
+        Map<String, String> streamNodes = new TreeMap<>();
+        readNodes(stream.getRootConfigNode(), streamNodes);
+        assertFalse(streamNodes.isEmpty());
+        assertEquals(treeNodes, streamNodes);
+    }
+
+    private Configuration readConfiguration(String filename, String name,
+                                            Version version, String password,
+                                            ConfigurationSettings.EParseMode mode)
+    throws Exception {
+        ConfigurationSettings settings = new ConfigurationSettings();
+        settings.setDownloadRemoteFiles(
+                ConfigurationSettings.EStartupOptions.OnDemand);
+        settings.setParseMode(mode);
+
+        XMLConfigParser parser =
+                (XMLConfigParser) ConfigProviderFactory.parser(
+                        ConfigProviderFactory.EConfigType.XML);
+        try (ConfigFileReader reader = new ConfigFileReader(filename)) {
+            parser.parse(name, reader, settings, version, password);
+        }
+        Configuration configuration = parser.getConfiguration();
+        assertNotNull(configuration);
+        return configuration;
+    }
+
+    private void readNodes(AbstractConfigNode node, Map<String, String> nodes) {
+        String value = String.format("%s:%s", node.getClass().getSimpleName(),
+                                     node.getState().getState());
+        if (node instanceof ConfigValueNode) {
+            value = String.format("%s:%s:%s", value,
+                                  ((ConfigValueNode) node).isEncrypted(),
+                                  ((ConfigValueNode) node).getValue());
+        } else if (node instanceof ConfigResourceNode) {
+            value = String.format("%s:%s", value,
+                                  ((ConfigResourceNode) node).getLocation());
+        }
+        nodes.put(node.getAbsolutePath(), value);
+        if (node instanceof ConfigPathNode) {
+            Map<String, AbstractConfigNode> children =
+                    ((ConfigPathNode) node).getChildren();
+            if (children != null) {
+                for (AbstractConfigNode child : children.values()) {
+                    readNodes(child, nodes);
+                }
+            }
+        } else if (node instanceof ConfigKeyValueNode) {
+            Map<String, ConfigValueNode> values =
+                    ((ConfigKeyValueNode) node).getKeyValues();
+            if (values != null) {
+                for (ConfigValueNode child : values.values()) {
+                    readNodes(child, nodes);
+                }
+            }
+        } else if (node instanceof ConfigListNode) {
+            List<?> values = ((ConfigListNode<?>) node).getValues();
+            if (values != null) {
+                for (int ii = 0; ii < values.size(); ii++) {
+                    AbstractConfigNode child = (AbstractConfigNode) values.get(ii);
+                    nodes.put(String.format("%s[%d]", node.getAbsolutePath(), ii),
+                              child.getClass().getSimpleName());
+                    readNodes(child, nodes);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,760 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ * Copyright (c) $year
+ * Date: 16/10/20 5:30 PM
+ * Subho Ghosh (subho dot ghosh at outlook.com)
+ *
+ */
+
+package com.codekutter.zconfig.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Annotation processor to generate configuration binders for types annotated
+ * with @ConfigPath.
+ * <p>
+ * A binder class [Type]$$ConfigBinder (binary name of the type, nested type
+ * names joined with '$') is generated in the package of the annotated type.
+ * Test runners skip '$' class names, so binders generated for types in the test
+ * sources are not picked up as tests.
+ * <p>
+ * The binder sets @ConfigValue/@ConfigParam/@ConfigAttribute fields of
+ * primitive, String and enum types directly through the public bean setters,
+ * for the whole type (bind()) and per field (readField()/setField()/bindField()).
+ * All other fields and the @MethodInvoke methods are delegated to the runtime
+ * annotation processor.
+ * <p>
+ * The processor references the annotations by name and does not depend on
+ * zconfig-common.
+ */
+@SupportedAnnotationTypes(ConfigBinderProcessor.CONFIG_PATH)
+public class ConfigBinderProcessor extends AbstractProcessor {
+    private static final String ANNOTATIONS_PACKAGE =
+            "com.codekutter.zconfig.common.model.annotations";
+    static final String CONFIG_PATH = ANNOTATIONS_PACKAGE + ".ConfigPath";
+    private static final String CONFIG_VALUE = ANNOTATIONS_PACKAGE + ".ConfigValue";
+    private static final String CONFIG_PARAM = ANNOTATIONS_PACKAGE + ".ConfigParam";
+    private static final String CONFIG_ATTRIBUTE =
+            ANNOTATIONS_PACKAGE + ".ConfigAttribute";
+    private static final String METHOD_INVOKE = ANNOTATIONS_PACKAGE + ".MethodInvoke";
+
+    private static final String BINDER_SUFFIX = "$$ConfigBinder";
+    private static final String BINDER_INTERFACE =
+            "com.codekutter.zconfig.common.IConfigBinder";
+    private static final String BINDERS = "com.codekutter.zconfig.common.ConfigBinders";
+    private static final String CONFIG_EXCEPTION =
+            "com.codekutter.zconfig.common.ConfigurationException";
+    private static final String CONFIG_NODE =
+            "com.codekutter.zconfig.common.model.nodes.AbstractConfigNode";
+    private static final String LOMBOK_DATA = "lombok.Data";
+    private static final String LOMBOK_SETTER = "lombok.Setter";
+
+    /**
+     * Binding of a field that is set directly through the bean setter.
+     */
+    private static final class DirectField {
+        /**
+         * Field name.
+         */
+        private String field;
+        /**
+         * ConfigBinders method to read the String value with.
+         */
+        private String method;
+        /**
+         * Annotated value name.
+         */
+        private String name;
+        /**
+         * Is the value required?
+         */
+        private boolean required;
+        /**
+         * Setter method name.
+         */
+        private String setter;
+        /**
+         * Conversion expression from the String value.
+         */
+        private String conversion;
+        /**
+         * Type the read (Object) value is cast to.
+         */
+        private String castType;
+    }
+
+    /**
+     * Get the latest supported source version.
+     *
+     * @return - Source Version.
+     */
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * Generate binders for the @ConfigPath types in this round.
+     *
+     * @param annotations - Annotation types.
+     * @param roundEnv    - Round environment.
+     * @return - Always false, annotations are not claimed.
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations,
+                           RoundEnvironment roundEnv) {
+        TypeElement configPath =
+                processingEnv.getElementUtils().getTypeElement(CONFIG_PATH);
+        if (configPath == null) {
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(configPath)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            if (!isAccessible(type)) {
+                processingEnv.getMessager().printMessage(
+                        Diagnostic.Kind.NOTE,
+                        "Type not accessible, binder not generated.", type);
+                continue;
+            }
+            try {
+                generate(type);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(
+                        Diagnostic.Kind.ERROR,
+                        String.format("Error generating binder. [error=%s]",
+                                      e.getLocalizedMessage()), type);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if the type can be referenced from a class in the same package.
+     *
+     * @param type - Annotated type.
+     * @return - Is accessible?
+     */
+    private boolean isAccessible(TypeElement type) {
+        Element element = type;
+        while (element instanceof TypeElement) {
+            TypeElement te = (TypeElement) element;
+            if (te.getNestingKind() != NestingKind.TOP_LEVEL &&
+                    te.getNestingKind() != NestingKind.MEMBER) {
+                return false;
+            }
+            if (te.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            element = te.getEnclosingElement();
+        }
+        return true;
+    }
+
+    /**
+     * Generate the binder source for the annotated type.
+     *
+     * @param type - Annotated type.
+     * @throws IOException
+     */
+    private void generate(TypeElement type) throws IOException {
+        String pkg = processingEnv.getElementUtils().getPackageOf(type)
+                                  .getQualifiedName().toString();
+        String name = getBinderName(type);
+        String typeName = processingEnv.getTypeUtils().erasure(type.asType())
+                                       .toString();
+
+        List<String> body = new ArrayList<>();
+        List<DirectField> direct = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        boolean hasValue = false;
+        for (TypeElement te : getHierarchy(type)) {
+            for (VariableElement field : ElementFilter.fieldsIn(
+                    te.getEnclosedElements())) {
+                AnnotationMirror annotation = getValueAnnotation(field);
+                if (annotation == null) {
+                    continue;
+                }
+                DirectField df = getDirectField(type, field, annotation);
+                if (df == null) {
+                    body.add(String.format(
+                            "            %s.bindField(%s.class, \"%s\", node, " +
+                                    "target, valuePaths);%n", BINDERS,
+                            typeName, field.getSimpleName()));
+                } else {
+                    body.add(String.format(
+                            "            value = %s;%n" +
+                                    "            if (value != null) {%n" +
+                                    "                target.%s(%s);%n" +
+                                    "            }%n",
+                            readValue(df, "valuePaths"), df.setter,
+                            df.conversion));
+                    hasValue = true;
+                    // Fields are resolved by name, shadowed fields are
+                    // delegated to the runtime.
+                    if (!names.contains(df.field)) {
+                        direct.add(df);
+                    }
+                }
+                names.add(field.getSimpleName().toString());
+            }
+        }
+        for (TypeElement te : getHierarchy(type)) {
+            for (ExecutableElement method : ElementFilter.methodsIn(
+                    te.getEnclosedElements())) {
+                if (method.getModifiers().contains(Modifier.PUBLIC) &&
+                        getAnnotation(method, METHOD_INVOKE) != null) {
+                    body.add(invokeMethod(typeName, method));
+                }
+            }
+        }
+
+        String qualifiedName = (pkg.isEmpty() ? name : pkg + "." + name);
+        try (PrintWriter writer = new PrintWriter(
+                processingEnv.getFiler().createSourceFile(qualifiedName, type)
+                             .openWriter())) {
+            if (!pkg.isEmpty()) {
+                writer.printf("package %s;%n%n", pkg);
+            }
+            writer.printf("/**%n * Generated configuration binder for %s.%n */%n",
+                          typeName);
+            String generated = getGeneratedAnnotation();
+            if (generated != null) {
+                writer.printf("@%s(\"%s\")%n", generated, getClass().getName());
+            }
+            writer.printf("public final class %s implements %s<%s> {%n", name,
+                          BINDER_INTERFACE, typeName);
+            writer.printf("    @Override%n");
+            writer.printf("    public void bind(%s node, %s target,%n", CONFIG_NODE,
+                          typeName);
+            writer.printf("                     java.util.List<String> valuePaths)%n");
+            writer.printf("    throws %s {%n", CONFIG_EXCEPTION);
+            if (!body.isEmpty()) {
+                writer.printf("        try {%n");
+                if (hasValue) {
+                    writer.printf("            String value = null;%n");
+                }
+                for (String line : body) {
+                    writer.print(line);
+                }
+                writer.printf("        } catch (%s e) {%n", CONFIG_EXCEPTION);
+                writer.printf("            throw e;%n");
+                writer.printf("        } catch (Exception e) {%n");
+                writer.printf("            throw new %s(e);%n", CONFIG_EXCEPTION);
+                writer.printf("        }%n");
+            }
+            writer.printf("    }%n");
+            writeReadField(writer, typeName, direct);
+            writeSetField(writer, typeName, direct);
+            writeBindField(writer, typeName, direct);
+            writer.printf("}%n");
+        }
+    }
+
+    /**
+     * Write the readField() method of the binder.
+     *
+     * @param writer   - Source writer.
+     * @param typeName - Annotated type name.
+     * @param direct   - Directly bound fields.
+     */
+    private void writeReadField(PrintWriter writer, String typeName,
+                                List<DirectField> direct) {
+        writer.printf("%n    @Override%n");
+        writer.printf("    public Object readField(String field, %s node,%n",
+                      CONFIG_NODE);
+        writer.printf("                            java.util.List<String> valuePaths)%n");
+        writer.printf("    throws %s {%n", CONFIG_EXCEPTION);
+        String delegate = String.format(
+                "%s.readBinding(%s.class, field, node, valuePaths)", BINDERS,
+                typeName);
+        if (direct.isEmpty()) {
+            writer.printf("        return %s;%n", delegate);
+        } else {
+            writeTry(writer);
+            writer.printf("            String value = null;%n");
+            writer.printf("            switch (field) {%n");
+            for (DirectField df : direct) {
+                writer.printf("                case \"%s\":%n", df.field);
+                writer.printf("                    value = %s;%n",
+                              readValue(df, "valuePaths"));
+                writer.printf("                    return (value != null ? " +
+                                      "(Object) %s : %s.UNSET);%n",
+                              df.conversion, BINDER_INTERFACE);
+            }
+            writer.printf("                default:%n");
+            writer.printf("                    return %s;%n", delegate);
+            writer.printf("            }%n");
+            writeCatch(writer);
+        }
+        writer.printf("    }%n");
+    }
+
+    /**
+     * Write the setField() method of the binder.
+     *
+     * @param writer   - Source writer.
+     * @param typeName - Annotated type name.
+     * @param direct   - Directly bound fields.
+     */
+    private void writeSetField(PrintWriter writer, String typeName,
+                               List<DirectField> direct) {
+        writer.printf("%n    @Override%n");
+        writer.printf("    public void setField(String field, %s target, " +
+                              "Object value)%n", typeName);
+        writer.printf("    throws %s {%n", CONFIG_EXCEPTION);
+        String delegate = String.format(
+                "%s.setBinding(%s.class, field, target, value);", BINDERS,
+                typeName);
+        if (direct.isEmpty()) {
+            writer.printf("        %s%n", delegate);
+        } else {
+            writeTry(writer);
+            writer.printf("            switch (field) {%n");
+            for (DirectField df : direct) {
+                writer.printf("                case \"%s\":%n", df.field);
+                writer.printf("                    target.%s((%s) value);%n",
+                              df.setter, df.castType);
+                writer.printf("                    break;%n");
+            }
+            writer.printf("                default:%n");
+            writer.printf("                    %s%n", delegate);
+            writer.printf("            }%n");
+            writeCatch(writer);
+        }
+        writer.printf("    }%n");
+    }
+
+    /**
+     * Write the bindField() method of the binder.
+     *
+     * @param writer   - Source writer.
+     * @param typeName - Annotated type name.
+     * @param direct   - Directly bound fields.
+     */
+    private void writeBindField(PrintWriter writer, String typeName,
+                                List<DirectField> direct) {
+        writer.printf("%n    @Override%n");
+        writer.printf("    public boolean bindField(String field, %s node,%n",
+                      CONFIG_NODE);
+        writer.printf("                             %s target,%n", typeName);
+        writer.printf("                             java.util.List<String> valuePaths)%n");
+        writer.printf("    throws %s {%n", CONFIG_EXCEPTION);
+        String delegate = String.format(
+                "%s.bindField(%s.class, field, node, target, valuePaths)",
+                BINDERS, typeName);
+        if (direct.isEmpty()) {
+            writer.printf("        return %s;%n", delegate);
+        } else {
+            writeTry(writer);
+            writer.printf("            String value = null;%n");
+            writer.printf("            switch (field) {%n");
+            for (DirectField df : direct) {
+                writer.printf("                case \"%s\":%n", df.field);
+                writer.printf("                    value = %s;%n",
+                              readValue(df, "valuePaths"));
+                writer.printf("                    if (value == null) {%n");
+                writer.printf("                        return false;%n");
+                writer.printf("                    }%n");
+                writer.printf("                    target.%s(%s);%n", df.setter,
+                              df.conversion);
+                writer.printf("                    return true;%n");
+            }
+            writer.printf("                default:%n");
+            writer.printf("                    return %s;%n", delegate);
+            writer.printf("            }%n");
+            writeCatch(writer);
+        }
+        writer.printf("    }%n");
+    }
+
+    /**
+     * Write the start of the try block of a binder method.
+     *
+     * @param writer - Source writer.
+     */
+    private void writeTry(PrintWriter writer) {
+        writer.printf("        try {%n");
+    }
+
+    /**
+     * Write the exception handling (wrapped as ConfigurationException) of a
+     * binder method.
+     *
+     * @param writer - Source writer.
+     */
+    private void writeCatch(PrintWriter writer) {
+        writer.printf("        } catch (%s e) {%n", CONFIG_EXCEPTION);
+        writer.printf("            throw e;%n");
+        writer.printf("        } catch (Exception e) {%n");
+        writer.printf("            throw new %s(e);%n", CONFIG_EXCEPTION);
+        writer.printf("        }%n");
+    }
+
+    /**
+     * Get the expression reading the String value of a direct field.
+     *
+     * @param df         - Direct field.
+     * @param valuePaths - Value paths variable name.
+     * @return - Read expression.
+     */
+    private String readValue(DirectField df, String valuePaths) {
+        return String.format("%s.%s(node, \"%s\", %s, %s)", BINDERS, df.method,
+                             escape(df.name), df.required, valuePaths);
+    }
+
+    /**
+     * Get the value annotation (@ConfigParam/@ConfigAttribute/@ConfigValue)
+     * of a field.
+     *
+     * @param field - Field.
+     * @return - Annotation or NULL if the field is not annotated.
+     */
+    private AnnotationMirror getValueAnnotation(VariableElement field) {
+        AnnotationMirror annotation = getAnnotation(field, CONFIG_PARAM);
+        if (annotation == null) {
+            annotation = getAnnotation(field, CONFIG_ATTRIBUTE);
+        }
+        if (annotation == null) {
+            annotation = getAnnotation(field, CONFIG_VALUE);
+        }
+        return annotation;
+    }
+
+    /**
+     * Get the direct binding of a field.
+     *
+     * @param type       - Annotated type.
+     * @param field      - Field to bind.
+     * @param annotation - Value annotation of the field.
+     * @return - Direct binding or NULL if the field is bound by the runtime.
+     */
+    private DirectField getDirectField(TypeElement type, VariableElement field,
+                                       AnnotationMirror annotation) {
+        String conversion = getConversion(field.asType());
+        String setter = (conversion != null ? findSetter(type, field) : null);
+        if (setter == null) {
+            return null;
+        }
+        String annotationType = ((TypeElement) annotation.getAnnotationType()
+                .asElement()).getQualifiedName().toString();
+        DirectField df = new DirectField();
+        df.field = field.getSimpleName().toString();
+        switch (annotationType) {
+            case CONFIG_PARAM:
+                df.method = "parameter";
+                break;
+            case CONFIG_ATTRIBUTE:
+                df.method = "attribute";
+                break;
+            default:
+                df.method = "value";
+        }
+        df.name = (String) getValue(annotation, "name");
+        if (df.name == null || df.name.isEmpty()) {
+            df.name = df.field;
+        }
+        Boolean required = (Boolean) getValue(annotation, "required");
+        df.required = (required != null && required);
+        df.setter = setter;
+        df.conversion = conversion;
+        TypeMirror ft = field.asType();
+        if (ft.getKind().isPrimitive()) {
+            df.castType = processingEnv.getTypeUtils()
+                    .boxedClass((PrimitiveType) ft).getQualifiedName().toString();
+        } else {
+            df.castType = processingEnv.getTypeUtils().erasure(ft).toString();
+        }
+        return df;
+    }
+
+    /**
+     * Generate the invoke code for a @MethodInvoke method.
+     *
+     * @param typeName - Annotated type name.
+     * @param method   - Method to invoke.
+     * @return - Invoke code.
+     */
+    private String invokeMethod(String typeName, ExecutableElement method) {
+        StringBuilder types = new StringBuilder();
+        for (VariableElement param : method.getParameters()) {
+            if (types.length() > 0) {
+                types.append(", ");
+            }
+            types.append(processingEnv.getTypeUtils().erasure(param.asType()))
+                 .append(".class");
+        }
+        return String.format("            %s.invoke(%s.class, \"%s\", " +
+                                     "new Class<?>[]{%s}, node, target);%n",
+                             BINDERS, typeName, method.getSimpleName(), types);
+    }
+
+    /**
+     * Get the conversion expression from the String value to the field type.
+     * Only primitive, String and enum types are converted.
+     *
+     * @param type - Field type.
+     * @return - Conversion expression or NULL if not supported.
+     */
+    private String getConversion(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "Boolean.valueOf(value)";
+            case SHORT:
+                return "Short.parseShort(value)";
+            case INT:
+                return "Integer.parseInt(value)";
+            case LONG:
+                return "Long.parseLong(value)";
+            case FLOAT:
+                return "Float.parseFloat(value)";
+            case DOUBLE:
+                return "Double.parseDouble(value)";
+            case CHAR:
+                return "value.charAt(0)";
+            case DECLARED:
+                TypeElement te =
+                        (TypeElement) ((DeclaredType) type).asElement();
+                if (te.getKind() == ElementKind.ENUM) {
+                    return String.format("%s.valueOf(value)",
+                                         te.getQualifiedName());
+                }
+                switch (te.getQualifiedName().toString()) {
+                    case "java.lang.String":
+                        return "value";
+                    case "java.lang.Boolean":
+                        return "Boolean.valueOf(value)";
+                    case "java.lang.Short":
+                        return "Short.valueOf(value)";
+                    case "java.lang.Integer":
+                        return "Integer.valueOf(value)";
+                    case "java.lang.Long":
+                        return "Long.valueOf(value)";
+                    case "java.lang.Float":
+                        return "Float.valueOf(value)";
+                    case "java.lang.Double":
+                        return "Double.valueOf(value)";
+                    case "java.lang.Character":
+                        return "Character.valueOf(value.charAt(0))";
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Find the public bean setter for the field. Uses the same resolution
+     * as the runtime (set[Name] first, then [name]). Setters generated by
+     * Lombok (@Data/@Setter) are not visible to this processor and are
+     * resolved from the annotations.
+     *
+     * @param type  - Annotated type.
+     * @param field - Field to find setter for.
+     * @return - Setter name or NULL if not found.
+     */
+    private String findSetter(TypeElement type, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        String[] names = {"set" + Character.toUpperCase(name.charAt(0)) +
+                name.substring(1), name};
+        for (String mname : names) {
+            for (TypeElement te : getHierarchy(type)) {
+                for (ExecutableElement method : ElementFilter.methodsIn(
+                        te.getEnclosedElements())) {
+                    if (method.getSimpleName().contentEquals(mname) &&
+                            method.getModifiers().contains(Modifier.PUBLIC) &&
+                            !method.getModifiers().contains(Modifier.STATIC) &&
+                            method.getParameters().size() == 1 &&
+                            processingEnv.getTypeUtils().isSameType(
+                                    method.getParameters().get(0).asType(),
+                                    field.asType())) {
+                        return mname;
+                    }
+                }
+            }
+        }
+        if (hasLombokSetter(field)) {
+            return names[0];
+        }
+        return null;
+    }
+
+    /**
+     * Check if a public set[Name] setter is generated by Lombok for the field.
+     *
+     * @param field - Field to check.
+     * @return - Has Lombok setter?
+     */
+    private boolean hasLombokSetter(VariableElement field) {
+        Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.FINAL) ||
+                modifiers.contains(Modifier.STATIC)) {
+            return false;
+        }
+        String name = field.getSimpleName().toString();
+        if (field.asType().getKind() == TypeKind.BOOLEAN &&
+                name.length() > 2 && name.startsWith("is") &&
+                Character.isUpperCase(name.charAt(2))) {
+            // Lombok drops the "is" prefix for boolean setters.
+            return false;
+        }
+        AnnotationMirror setter = getAnnotation(field, LOMBOK_SETTER);
+        if (setter != null) {
+            return isPublicAccess(setter);
+        }
+        Element type = field.getEnclosingElement();
+        setter = getAnnotation(type, LOMBOK_SETTER);
+        if (setter != null) {
+            return isPublicAccess(setter);
+        }
+        return getAnnotation(type, LOMBOK_DATA) != null;
+    }
+
+    /**
+     * Check if the Lombok @Setter access level is PUBLIC.
+     *
+     * @param setter - Setter annotation.
+     * @return - Is public?
+     */
+    private boolean isPublicAccess(AnnotationMirror setter) {
+        Object access = getValue(setter, "value");
+        return (access == null || access.toString().equals("PUBLIC"));
+    }
+
+    /**
+     * Get the type and its super-classes (excluding Object), sub-class first.
+     *
+     * @param type - Type.
+     * @return - Type hierarchy.
+     */
+    private List<TypeElement> getHierarchy(TypeElement type) {
+        List<TypeElement> types = new ArrayList<>();
+        TypeElement te = type;
+        while (te != null &&
+                !te.getQualifiedName().contentEquals(Object.class.getName())) {
+            types.add(te);
+            TypeMirror st = te.getSuperclass();
+            te = (st.getKind() == TypeKind.DECLARED ?
+                    (TypeElement) ((DeclaredType) st).asElement() : null);
+        }
+        return types;
+    }
+
+    /**
+     * Get the annotation of the specified type on the element.
+     *
+     * @param element    - Annotated element.
+     * @param annotation - Annotation type name.
+     * @return - Annotation mirror or NULL.
+     */
+    private AnnotationMirror getAnnotation(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement te =
+                    (TypeElement) mirror.getAnnotationType().asElement();
+            if (te.getQualifiedName().contentEquals(annotation)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the annotation value (including defaults).
+     *
+     * @param annotation - Annotation mirror.
+     * @param name       - Value name.
+     * @return - Value or NULL.
+     */
+    private Object getValue(AnnotationMirror annotation, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e :
+                processingEnv.getElementUtils()
+                             .getElementValuesWithDefaults(annotation)
+                             .entrySet()) {
+            if (e.getKey().getSimpleName().contentEquals(name)) {
+                return e.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the binder class name for the type.
+     *
+     * @param type - Annotated type.
+     * @return - Binder class name.
+     */
+    private String getBinderName(TypeElement type) {
+        StringBuilder buff = new StringBuilder();
+        Element element = type;
+        while (element instanceof TypeElement) {
+            if (buff.length() > 0) {
+                buff.insert(0, '$');
+            }
+            buff.insert(0, element.getSimpleName());
+            element = element.getEnclosingElement();
+        }
+        return buff.append(BINDER_SUFFIX).toString();
+    }
+
+    /**
+     * Get the available @Generated annotation type.
+     *
+     * @return - Annotation type name or NULL.
+     */
+    private String getGeneratedAnnotation() {
+        String[] names = {"javax.annotation.processing.Generated",
+                "javax.annotation.Generated"};
+        for (String name : names) {
+            if (processingEnv.getElementUtils().getTypeElement(name) != null) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Escape the value for use in a String literal.
+     *
+     * @param value - Value.
+     * @return - Escaped value.
+     */
+    private String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}